@@ -0,0 +1,229 @@
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Objects;
+
+/** CompactTreeBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Compares the memory held by a parsed STNode tree with its CompactTree copy.
+ * A large generated program is parsed, and the heap in use after a full collection
+ * is measured with the STNode tree live, with only the compact tree live and with
+ * neither. The time a full collection takes with each tree live shows how much work
+ * the tree gives the collector. The two trees are checked node by node and the code
+ * generator must give the same module from both. Exits with 1 if they differ, or if
+ * the compact tree does not cut the heap and the full collection time by -target times.
+ *
+ * Usage: java CompactTreeBench [-statements n] [-collections n] [-target x]
+ * Defaults to 200000 statements, 5 timed collections and a target of 3.
+ *
+ */
+public class CompactTreeBench
+{
+    private int statements = 200000;
+    private int collections = 5;
+    private double target = 3;
+
+    /** parse()
+     *
+     * Parses a generated program, keeping nothing but the tree
+     *
+     * @return - STNode, root of the tree
+     */
+    private STNode parse()
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(StatementStress.flat(statements))).scanAll(1);
+
+        return new CD18Parser(tokens).parseInput();
+    }
+
+    /** used()
+     *
+     * @return - long, bytes of heap in use after full collections
+     */
+    private static long used()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        for(int i = 0; i < 3; i++)
+            System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** collectionTime()
+     *
+     * @return - double, mean milliseconds taken by a full collection
+     */
+    private double collectionTime()
+    {
+        long total = 0;
+
+        for(int i = 0; i < collections; i++)
+        {
+            long start = System.nanoTime();
+            System.gc();
+            total += System.nanoTime() - start;
+        }
+
+        return total / 1e6 / collections;
+    }
+
+    /** same()
+     *
+     * Walks two trees side by side without recursion
+     *
+     * @param a - STNode, root of one tree
+     * @param b - STNode, root of the other
+     * @return - String, where the trees first differ, or null if they are the same
+     */
+    static String same(STNode a, STNode b)
+    {
+        ArrayList<STNode> pending = new ArrayList<>();
+        pending.add(a);
+        pending.add(b);
+
+        while(!pending.isEmpty())
+        {
+            STNode y = pending.remove(pending.size() - 1);
+            STNode x = pending.remove(pending.size() - 1);
+
+            if(x == null || y == null)
+            {
+                if(x != y)
+                    return "a child is missing under " + (x == null ? y : x).getNodeID();
+                continue;
+            }
+
+            if(x.getNodeID() != y.getNodeID())
+                return x.getNodeID() + " against " + y.getNodeID();
+
+            TableEntry s = x.getSymbol();
+            TableEntry t = y.getSymbol();
+            if((s == null) != (t == null))
+                return "a symbol is missing on " + x.getNodeID();
+            if(s != null && !(Objects.equals(s.getName(), t.getName()) && Objects.equals(s.getType(), t.getType())
+                && Objects.equals(s.getValue(), t.getValue()) && s.getLine() == t.getLine() && s.getCol() == t.getCol()
+                && s.getNameID() == t.getNameID() && s.getDataType() == t.getDataType() && s.getRegister() == t.getRegister()
+                && s.getOffset() == t.getOffset()))
+                return "the symbols differ at " + s.getLine() + ":" + s.getCol();
+
+            pending.add(x.getLeft());
+            pending.add(y.getLeft());
+            pending.add(x.getMiddle());
+            pending.add(y.getMiddle());
+            pending.add(x.getRight());
+            pending.add(y.getRight());
+        }
+
+        return null;
+    }
+
+    /** module()
+     *
+     * @param root - STNode, root of a tree
+     * @return - String, the code generated from the tree
+     */
+    private static String module(STNode root)
+    {
+        StringWriter out = new StringWriter();
+        SM18CodeGen generator = new SM18CodeGen();
+
+        generator.generate(root);
+        generator.modOut(new PrintWriter(out));
+
+        return out.toString();
+    }
+
+    /** run()
+     *
+     * @return - boolean, true if the trees match and the compact tree meets the target
+     */
+    private boolean run()
+    {
+        STNode root = parse();
+        long treeBytes = used();
+        double treeCollection = collectionTime();
+
+        CompactTree compact = CompactTree.from(root);
+        int nodes = compact.size();
+
+        String difference = same(root, compact.getRoot());
+        if(difference == null && !module(root).equals(module(compact.getRoot())))
+            difference = "the generated modules differ";
+
+        root = null;
+        long compactBytes = used();
+        double compactCollection = collectionTime();
+
+        compact = null;
+        long noBytes = used();
+
+        treeBytes -= noBytes;
+        compactBytes -= noBytes;
+
+        System.out.printf("%d statements, %d nodes%n%n", statements, nodes);
+        System.out.printf("%-12s %14s %12s %18s%n", "Tree", "Heap bytes", "Bytes/node", "Full collection ms");
+        System.out.printf("%-12s %14d %12.1f %18.1f%n", "STNode", treeBytes, (double)treeBytes / nodes, treeCollection);
+        System.out.printf("%-12s %14d %12.1f %18.1f%n", "CompactTree", compactBytes, (double)compactBytes / nodes, compactCollection);
+        System.out.printf("%nHeap %.1fx smaller, full collection %.1fx faster%n", (double)treeBytes / compactBytes,
+            treeCollection / compactCollection);
+
+        boolean passed = true;
+
+        if(difference != null)
+        {
+            System.out.println("Trees differ: " + difference);
+            passed = false;
+        }
+        if(treeBytes < target * compactBytes || treeCollection < target * compactCollection)
+        {
+            System.out.printf("Less than the target of %.1fx%n", target);
+            passed = false;
+        }
+
+        return passed;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        CompactTreeBench bench = new CompactTreeBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-statements":
+                    bench.statements = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-collections":
+                    bench.collections = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-target":
+                    bench.target = Double.parseDouble(args[++i]);
+                    break;
+
+                default:
+                    System.err.println("Usage: java CompactTreeBench [-statements n] [-collections n] [-target x]");
+                    System.exit(2);
+            }
+        }
+
+        if(!bench.run())
+            System.exit(1);
+    }
+}
@@ -0,0 +1,148 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/** CompilerRegressions.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Regression checks for bugs fixed in the compiler. Each is a small program compiled from
+ * source, with the lines the compiler's report must contain. A program must compile
+ * without throwing and its report must contain each of its lines. Exits with 1 if a
+ * program throws or its report misses a line.
+ *
+ * Usage: java CompilerRegressions
+ *
+ */
+public class CompilerRegressions
+{
+    // The name of each check, its program, then the lines the report must contain
+    private static final String[][] CHECKS =
+    {
+        {
+            "Assignment from an undeclared identifier",
+            "CD18 t\n" +
+            "main\n" +
+            "    a : integer\n" +
+            "begin\n" +
+            "    b = 1;\n" +
+            "    a = b;\n" +
+            "end CD18 t\n",
+            "Semantic Error: (5, 5): Undeclared identifier.",
+            "Semantic Error: (6, 9): Undeclared identifier."
+        },
+        {
+            "Assignment from an operand recovery gave up on",
+            "CD18 t\n" +
+            "main\n" +
+            "    a : integer\n" +
+            "begin\n" +
+            "    a = 1 + ;\n" +
+            "end CD18 t\n",
+            "Syntax Error: (5, 13): Expected operand or expression."
+        },
+        {
+            // The ninth string is at address 90, the opcode patchAddress looks for
+            "String constant with an address byte of an opcode",
+            "CD18 t\n" +
+            "main\n" +
+            "    a : integer\n" +
+            "begin\n" +
+            "    printline \"s1\"; printline \"s2\"; printline \"s3\";\n" +
+            "    printline \"s4\"; printline \"s5\"; printline \"s6\";\n" +
+            "    printline \"s7\"; printline \"s8\"; printline \"s9\";\n" +
+            "end CD18 t\n",
+            "No errors found."
+        },
+        {
+            // patchAddress throws on a program without a string constant, so one is printed
+            "Assignments to members of an array",
+            "CD18 t\n" +
+            "types\n" +
+            "    person is\n" +
+            "        age : integer,\n" +
+            "        height : real\n" +
+            "    end\n" +
+            "    people is array [10] of person\n" +
+            "arrays\n" +
+            "    staff : people\n" +
+            "main\n" +
+            "    a : integer\n" +
+            "begin\n" +
+            "    staff[0].age = 22;\n" +
+            "    staff[0].height = 194.6;\n" +
+            "    staff[1].age = 23;\n" +
+            "    printline \"done\";\n" +
+            "end CD18 t\n",
+            "No errors found."
+        }
+    };
+
+    /** compile()
+     *
+     * @param program - String, the program
+     * @return - String, the compiler report, or the exception thrown
+     */
+    private static String compile(String program)
+    {
+        StringWriter code = new StringWriter();
+        StringWriter screen = new StringWriter();
+        StringWriter listing = new StringWriter();
+
+        try
+        {
+            new CD().compile(CD18Scanner.fromSource(program), new PrintWriter(code), new PrintWriter(screen), new PrintWriter(listing));
+        }
+        catch(RuntimeException e)
+        {
+            return "threw " + e;
+        }
+
+        return screen.toString();
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        int failed = 0;
+
+        for(String[] check : CHECKS)
+        {
+            String report = compile(check[1]);
+            boolean passed = !report.startsWith("threw ");
+
+            if(!passed)
+                console.printf("%s: %s%n", check[0], report);
+
+            for(int i = 2; i < check.length; i++)
+            {
+                if(passed && !report.contains(check[i]))
+                {
+                    console.printf("%s: no \"%s\" in the report%n", check[0], check[i]);
+                    passed = false;
+                }
+            }
+
+            if(!passed)
+                failed++;
+        }
+
+        System.setOut(console);
+        System.out.printf("%d of %d regression checks passed%n", CHECKS.length - failed, CHECKS.length);
+
+        if(failed > 0)
+            System.exit(1);
+    }
+}
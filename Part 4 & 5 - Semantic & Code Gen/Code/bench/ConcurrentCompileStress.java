@@ -0,0 +1,238 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** ConcurrentCompileStress.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Stress test for compiling many programs at the same time in one process.
+ * The sample programs are topped up with generated ones, some with errors added,
+ * until there are enough programs. A quarter come from ProgramGenerator, half of
+ * those with syntax and semantic errors added. Each is compiled in order with CD.compile() and
+ * then all of them are compiled again at once on a pool of threads. The module,
+ * report and listing of every program, or the exception its compile threw, must be
+ * the same both ways. Exits with 1 on the first program where they differ.
+ *
+ * Usage: java ConcurrentCompileStress [-programs n] [-threads n] [sample files or directories]
+ * Defaults to 1000 programs, the samples in "../../Part 2 - Programs" and eight threads.
+ *
+ */
+public class ConcurrentCompileStress
+{
+    private static final long STACK_SIZE = 1L << 26;
+
+    private int programs = 1000;
+    private int threads = 8;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Builds one of the generated programs, every third has an undeclared variable added
+     * and every other one from ProgramGenerator has errors added as it is built
+     *
+     * @param index - int, number of the program
+     * @return - String, the program
+     */
+    private static String generate(int index)
+    {
+        String text;
+
+        switch(index % 4)
+        {
+            case 0:
+                text = ExpressionBench.generate(40 + index % 50);
+                break;
+
+            case 1:
+                text = StatementStress.flat(20 + index % 100);
+                break;
+
+            case 2:
+                text = ParallelFuncsBench.generate(1 + index % 6);
+                break;
+
+            default:
+                ProgramGenerator generator = new ProgramGenerator();
+                if(index % 8 == 7)
+                    generator.setErrors(0, 0.01, 0.01);
+                text = generator.generate(index, 100 + index % 400);
+        }
+
+        if(index % 9 < 3)
+            text = text.replaceFirst("begin\n", "begin\n\tundeclared" + index + " = 1;\n");
+
+        return text;
+    }
+
+    /** compile()
+     *
+     * @param text - String, the program
+     * @return - String, the module, report and listing, or the exception thrown
+     */
+    private static String compile(String text)
+    {
+        StringWriter code = new StringWriter();
+        StringWriter screen = new StringWriter();
+        StringWriter listing = new StringWriter();
+
+        try
+        {
+            new CD().compile(CD18Scanner.fromSource(text), new PrintWriter(code), new PrintWriter(screen), new PrintWriter(listing));
+        }
+        catch(RuntimeException e)
+        {
+            return "threw " + e;
+        }
+
+        return code + "\n----\n" + screen + "\n----\n" + listing;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if every program compiled the same both ways
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        ArrayList<String> texts = new ArrayList<>();
+
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        for(int i = 0; i < samples.size() && texts.size() < programs; i++)
+            texts.add(new String(Files.readAllBytes(samples.get(i)), Charset.defaultCharset()));
+        int sampled = texts.size();
+
+        while(texts.size() < programs)
+            texts.add(generate(texts.size()));
+
+        long start = System.nanoTime();
+        ArrayList<String> ordered = new ArrayList<>();
+        for(String text : texts)
+            ordered.add(compile(text));
+        double orderedMs = (System.nanoTime() - start) / 1e6;
+
+        // The parser recurses per expression, so the workers get the stack the main thread would
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> new Thread(null, task, "compile", STACK_SIZE));
+        ArrayList<Future<String>> results = new ArrayList<>();
+
+        start = System.nanoTime();
+        try
+        {
+            for(String text : texts)
+                results.add(pool.submit(() -> compile(text)));
+
+            for(int i = 0; i < texts.size(); i++)
+            {
+                String result;
+                try
+                {
+                    result = results.get(i).get();
+                }
+                catch(ExecutionException e)
+                {
+                    result = "threw " + e.getCause();
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+
+                if(!result.equals(ordered.get(i)))
+                {
+                    console.printf("Program %d (%s) compiled differently on the pool%n", i,
+                        i < sampled ? samples.get(i).getFileName() : "generated");
+                    return false;
+                }
+            }
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+        double concurrentMs = (System.nanoTime() - start) / 1e6;
+
+        console.printf("%d programs (%d samples, %d generated) compiled the same in order and on %d threads%n",
+            texts.size(), sampled, texts.size() - sampled, threads);
+        console.printf("%-24s %10.1f%n", "in order ms", orderedMs);
+        console.printf("%-24s %10.1f%n", "concurrent ms", concurrentMs);
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ConcurrentCompileStress stress = new ConcurrentCompileStress();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-programs":
+                    stress.programs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-threads":
+                    stress.threads = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    ScannerBench.addSamples(stress.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] same = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                same[0] = stress.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "ConcurrentCompileStress", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!same[0])
+            System.exit(1);
+    }
+}
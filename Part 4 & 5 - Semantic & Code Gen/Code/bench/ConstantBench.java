@@ -0,0 +1,185 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/** ConstantBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Times semantic analysis of a program made almost entirely of constant folding. Each
+ * integer and real constant is defined by an expression over the constants before it, and
+ * every statement of main assigns an expression over constants that folds to a literal,
+ * some of them promoted from integer to real, or tests a relation between constants that
+ * folds to true or false. The checks run while the program is parsed, so the parse of the
+ * scanned tokens is timed, and the program must parse without errors.
+ *
+ * Usage: java ConstantBench [-constants n] [-statements n] [-warmup n] [-iterations n]
+ * Defaults to 20000 constants, 100000 statements, 5 warm up parses and 10 timed parses.
+ *
+ */
+public class ConstantBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+
+    private int constants = 20000;
+    private int statements = 100000;
+    private int warmup = 5;
+    private int iterations = 10;
+
+    /** generate()
+     *
+     * @return - String, the program
+     */
+    private String generate()
+    {
+        StringBuilder text = new StringBuilder(constants * 40 + statements * 50);
+        int count = Math.max(4, constants / 2);
+
+        // Divisors are kept from zero, a remainder by 7 plus 8 is never zero
+        text.append("CD18 folding\n\nconstants\n\tc0 = 3, c1 = 7, r0 = 1.5, r1 = 2.25");
+        for(int i = 2; i < count; i++)
+        {
+            text.append(",\n\tc").append(i).append(" = c").append(i - 1).append(" * 3 + c").append(i - 2)
+                .append(" / (c").append(i / 2).append(" % 7 + 8) - ").append(i % 10);
+            text.append(",\n\tr").append(i).append(" = r").append(i - 1).append(" * 0.5 + r").append(i - 2)
+                .append(" / 4.0 + ").append(i % 5).append(".25");
+        }
+
+        text.append("\n\nmain\n\tx : integer, y : real, b : boolean\nbegin\n");
+        for(int i = 0; i < statements; i++)
+        {
+            int a = (i * 7) % count;
+            int b = (i * 13 + 5) % count;
+            switch(i % 4)
+            {
+                case 0:
+                    text.append("\tx = c").append(a).append(" + c").append(b).append(" * 2 - (c").append(a)
+                        .append(" % 7 + 8);\n");
+                    break;
+
+                case 1:
+                    text.append("\ty = r").append(a).append(" * r").append(b).append(" - ").append(i % 100).append(".5;\n");
+                    break;
+
+                case 2:
+                    text.append("\ty = c").append(a).append(" - c").append(b).append(" + ").append(i % 100).append(";\n");
+                    break;
+
+                default:
+                    text.append("\tb = c").append(a).append(" < c").append(b).append(";\n");
+            }
+        }
+        text.append("end CD18 folding\n");
+
+        return text.toString();
+    }
+
+    /** parse()
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @return - long, nanoseconds taken, or -1 if the program has errors
+     */
+    private static long parse(TokenBuffer tokens)
+    {
+        long start = System.nanoTime();
+        CD18Parser parser = new CD18Parser(tokens);
+        parser.parseInput();
+        long nanos = System.nanoTime() - start;
+
+        return parser.getContext().hasErrors() ? -1 : nanos;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if the program parsed without errors
+     */
+    private boolean run(PrintStream console)
+    {
+        String text = generate();
+        CharBuffer source = CharBuffer.wrap(text);
+
+        for(int i = 0; i < warmup; i++)
+            parse(new CD18Scanner(source.duplicate()).scanAll(1));
+
+        long[] times = new long[iterations];
+        for(int i = 0; i < iterations; i++)
+        {
+            TokenBuffer tokens = new CD18Scanner(source.duplicate()).scanAll(1);
+            times[i] = parse(tokens);
+            if(times[i] < 0)
+            {
+                console.println("The program has errors");
+                return false;
+            }
+        }
+        Arrays.sort(times);
+
+        console.printf("Program: %d constants, %d statements, %.1f MB%n", Math.max(4, constants / 2) * 2, statements, text.length() / 1e6);
+        console.printf("Semantic analysis and parse: best %.1f ms, median %.1f ms%n", times[0] / 1e6, times[iterations / 2] / 1e6);
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        ConstantBench bench = new ConstantBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-constants":
+                    bench.constants = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-statements":
+                    bench.statements = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    System.err.println("Usage: java ConstantBench [-constants n] [-statements n] [-warmup n] [-iterations n]");
+                    System.exit(2);
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] passed = new boolean[1];
+
+        // The parser recurses per expression
+        Thread worker = new Thread(null, () -> passed[0] = bench.run(console), "ConstantBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(!passed[0])
+            System.exit(1);
+    }
+}
@@ -0,0 +1,473 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+
+/** ExpressionBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Checks the precedence climbing expression parser of STNode against the recursive
+ * expression rules it replaced, kept in RecursiveExpressions, then times both on
+ * expression heavy code.
+ *
+ * Every input is parsed as a program for its symbol tables, then a boolean expression
+ * is read from every token with both parsers, in main's scope. The trees, errors, the
+ * token each stops at and any exception thrown must match. The check fails, with a non
+ * zero exit status, on the first input where they differ. Reading from every token
+ * covers the right operands of relations, call arguments and array indexes, which the
+ * nodes holding them read with the parser's own rules.
+ *
+ * The timed expressions are those of a scaled up version of the polygon area
+ * computation in Part2e, written over simple variables since the compiler does not yet
+ * fold array members, with arithmetic, relational and boolean expressions. They are
+ * timed as a list parsed with processBool(), over the variables of the computation,
+ * and again as a list of literal expressions without symbol lookups.
+ *
+ * Usage: java ExpressionBench [-lines n] [-warmup n] [-iterations n] [-time ms] [-check]
+ *                             [sample files or directories]
+ * Defaults to checking "../../Part 2 - Programs" and timing 100000 expressions of each
+ * kind. -check only runs the comparison.
+ *
+ */
+public class ExpressionBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+
+    private int lines = 100000;
+    private int warmup = 5;
+    private int iterations = 10;
+    private long minTime = 500;
+    private boolean checkOnly = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Builds the area computation as functions of about twenty five statements
+     *
+     * @param target - int, the number of lines to generate
+     * @return - String, the program
+     */
+    static String generate(int target)
+    {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        int funcs = 0;
+
+        text.append("CD18 area\n\nconstants\n\tSIZE = 20, HALF = 0.5\n");
+        count += 4;
+
+        while(count < target - 10)
+        {
+            text.append("func area").append(funcs).append("(n : integer) : real\n");
+            text.append("\ti : integer, x0 : real, y0 : real, x1 : real, y1 : real, sigma : real\nbegin\n");
+            text.append("\tsigma = 0.0;\n\tx0 = 1.5;\n\ty0 = 2.5;\n");
+            count += 6;
+
+            for(int i = 0; i < 25 && count < target - 14; i++)
+            {
+                int k = funcs + i;
+                switch(i % 5)
+                {
+                    case 0:
+                        text.append("\tsigma += (x1 + x0) * (y1 - y0) - x0 * y1 / ").append(k % 7 + 2).append(".0;\n");
+                        count++;
+                        break;
+
+                    case 1:
+                        text.append("\tx1 = x0 + (").append(k % 9 + 1).append(" * 2 - 4 / 2 + 1) * HALF - y0 * y1 / 3.0;\n");
+                        count++;
+                        break;
+
+                    case 2:
+                        text.append("\tif (sigma < 0.0 and n > ").append(k % 5 + 2).append(" or i >= n - 1 xor x0 * x1 <= y0 + y1)\n");
+                        text.append("\t\tsigma = (0.0 - 0.5) * sigma + x1 * y0 - x0 * y1;\n\tend\n");
+                        count += 3;
+                        break;
+
+                    case 3:
+                        text.append("\tfor (i = 0; i <= n - 2 and i < SIZE)\n");
+                        text.append("\t\ty1 = (y0 + x1 * ").append(k % 4 + 1).append(".0) / (x0 + 1.0) - y1;\n\t\ti += 1;\n\tend\n");
+                        count += 4;
+                        break;
+
+                    default:
+                        text.append("\ty0 = y0 * x0 - (x1 - y1) * (x1 + y1) + ").append(k % 11).append(".25 * HALF;\n");
+                        count++;
+                }
+            }
+            text.append("\treturn HALF * sigma;\nend\n");
+            count += 2;
+            funcs++;
+        }
+
+        text.append("main\n\tarea : real\nbegin\n\tprintline \"area\";\nend CD18 area\n");
+        return text.toString();
+    }
+
+    /** literals()
+     *
+     * Builds a list of expressions over literals, separated by semicolons
+     *
+     * @param count - int, the number of expressions
+     * @return - String, the expressions
+     */
+    static String literals(int count)
+    {
+        StringBuilder text = new StringBuilder();
+
+        for(int i = 0; i < count; i++)
+        {
+            switch(i % 4)
+            {
+                case 0:
+                    text.append("(").append(i % 9 + 1).append(" + 3) * 2 - 8 / 4 ^ 2 % 3 + 1.5 * 2.5;\n");
+                    break;
+
+                case 1:
+                    text.append(i % 7).append(" < 2 and 3 >= 4 or 5 != ").append(i % 6).append(" xor true;\n");
+                    break;
+
+                case 2:
+                    text.append("0.5 * (1.5 + 2.5) * (3.5 - 0.5) - 4.5 * 1.5 / 2.0;\n");
+                    break;
+
+                default:
+                    text.append(i % 11).append(";\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /** expressions()
+     *
+     * Builds a list of the expressions of the area computation, separated by semicolons
+     *
+     * @param count - int, the number of expressions
+     * @return - String, the expressions
+     */
+    static String expressions(int count)
+    {
+        StringBuilder text = new StringBuilder();
+
+        for(int i = 0; i < count; i++)
+        {
+            switch(i % 6)
+            {
+                case 0:
+                    text.append("(x1 + x0) * (y1 - y0) - x0 * y1 / ").append(i % 7 + 2).append(".0;\n");
+                    break;
+
+                case 1:
+                    text.append("x0 + (").append(i % 9 + 1).append(" * 2 - 4 / 2 + 1) * HALF - y0 * y1 / 3.0;\n");
+                    break;
+
+                case 2:
+                    text.append("sigma < 0.0 and n > ").append(i % 5 + 2).append(" or i >= n - 1 xor x0 * x1 <= y0 + y1;\n");
+                    break;
+
+                case 3:
+                    text.append("(0.0 - 0.5) * sigma + x1 * y0 - x0 * y1;\n");
+                    break;
+
+                case 4:
+                    text.append("(y0 + x1 * ").append(i % 4 + 1).append(".0) / (x0 + 1.0) - y1;\n");
+                    break;
+
+                default:
+                    text.append("y0 * x0 - (x1 - y1) * (x1 + y1) + ").append(i % 11).append(".25 * HALF;\n");
+            }
+        }
+        return text.toString();
+    }
+
+    /** describe()
+     *
+     * Writes a tree in prefix form, with the symbol of each node
+     *
+     * @param node - STNode, root of the tree
+     * @param out - StringBuilder, where the tree is written
+     */
+    private static void describe(STNode node, StringBuilder out)
+    {
+        if(node == null)
+        {
+            out.append('-');
+            return;
+        }
+
+        out.append('(').append(node.getNodeID());
+
+        TableEntry symbol = node.getSymbol();
+        if(symbol != null)
+            out.append(' ').append(symbol.getName()).append('@').append(symbol.getLine()).append(':').append(symbol.getCol())
+               .append(' ').append(symbol.getType()).append('=').append(symbol.getValue());
+
+        out.append(' ');
+        describe(node.getLeft(), out);
+        out.append(' ');
+        describe(node.getMiddle(), out);
+        out.append(' ');
+        describe(node.getRight(), out);
+        out.append(')');
+    }
+
+    /** scope()
+     *
+     * Parses a program for the table expressions are read in
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @return - SymbolTable, main's scope, else the global table
+     */
+    private static SymbolTable scope(TokenBuffer tokens)
+    {
+        CD18Parser parser = new CD18Parser(tokens);
+
+        try
+        {
+            parser.parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            // The tables read before the parser threw are used
+        }
+
+        SymbolTable main = parser.getContext().getScopeTable("main");
+        if(main != null)
+            return main;
+        return parser.getGlobalTable() != null ? parser.getGlobalTable() : new SymbolTable(null);
+    }
+
+    /** parse()
+     *
+     * Reads a boolean expression with one of the expression parsers
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @param position - int, where the expression starts
+     * @param scope - SymbolTable, the scope the expression is read in, left unchanged
+     * @param builder - STNode, node whose rules read the expression
+     * @return - String, the tree, errors, where the expression ended and any exception thrown
+     */
+    private static String parse(TokenBuffer tokens, int position, SymbolTable scope, STNode builder)
+    {
+        StringBuilder out = new StringBuilder();
+        TokenBuffer reader = tokens.reader(position);
+        SymbolTable table = new SymbolTable(scope, new CompilationContext(tokens.getNamePool()));
+
+        try
+        {
+            describe(builder.processBool(reader, table), out);
+
+            for(Map.Entry<Token, String> error : table.getContext().getErrors())
+                out.append('\n').append(error.getValue());
+            out.append("\nends at ").append(reader.mark());
+        }
+        catch(RuntimeException e)
+        {
+            out.append("\nthrew ").append(e.getClass().getName());
+        }
+
+        return out.toString();
+    }
+
+    /** compare()
+     *
+     * @param text - String, a program
+     * @return - int, the first token the parsers read differently from, or -1 if they agree from every token
+     */
+    private static int compare(String text)
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+        SymbolTable scope = scope(tokens);
+        STNode climbing = new STNode(STNode.NID.NUNDEF);
+        STNode recursive = new RecursiveExpressions();
+
+        for(int position = 0; position < tokens.size(); position++)
+        {
+            if(!parse(tokens, position, scope, climbing).equals(parse(tokens, position, scope, recursive)))
+                return position;
+        }
+        return -1;
+    }
+
+    /** time()
+     *
+     * @param text - String, expressions separated by semicolons
+     * @param count - int, the number of expressions
+     * @param scope - SymbolTable, the scope the expressions are read in
+     * @param builder - STNode, node whose rules read the expressions
+     * @return - double, mean expressions parsed per second over the measured iterations
+     */
+    private double time(String text, int count, SymbolTable scope, STNode builder)
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+        double total = 0;
+
+        for(int iteration = -warmup; iteration < iterations; iteration++)
+        {
+            long ops = 0;
+            long nanos = 0;
+
+            while(ops == 0 || nanos < minTime * 1000000L)
+            {
+                SymbolTable table = new SymbolTable(scope);
+                tokens.rewind(0);
+
+                long start = System.nanoTime();
+                for(int i = 0; i < count; i++)
+                {
+                    builder.processBool(tokens, table);
+                    tokens.advance();
+                }
+                nanos += System.nanoTime() - start;
+                ops++;
+            }
+
+            if(iteration >= 0)
+                total += ops * count / (nanos / 1e9);
+        }
+
+        return total / iterations;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if every input gave the same tree both ways
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> texts = new ArrayList<>();
+
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        for(Path sample : samples)
+        {
+            names.add(sample.getFileName().toString());
+            texts.add(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+        }
+        names.add("area-1k");
+        texts.add(generate(1000));
+
+        int positions = 0;
+        for(int i = 0; i < texts.size(); i++)
+        {
+            int position = compare(texts.get(i));
+            if(position >= 0)
+            {
+                console.printf("%s: the expression parsers give different results from token %d%n", names.get(i), position);
+                return false;
+            }
+            positions += new CD18Scanner(CharBuffer.wrap(texts.get(i))).scanAll(1).size();
+        }
+        console.printf("%d inputs give the same tree, errors, end and exceptions with both expression parsers from all %d tokens%n",
+            texts.size(), positions);
+
+        if(checkOnly)
+            return true;
+
+        // The variables of the area computation, in main's scope
+        SymbolTable scope = scope(new CD18Scanner(CharBuffer.wrap("CD18 area\nconstants\n\tSIZE = 20, HALF = 0.5\nmain\n"
+            + "\ti : integer, n : integer, x0 : real, y0 : real, x1 : real, y1 : real, sigma : real\n"
+            + "begin\n\tprintline \"area\";\nend CD18 area\n")).scanAll(1));
+        STNode climbing = new STNode(STNode.NID.NUNDEF);
+        STNode recursive = new RecursiveExpressions();
+
+        console.printf("%n%-20s %10s %14s %14s %9s%n", "Expressions", "Count", "Recursive/s", "Climbing/s", "Speedup");
+        for(String kind : new String[] { "area", "literals" })
+        {
+            String text = kind.equals("area") ? expressions(lines) : literals(lines);
+            double before = time(text, lines, scope, recursive);
+            double after = time(text, lines, scope, climbing);
+
+            console.printf("%-20s %10d %14.0f %14.0f %8.2fx%n", kind, lines, before, after, after / before);
+        }
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ExpressionBench bench = new ExpressionBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-lines":
+                    bench.lines = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-time":
+                    bench.minTime = Long.parseLong(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.checkOnly = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] same = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        // The parser recurses per statement
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                same[0] = bench.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "ExpressionBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!same[0])
+            System.exit(1);
+    }
+}
@@ -0,0 +1,473 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Random;
+
+/** IncrementalBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Replays random small edits on a program held by an IncrementalParser and checks the
+ * results against reading the edited program from scratch, then times the edits.
+ *
+ * The edits are made to statement lines, as when a program is being worked on: a digit
+ * changed, a statement added or removed, a variable changed for another or for one that
+ * is not declared, or a semicolon dropped and put back by the next edit. Variables are
+ * changed from y to x, both real in the generated programs, or to z, declared nowhere.
+ * The samples are each given a run of edits checked after every one. The timed program
+ * is about 200,000 lines, it is checked against a full parse every thousand edits and
+ * at the end. The tree, errors and any exception thrown must match, the line numbers
+ * included, apart from the name IDs of identifiers, as the pool keeps earlier names.
+ *
+ * Usage: java IncrementalBench [-edits n] [-functions n] [-statements n] [-seed n] [-check]
+ *                              [sample files or directories]
+ * Defaults to the samples in "../../Part 2 - Programs" and 10,000 edits to a program of
+ * 2000 functions of 36 statements. -check only runs the samples.
+ *
+ */
+public class IncrementalBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+    private static final int SAMPLE_EDITS = 200;
+    private static final int CHECK_EVERY = 1000;
+    private static final int FULL_PARSES = 5;
+
+    private int edits = 10000;
+    private int functions = 2000;
+    private int statements = 36;
+    private long seed = 18;
+    private boolean checkOnly = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    // Text of the program, edited alongside the parser's
+    private StringBuilder source;
+    private Random random;
+
+    // An edit waiting to be undone by the next: offset, length and the text it replaced
+    private int undoOffset = -1;
+    private int undoLength;
+    private String undoText;
+
+    /** nextEdit()
+     *
+     * Makes the next random edit to a statement line, or undoes the last one
+     *
+     * @return - Object[], offset, number of characters replaced and the replacement, or null if no line can be edited
+     */
+    private Object[] nextEdit()
+    {
+        if(undoOffset >= 0)
+        {
+            Object[] edit = {undoOffset, undoLength, undoText};
+            undoOffset = -1;
+            return edit;
+        }
+
+        for(int attempt = 0; attempt < 1000; attempt++)
+        {
+            int start = source.lastIndexOf("\n", random.nextInt(source.length())) + 1;
+            int end = source.indexOf("\n", start);
+            if(end < 0)
+                continue;
+
+            String line = source.substring(start, end);
+            if(!line.startsWith("\t") || !line.endsWith(";") || line.contains(":") || line.contains("return"))
+                continue;
+
+            switch(random.nextInt(7))
+            {
+                // A literal changed
+                case 0:
+                case 1:
+                    for(int i = 0; i < line.length(); i++)
+                    {
+                        if(Character.isDigit(line.charAt(i)))
+                            return new Object[] {start + i, 1, String.valueOf((char)('0' + random.nextInt(10)))};
+                    }
+                    break;
+
+                // A statement added after the line
+                case 2:
+                    return new Object[] {end + 1, 0, "\ty = y + " + random.nextInt(100) + ".0;\n"};
+
+                // The line removed
+                case 3:
+                    return new Object[] {start, end + 1 - start, ""};
+
+                // A variable changed for another of the same type
+                case 4:
+                    if(line.indexOf('y') >= 0)
+                        return new Object[] {start + line.indexOf('y'), 1, "x"};
+                    break;
+
+                // A variable changed for one that is not declared
+                case 5:
+                    if(line.indexOf('y') >= 0)
+                        return new Object[] {start + line.indexOf('y'), 1, "z"};
+                    break;
+
+                // The semicolon dropped, put back by the next edit
+                default:
+                    undoOffset = end - 1;
+                    undoLength = 0;
+                    undoText = ";";
+                    return new Object[] {end - 1, 1, ""};
+            }
+        }
+
+        return null;
+    }
+
+    /** apply()
+     *
+     * @param parser - IncrementalParser, the parser holding the program
+     * @param edit - Object[], offset, number of characters replaced and the replacement
+     * @return - boolean, true if only one unit was read again
+     */
+    private boolean apply(IncrementalParser parser, Object[] edit)
+    {
+        int offset = (Integer)edit[0];
+        int count = (Integer)edit[1];
+        String replacement = (String)edit[2];
+
+        source.replace(offset, offset + count, replacement);
+        return parser.edit(offset, count, replacement);
+    }
+
+    /** same()
+     *
+     * Walks two trees side by side without recursion, comparing symbols but their name IDs
+     *
+     * @param a - STNode, root of one tree
+     * @param b - STNode, root of the other
+     * @return - String, where the trees first differ, or null if they are the same
+     */
+    private static String same(STNode a, STNode b)
+    {
+        ArrayList<STNode> pending = new ArrayList<>();
+        pending.add(a);
+        pending.add(b);
+
+        while(!pending.isEmpty())
+        {
+            STNode y = pending.remove(pending.size() - 1);
+            STNode x = pending.remove(pending.size() - 1);
+
+            if(x == null || y == null)
+            {
+                if(x != y)
+                    return "a child is missing under " + (x == null ? y : x).getNodeID();
+                continue;
+            }
+
+            if(x.getNodeID() != y.getNodeID())
+                return x.getNodeID() + " against " + y.getNodeID();
+
+            TableEntry s = x.getSymbol();
+            TableEntry t = y.getSymbol();
+            if((s == null) != (t == null))
+                return "a symbol is missing on " + x.getNodeID();
+            if(s != null && !(Objects.equals(s.getName(), t.getName()) && Objects.equals(s.getType(), t.getType())
+                && Objects.equals(s.getValue(), t.getValue()) && s.getLine() == t.getLine() && s.getCol() == t.getCol()))
+                return "the symbols differ at " + s.getLine() + ":" + s.getCol() + " and " + t.getLine() + ":" + t.getCol();
+
+            pending.add(x.getLeft());
+            pending.add(y.getLeft());
+            pending.add(x.getMiddle());
+            pending.add(y.getMiddle());
+            pending.add(x.getRight());
+            pending.add(y.getRight());
+        }
+
+        return null;
+    }
+
+    /** errors()
+     *
+     * @param parser - IncrementalParser, a parser
+     * @return - ArrayList<String>, the position and message of each error and the exception thrown
+     */
+    private static ArrayList<String> errors(IncrementalParser parser)
+    {
+        ArrayList<String> list = new ArrayList<>();
+
+        for(SimpleEntry<Token, String> error : parser.getErrors())
+            list.add(error.getKey().getLineNum() + ":" + error.getKey().getColNum() + " " + error.getValue());
+        if(parser.getFailure() != null)
+            list.add("threw " + parser.getFailure().getClass().getName());
+
+        return list;
+    }
+
+    /** compare()
+     *
+     * @param parser - IncrementalParser, the parser the edits were made with
+     * @return - String, where it differs from a full parse of its text, or null if they are the same
+     */
+    private String compare(IncrementalParser parser)
+    {
+        if(!parser.getText().contentEquals(source))
+            return "the text differs";
+
+        IncrementalParser fresh = new IncrementalParser(parser.getText());
+
+        ArrayList<String> expected = errors(fresh);
+        ArrayList<String> found = errors(parser);
+        if(!expected.equals(found))
+        {
+            for(int i = 0; i < Math.min(expected.size(), found.size()); i++)
+            {
+                if(!expected.get(i).equals(found.get(i)))
+                    return "the errors differ: " + expected.get(i) + " against " + found.get(i);
+            }
+            return "the errors differ: " + expected.size() + " against " + found.size();
+        }
+
+        if(fresh.getTree() == null || parser.getTree() == null)
+            return fresh.getTree() == parser.getTree() ? null : "only one parse threw";
+
+        String difference = same(fresh.getTree(), parser.getTree());
+        return difference == null ? null : "the trees differ: " + difference;
+    }
+
+    /** check()
+     *
+     * Edits a sample, comparing it with a full parse after every edit
+     *
+     * @param text - String, the sample
+     * @return - String, where the parses first differ, or null if they are the same
+     */
+    private String check(String text)
+    {
+        source = new StringBuilder(text);
+        IncrementalParser parser = new IncrementalParser(text);
+        undoOffset = -1;
+
+        for(int i = 0; i < SAMPLE_EDITS; i++)
+        {
+            Object[] edit = nextEdit();
+            if(edit == null)
+                break;
+
+            apply(parser, edit);
+            String difference = compare(parser);
+            if(difference != null)
+                return "edit " + i + " at " + edit[0] + ": " + difference;
+        }
+
+        return null;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if every edit gave the same results as a full parse
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        random = new Random(seed);
+
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> texts = new ArrayList<>();
+        for(Path sample : samples)
+        {
+            names.add(sample.getFileName().toString());
+            texts.add(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+        }
+        names.add("outline-20x20");
+        texts.add(OutlineBench.generate(20, 20));
+        names.add("funcs-20");
+        texts.add(ParallelFuncsBench.generate(20));
+
+        for(int i = 0; i < texts.size(); i++)
+        {
+            String difference = check(texts.get(i));
+            if(difference != null)
+            {
+                console.printf("%s: %s%n", names.get(i), difference);
+                return false;
+            }
+        }
+        console.printf("%d inputs give the same tree, errors and exceptions after up to %d edits each%n", texts.size(), SAMPLE_EDITS);
+
+        if(checkOnly)
+            return true;
+
+        String text = OutlineBench.generate(functions, statements);
+        source = new StringBuilder(text);
+        undoOffset = -1;
+
+        long start = System.nanoTime();
+        IncrementalParser parser = new IncrementalParser(text);
+        double first = (System.nanoTime() - start) / 1e6;
+        if(!parser.isSplit() || !parser.getErrors().isEmpty())
+        {
+            console.println("The timed program can't be edited a unit at a time");
+            return false;
+        }
+
+        double full = 0;
+        for(int i = 0; i < FULL_PARSES; i++)
+        {
+            start = System.nanoTime();
+            new IncrementalParser(text);
+            full += (System.nanoTime() - start) / 1e6;
+        }
+        full /= FULL_PARSES;
+
+        double[] unitMs = new double[edits];
+        double fallbackMs = 0;
+        double treeMs = 0;
+        int units = 0;
+        int fallbacks = 0;
+        int checks = 0;
+
+        for(int i = 0; i < edits; i++)
+        {
+            Object[] edit = nextEdit();
+
+            start = System.nanoTime();
+            boolean incremental = apply(parser, edit);
+            parser.getErrors();
+            double ms = (System.nanoTime() - start) / 1e6;
+
+            if(incremental)
+                unitMs[units++] = ms;
+            else
+            {
+                fallbackMs += ms;
+                fallbacks++;
+            }
+
+            if((i + 1) % CHECK_EVERY == 0 || i == edits - 1)
+            {
+                // Moving the lines of the units after the edits is left to when the tree is asked for
+                start = System.nanoTime();
+                parser.getTree();
+                treeMs += (System.nanoTime() - start) / 1e6;
+                checks++;
+
+                String difference = compare(parser);
+                if(difference != null)
+                {
+                    console.printf("Edit %d at %s: %s%n", i, edit[0], difference);
+                    return false;
+                }
+            }
+        }
+
+        double[] sorted = Arrays.copyOf(unitMs, units);
+        Arrays.sort(sorted);
+        double total = 0;
+        for(double ms : sorted)
+            total += ms;
+
+        String[] lines = source.toString().split("\n", -1);
+        console.printf("%n%d functions, %d lines, %d edits, %d checked against a full parse%n%n", functions, lines.length, edits, checks);
+        console.printf("%-36s %10.1f%n", "first full parse ms", first);
+        console.printf("%-36s %10.1f%n", "full parse ms, mean of " + FULL_PARSES, full);
+        console.printf("%-36s %10d%n", "edits read a unit at a time", units);
+        console.printf("%-36s %10d%n", "edits read in full", fallbacks);
+        if(units > 0)
+        {
+            console.printf("%-36s %10.3f%n", "unit edit ms, mean", total / units);
+            console.printf("%-36s %10.3f%n", "unit edit ms, median", sorted[units / 2]);
+            console.printf("%-36s %10.3f%n", "unit edit ms, 99th percentile", sorted[Math.min(units - 1, units * 99 / 100)]);
+        }
+        if(fallbacks > 0)
+            console.printf("%-36s %10.1f%n", "full edit ms, mean", fallbackMs / fallbacks);
+        console.printf("%-36s %10.1f%n", "moving lines for the tree ms, mean", treeMs / checks);
+        console.printf("%nAll edits %.1f ms against %.1f ms reading every edit in full, %.0fx%n",
+            total + fallbackMs, full * edits, full * edits / (total + fallbackMs));
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        IncrementalBench bench = new IncrementalBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-edits":
+                    bench.edits = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-functions":
+                    bench.functions = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-statements":
+                    bench.statements = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-seed":
+                    bench.seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.checkOnly = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] same = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        // The parser recurses per expression and per function in order
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                same[0] = bench.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "IncrementalBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!same[0])
+            System.exit(1);
+    }
+}
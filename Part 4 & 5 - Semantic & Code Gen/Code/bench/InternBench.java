@@ -0,0 +1,211 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/** InternBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Measures identifier interning on a generated program with many distinct identifiers.
+ * Compares the heap held by the token list from CD18Scanner, whose identifiers share
+ * pooled Strings, against ReaderScanner, which builds a String per token. Also times
+ * SymbolTable entry lookups through its name index against the String comparison scan
+ * it replaced.
+ *
+ * Usage: java InternBench [-ids n] [-uses n] [-lookups n]
+ *
+ */
+public class InternBench
+{
+    private int ids = 100000;
+    private int uses = 4;
+    private int lookups = 2000;
+
+    /** generate()
+     *
+     * Writes a program declaring ids distinct integers in main, each used in uses statements
+     *
+     * @return - Path, the generated source file
+     * @throws IOException - thrown while writing the file
+     */
+    private Path generate() throws IOException
+    {
+        Path file = Files.createTempFile("intern", ".txt");
+        file.toFile().deleteOnExit();
+
+        try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(file)))
+        {
+            out.println("CD18 intern");
+            out.println("main");
+            for(int i = 0; i < ids; i++)
+                out.println("\tident" + i + " : integer" + (i < ids - 1 ? "," : ""));
+            out.println("begin");
+            for(int u = 0; u < uses; u++)
+            {
+                for(int i = 0; i < ids; i++)
+                    out.println("\tident" + i + " = ident" + ((i + u + 1) % ids) + " + 1;");
+            }
+            out.println("end CD18 intern");
+        }
+        return file;
+    }
+
+    /** usedHeap()
+     *
+     * @return - long, heap in use after a garbage collection
+     */
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** scanTable()
+     *
+     * @param scanner - CD18Scanner, scanner over the source
+     * @return - LinkedList<Token>, every token of the source
+     */
+    private static LinkedList<Token> scanTable(CD18Scanner scanner)
+    {
+        LinkedList<Token> tokens = new LinkedList<>();
+        while(!scanner.eof())
+            tokens.add(scanner.getToken());
+        return tokens;
+    }
+
+    /** scanReader()
+     *
+     * @param scanner - ReaderScanner, scanner over the source
+     * @return - LinkedList<Token>, every token of the source
+     * @throws IOException - thrown from the ReaderScanner
+     */
+    private static LinkedList<Token> scanReader(ReaderScanner scanner) throws IOException
+    {
+        LinkedList<Token> tokens = new LinkedList<>();
+        while(!scanner.eof())
+            tokens.add(scanner.getToken());
+        return tokens;
+    }
+
+    /** findByString()
+     *
+     * The lookup SymbolTable used before name IDs, comparing each entry name as a String
+     *
+     * @param entries - ArrayList<TableEntry>, the entries of a table
+     * @param symbolName - String, the name to find
+     * @return - TableEntry, the first entry with the name or null
+     */
+    private static TableEntry findByString(ArrayList<TableEntry> entries, String symbolName)
+    {
+        for(TableEntry entry : entries)
+        {
+            if(entry.getName().equals(symbolName))
+                return entry;
+        }
+        return null;
+    }
+
+    /** run()
+     *
+     * @throws IOException - thrown while generating or scanning the source
+     */
+    private void run() throws IOException
+    {
+        Path file = generate();
+        String fileName = file.toString();
+
+        System.out.printf("Program: %d distinct identifiers, %.1f MB%n%n", ids, Files.size(file) / 1e6);
+
+        // Token list heap and scan time for each scanner
+        long base = usedHeap();
+        long start = System.nanoTime();
+        LinkedList<Token> readerTokens = scanReader(new ReaderScanner(fileName));
+        long readerTime = System.nanoTime() - start;
+        long readerHeap = usedHeap() - base;
+        int tokenCount = readerTokens.size();
+        readerTokens = null;
+
+        base = usedHeap();
+        start = System.nanoTime();
+        CD18Scanner scanner = new CD18Scanner(fileName);
+        LinkedList<Token> tokens = scanTable(scanner);
+        long tableTime = System.nanoTime() - start;
+
+        // The pool stays reachable from the tokens' names, the source buffer does not
+        NamePool pool = scanner.getNamePool();
+        scanner = null;
+        long tableHeap = usedHeap() - base;
+
+        System.out.printf("%-28s %12s %14s %12s%n", "Scanner", "Tokens", "Heap bytes/tok", "Scan ms");
+        System.out.printf("%-28s %12d %14.1f %12.0f%n", "ReaderScanner (String/tok)", tokenCount, readerHeap / (double)tokenCount, readerTime / 1e6);
+        System.out.printf("%-28s %12d %14.1f %12.0f%n", "CD18Scanner (interned)", tokens.size(), tableHeap / (double)tokens.size(), tableTime / 1e6);
+        System.out.printf("Distinct names in pool: %d%n%n", pool.size());
+
+        // One table holding every declared identifier
+        SymbolTable table = new SymbolTable(null, new CompilationContext(pool));
+        for(Token token : tokens)
+        {
+            if(token.getTokenID() == Token.TID.TIDEN && !table.hasIdInScope(token.getLexeme()))
+                table.addSymbol(new TableEntry(token));
+        }
+
+        // Look up names spread evenly through the table, built fresh so they are not the pooled Strings
+        String[] names = new String[lookups];
+        for(int i = 0; i < lookups; i++)
+            names[i] = new StringBuilder("ident").append((long)i * ids / lookups).toString();
+
+        for(int round = 0; round < 3; round++)
+        {
+            start = System.nanoTime();
+            int found = 0;
+            for(String name : names)
+                found += findByString(table.getTable(), name) != null ? 1 : 0;
+            long stringTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for(String name : names)
+                found -= table.getIdEntry(name) != null ? 1 : 0;
+            long idTime = System.nanoTime() - start;
+
+            System.out.printf("Lookups %d over %d entries: String scan %.1f ms, indexed %.1f ms%s%n", lookups, table.getTable().size(), stringTime / 1e6, idTime / 1e6, found == 0 ? "" : " (results differ)");
+        }
+
+        Files.delete(file);
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        InternBench bench = new InternBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-ids":
+                    bench.ids = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-uses":
+                    bench.uses = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-lookups":
+                    bench.lookups = Integer.parseInt(args[++i]);
+                    break;
+            }
+        }
+        bench.run();
+    }
+}
@@ -0,0 +1,228 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/** MemoryCompileBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * Measures how many programs per minute the compiler gets through in process.
+ * Each sample program is compiled from a String with CD.compile(), writing the
+ * module, report and listing to memory, and again from a file with the module and
+ * listing written to files, which is the work the command line compiler does.
+ * Without sample files, small generated programs are used. Samples that do not
+ * compile cleanly are left out.
+ *
+ * Usage: java MemoryCompileBench [-seconds n] [-programs n] [-statements n] [sample files or directories]
+ *
+ */
+public class MemoryCompileBench
+{
+    private int seconds = 5;
+    private int programs = 50;
+    private int statements = 20;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Builds a program using constants, a function, assignments, printing, if and for
+     *
+     * @param index - int, number of the program, used in its name and literals
+     * @return - String, the program
+     */
+    private String generate(int index)
+    {
+        StringBuilder text = new StringBuilder();
+
+        text.append("/-- generated program ").append(index).append('\n');
+        text.append("CD18 gen").append(index).append("\n\n");
+        text.append("constants\n\tLIMIT = ").append(index % 7 + 3).append("\n");
+        text.append("func twice(p0 : integer) : integer\n\tv0 : integer\nbegin\n");
+        text.append("\tv0 = p0 * 2;\n\treturn v0;\nend\n");
+        text.append("main\n\ta0 : integer, a1 : integer, a2 : integer\nbegin\n");
+
+        for(int i = 0; i < statements; i++)
+        {
+            int k = index + i;
+            switch(i % 5)
+            {
+                case 0:
+                    text.append("\ta0 = (").append(k % 9 + 1).append(" + 3) * 2 - a1;\n");
+                    break;
+
+                case 1:
+                    text.append("\tprintline \"line ").append(k).append("\";\n");
+                    break;
+
+                case 2:
+                    text.append("\tif (a0 > ").append(k % 5).append(")\n\t\ta1 = a0 - 1;\n\telse\n\t\ta2 += 2;\n\tend\n");
+                    break;
+
+                case 3:
+                    text.append("\tfor (a1 = 0; a1 < ").append(k % 4 + 2).append(")\n\t\ta1 += 1;\n\t\ta2 = a2 * a1 % 7;\n\tend\n");
+                    break;
+
+                default:
+                    text.append("\ta2 = a0 * a1 + ").append(k % 11).append(";\n");
+            }
+        }
+        text.append("end CD18 gen").append(index).append('\n');
+
+        return text.toString();
+    }
+
+    /** compileMemory()
+     *
+     * @param text - String, the program
+     */
+    private static void compileMemory(String text)
+    {
+        StringWriter code = new StringWriter();
+        StringWriter screen = new StringWriter();
+        StringWriter listing = new StringWriter();
+
+        new CD().compile(CD18Scanner.fromSource(text), new PrintWriter(code), new PrintWriter(screen), new PrintWriter(listing));
+    }
+
+    /** compileFile()
+     *
+     * @param file - Path, the program's source file
+     * @throws IOException - thrown while writing the module or listing
+     */
+    private static void compileFile(Path file) throws IOException
+    {
+        String base = file.toString().substring(0, file.toString().lastIndexOf('.'));
+        StringWriter screen = new StringWriter();
+
+        try(PrintWriter code = new PrintWriter(base + ".mod");
+            PrintWriter listing = new PrintWriter(base + ".lst"))
+        {
+            new CD().compile(new CD18Scanner(file.toString()), code, new PrintWriter(screen), listing);
+        }
+    }
+
+    /** run()
+     *
+     * @throws IOException - thrown while reading the samples
+     */
+    private void run() throws IOException
+    {
+        ArrayList<String> texts = new ArrayList<>();
+        ArrayList<Path> files = new ArrayList<>();
+
+        // The compiler reports some errors on System.out, keep the bench output readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        ArrayList<String> candidates = new ArrayList<>();
+        for(Path sample : samples)
+            candidates.add(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+        if(samples.isEmpty())
+        {
+            for(int i = 0; i < programs; i++)
+                candidates.add(generate(i));
+        }
+
+        try
+        {
+            for(String text : candidates)
+            {
+                try
+                {
+                    compileMemory(text);
+                }
+                catch(RuntimeException e)
+                {
+                    continue;
+                }
+
+                Path file = Files.createTempFile("memory", ".txt");
+                file.toFile().deleteOnExit();
+                Files.write(file, text.getBytes(Charset.defaultCharset()));
+
+                texts.add(text);
+                files.add(file);
+            }
+
+            long memory = 0;
+            long fromFiles = 0;
+
+            // First pass warms up, the second is reported
+            for(int pass = 0; pass < 2; pass++)
+            {
+                memory = 0;
+                long end = System.nanoTime() + seconds * 1000000000L;
+                while(System.nanoTime() < end)
+                {
+                    for(String text : texts)
+                        compileMemory(text);
+                    memory += texts.size();
+                }
+
+                fromFiles = 0;
+                end = System.nanoTime() + seconds * 1000000000L;
+                while(System.nanoTime() < end)
+                {
+                    for(Path file : files)
+                        compileFile(file);
+                    fromFiles += files.size();
+                }
+            }
+
+            System.setOut(console);
+            System.out.printf("%d of %d programs compile cleanly%n%n", texts.size(), candidates.size());
+            System.out.printf("%-22s %16s%n", "Source", "Programs/minute");
+            System.out.printf("%-22s %16.0f%n", "String, in memory", memory * 60.0 / seconds);
+            System.out.printf("%-22s %16.0f%n", "File, .mod and .lst", fromFiles * 60.0 / seconds);
+        }
+        finally
+        {
+            System.setOut(console);
+
+            for(Path file : files)
+            {
+                String base = file.toString().substring(0, file.toString().lastIndexOf('.'));
+                Files.deleteIfExists(Paths.get(base + ".mod"));
+                Files.deleteIfExists(Paths.get(base + ".lst"));
+            }
+        }
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        MemoryCompileBench bench = new MemoryCompileBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-seconds":
+                    bench.seconds = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-programs":
+                    bench.programs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-statements":
+                    bench.statements = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+        bench.run();
+    }
+}
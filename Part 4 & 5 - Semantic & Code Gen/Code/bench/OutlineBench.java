@@ -0,0 +1,338 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/** OutlineBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Checks that leaving function bodies and main's statements to be read lazily gives
+ * the same tree as reading them in order, then times the parse of programs with a
+ * fixed number of functions as the bodies grow, read in full and for an outline.
+ *
+ * Every input is parsed both ways and the lazy tree is walked, which reads every body.
+ * The trees must match, and the errors must match apart from their order, as errors
+ * in a lazy body are found when it is walked. When a parse throws, the other must
+ * throw too, the errors found before it are not compared. The timed outline parse
+ * reads no bodies, and should stay nearly flat while the full parse grows with them.
+ *
+ * Usage: java OutlineBench [-functions n] [-warmup n] [-iterations n] [-check]
+ *                          [sample files or directories]
+ * Defaults to checking "../../Part 2 - Programs" and timing 200 functions with bodies
+ * of 10, 100 and 1000 statements. -check only runs the comparison.
+ *
+ */
+public class OutlineBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+    private static final int[] BODIES = {10, 100, 1000};
+
+    private int functions = 200;
+    private int warmup = 3;
+    private int iterations = 5;
+    private boolean checkOnly = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Builds a program of functions with bodies of the given length, and a main block as long
+     *
+     * @param count - int, number of functions
+     * @param statements - int, number of statements in each body
+     * @return - String, the program
+     */
+    static String generate(int count, int statements)
+    {
+        StringBuilder text = new StringBuilder(count * statements * 32);
+
+        text.append("CD18 outline\n\nconstants\n\tSIZE = 20, HALF = 0.5\n");
+        for(int f = 0; f <= count; f++)
+        {
+            if(f < count)
+            {
+                text.append("func f").append(f).append("(n : integer, x : real) : real\n");
+                text.append("\ti : integer, y : real\nbegin\n");
+            }
+            else
+                text.append("main\n\tn : integer, x : real, i : integer, y : real\nbegin\n");
+
+            for(int i = 0; i < statements; i++)
+            {
+                int k = f + i;
+                switch(i % 4)
+                {
+                    case 0:
+                        text.append("\ty = x * ").append(k % 9 + 1).append(".5 + n - i * HALF;\n");
+                        break;
+
+                    case 1:
+                        text.append("\tif (y > ").append(k % 5).append(".0 and n < SIZE)\n\t\ty = y - 1.0;\n\telse\n\t\tx += 2.0;\n\tend\n");
+                        break;
+
+                    case 2:
+                        text.append("\tfor (i = 0; i < ").append(k % 4 + 2).append(")\n\t\ti += 1;\n\t\tx = x * y / 7.0;\n\tend\n");
+                        break;
+
+                    default:
+                        text.append("\tn = n * i + ").append(k % 11).append(";\n");
+                }
+            }
+
+            if(f < count)
+                text.append("\treturn y;\nend\n");
+        }
+        text.append("end CD18 outline\n");
+
+        return text.toString();
+    }
+
+    /** parse()
+     *
+     * @param parser - CD18Parser, parser of the program
+     * @param tokens - TokenBuffer, tokens of the program
+     * @param lazy - boolean, true to leave the bodies to be read as the tree is walked
+     * @param errors - ArrayList<String>, where the exception thrown is added
+     * @return - STNode, root of the tree, or null if the parser threw
+     */
+    private static STNode parse(CD18Parser parser, TokenBuffer tokens, boolean lazy, ArrayList<String> errors)
+    {
+        parser.setLazyBodies(lazy);
+        tokens.rewind(0);
+
+        try
+        {
+            return parser.parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            errors.add("threw " + e.getClass().getName());
+            return null;
+        }
+    }
+
+    /** addErrors()
+     *
+     * @param parser - CD18Parser, parser of the program
+     * @param errors - ArrayList<String>, where the errors found so far are added
+     */
+    private static void addErrors(CD18Parser parser, ArrayList<String> errors)
+    {
+        for(Object error : parser.getContext().getErrors())
+            errors.add(error.toString());
+    }
+
+    /** compare()
+     *
+     * @param text - String, a program
+     * @return - String, where the two parses first differ, or null if they are the same
+     */
+    private static String compare(String text)
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+        ArrayList<String> ordered = new ArrayList<>();
+        ArrayList<String> lazy = new ArrayList<>();
+        CD18Parser orderedParser = new CD18Parser(tokens);
+        CD18Parser lazyParser = new CD18Parser(tokens);
+
+        STNode first = parse(orderedParser, tokens, false, ordered);
+        STNode second = parse(lazyParser, tokens, true, lazy);
+
+        // Walking the lazy tree reads its bodies, which is where a lazy parse throws
+        String difference = null;
+        try
+        {
+            if(second != null)
+                difference = CompactTreeBench.same(first == null ? second : first, second);
+        }
+        catch(RuntimeException e)
+        {
+            second = null;
+            lazy.add("threw " + e.getClass().getName());
+        }
+
+        if(first == null || second == null)
+        {
+            String thrown = ordered.get(ordered.size() - 1);
+            return first == second && thrown.equals(lazy.get(lazy.size() - 1)) ? null : "only one parse threw";
+        }
+        if(difference != null)
+            return difference;
+
+        // Errors in lazy bodies are found as the tree is walked
+        addErrors(orderedParser, ordered);
+        addErrors(lazyParser, lazy);
+        Collections.sort(ordered);
+        Collections.sort(lazy);
+
+        return ordered.equals(lazy) ? null : "the errors differ";
+    }
+
+    /** time()
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @param lazy - boolean, true to leave the bodies unread
+     * @return - double, mean milliseconds per parse over the measured iterations
+     */
+    private double time(TokenBuffer tokens, boolean lazy)
+    {
+        long total = 0;
+
+        for(int iteration = -warmup; iteration < iterations; iteration++)
+        {
+            CD18Parser parser = new CD18Parser(tokens);
+            parser.setLazyBodies(lazy);
+            tokens.rewind(0);
+
+            long start = System.nanoTime();
+            parser.parseInput();
+            long nanos = System.nanoTime() - start;
+
+            if(iteration >= 0)
+                total += nanos;
+        }
+
+        return total / 1e6 / iterations;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if every input gave the same results both ways
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> texts = new ArrayList<>();
+
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        for(Path sample : samples)
+        {
+            names.add(sample.getFileName().toString());
+            texts.add(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+        }
+        names.add("outline-20x20");
+        texts.add(generate(20, 20));
+        names.add("funcs-100");
+        texts.add(ParallelFuncsBench.generate(100));
+
+        for(int i = 0; i < texts.size(); i++)
+        {
+            String difference = compare(texts.get(i));
+            if(difference != null)
+            {
+                console.printf("%s: %s%n", names.get(i), difference);
+                return false;
+            }
+        }
+        console.printf("%d inputs give the same tree, errors and exceptions in order and lazily%n", texts.size());
+
+        if(checkOnly)
+            return true;
+
+        console.printf("%n%d functions%n%n", functions);
+        console.printf("%-12s %10s %14s %14s %10s%n", "Statements", "Tokens", "Full parse ms", "Outline ms", "Ratio");
+        for(int statements : BODIES)
+        {
+            TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(generate(functions, statements))).scanAll(1);
+
+            CD18Parser parser = new CD18Parser(tokens);
+            ArrayList<String> errors = new ArrayList<>();
+            parse(parser, tokens, false, errors);
+            addErrors(parser, errors);
+            if(!errors.isEmpty())
+            {
+                console.printf("The timed program has errors: %s%n", errors.get(0));
+                return false;
+            }
+
+            double full = time(tokens, false);
+            double outline = time(tokens, true);
+
+            console.printf("%-12d %10d %14.2f %14.2f %9.0fx%n", statements, tokens.size(), full, outline, full / outline);
+        }
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        OutlineBench bench = new OutlineBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-functions":
+                    bench.functions = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.checkOnly = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] same = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        // The parser recurses per expression
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                same[0] = bench.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "OutlineBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!same[0])
+            System.exit(1);
+    }
+}
@@ -0,0 +1,314 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+/** ParallelFuncsBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Checks that reading function bodies in parallel gives the same results as reading
+ * them in order, then times the parse of a program with many functions both ways.
+ *
+ * Every input is parsed in order and on the pool, and the trees, error lists and any
+ * exception thrown must match. The check fails, with a non zero exit status, on the
+ * first input where they differ. The timed program is made of functions of about
+ * twenty statements, each calling the function before it, so every body looks up
+ * the functions defined ahead of it.
+ *
+ * Usage: java ParallelFuncsBench [-functions n] [-threads n] [-warmup n] [-iterations n] [-check]
+ *                                [sample files or directories]
+ * Defaults to checking "../../Part 2 - Programs" and timing 5000 functions on one
+ * thread per processor. -check only runs the comparison.
+ *
+ */
+public class ParallelFuncsBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+
+    private int functions = 5000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int warmup = 3;
+    private int iterations = 5;
+    private boolean checkOnly = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Builds a program of functions that each call the one before
+     *
+     * @param count - int, number of functions
+     * @return - String, the program
+     */
+    static String generate(int count)
+    {
+        StringBuilder text = new StringBuilder(count * 900);
+
+        text.append("CD18 funcs\n\nconstants\n\tSIZE = 20, HALF = 0.5\n");
+        for(int f = 0; f < count; f++)
+        {
+            text.append("func f").append(f).append("(n : integer) : real\n");
+            text.append("\ti : integer, x0 : real, y0 : real, x1 : real, y1 : real, sigma : real\nbegin\n");
+            text.append("\tsigma = 0.0;\n\tx0 = 1.5;\n\ty0 = 2.5;\n");
+            if(f > 0)
+                text.append("\ty1 = f").append(f - 1).append("(n - 1);\n");
+
+            for(int i = 0; i < 20; i++)
+            {
+                int k = f + i;
+                switch(i % 5)
+                {
+                    case 0:
+                        text.append("\tsigma += (x1 + x0) * (y1 - y0) - x0 * y1 / ").append(k % 7 + 2).append(".0;\n");
+                        break;
+
+                    case 1:
+                        text.append("\tx1 = x0 + (").append(k % 9 + 1).append(" * 2 - 4 / 2 + 1) * HALF - y0 * y1 / 3.0;\n");
+                        break;
+
+                    case 2:
+                        text.append("\tif (sigma < 0.0 and n > ").append(k % 5 + 2).append(" or i >= n - 1 xor x0 * x1 <= y0 + y1)\n");
+                        text.append("\t\tsigma = (0.0 - 0.5) * sigma + x1 * y0 - x0 * y1;\n\tend\n");
+                        break;
+
+                    case 3:
+                        text.append("\tfor (i = 0; i <= n - 2 and i < SIZE)\n");
+                        text.append("\t\ty1 = (y0 + x1 * ").append(k % 4 + 1).append(".0) / (x0 + 1.0) - y1;\n\t\ti += 1;\n\tend\n");
+                        break;
+
+                    default:
+                        text.append("\ty0 = y0 * x0 - (x1 - y1) * (x1 + y1) + ").append(k % 11).append(".25 * HALF;\n");
+                }
+            }
+            text.append("\treturn HALF * sigma;\nend\n");
+        }
+        text.append("main\n\ttotal : real\nbegin\n\tprintline \"funcs\";\nend CD18 funcs\n");
+
+        return text.toString();
+    }
+
+    /** parse()
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @param pool - ForkJoinPool, threads the bodies are read on, or null to read them in order
+     * @param errors - ArrayList<String>, where the errors and any exception thrown are added
+     * @return - STNode, root of the tree, or null if the parser threw
+     */
+    private static STNode parse(TokenBuffer tokens, ForkJoinPool pool, ArrayList<String> errors)
+    {
+        CompilationContext context = new CompilationContext(tokens.getNamePool());
+        tokens.rewind(0);
+
+        STNode root = null;
+        try
+        {
+            root = new CD18Parser(context, tokens, pool).parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            errors.add("threw " + e.getClass().getName());
+        }
+
+        for(Object error : context.getErrors())
+            errors.add(error.toString());
+
+        return root;
+    }
+
+    /** compare()
+     *
+     * @param text - String, a program
+     * @param pool - ForkJoinPool, threads the bodies are read on
+     * @return - String, where the two parses first differ, or null if they are the same
+     */
+    private static String compare(String text, ForkJoinPool pool)
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+        ArrayList<String> ordered = new ArrayList<>();
+        ArrayList<String> parallel = new ArrayList<>();
+
+        STNode first = parse(tokens, null, ordered);
+        STNode second = parse(tokens, pool, parallel);
+
+        if(!ordered.equals(parallel))
+            return "the errors differ";
+        if(first == null || second == null)
+            return first == second ? null : "only one parse threw";
+
+        return CompactTreeBench.same(first, second);
+    }
+
+    /** time()
+     *
+     * @param tokens - TokenBuffer, tokens of the program
+     * @param pool - ForkJoinPool, threads the bodies are read on, or null to read them in order
+     * @return - double, mean milliseconds per parse over the measured iterations
+     */
+    private double time(TokenBuffer tokens, ForkJoinPool pool)
+    {
+        long total = 0;
+
+        for(int iteration = -warmup; iteration < iterations; iteration++)
+        {
+            tokens.rewind(0);
+
+            long start = System.nanoTime();
+            new CD18Parser(new CompilationContext(tokens.getNamePool()), tokens, pool).parseInput();
+            long nanos = System.nanoTime() - start;
+
+            if(iteration >= 0)
+                total += nanos;
+        }
+
+        return total / 1e6 / iterations;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if every input gave the same results both ways
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        ArrayList<String> names = new ArrayList<>();
+        ArrayList<String> texts = new ArrayList<>();
+
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        for(Path sample : samples)
+        {
+            names.add(sample.getFileName().toString());
+            texts.add(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+        }
+        names.add("funcs-100");
+        texts.add(generate(100));
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            for(int i = 0; i < texts.size(); i++)
+            {
+                String difference = compare(texts.get(i), pool);
+                if(difference != null)
+                {
+                    console.printf("%s: %s%n", names.get(i), difference);
+                    return false;
+                }
+            }
+            console.printf("%d inputs give the same tree, errors and exceptions in order and in parallel%n", texts.size());
+
+            if(checkOnly)
+                return true;
+
+            String text = generate(functions);
+            TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+
+            ArrayList<String> errors = new ArrayList<>();
+            parse(tokens, pool, errors);
+            if(!errors.isEmpty())
+            {
+                console.printf("The timed program has errors: %s%n", errors.get(0));
+                return false;
+            }
+
+            double ordered = time(tokens, null);
+            double parallel = time(tokens, pool);
+
+            console.printf("%n%d functions, %d tokens, %d processors%n%n", functions, tokens.size(), Runtime.getRuntime().availableProcessors());
+            console.printf("%-24s %10s%n", "Function bodies", "Parse ms");
+            console.printf("%-24s %10.1f%n", "in order", ordered);
+            console.printf("%-24s %10.1f%n", "parallel, " + threads + " threads", parallel);
+            console.printf("%nSpeedup %.2fx%n", ordered / parallel);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ParallelFuncsBench bench = new ParallelFuncsBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-functions":
+                    bench.functions = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-threads":
+                    bench.threads = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.checkOnly = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] same = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        // The parser recurses per expression and per function in order
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                same[0] = bench.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "ParallelFuncsBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!same[0])
+            System.exit(1);
+    }
+}
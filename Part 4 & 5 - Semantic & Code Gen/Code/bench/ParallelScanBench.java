@@ -0,0 +1,154 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/** ParallelScanBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * Times CD18Scanner.scanAll() on a large generated source, scanning sequentially and
+ * in line aligned chunks on increasing numbers of threads. The sample programs are
+ * repeated until the source reaches the requested size. Reading the source is not timed.
+ *
+ * Usage: java ParallelScanBench [-mb n] [-runs n] [-threads n] [sample files or directories]
+ * Defaults to 50 MB built from the programs in "../../Part 2 - Programs".
+ *
+ */
+public class ParallelScanBench
+{
+    private static final int WARMUP = 2;
+
+    private int megabytes = 50;
+    private int runs = 5;
+    private int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** generate()
+     *
+     * Writes a temporary file holding the samples repeated until it reaches the size
+     *
+     * @return - Path, the generated source file
+     * @throws IOException - thrown while reading the samples or writing the file
+     */
+    private Path generate() throws IOException
+    {
+        ArrayList<byte[]> texts = new ArrayList<>();
+        for(Path sample : samples)
+            texts.add(Files.readAllBytes(sample));
+
+        Path file = Files.createTempFile("parallel", ".txt");
+        file.toFile().deleteOnExit();
+
+        long target = megabytes * 1000000L;
+        long written = 0;
+
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))
+        {
+            while(written < target)
+            {
+                for(byte[] text : texts)
+                {
+                    out.write(text);
+                    out.write('\n');
+                    written += text.length + 1;
+                }
+            }
+        }
+        return file;
+    }
+
+    /** time()
+     *
+     * @param fileName - String, source file to tokenise
+     * @param threads - int, threads given to scanAll()
+     * @return - long[], nanoseconds taken by scanAll() and the number of tokens
+     */
+    private static long[] time(String fileName, int threads)
+    {
+        CD18Scanner scanner = new CD18Scanner(fileName);
+
+        long start = System.nanoTime();
+        TokenBuffer tokens = scanner.scanAll(threads);
+        long elapsed = System.nanoTime() - start;
+
+        return new long[] {elapsed, tokens.size()};
+    }
+
+    /** run()
+     *
+     * @throws IOException - thrown while building the source file
+     */
+    private void run() throws IOException
+    {
+        Path file = generate();
+        String fileName = file.toString();
+
+        System.out.printf("Source: %.1f MB, %d processors%n%n", Files.size(file) / 1e6, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %12s %10s %14s %8s%n", "Threads", "Tokens", "Best ms", "Mtokens/s", "Speedup");
+
+        double sequential = 0;
+
+        for(int threads = 1; threads <= maxThreads; threads *= 2)
+        {
+            for(int i = 0; i < WARMUP; i++)
+                time(fileName, threads);
+
+            long best = Long.MAX_VALUE;
+            long tokens = 0;
+            for(int i = 0; i < runs; i++)
+            {
+                long[] result = time(fileName, threads);
+                best = Math.min(best, result[0]);
+                tokens = result[1];
+            }
+
+            if(threads == 1)
+                sequential = best;
+
+            System.out.printf("%-8d %12d %10.1f %14.2f %7.2fx%n", threads, tokens, best / 1e6, tokens / (best / 1e3), sequential / best);
+        }
+
+        Files.delete(file);
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ParallelScanBench bench = new ParallelScanBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-mb":
+                    bench.megabytes = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-runs":
+                    bench.runs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-threads":
+                    bench.maxThreads = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        if(bench.samples.isEmpty())
+            ScannerBench.addSamples(bench.samples, Paths.get("../../Part 2 - Programs"));
+
+        bench.run();
+    }
+}
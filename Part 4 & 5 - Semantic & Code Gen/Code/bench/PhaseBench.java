@@ -0,0 +1,552 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** PhaseBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Benchmark harness timing each phase of the CD18 compiler on its own:
+ *
+ *   tokenize  CD18Scanner over the source into a TokenBuffer
+ *   parse     CD18Parser from a scanned TokenBuffer to the STNode tree
+ *   fold      STNode.foldConstants() over the constant expressions of the program
+ *   codegen   SM18CodeGen.generate() and patchAddress() over a parsed tree
+ *   modout    SM18CodeGen.modOut() of a generated module
+ *
+ * Work done to set up a phase, such as scanning before a parse, is not measured.
+ * Each input is run for some warmup iterations then measured iterations, each
+ * repeating the phase until a minimum time has passed. Throughput is reported as
+ * operations and source lines per second, allocation as bytes per operation and
+ * MB per second, taken from the thread's allocated byte count the way the JMH gc
+ * profiler reports gc.alloc.rate and gc.alloc.rate.norm.
+ *
+ * Inputs are the sample programs and synthetic programs of a given number of lines.
+ * With -generated the synthetic programs are built by ProgramGenerator instead, with
+ * structures, arrays, loops, calls and strings as well as expressions.
+ * Phases that throw on an input, as the compiler does on some samples, are reported
+ * as failed. Each run has a large stack since the parser recurses per statement.
+ *
+ * The same phases are JMH benchmarks in the jmh module, run with its gc profiler.
+ *
+ * Usage: java PhaseBench [-phases list] [-sizes list] [-warmup n] [-iterations n]
+ *                        [-time ms] [-nosamples] [-generated] [sample files or directories]
+ * Defaults to every phase over "../../Part 2 - Programs" and synthetic programs
+ * of 1k, 100k and 1m lines.
+ *
+ */
+public class PhaseBench
+{
+    private static final String[] PHASES = {"tokenize", "parse", "fold", "codegen", "modout"};
+    private static final long STACK_SIZE = 1L << 30;
+
+    private List<String> phases = Arrays.asList(PHASES);
+    private List<String> sizes = Arrays.asList("1k", "100k", "1m");
+    private int warmup = 3;
+    private int iterations = 5;
+    private long minTime = 500;
+    private boolean useSamples = true;
+    private boolean generated = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    /** Input
+     *
+     * A named program held in memory
+     */
+    private static class Input
+    {
+        private String name;
+        private char[] text;
+        private int lines;
+
+        private Input(String inputName, String source)
+        {
+            name = inputName;
+            text = source.toCharArray();
+            lines = 1;
+            for(char c : text)
+            {
+                if(c == '\n')
+                    lines++;
+            }
+        }
+    }
+
+    /** Operation
+     *
+     * One run of a phase, set up outside the measured time
+     */
+    private interface Operation
+    {
+        void setUp();
+
+        void run();
+    }
+
+    /** synthetic()
+     *
+     * Generates a program that compiles without errors, made of functions of about a hundred
+     * lines each so the parser's recursion stays bounded. Statements mix constant expressions,
+     * expressions over variables, if and for.
+     *
+     * @param target - int, the number of lines to generate
+     * @return - String, the program
+     */
+    static String synthetic(int target)
+    {
+        StringBuilder text = new StringBuilder();
+        int lines = 0;
+        int funcs = 0;
+
+        text.append("CD18 synth\n\nconstants\n\tSCALE = 4 * 2 + 1\n");
+        lines += 4;
+
+        while(lines < target - 8)
+        {
+            text.append("func f").append(funcs).append("(p0 : integer) : integer\n\tv0 : integer, v1 : integer\nbegin\n");
+            lines += 3;
+
+            for(int i = 0; i < 25 && lines < target - 12; i++)
+            {
+                int k = funcs + i;
+                switch(i % 5)
+                {
+                    case 0:
+                        text.append("\tv0 = (").append(k % 9 + 1).append(" + 3) * 2 - 8 / 4;\n");
+                        lines++;
+                        break;
+
+                    case 1:
+                        text.append("\tv1 = v0 * 2 + p0;\n");
+                        lines++;
+                        break;
+
+                    case 2:
+                        text.append("\tif (v0 > ").append(k % 7).append(")\n\t\tv1 = v1 - 1;\n\tend\n");
+                        lines += 3;
+                        break;
+
+                    case 3:
+                        text.append("\tfor (v1 = 0; v1 < ").append(k % 5 + 2).append(")\n\t\tv1 += 1;\n\tend\n");
+                        lines += 3;
+                        break;
+
+                    default:
+                        text.append("\tv0 = ").append(k % 13 + 2).append(" * ").append(k % 3 + 1).append(" - (").append(k % 10).append(" + 1) / 2;\n");
+                        lines++;
+                }
+            }
+            text.append("\treturn v0;\nend\n");
+            lines += 2;
+            funcs++;
+        }
+
+        text.append("main\n\ta0 : integer\nbegin\n\tprintline \"synthetic\";\n\ta0 = 1 + 2;\nend CD18 synth\n");
+        return text.toString();
+    }
+
+    /** parseSize()
+     *
+     * @param size - String, a line count such as 1000, 100k or 1m
+     * @return - int, the number of lines
+     */
+    static int parseSize(String size)
+    {
+        String lower = size.toLowerCase();
+        if(lower.endsWith("k"))
+            return Integer.parseInt(lower.substring(0, lower.length() - 1)) * 1000;
+        if(lower.endsWith("m"))
+            return Integer.parseInt(lower.substring(0, lower.length() - 1)) * 1000000;
+        return Integer.parseInt(lower);
+    }
+
+    /** scan()
+     *
+     * @param input - Input, the program
+     * @return - TokenBuffer, the tokens of the program
+     */
+    private static TokenBuffer scan(Input input)
+    {
+        return new CD18Scanner(CharBuffer.wrap(input.text)).scanAll(1);
+    }
+
+    /** parse()
+     *
+     * Parses a program in a context of its own
+     *
+     * @param tokens - TokenBuffer, the tokens of the program
+     * @return - STNode, the root of the tree, or null if the program has errors
+     */
+    static STNode parse(TokenBuffer tokens)
+    {
+        CD18Parser parser = new CD18Parser(tokens);
+        STNode root = parser.parseInput();
+
+        return parser.getContext().hasErrors() ? null : root;
+    }
+
+    /** constantExpressions()
+     *
+     * Builds unfolded trees for the right hand sides of '=' made only of literals,
+     * operators and brackets, using the parser's expression rules
+     *
+     * @param tokens - TokenBuffer, the tokens of the program
+     * @param table - SymbolTable, table the literals are added to
+     * @return - ArrayList<STNode>, the expression trees
+     */
+    static ArrayList<STNode> constantExpressions(TokenBuffer tokens, SymbolTable table)
+    {
+        ArrayList<STNode> expressions = new ArrayList<>();
+        STNode builder = new STNode(STNode.NID.NUNDEF);
+
+        for(int i = 0; i < tokens.size(); i++)
+        {
+            if(tokens.getTokenID(i) != Token.TID.TEQUL)
+                continue;
+
+            TokenBuffer expression = new TokenBuffer(tokens.getNamePool());
+            boolean constant = true;
+            boolean operator = false;
+            int j = i + 1;
+
+            for(; j < tokens.size() && tokens.getTokenID(j) != Token.TID.TSEMI && constant; j++)
+            {
+                switch(tokens.getTokenID(j))
+                {
+                    case TPLUS: case TMINS: case TSTAR: case TDIVD: case TPERC: case TCART:
+                        operator = true;
+                        break;
+
+                    case TILIT: case TFLIT: case TLPAR: case TRPAR:
+                        break;
+
+                    default:
+                        constant = false;
+                }
+                expression.add(tokens.getToken(j));
+            }
+
+            if(constant && operator && j < tokens.size())
+            {
+                expression.add(tokens.getToken(j));
+                expressions.add(builder.processExpression(expression, table));
+            }
+        }
+        return expressions;
+    }
+
+    /** operation()
+     *
+     * Creates the operation for a phase over an input
+     *
+     * @param phase - String, the phase name
+     * @param input - Input, the program
+     * @return - Operation, the phase as an operation
+     */
+    private static Operation operation(String phase, Input input)
+    {
+        switch(phase)
+        {
+            case "tokenize":
+                return new Operation()
+                {
+                    public void setUp()
+                    {
+                    }
+
+                    public void run()
+                    {
+                        scan(input);
+                    }
+                };
+
+            case "parse":
+                return new Operation()
+                {
+                    private TokenBuffer tokens;
+
+                    public void setUp()
+                    {
+                        tokens = scan(input);
+                    }
+
+                    public void run()
+                    {
+                        new CD18Parser(tokens).parseInput();
+                    }
+                };
+
+            case "fold":
+            {
+                SymbolTable literals = new SymbolTable(null);
+                ArrayList<STNode> expressions = constantExpressions(scan(input), literals);
+                if(expressions.isEmpty())
+                    throw new IllegalStateException("no constant expressions");
+
+                return new Operation()
+                {
+                    private SymbolTable table;
+
+                    public void setUp()
+                    {
+                        table = new SymbolTable(literals);
+                    }
+
+                    public void run()
+                    {
+                        for(STNode expression : expressions)
+                            expression.foldConstants(expression, table);
+                    }
+                };
+            }
+
+            case "codegen":
+            {
+                STNode root = parse(scan(input));
+                if(root == null)
+                    throw new IllegalStateException("program has errors");
+
+                return new Operation()
+                {
+                    public void setUp()
+                    {
+                    }
+
+                    public void run()
+                    {
+                        SM18CodeGen codeGen = new SM18CodeGen();
+                        codeGen.generate(root);
+                        codeGen.patchAddress();
+                    }
+                };
+            }
+
+            case "modout":
+            {
+                STNode root = parse(scan(input));
+                if(root == null)
+                    throw new IllegalStateException("program has errors");
+
+                SM18CodeGen codeGen = new SM18CodeGen();
+                codeGen.generate(root);
+                codeGen.patchAddress();
+
+                return new Operation()
+                {
+                    public void setUp()
+                    {
+                    }
+
+                    public void run()
+                    {
+                        codeGen.modOut(new PrintWriter(Writer.nullWriter()));
+                    }
+                };
+            }
+
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+    }
+
+    /** measure()
+     *
+     * Runs a phase over an input and prints one line of results
+     *
+     * @param phase - String, the phase name
+     * @param input - Input, the program
+     */
+    private void measure(String phase, Input input)
+    {
+        Operation op;
+        try
+        {
+            op = operation(phase, input);
+        }
+        catch(RuntimeException e)
+        {
+            System.out.printf("%-9s %-14s %10d  failed: %s%n", phase, input.name, input.lines, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return;
+        }
+
+        double[] opsPerSec = new double[iterations];
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+
+        try
+        {
+            for(int iteration = -warmup; iteration < iterations; iteration++)
+            {
+                long ops = 0;
+                long nanos = 0;
+                long bytes = 0;
+
+                while(ops == 0 || nanos < minTime * 1000000L)
+                {
+                    op.setUp();
+
+                    long allocated = THREADS.getCurrentThreadAllocatedBytes();
+                    long start = System.nanoTime();
+                    op.run();
+                    nanos += System.nanoTime() - start;
+                    bytes += THREADS.getCurrentThreadAllocatedBytes() - allocated;
+                    ops++;
+                }
+
+                if(iteration >= 0)
+                {
+                    opsPerSec[iteration] = ops / (nanos / 1e9);
+                    totalOps += ops;
+                    totalNanos += nanos;
+                    totalBytes += bytes;
+                }
+            }
+        }
+        catch(RuntimeException | StackOverflowError e)
+        {
+            System.out.printf("%-9s %-14s %10d  failed: %s%n", phase, input.name, input.lines, e.getClass().getSimpleName());
+            return;
+        }
+
+        double mean = 0;
+        for(double rate : opsPerSec)
+            mean += rate / iterations;
+
+        double spread = 0;
+        for(double rate : opsPerSec)
+            spread += (rate - mean) * (rate - mean) / iterations;
+
+        double seconds = totalNanos / 1e9;
+        System.out.printf("%-9s %-14s %10d %12.2f %6.1f%% %14.0f %14.0f %12.1f%n", phase, input.name, input.lines, mean, 100 * Math.sqrt(spread) / mean,
+                mean * input.lines, totalBytes / (double)totalOps, totalBytes / seconds / 1e6);
+    }
+
+    /** run()
+     *
+     * @throws IOException - thrown while reading the samples
+     */
+    private void run() throws IOException
+    {
+        ArrayList<Input> inputs = new ArrayList<>();
+
+        if(useSamples)
+        {
+            if(samples.isEmpty())
+                ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+            for(Path sample : samples)
+                inputs.add(new Input(sample.getFileName().toString(), new String(Files.readAllBytes(sample), Charset.defaultCharset())));
+        }
+        for(String size : sizes)
+        {
+            if(generated)
+                inputs.add(new Input("generated-" + size, new ProgramGenerator().generate(1, parseSize(size))));
+            else
+                inputs.add(new Input("synthetic-" + size, synthetic(parseSize(size))));
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        console.printf("%-9s %-14s %10s %12s %7s %14s %14s %12s%n", "Phase", "Input", "Lines", "Ops/s", "Error", "Lines/s", "Alloc B/op", "Alloc MB/s");
+
+        for(String phase : phases)
+        {
+            for(Input input : inputs)
+            {
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                PrintStream result = new PrintStream(line);
+
+                Thread worker = new Thread(null, () ->
+                {
+                    System.setOut(result);
+                    measure(phase, input);
+                }, "PhaseBench", STACK_SIZE);
+
+                worker.start();
+                try
+                {
+                    worker.join();
+                }
+                catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                // Only the result line, anything the compiler printed is dropped
+                result.flush();
+                String[] printed = line.toString().split("\n");
+                for(String text : printed)
+                {
+                    if(text.startsWith(phase + " "))
+                        console.println(text);
+                }
+            }
+        }
+        System.setOut(console);
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        PhaseBench bench = new PhaseBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-phases":
+                    bench.phases = Arrays.asList(args[++i].split(","));
+                    break;
+
+                case "-sizes":
+                    bench.sizes = args[i + 1].isEmpty() ? new ArrayList<>() : Arrays.asList(args[i + 1].split(","));
+                    i++;
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-time":
+                    bench.minTime = Long.parseLong(args[++i]);
+                    break;
+
+                case "-nosamples":
+                    bench.useSamples = false;
+                    break;
+
+                case "-generated":
+                    bench.generated = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+        bench.run();
+    }
+}
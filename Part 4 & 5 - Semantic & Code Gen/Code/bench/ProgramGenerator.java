@@ -0,0 +1,785 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/** ProgramGenerator.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Seeded generator of CD18 programs of a target number of lines, for the benchmarks
+ * and stress tests. Programs are built from the grammar: constants, structure types
+ * with an array type of each, global arrays, functions with integer and real
+ * parameters, and main. Statements are assignments over expressions of a given depth,
+ * if and if else, for and repeat loops nested to a given depth, calls to the functions
+ * defined before, writes to the members of the arrays, and print statements with
+ * string literals. The same seed and settings always give the same program.
+ *
+ * Without errors added a program compiles without errors. Lexical, syntax and semantic
+ * errors can be added, each at a rate of the statements it replaces:
+ *
+ *   lexical   an invalid character in an expression, or a string literal left unclosed
+ *   syntax    a missing semi-colon or parenthesis, or an operator with no operand
+ *   semantic  an undeclared identifier, a type mismatch, or a call with too few arguments
+ *
+ * A program with lexical errors stops the compiler after scanning, as any would.
+ *
+ * Benchmarks build programs with generate(). The files main() writes can be given to
+ * any of them as sample files or directories.
+ *
+ * Usage: java ProgramGenerator [-lines n] [-seed n] [-functions n] [-structs n] [-arrays n]
+ *                              [-depth n] [-nesting n] [-strings x] [-lexical x] [-syntax x]
+ *                              [-semantic x] [-count n] [-out directory] [-check]
+ * Defaults to one program of 1000 lines written to the screen, from seed 1 with
+ * 10 functions, 2 structure types, arrays of up to 20 elements, expressions 3 deep,
+ * loops nested 2 deep, a string literal in one statement in 10 and no errors.
+ * -count writes that many programs, from consecutive seeds, to the -out directory.
+ * -check compiles the programs of -count seeds, at least 20, and exits with 1 if one
+ * without errors added has errors or throws, or one with errors added has none. The
+ * compiler throws on some programs with errors, those are counted.
+ *
+ */
+public class ProgramGenerator
+{
+    private static final long STACK_SIZE = 1L << 30;
+
+    // Lines of the globals and main that are not statements
+    private static final int FIXED_LINES = 16;
+
+    private int functions = 10;
+    private int structs = 2;
+    private int arraySize = 20;
+    private int depth = 3;
+    private int nesting = 2;
+    private double strings = 0.1;
+    private double lexical = 0;
+    private double syntax = 0;
+    private double semantic = 0;
+
+    private Random random;
+    private StringBuilder text;
+    private int lines;
+    private int injected;
+
+    /** setFunctions()
+     *
+     * @param count - int, the number of functions before main
+     */
+    public void setFunctions(int count)
+    {
+        functions = count;
+    }
+
+    /** setStructs()
+     *
+     * @param count - int, the number of structure types, each with an array type and a global array
+     */
+    public void setStructs(int count)
+    {
+        structs = count;
+    }
+
+    /** setArraySize()
+     *
+     * @param size - int, the number of elements of the largest array
+     */
+    public void setArraySize(int size)
+    {
+        arraySize = size;
+    }
+
+    /** setDepth()
+     *
+     * @param levels - int, the depth of operators in an expression
+     */
+    public void setDepth(int levels)
+    {
+        depth = levels;
+    }
+
+    /** setNesting()
+     *
+     * @param levels - int, the depth loops and if statements are nested to
+     */
+    public void setNesting(int levels)
+    {
+        nesting = levels;
+    }
+
+    /** setStrings()
+     *
+     * @param rate - double, the share of statements that print a string literal
+     */
+    public void setStrings(double rate)
+    {
+        strings = rate;
+    }
+
+    /** setErrors()
+     *
+     * @param lexicalRate - double, the share of statements replaced by one with a lexical error
+     * @param syntaxRate - double, the share replaced by one with a syntax error
+     * @param semanticRate - double, the share replaced by one with a semantic error
+     */
+    public void setErrors(double lexicalRate, double syntaxRate, double semanticRate)
+    {
+        lexical = lexicalRate;
+        syntax = syntaxRate;
+        semantic = semanticRate;
+    }
+
+    /** getInjected()
+     *
+     * @return - int, the number of errors added to the last program generated
+     */
+    public int getInjected()
+    {
+        return injected;
+    }
+
+    /** generate()
+     *
+     * Builds a program of about the given number of lines, the statements are shared
+     * evenly between the functions and main
+     *
+     * @param seed - long, seed of the program
+     * @param target - int, the number of lines to generate
+     * @return - String, the program
+     */
+    public String generate(long seed, int target)
+    {
+        random = new Random(seed);
+        text = new StringBuilder(target * 40);
+        lines = 0;
+        injected = 0;
+
+        String name = "gen" + seed;
+        int budget = Math.max(1, (target - FIXED_LINES - functions * 5 - structs * 5) / (functions + 1));
+
+        line("CD18 " + name);
+        line("");
+        globals();
+
+        for(int f = 0; f < functions; f++)
+            function(f, budget);
+
+        line("main");
+        line("\ti0 : integer, i1 : integer, r0 : real, r1 : real" + counters());
+        line("begin");
+        block(1, functions, budget, 0);
+        line("\tprintline \"done\";");
+        line("end CD18 " + name);
+
+        return text.toString();
+    }
+
+    /** globals()
+     *
+     * Writes the constants, a structure and array type for each structure, and the global arrays
+     */
+    private void globals()
+    {
+        line("constants");
+        StringBuilder constants = new StringBuilder("\tSCALE = 3, HALF = 0.5");
+        for(int s = 0; s < structs; s++)
+            constants.append(", SIZE").append(s).append(" = ").append(Math.max(1, arraySize - s * 3));
+        line(constants.toString());
+
+        if(structs > 0)
+        {
+            line("");
+            line("types");
+            for(int s = 0; s < structs; s++)
+            {
+                line("\tS" + s + " is");
+                line("\t\tn" + s + " : integer, x" + s + " : real");
+                line("\tend");
+                line("\tA" + s + " is array[SIZE" + s + "] of S" + s);
+            }
+
+            line("");
+            line("arrays");
+            StringBuilder arrays = new StringBuilder("\t");
+            for(int s = 0; s < structs; s++)
+                arrays.append(s > 0 ? ", " : "").append("g").append(s).append(" : A").append(s);
+            line(arrays.toString());
+        }
+        line("");
+    }
+
+    /** function()
+     *
+     * @param f - int, number of the function
+     * @param budget - int, about the number of lines of its body
+     */
+    private void function(int f, int budget)
+    {
+        boolean real = f % 2 == 0;
+
+        line("func f" + f + "(i0 : integer, r0 : real) : " + (real ? "real" : "integer"));
+        line("\ti1 : integer, r1 : real" + counters());
+        line("begin");
+        block(1, f, budget, 0);
+        line("\treturn " + (real ? "r0 + r1" : "i0 + i1") + ";");
+        line("end");
+        line("");
+    }
+
+    /** counters()
+     *
+     * @return - String, declarations of the counters of the nested loops
+     */
+    private String counters()
+    {
+        StringBuilder declarations = new StringBuilder();
+        for(int level = 0; level < Math.max(1, nesting); level++)
+            declarations.append(", k").append(level).append(" : integer");
+
+        return declarations.toString();
+    }
+
+    /** block()
+     *
+     * Writes statements until the block has about the given number of lines
+     *
+     * @param indent - int, the depth of the block in its function
+     * @param callable - int, the number of functions that can be called
+     * @param budget - int, about the number of lines to write
+     * @param level - int, the number of loops and if statements around the block
+     */
+    private void block(int indent, int callable, int budget, int level)
+    {
+        int end = lines + Math.max(1, budget);
+
+        while(lines < end)
+            statement(indent, callable, end - lines, level);
+    }
+
+    /** statement()
+     *
+     * @param indent - int, the depth of the statement in its function
+     * @param callable - int, the number of functions that can be called
+     * @param room - int, about the number of lines left in the block
+     * @param level - int, the number of loops and if statements around the statement
+     */
+    private void statement(int indent, int callable, int room, int level)
+    {
+        String tabs = "\t".repeat(indent);
+        double error = random.nextDouble();
+
+        if(error < lexical)
+        {
+            lexicalError(tabs);
+            return;
+        }
+        error -= lexical;
+        if(error < syntax)
+        {
+            syntaxError(tabs);
+            return;
+        }
+        error -= syntax;
+        if(error < semantic)
+        {
+            semanticError(tabs, callable);
+            return;
+        }
+
+        // Code is generated for printline of string literals alone
+        if(random.nextDouble() < strings)
+        {
+            line(tabs + (random.nextBoolean() ? "print " + string() + ", " + intExpr(1) : "printline " + string()) + ";");
+            return;
+        }
+
+        // Blocks need room for their body and what ends them
+        int choice = random.nextInt(level < nesting && room > 4 ? 10 : 6);
+        int counter = Math.min(level, Math.max(1, nesting) - 1);
+
+        switch(choice)
+        {
+            case 0:
+            case 1:
+                line(tabs + "i" + random.nextInt(2) + " = " + intExpr(depth) + ";");
+                break;
+
+            case 2:
+                line(tabs + "r" + random.nextInt(2) + (random.nextBoolean() ? " = " : " += ") + realExpr(depth) + ";");
+                break;
+
+            case 3:
+                if(structs > 0)
+                {
+                    int s = random.nextInt(structs);
+                    line(tabs + "g" + s + "[" + random.nextInt(Math.max(1, arraySize - s * 3)) + "].n" + s + " = " + intExpr(depth) + ";");
+                    break;
+                }
+                line(tabs + "i1 += " + intExpr(depth) + ";");
+                break;
+
+            case 4:
+                if(callable > 0)
+                {
+                    int f = random.nextInt(callable);
+                    line(tabs + (f % 2 == 0 ? "r1 = f" : "i1 = f") + f + "(" + intExpr(1) + ", " + realExpr(1) + ");");
+                    break;
+                }
+                line(tabs + "r1 = " + realExpr(depth) + ";");
+                break;
+
+            case 5:
+                line(tabs + "print " + (random.nextBoolean() ? "i0, i1;" : "r0;"));
+                break;
+
+            // If, and if with else
+            case 6:
+            case 7:
+                line(tabs + "if (" + boolExpr(depth) + ")");
+                if(choice == 7 && room > 8)
+                {
+                    block(indent + 1, callable, room / 4, level + 1);
+                    line(tabs + "else");
+                }
+                block(indent + 1, callable, room / 4, level + 1);
+                line(tabs + "end");
+                break;
+
+            case 8:
+                line(tabs + "for (k" + counter + " = 0; k" + counter + " < " + (random.nextInt(9) + 2) + " and " + boolExpr(1) + ")");
+                block(indent + 1, callable, room / 3, level + 1);
+                line(tabs + "\tk" + counter + " += 1;");
+                line(tabs + "end");
+                break;
+
+            default:
+                line(tabs + "repeat (k" + counter + " = 0)");
+                block(indent + 1, callable, room / 3, level + 1);
+                line(tabs + "\tk" + counter + " += 1;");
+                line(tabs + "until k" + counter + " >= " + (random.nextInt(9) + 2) + ";");
+        }
+    }
+
+    /** lexicalError()
+     *
+     * @param tabs - String, indentation of the statement
+     */
+    private void lexicalError(String tabs)
+    {
+        injected++;
+        if(random.nextBoolean())
+            line(tabs + "i0 = " + intExpr(1) + " @ " + intExpr(1) + ";");
+        else
+            line(tabs + "printline \"unclosed;");
+    }
+
+    /** syntaxError()
+     *
+     * @param tabs - String, indentation of the statement
+     */
+    private void syntaxError(String tabs)
+    {
+        injected++;
+        switch(random.nextInt(3))
+        {
+            case 0:
+                line(tabs + "i0 = " + intExpr(depth));
+                break;
+
+            case 1:
+                line(tabs + "if (" + boolExpr(1));
+                line(tabs + "\ti1 = " + intExpr(1) + ";");
+                line(tabs + "end");
+                break;
+
+            default:
+                line(tabs + "i1 = " + intExpr(1) + " * ;");
+        }
+    }
+
+    /** semanticError()
+     *
+     * @param tabs - String, indentation of the statement
+     * @param callable - int, the number of functions that can be called
+     */
+    private void semanticError(String tabs, int callable)
+    {
+        injected++;
+        switch(random.nextInt(callable > 0 ? 3 : 2))
+        {
+            case 0:
+                line(tabs + "undeclared" + lines + " = " + intExpr(1) + ";");
+                break;
+
+            case 1:
+                line(tabs + "i0 = " + (random.nextInt(90) + 10) + ".5;");
+                break;
+
+            default:
+                int f = random.nextInt(callable);
+                line(tabs + (f % 2 == 0 ? "r1 = f" : "i1 = f") + f + "(" + intExpr(1) + ");");
+        }
+    }
+
+    /** intExpr()
+     *
+     * Builds an integer expression. A division is by a literal that is not zero, and is put
+     * in parentheses, as the parser groups a division with the operators after it.
+     *
+     * @param levels - int, the depth of operators in the expression
+     * @return - String, the expression
+     */
+    private String intExpr(int levels)
+    {
+        if(levels <= 0)
+        {
+            switch(random.nextInt(4))
+            {
+                case 0:
+                    return "i" + random.nextInt(2);
+
+                case 1:
+                    return "SCALE";
+
+                default:
+                    return String.valueOf(random.nextInt(99) + 1);
+            }
+        }
+
+        switch(random.nextInt(6))
+        {
+            case 0:
+                return intExpr(levels - 1) + " + " + intExpr(levels - 1);
+
+            case 1:
+                return intExpr(levels - 1) + " - " + intExpr(levels - 1);
+
+            case 2:
+                return intExpr(levels - 1) + " * " + intExpr(levels - 1);
+
+            case 3:
+                return "(" + intExpr(levels - 1) + (random.nextBoolean() ? " / " : " % ") + (random.nextInt(9) + 1) + ")";
+
+            case 4:
+                return "(" + intExpr(levels - 1) + ")";
+
+            default:
+                return intExpr(0) + " ^ 2";
+        }
+    }
+
+    /** realExpr()
+     *
+     * @param levels - int, the depth of operators in the expression
+     * @return - String, the expression
+     */
+    private String realExpr(int levels)
+    {
+        if(levels <= 0)
+        {
+            switch(random.nextInt(4))
+            {
+                case 0:
+                    return "r" + random.nextInt(2);
+
+                case 1:
+                    return "HALF";
+
+                default:
+                    return random.nextInt(99) + "." + random.nextInt(10);
+            }
+        }
+
+        switch(random.nextInt(5))
+        {
+            case 0:
+                return realExpr(levels - 1) + " + " + realExpr(levels - 1);
+
+            case 1:
+                return realExpr(levels - 1) + " - " + realExpr(levels - 1);
+
+            case 2:
+                return realExpr(levels - 1) + " * " + realExpr(levels - 1);
+
+            case 3:
+                return "(" + realExpr(levels - 1) + " / " + (random.nextInt(9) + 1) + ".5)";
+
+            default:
+                return "(" + realExpr(levels - 1) + ")";
+        }
+    }
+
+    /** boolExpr()
+     *
+     * @param levels - int, the depth of logical operators in the expression
+     * @return - String, the expression
+     */
+    private String boolExpr(int levels)
+    {
+        if(levels <= 1 || random.nextInt(3) == 0)
+        {
+            String[] relations = {" < ", " <= ", " > ", " >= ", " == ", " != "};
+            String relation = relations[random.nextInt(relations.length)];
+
+            if(random.nextBoolean())
+                return intExpr(1) + relation + intExpr(1);
+            return realExpr(1) + relation + realExpr(1);
+        }
+
+        String[] logic = {" and ", " or ", " xor "};
+        String left = boolExpr(levels - 1);
+
+        return (random.nextInt(4) == 0 ? "not " : "") + left + logic[random.nextInt(logic.length)] + boolExpr(levels - 1);
+    }
+
+    /** string()
+     *
+     * @return - String, a string literal
+     */
+    private String string()
+    {
+        return "\"line " + lines + " of " + (random.nextInt(900) + 100) + "\"";
+    }
+
+    /** line()
+     *
+     * @param content - String, a line of the program
+     */
+    private void line(String content)
+    {
+        text.append(content).append('\n');
+        lines++;
+    }
+
+    /** check()
+     *
+     * Compiles the programs of a run of seeds without errors, with each kind of error
+     * alone, and with the rates given if there are any
+     *
+     * @param console - PrintStream, where results are written
+     * @param seed - long, the first seed
+     * @param count - int, the number of seeds
+     * @param target - int, the number of lines of each program
+     * @return - boolean, true if the programs have errors only when they were added
+     */
+    private boolean check(PrintStream console, long seed, int count, int target)
+    {
+        String[] kinds = {"none", "lexical", "syntax", "semantic", "given"};
+        double[][] rates = {{0, 0, 0}, {0.02, 0, 0}, {0, 0.02, 0}, {0, 0, 0.02}, {lexical, syntax, semantic}};
+        boolean valid = true;
+
+        console.printf("%-10s %10s %10s %10s %10s%n", "Errors", "Programs", "Reported", "Threw", "Missed");
+        for(int kind = 0; kind < kinds.length; kind++)
+        {
+            if(kind == kinds.length - 1 && lexical + syntax + semantic == 0)
+                break;
+
+            int reported = 0;
+            int threw = 0;
+            int missed = 0;
+
+            ProgramGenerator generator = copy();
+            generator.setErrors(rates[kind][0], rates[kind][1], rates[kind][2]);
+
+            for(int i = 0; i < count; i++)
+            {
+                String result = compile(generator.generate(seed + i, target));
+                boolean added = generator.getInjected() > 0;
+
+                // The compiler throws on some programs with errors, a program without any must compile
+                if(result.startsWith("threw "))
+                {
+                    threw++;
+                    if(!added)
+                    {
+                        console.printf("Seed %d without errors: %s%n", seed + i, result);
+                        valid = false;
+                    }
+                }
+                else if(result.contains("Found ") != added)
+                {
+                    missed++;
+                    console.printf("Seed %d with %d %s errors added: %s%n", seed + i, generator.getInjected(), kinds[kind],
+                        added ? "no errors reported" : "errors reported");
+                    valid = false;
+                }
+                else if(added)
+                    reported++;
+            }
+
+            console.printf("%-10s %10d %10d %10d %10d%n", kinds[kind], count, reported, threw, missed);
+        }
+
+        return valid;
+    }
+
+    /** copy()
+     *
+     * @return - ProgramGenerator, a generator with the same settings
+     */
+    private ProgramGenerator copy()
+    {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.setFunctions(functions);
+        generator.setStructs(structs);
+        generator.setArraySize(arraySize);
+        generator.setDepth(depth);
+        generator.setNesting(nesting);
+        generator.setStrings(strings);
+        generator.setErrors(lexical, syntax, semantic);
+
+        return generator;
+    }
+
+    /** compile()
+     *
+     * @param program - String, the program
+     * @return - String, the compiler report, or the exception thrown
+     */
+    private static String compile(String program)
+    {
+        StringWriter code = new StringWriter();
+        StringWriter screen = new StringWriter();
+        StringWriter listing = new StringWriter();
+
+        try
+        {
+            new CD().compile(CD18Scanner.fromSource(program), new PrintWriter(code), new PrintWriter(screen), new PrintWriter(listing));
+        }
+        catch(RuntimeException e)
+        {
+            return "threw " + e;
+        }
+
+        return screen.toString();
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ProgramGenerator generator = new ProgramGenerator();
+        int target = 1000;
+        long seed = 1;
+        int count = 1;
+        Path out = null;
+        boolean check = false;
+        double[] rates = new double[3];
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-lines":
+                    target = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-functions":
+                    generator.setFunctions(Integer.parseInt(args[++i]));
+                    break;
+
+                case "-structs":
+                    generator.setStructs(Integer.parseInt(args[++i]));
+                    break;
+
+                case "-arrays":
+                    generator.setArraySize(Integer.parseInt(args[++i]));
+                    break;
+
+                case "-depth":
+                    generator.setDepth(Integer.parseInt(args[++i]));
+                    break;
+
+                case "-nesting":
+                    generator.setNesting(Integer.parseInt(args[++i]));
+                    break;
+
+                case "-strings":
+                    generator.setStrings(Double.parseDouble(args[++i]));
+                    break;
+
+                case "-lexical":
+                    rates[0] = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-syntax":
+                    rates[1] = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-semantic":
+                    rates[2] = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-count":
+                    count = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-out":
+                    out = Paths.get(args[++i]);
+                    break;
+
+                case "-check":
+                    check = true;
+                    break;
+
+                default:
+                    System.err.println("Usage: java ProgramGenerator [-lines n] [-seed n] [-functions n] [-structs n] [-arrays n]");
+                    System.err.println("                             [-depth n] [-nesting n] [-strings x] [-lexical x] [-syntax x]");
+                    System.err.println("                             [-semantic x] [-count n] [-out directory] [-check]");
+                    System.exit(2);
+            }
+        }
+        generator.setErrors(rates[0], rates[1], rates[2]);
+
+        if(check)
+        {
+            // The compiler reports some errors on System.out, keep the results readable
+            PrintStream console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+            boolean[] valid = new boolean[1];
+            long first = seed;
+            int seeds = Math.max(count, 20);
+            int lines = target;
+
+            // The parser recurses per expression
+            Thread worker = new Thread(null, () -> valid[0] = generator.check(console, first, seeds, lines), "ProgramGenerator", STACK_SIZE);
+
+            worker.start();
+            try
+            {
+                worker.join();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            System.setOut(console);
+
+            if(!valid[0])
+                System.exit(1);
+            return;
+        }
+
+        if(out == null)
+        {
+            System.out.print(generator.generate(seed, target));
+            return;
+        }
+
+        Files.createDirectories(out);
+        for(int i = 0; i < count; i++)
+            Files.write(out.resolve("gen" + (seed + i) + ".txt"), generator.generate(seed + i, target).getBytes(Charset.defaultCharset()));
+    }
+}
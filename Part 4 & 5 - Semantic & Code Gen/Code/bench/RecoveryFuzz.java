@@ -0,0 +1,278 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+
+/** RecoveryFuzz.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Fuzz test for the parser's error recovery. Programs of random token soup, keywords,
+ * operators, identifiers and literals in any order, are parsed at doubling sizes.
+ * Half of them are put inside the statements of a main block, so that statement
+ * recovery gets the soup, the rest follow the program identifier, where the globals
+ * are recovered and the first stray end of a block usually ends the program.
+ *
+ * Recovery must pass over no more tokens than the program has, and the time per token
+ * the parse reached should stay flat as the programs grow, and no parse may throw. Exits
+ * with 1 if a parse throws, naming the program and what was thrown, if recovery skips
+ * more tokens than a program has, or if the time per token at the largest size is more
+ * than -limit times that at the smallest.
+ *
+ * Usage: java RecoveryFuzz [-tokens n] [-sizes n] [-programs n] [-seed n] [-limit x]
+ * Defaults to 2000 tokens doubled over 6 sizes, 20 programs a size, seed 1 and a limit of 3.
+ *
+ */
+public class RecoveryFuzz
+{
+    private static final long STACK_SIZE = 1L << 30;
+    private static final int WARMUP = 10;
+
+    // Lexemes the soup is made from, every keyword, operator and delimiter of CD18
+    private static final String[] LEXEMES =
+    {
+        "CD18", "constants", "types", "is", "arrays", "main", "begin", "end", "array", "of", "func", "void",
+        "const", "integer", "real", "boolean", "for", "repeat", "until", "if", "else", "input", "print", "printline",
+        "return", "and", "or", "xor", "not", "true", "false",
+        ",", "[", "]", "(", ")", "=", "+", "-", "*", "/", "%", "^", "<", ">", ":", "<=", ">=", "!=", "==",
+        "+=", "-=", "*=", "/=", "%=", ";", "."
+    };
+
+    private int tokens = 2000;
+    private int sizes = 6;
+    private int programs = 20;
+    private long seed = 1;
+    private double limit = 3;
+
+    /** soup()
+     *
+     * Builds a program of random tokens. Inside a main block, the tokens that close a block
+     * or end main are left out and the blocks the soup opens are closed after it, so that
+     * the statements run to the end of the soup and recovery is given all of it.
+     *
+     * @param random - Random, source of the tokens
+     * @param count - int, number of tokens
+     * @param inMain - boolean, true to put the soup inside the statements of a main block
+     * @return - String, the program
+     */
+    static String soup(Random random, int count, boolean inMain)
+    {
+        StringBuilder text = new StringBuilder(count * 6);
+        ArrayList<String> open = new ArrayList<>();
+
+        text.append(inMain ? "CD18 fuzz\nmain\n\ta : integer, b : real\nbegin\n" : "CD18 fuzz\n");
+
+        for(int i = 0; i < count; i++)
+        {
+            int pick = random.nextInt(LEXEMES.length + 8);
+            String lexeme = pick < LEXEMES.length ? LEXEMES[pick] : null;
+
+            if(inMain && lexeme != null)
+            {
+                switch(lexeme)
+                {
+                    case "if":
+                    case "for":
+                    case "repeat":
+                        open.add(lexeme);
+                        break;
+
+                    case "end":
+                    case "until":
+                    case "else":
+                    case "CD18":
+                    case "main":
+                    case "func":
+                        lexeme = "";
+                        break;
+
+                    default:
+                }
+            }
+
+            if(lexeme != null)
+                text.append(lexeme);
+            else if(pick < LEXEMES.length + 4)
+                text.append(random.nextBoolean() ? 'a' : 'b');
+            else if(pick < LEXEMES.length + 6)
+                text.append(random.nextInt(100));
+            else if(pick < LEXEMES.length + 7)
+                text.append(random.nextInt(100)).append('.').append(random.nextInt(10));
+            else
+                text.append("\"s").append(i).append('"');
+
+            text.append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+
+        if(inMain)
+        {
+            for(int i = open.size() - 1; i >= 0; i--)
+                text.append(open.get(i).equals("repeat") ? "until true;\n" : "end\n");
+            text.append("\nend CD18 fuzz\n");
+        }
+
+        return text.toString();
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if no parse threw and recovery stayed within its bounds
+     */
+    private boolean run(PrintStream console)
+    {
+        Random random = new Random(seed);
+        double first = 0;
+        double last = 0;
+        boolean bounded = true;
+
+        // Warm up the parser on soup of the smallest size
+        for(int i = 0; i < programs * WARMUP; i++)
+        {
+            Throwable thrown = parse(new CD18Scanner(CharBuffer.wrap(soup(new Random(i), tokens, i % 2 == 0))).scanAll(1));
+            if(thrown != null)
+            {
+                console.printf("Warm up program %d of %d tokens threw %s%n", i, tokens, thrown);
+                bounded = false;
+            }
+        }
+
+        console.printf("%-10s %10s %10s %14s %14s %10s%n", "Tokens", "Programs", "Reached", "ns/token", "Skipped/token", "Threw");
+        for(int size = 0; size < sizes; size++)
+        {
+            int count = tokens << size;
+            long nanos = 0;
+            long total = 0;
+            long reached = 0;
+            long skipped = 0;
+            int threw = 0;
+
+            for(int i = 0; i < programs; i++)
+            {
+                TokenBuffer buffer = new CD18Scanner(CharBuffer.wrap(soup(random, count, i % 2 == 0))).scanAll(1);
+
+                long start = System.nanoTime();
+                Throwable thrown = parse(buffer);
+                nanos += System.nanoTime() - start;
+
+                if(thrown != null)
+                {
+                    console.printf("Program %d of %d tokens threw %s%n", i, count, thrown);
+                    threw++;
+                    bounded = false;
+                }
+
+                if(buffer.getSkipped() > buffer.size())
+                {
+                    console.printf("Recovery skipped %d of %d tokens%n", buffer.getSkipped(), buffer.size());
+                    bounded = false;
+                }
+                total += buffer.size();
+                reached += Math.max(1, buffer.position());
+                skipped += buffer.getSkipped();
+            }
+
+            // A parse may end early, at a stray end of program, so the time is spread over the tokens reached
+            last = (double)nanos / reached;
+            if(size == 0)
+                first = last;
+
+            console.printf("%-10d %10d %9.0f%% %14.1f %14.3f %10d%n", count, programs, 100.0 * reached / total, last,
+                (double)skipped / reached, threw);
+        }
+
+        console.printf("%nTime per token grew %.2fx from the smallest size to the largest%n", last / first);
+
+        if(last / first > limit)
+        {
+            console.printf("More than the limit of %.1fx%n", limit);
+            bounded = false;
+        }
+        return bounded;
+    }
+
+    /** parse()
+     *
+     * @param buffer - TokenBuffer, tokens of the program
+     * @return - Throwable, what the parse threw, or null if it finished
+     */
+    private static Throwable parse(TokenBuffer buffer)
+    {
+        try
+        {
+            new CD18Parser(buffer).parseInput();
+        }
+        catch(RuntimeException | StackOverflowError e)
+        {
+            return e;
+        }
+        return null;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        RecoveryFuzz fuzz = new RecoveryFuzz();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-tokens":
+                    fuzz.tokens = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-sizes":
+                    fuzz.sizes = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-programs":
+                    fuzz.programs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-seed":
+                    fuzz.seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-limit":
+                    fuzz.limit = Double.parseDouble(args[++i]);
+                    break;
+
+                default:
+                    System.err.println("Usage: java RecoveryFuzz [-tokens n] [-sizes n] [-programs n] [-seed n] [-limit x]");
+                    System.exit(2);
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] bounded = new boolean[1];
+
+        // The parser recurses per expression
+        Thread worker = new Thread(null, () -> bounded[0] = fuzz.run(console), "RecoveryFuzz", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(!bounded[0])
+            System.exit(1);
+    }
+}
@@ -0,0 +1,151 @@
+/** RecursiveExpressions.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * The recursive expression rules of STNode from before expressions were parsed by
+ * precedence climbing, kept as the baseline ExpressionBench checks and times the
+ * parser against. A method per level of precedence reads its first operand from the
+ * level above, and an operator takes the rest of its level as its right operand.
+ *
+ * Relations, operands and identifiers are read by STNode, which calls back into these
+ * rules for the left operand of a relation and for bracketed expressions. Right
+ * operands of relations, call arguments and array indexes are read by the nodes
+ * holding them, with the parser's own rules.
+ *
+ */
+public class RecursiveExpressions extends STNode
+{
+    public RecursiveExpressions()
+    {
+        super(NID.NUNDEF);
+    }
+
+    /** processExpression()
+     *
+     * Processes an expression starting with the lowest level of precedence
+     *
+     * @param tokenList - TokenBuffer,
+     * @param table - SymbolTable,
+     * @return STNode,
+     */
+    @Override
+    protected STNode processExpression(TokenBuffer tokenList, SymbolTable table)
+    {
+        // Process the first term in the expression
+        STNode term = processTerm(tokenList, table);
+
+        // Select the operation
+        switch(tokenList.peekID(0))
+        {
+            case TPLUS:
+                tokenList.advance();
+                return new NAdd(term, processExpression(tokenList, table));
+
+            case TMINS:
+                tokenList.advance();
+                return new NSub(term, processExpression(tokenList, table));
+
+            // Expression is unary
+            default:
+                return term;
+        }
+    }
+
+    /** processTerm()
+     *
+     * Processes the second level of operator precedence in an expression
+     *
+     * @param tokenList - TokenBuffer,
+     * @param table - SymbolTable,
+     * @return STNode,
+     */
+    private STNode processTerm(TokenBuffer tokenList, SymbolTable table)
+    {
+        // Process the first factor of the term
+        STNode factor = processFactor(tokenList, table);
+
+        // Select the operation
+        switch(tokenList.peekID(0))
+        {
+            case TSTAR:
+                tokenList.advance();
+                return new NMul(factor, processTerm(tokenList, table));
+
+            case TDIVD:
+                tokenList.advance();
+                return new NDiv(factor, processTerm(tokenList, table));
+
+            case TPERC:
+                tokenList.advance();
+                return new NMod(factor, processTerm(tokenList, table));
+
+            // Term is unary
+            default:
+                return factor;
+        }
+    }
+
+    /** processFactor()
+     *
+     * Processes the third level of operator precedence in an expression
+     *
+     * @param tokenList - TokenBuffer,
+     * @param table - SymbolTable,
+     * @return STNode,
+     */
+    private STNode processFactor(TokenBuffer tokenList, SymbolTable table)
+    {
+        // Process the first exponent of the factor
+        STNode exponent = processExponent(tokenList, table);
+
+        switch(tokenList.peekID(0))
+        {
+            case TCART:
+                tokenList.advance();
+                return new NPow(exponent, processFactor(tokenList, table));
+
+            // Exponent is unary
+            default:
+                return exponent;
+        }
+    }
+
+    /** processBool()
+     *
+     * Processes a boolean expression starting with the lowest level of precedence
+     *
+     * @param tokenList - TokenBuffer,
+     * @param table - SymbolTable,
+     * @return STNode,
+     */
+    @Override
+    protected STNode processBool(TokenBuffer tokenList, SymbolTable table)
+    {
+        // Process the first relation
+        STNode rel = processRel(tokenList, table);
+
+        // Select the operator
+        switch(tokenList.peekID(0))
+        {
+            case TAND:
+                tokenList.advance();
+                return new NBool(new NAnd(rel, processBool(tokenList, table)));
+
+            case TOR:
+                tokenList.advance();
+                return new NBool(new NOr(rel, processBool(tokenList, table)));
+
+            case TXOR:
+                tokenList.advance();
+                return new NBool(new NXor(rel, processBool(tokenList, table)));
+
+            // Relation is unary
+            default:
+                return rel;
+        }
+    }
+}
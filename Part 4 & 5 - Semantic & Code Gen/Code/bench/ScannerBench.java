@@ -0,0 +1,203 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/** ScannerBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * Compares the tokens per second of the table driven CD18Scanner against the original
+ * BufferedReader scanner (ReaderScanner). Each sample program is repeated to build a
+ * large source file which both scanners tokenise to end of file.
+ *
+ * Usage: java ScannerBench [-scale n] [-runs n] [sample files or directories]
+ * Defaults to the programs in "../../Part 2 - Programs" scaled up 10,000 times.
+ *
+ */
+public class ScannerBench
+{
+    private static final int WARMUP = 2;
+
+    private int scale = 10000;
+    private int runs = 5;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** scaleUp()
+     *
+     * Writes a temporary file holding the sample repeated scale times
+     *
+     * @param sample - Path, the sample program
+     * @param scale - int, number of copies of the sample
+     * @return - Path, the scaled up source file
+     * @throws IOException - thrown while reading the sample or writing the file
+     */
+    static Path scaleUp(Path sample, int scale) throws IOException
+    {
+        byte[] text = Files.readAllBytes(sample);
+        Path scaled = Files.createTempFile("bench", ".txt");
+        scaled.toFile().deleteOnExit();
+
+        try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(scaled), 1 << 16))
+        {
+            for(int i = 0; i < scale; i++)
+            {
+                out.write(text);
+                out.write('\n');
+            }
+        }
+        return scaled;
+    }
+
+    /** scanTable()
+     *
+     * @param fileName - String, source file to tokenise
+     * @return - long, number of tokens produced
+     */
+    private static long scanTable(String fileName)
+    {
+        CD18Scanner scanner = new CD18Scanner(fileName);
+        long count = 0;
+
+        while(!scanner.eof())
+        {
+            scanner.getToken();
+            count++;
+        }
+        return count;
+    }
+
+    /** scanReader()
+     *
+     * @param fileName - String, source file to tokenise
+     * @return - long, number of tokens produced
+     * @throws IOException - thrown from the ReaderScanner
+     */
+    private static long scanReader(String fileName) throws IOException
+    {
+        ReaderScanner scanner = new ReaderScanner(fileName);
+        long count = 0;
+
+        while(!scanner.eof())
+        {
+            scanner.getToken();
+            count++;
+        }
+        return count;
+    }
+
+    /** measure()
+     *
+     * Runs a scanner over the file and returns the median tokens per second
+     *
+     * @param fileName - String, source file to tokenise
+     * @param table - boolean, true for CD18Scanner, false for ReaderScanner
+     * @return - double, median tokens per second over the measured runs
+     * @throws IOException - thrown from the ReaderScanner
+     */
+    private double measure(String fileName, boolean table) throws IOException
+    {
+        double[] rates = new double[runs];
+
+        for(int i = -WARMUP; i < runs; i++)
+        {
+            long start = System.nanoTime();
+            long tokens = table ? scanTable(fileName) : scanReader(fileName);
+            long elapsed = System.nanoTime() - start;
+
+            if(i >= 0)
+                rates[i] = tokens / (elapsed / 1e9);
+        }
+        Arrays.sort(rates);
+        return rates[runs / 2];
+    }
+
+    /** run()
+     *
+     * Benchmarks both scanners on each sample and prints a table of results
+     *
+     * @throws IOException - thrown while building or scanning the source files
+     */
+    private void run() throws IOException
+    {
+        System.out.printf("%-14s %10s %10s %14s %14s %8s%n", "Sample", "MB", "Tokens", "Reader tok/s", "Table tok/s", "Speedup");
+
+        for(Path sample : samples)
+        {
+            Path scaled = scaleUp(sample, scale);
+            String fileName = scaled.toString();
+
+            long tokens = scanTable(fileName);
+
+            // Both scanners must agree before their speeds are compared
+            if(tokens != scanReader(fileName))
+                System.out.println(sample.getFileName() + ": token counts differ");
+
+            double reader = measure(fileName, false);
+            double table = measure(fileName, true);
+
+            System.out.printf("%-14s %10.1f %10d %14.0f %14.0f %7.2fx%n", sample.getFileName(), Files.size(scaled) / 1e6, tokens, reader, table, table / reader);
+
+            Files.delete(scaled);
+        }
+    }
+
+    /** addSamples()
+     *
+     * Adds a sample file, or every .txt file in a directory
+     *
+     * @param samples - ArrayList<Path>, the list of samples
+     * @param path - Path, a file or directory
+     * @throws IOException - thrown while listing the directory
+     */
+    static void addSamples(ArrayList<Path> samples, Path path) throws IOException
+    {
+        if(Files.isDirectory(path))
+        {
+            try(Stream<Path> files = Files.list(path))
+            {
+                files.filter(p -> p.toString().endsWith(".txt")).sorted().forEach(samples::add);
+            }
+        }
+        else
+            samples.add(path);
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        ScannerBench bench = new ScannerBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-scale":
+                    bench.scale = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-runs":
+                    bench.runs = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        if(bench.samples.isEmpty())
+            addSamples(bench.samples, Paths.get("../../Part 2 - Programs"));
+
+        bench.run();
+    }
+}
@@ -0,0 +1,365 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/** ScopeBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Compares the two symbol tables behind Symbols as scopes nest more deeply. SymbolTable
+ * chains a table per scope, so a name declared further out, a global lookup or a name
+ * that is not declared at all walks the chain, while FlatSymbolTable finds each with one
+ * map lookup. At each depth both tables are given the same globals and the same scopes,
+ * each declaring locals that hide some of the names outside it, and then read from the
+ * innermost scope with a mix of lookups of local, outer, global and undeclared names,
+ * global lookups and type lookups. Entering the scopes, declaring their locals and
+ * leaving them again is timed as well.
+ *
+ * Both tables must give the same answer to every lookup. With -check, exits with 1 if they
+ * do not, or if the time per lookup of FlatSymbolTable at the deepest nesting is more than
+ * -limit times that at the shallowest.
+ *
+ * Usage: java ScopeBench [-globals n] [-locals n] [-depth n] [-lookups n] [-seed n] [-limit x] [-check]
+ * Defaults to 1000 globals, 20 locals a scope, depths doubling up to 64, 1000000 lookups,
+ * seed 1 and a limit of 3.
+ *
+ */
+public class ScopeBench
+{
+    private static final int WARMUP = 5;
+    private static final int ROUNDS = 5;
+
+    private int globals = 1000;
+    private int locals = 20;
+    private int depth = 64;
+    private int lookups = 1000000;
+    private long seed = 1;
+    private double limit = 3;
+    private boolean check = false;
+
+    // Kinds of lookup, in the order the mix cycles through them
+    private static final int LOCAL = 0;
+    private static final int OUTER = 1;
+    private static final int GLOBAL = 2;
+    private static final int GLOBAL_ENTRY = 3;
+    private static final int MISSING = 4;
+    private static final int TYPE = 5;
+    private static final int KINDS = 6;
+
+    /** entry()
+     *
+     * @param name - String, name of the entry
+     * @param type - String, type of the entry
+     * @return - TableEntry, an identifier entry
+     */
+    private static TableEntry entry(String name, String type)
+    {
+        TableEntry entry = new TableEntry(new Token(Token.TID.TIDEN, 1, 1, name));
+        entry.setType(type);
+        return entry;
+    }
+
+    /** Workload
+     *
+     * The entries of the globals and of each scope, and the names looked up, shared by both tables
+     */
+    private static class Workload
+    {
+        private final ArrayList<TableEntry> globalIds = new ArrayList<>();
+        private final ArrayList<TableEntry> globalTypes = new ArrayList<>();
+        private final ArrayList<ArrayList<TableEntry>> scopes = new ArrayList<>();
+        private String[] names;
+        private int[] kinds;
+    }
+
+    /** workload()
+     *
+     * @param random - Random, picks the names hidden and looked up
+     * @param levels - int, number of scopes inside the global scope
+     * @return - Workload, the entries and lookups
+     */
+    private Workload workload(Random random, int levels)
+    {
+        Workload work = new Workload();
+
+        for(int i = 0; i < globals; i++)
+            work.globalIds.add(entry("g" + i, "integer"));
+        for(int i = 0; i < globals / 10 + 1; i++)
+            work.globalTypes.add(entry("T" + i, "T" + i));
+
+        // Every other local of a scope hides a global or a local of the scope around it
+        for(int level = 0; level < levels; level++)
+        {
+            ArrayList<TableEntry> scope = new ArrayList<>();
+            for(int i = 0; i < locals; i++)
+            {
+                String name;
+                if(i % 2 == 1)
+                    name = "l" + level + "_" + i;
+                else if(level > 0 && locals > 1 && random.nextBoolean())
+                    name = "l" + (level - 1) + "_" + (random.nextInt(locals / 2) * 2 + 1);
+                else
+                    name = "g" + random.nextInt(globals);
+                scope.add(entry(name, "real"));
+            }
+            work.scopes.add(scope);
+        }
+
+        work.names = new String[lookups];
+        work.kinds = new int[lookups];
+        for(int i = 0; i < lookups; i++)
+        {
+            int kind = i % KINDS;
+            int level = random.nextInt(levels);
+            String name;
+
+            switch(kind)
+            {
+                case LOCAL:
+                    name = work.scopes.get(levels - 1).get(random.nextInt(locals)).getName();
+                    break;
+
+                case OUTER:
+                    name = work.scopes.get(level).get(random.nextInt(locals)).getName();
+                    break;
+
+                case MISSING:
+                    name = "m" + random.nextInt(globals);
+                    break;
+
+                case TYPE:
+                    name = work.globalTypes.get(random.nextInt(work.globalTypes.size())).getName();
+                    break;
+
+                default:
+                    name = work.globalIds.get(random.nextInt(globals)).getName();
+            }
+
+            // Built fresh, as a name read by the scanner would be
+            work.names[i] = new StringBuilder(name).toString();
+            work.kinds[i] = kind;
+        }
+        return work;
+    }
+
+    /** enter()
+     *
+     * @param table - Symbols, the table with only the global scope open
+     * @param work - Workload, the scopes to open
+     * @return - Symbols, the table of the innermost scope
+     */
+    private static Symbols enter(Symbols table, Workload work)
+    {
+        for(ArrayList<TableEntry> scope : work.scopes)
+        {
+            table = table.enterScope();
+            for(TableEntry entry : scope)
+            {
+                if(!table.hasIdInScope(entry.getName()))
+                    table.addSymbol(entry);
+            }
+        }
+        return table;
+    }
+
+    /** build()
+     *
+     * @param table - Symbols, an empty table
+     * @param work - Workload, the globals to declare
+     * @return - Symbols, the table
+     */
+    private static Symbols build(Symbols table, Workload work)
+    {
+        for(TableEntry entry : work.globalIds)
+            table.addSymbol(entry);
+        for(TableEntry entry : work.globalTypes)
+            table.addType(entry, 'c');
+        return table;
+    }
+
+    /** look()
+     *
+     * @param table - Symbols, the table of the innermost scope
+     * @param work - Workload, the lookups
+     * @param found - Object[], where the answer to each lookup is put
+     * @return - long, nanoseconds taken
+     */
+    private static long look(Symbols table, Workload work, Object[] found)
+    {
+        String[] names = work.names;
+        int[] kinds = work.kinds;
+
+        long start = System.nanoTime();
+        for(int i = 0; i < names.length; i++)
+        {
+            switch(kinds[i])
+            {
+                case GLOBAL_ENTRY:
+                    found[i] = table.getGlobalIdEntry(names[i]);
+                    break;
+
+                case MISSING:
+                    found[i] = table.hasID(names[i]);
+                    break;
+
+                case TYPE:
+                    found[i] = table.hasSubType(names[i]) == 'c' ? table.getTypeEntry(names[i]) : null;
+                    break;
+
+                default:
+                    found[i] = table.getIdEntry(names[i]);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** churn()
+     *
+     * @param table - Symbols, the table with only the global scope open
+     * @param work - Workload, the scopes
+     * @return - long, nanoseconds taken to open, fill and close every scope
+     */
+    private static long churn(Symbols table, Workload work)
+    {
+        long start = System.nanoTime();
+        table = enter(table, work);
+        for(int i = 0; i < work.scopes.size(); i++)
+            table = table.exitScope();
+        return System.nanoTime() - start;
+    }
+
+    /** time()
+     *
+     * @param empty - Symbols, an empty table of the kind to time
+     * @param work - Workload, the globals, scopes and lookups
+     * @param found - Object[], where the answer to each lookup is put
+     * @return - long[], best nanoseconds for the lookups and for the scopes
+     */
+    private static long[] time(Symbols empty, Workload work, Object[] found)
+    {
+        Symbols global = build(empty, work);
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE };
+
+        for(int round = 0; round < ROUNDS; round++)
+            best[1] = Math.min(best[1], churn(global, work));
+
+        Symbols inner = enter(global, work);
+        for(int round = 0; round < ROUNDS; round++)
+            best[0] = Math.min(best[0], look(inner, work, found));
+        return best;
+    }
+
+    /** run()
+     *
+     * @return - boolean, true if the tables agree and the flat table stays within the limit
+     */
+    private boolean run()
+    {
+        Random random = new Random(seed);
+        boolean passed = true;
+        double first = 0;
+        double last = 0;
+
+        Workload warm = workload(new Random(seed), 1);
+        Object[] warmFound = new Object[lookups];
+        for(int i = 0; i < WARMUP; i++)
+        {
+            time(new SymbolTable(null), warm, warmFound);
+            time(new FlatSymbolTable(), warm, warmFound);
+        }
+
+        System.out.printf("%-8s %18s %18s %18s %18s%n", "Depth", "Chained ns/lookup", "Flat ns/lookup", "Chained ns/scope", "Flat ns/scope");
+        for(int levels = 1; levels <= depth; levels *= 2)
+        {
+            Workload work = workload(random, levels);
+            Object[] chainedFound = new Object[lookups];
+            Object[] flatFound = new Object[lookups];
+
+            // Both tables intern the names in one pool
+            CompilationContext context = new CompilationContext();
+            long[] chained = time(new SymbolTable(null, context), work, chainedFound);
+            long[] flat = time(new FlatSymbolTable(context), work, flatFound);
+
+            for(int i = 0; i < lookups; i++)
+            {
+                if(chainedFound[i] != flatFound[i] && !(chainedFound[i] instanceof Boolean && chainedFound[i].equals(flatFound[i])))
+                {
+                    System.out.printf("At depth %d the tables differ looking up %s%n", levels, work.names[i]);
+                    passed = false;
+                    break;
+                }
+            }
+
+            double perFlat = (double)flat[0] / lookups;
+            if(levels == 1)
+                first = perFlat;
+            last = perFlat;
+
+            System.out.printf("%-8d %18.1f %18.1f %18.1f %18.1f%n", levels, (double)chained[0] / lookups, perFlat,
+                (double)chained[1] / levels, (double)flat[1] / levels);
+        }
+
+        System.out.printf("%nTime per lookup of the flat table grew %.2fx from the shallowest nesting to the deepest%n", last / first);
+
+        if(last / first > limit)
+        {
+            System.out.printf("More than the limit of %.1fx%n", limit);
+            if(check)
+                passed = false;
+        }
+        return passed;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        ScopeBench bench = new ScopeBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-globals":
+                    bench.globals = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-locals":
+                    bench.locals = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-depth":
+                    bench.depth = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-lookups":
+                    bench.lookups = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-seed":
+                    bench.seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-limit":
+                    bench.limit = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.check = true;
+                    break;
+
+                default:
+                    System.err.println("Usage: java ScopeBench [-globals n] [-locals n] [-depth n] [-lookups n] [-seed n] [-limit x] [-check]");
+                    System.exit(2);
+            }
+        }
+
+        if(!bench.run())
+            System.exit(1);
+    }
+}
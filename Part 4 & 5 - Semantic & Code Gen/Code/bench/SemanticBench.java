@@ -0,0 +1,295 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/** SemanticBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Checks the semantic pass of CD18Semantic, then times it over a program of many
+ * functions with the functions and main checked in order and on a pool.
+ *
+ * Every input is parsed once and analysed both ways, and the errors must be the same
+ * and in the same order. Programs from ProgramGenerator without errors added must have
+ * no semantic errors, and those with semantic errors added must have at least one. The
+ * timed program is that of ParallelFuncsBench, and must have no errors.
+ *
+ * Usage: java SemanticBench [-functions n] [-threads n] [-programs n] [-warmup n] [-iterations n]
+ *                           [-check] [sample files or directories]
+ * Defaults to checking "../../Part 2 - Programs" and 50 generated programs of each kind,
+ * and timing 5000 functions on one thread per processor. -check only runs the checks.
+ *
+ */
+public class SemanticBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+
+    // Lines of each generated program, and the share of its statements given a semantic error
+    private static final int PROGRAM_LINES = 300;
+    private static final double SEMANTIC_RATE = 0.02;
+
+    private int functions = 5000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int programs = 50;
+    private int warmup = 3;
+    private int iterations = 10;
+    private boolean checkOnly = false;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    /** parse()
+     *
+     * @param text - String, a program
+     * @return - STNode, root of the tree, or null if the parser threw
+     */
+    private static STNode parse(String text)
+    {
+        try
+        {
+            return new CD18Parser(new CD18Scanner(CharBuffer.wrap(text)).scanAll(1)).parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    /** analyse()
+     *
+     * @param root - STNode, root of the tree
+     * @param pool - ForkJoinPool, threads the functions and main are checked on, or null to check them in order
+     * @return - ArrayList<String>, the errors found
+     */
+    private static ArrayList<String> analyse(STNode root, ForkJoinPool pool)
+    {
+        CD18Semantic semantic = new CD18Semantic(new CompilationContext(), pool);
+        semantic.analyse(root);
+
+        ArrayList<String> errors = new ArrayList<>();
+        for(Object error : semantic.getErrors())
+            errors.add(error.toString());
+        return errors;
+    }
+
+    /** compare()
+     *
+     * @param root - STNode, root of a tree
+     * @param pool - ForkJoinPool, threads the functions and main are checked on
+     * @return - ArrayList<String>, the errors found, or null if in order and on the pool differ
+     */
+    private static ArrayList<String> compare(STNode root, ForkJoinPool pool)
+    {
+        ArrayList<String> ordered = analyse(root, null);
+        ArrayList<String> parallel = analyse(root, pool);
+
+        return ordered.equals(parallel) ? ordered : null;
+    }
+
+    /** time()
+     *
+     * @param root - STNode, root of the tree
+     * @param pool - ForkJoinPool, threads the functions and main are checked on, or null to check them in order
+     * @return - long[], nanoseconds of each measured analysis, sorted
+     */
+    private long[] time(STNode root, ForkJoinPool pool)
+    {
+        long[] times = new long[iterations];
+
+        for(int iteration = -warmup; iteration < iterations; iteration++)
+        {
+            CD18Semantic semantic = new CD18Semantic(new CompilationContext(), pool);
+
+            long start = System.nanoTime();
+            semantic.analyse(root);
+            long nanos = System.nanoTime() - start;
+
+            if(iteration >= 0)
+                times[iteration] = nanos;
+        }
+        Arrays.sort(times);
+
+        return times;
+    }
+
+    /** check()
+     *
+     * @param console - PrintStream, where results are written
+     * @param pool - ForkJoinPool, threads the functions and main are checked on
+     * @return - boolean, true if every check passed
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean check(PrintStream console, ForkJoinPool pool) throws IOException
+    {
+        if(samples.isEmpty())
+            ScannerBench.addSamples(samples, Paths.get("../../Part 2 - Programs"));
+
+        for(Path sample : samples)
+        {
+            STNode root = parse(new String(Files.readAllBytes(sample), Charset.defaultCharset()));
+            if(root != null && compare(root, pool) == null)
+            {
+                console.printf("%s: the errors differ in order and on the pool%n", sample.getFileName());
+                return false;
+            }
+        }
+
+        ProgramGenerator generator = new ProgramGenerator();
+        int reported = 0;
+        for(double rate : new double[] { 0, SEMANTIC_RATE })
+        {
+            generator.setErrors(0, 0, rate);
+            for(long seed = 1; seed <= programs; seed++)
+            {
+                STNode root = parse(generator.generate(seed, PROGRAM_LINES));
+                if(root == null)
+                    continue;
+
+                ArrayList<String> errors = compare(root, pool);
+                boolean added = generator.getInjected() > 0;
+                if(errors == null)
+                {
+                    console.printf("Seed %d: the errors differ in order and on the pool%n", seed);
+                    return false;
+                }
+                if(errors.isEmpty() == added)
+                {
+                    console.printf("Seed %d with %d semantic errors added: %s%n", seed, generator.getInjected(),
+                        added ? "no errors reported" : errors.get(0));
+                    return false;
+                }
+                if(added)
+                    reported++;
+            }
+        }
+
+        console.printf("%d samples and %d generated programs give the same errors in order and on the pool%n", samples.size(), programs * 2);
+        console.printf("Generated programs without errors have none, %d with semantic errors added have them reported%n", reported);
+        return true;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if the checks passed and the timed program has no errors
+     * @throws IOException - thrown while reading the samples
+     */
+    private boolean run(PrintStream console) throws IOException
+    {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            if(!check(console, pool) || checkOnly)
+                return checkOnly;
+
+            STNode root = parse(ParallelFuncsBench.generate(functions));
+            ArrayList<String> errors = root == null ? null : analyse(root, pool);
+            if(errors == null || !errors.isEmpty())
+            {
+                console.printf("The timed program has errors: %s%n", errors == null ? "the parser threw" : errors.get(0));
+                return false;
+            }
+
+            long[] ordered = time(root, null);
+            long[] parallel = time(root, pool);
+
+            console.printf("%n%d functions, %d processors%n%n", functions, Runtime.getRuntime().availableProcessors());
+            console.printf("%-24s %10s %10s%n", "Functions and main", "Best ms", "Median ms");
+            console.printf("%-24s %10.1f %10.1f%n", "in order", ordered[0] / 1e6, ordered[iterations / 2] / 1e6);
+            console.printf("%-24s %10.1f %10.1f%n", "pool, " + threads + " threads", parallel[0] / 1e6, parallel[iterations / 2] / 1e6);
+            console.printf("%nSpeedup %.2fx%n", (double)ordered[iterations / 2] / parallel[iterations / 2]);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        return true;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        SemanticBench bench = new SemanticBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-functions":
+                    bench.functions = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-threads":
+                    bench.threads = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-programs":
+                    bench.programs = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-warmup":
+                    bench.warmup = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-iterations":
+                    bench.iterations = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-check":
+                    bench.checkOnly = true;
+                    break;
+
+                default:
+                    ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] passed = new boolean[1];
+        IOException[] failure = new IOException[1];
+
+        // The parser and the pass recurse per expression
+        Thread worker = new Thread(null, () ->
+        {
+            try
+            {
+                passed[0] = bench.run(console);
+            }
+            catch(IOException e)
+            {
+                failure[0] = e;
+            }
+        }, "SemanticBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(failure[0] != null)
+            throw failure[0];
+        if(!passed[0])
+            System.exit(1);
+    }
+}
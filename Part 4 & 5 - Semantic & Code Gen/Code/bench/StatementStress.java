@@ -0,0 +1,216 @@
+import java.nio.CharBuffer;
+
+/** StatementStress.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Stress test for the statement parser. Builds a program with a very long main
+ * block and one with deeply nested if statements, then scans, parses and generates
+ * code for each on a thread with a small stack. The trees are walked without
+ * recursion to check every statement and level of nesting made it into the tree.
+ * Exits with 1 if a program fails to compile or the tree is the wrong shape.
+ *
+ * Usage: java StatementStress [-statements n] [-depth n] [-stack kilobytes]
+ *
+ */
+public class StatementStress
+{
+    private int statements = 1000000;
+    private int depth = 10000;
+    private int stack = 512;
+    private boolean failed = false;
+
+    /** flat()
+     *
+     * Builds a program whose main block is a long list of statements
+     *
+     * @param count - int, number of statements
+     * @return - String, the program
+     */
+    static String flat(int count)
+    {
+        StringBuilder text = new StringBuilder(count * 24);
+
+        text.append("CD18 flat\n\nmain\n\ta0 : integer, a1 : integer, a2 : real\nbegin\n");
+        for(int i = 0; i < count; i++)
+        {
+            switch(i % 4)
+            {
+                case 0:
+                    text.append("\ta0 = a1 * 2 + ").append(i % 9 + 1).append(";\n");
+                    break;
+
+                case 1:
+                    text.append("\ta1 += 3;\n");
+                    break;
+
+                case 2:
+                    text.append("\tif (a0 > ").append(i % 7).append(")\n\t\ta2 = a2 + 1.5;\n\telse\n\t\ta1 = a0 - 1;\n\tend\n");
+                    break;
+
+                default:
+                    text.append("\tprintline \"line ").append(i).append("\";\n");
+            }
+        }
+        text.append("end CD18 flat\n");
+
+        return text.toString();
+    }
+
+    /** nested()
+     *
+     * Builds a program with if statements nested inside each other
+     *
+     * @param levels - int, depth of nesting
+     * @return - String, the program
+     */
+    static String nested(int levels)
+    {
+        StringBuilder text = new StringBuilder(levels * 16);
+
+        text.append("CD18 deep\n\nmain\n\ta0 : integer\nbegin\n");
+        for(int i = 0; i < levels; i++)
+            text.append("if (a0 < ").append(i % 10).append(")\n");
+        text.append("printline \"deep\";\n");
+        for(int i = 0; i < levels; i++)
+            text.append("end\n");
+        text.append("end CD18 deep\n");
+
+        return text.toString();
+    }
+
+    /** countStatements()
+     *
+     * @param stats - STNode, a block of statements
+     * @return - int, number of statements in the block, not counting nested blocks
+     */
+    static int countStatements(STNode stats)
+    {
+        int count = 0;
+
+        while(stats != null && stats.getNodeID() == STNode.NID.NSTATS)
+        {
+            count++;
+            stats = stats.getRight();
+        }
+
+        return stats == null ? count : count + 1;
+    }
+
+    /** countNesting()
+     *
+     * @param stats - STNode, a block made of a single if statement
+     * @return - int, number of if statements nested inside each other
+     */
+    static int countNesting(STNode stats)
+    {
+        int levels = 0;
+
+        while(stats != null && stats.getNodeID() == STNode.NID.NIFTH)
+        {
+            levels++;
+            stats = stats.getRight();
+        }
+
+        return levels;
+    }
+
+    /** compile()
+     *
+     * Scans, parses and generates code for a program, then checks the main block
+     *
+     * @param name - String, name of the program in the report
+     * @param text - String, the program
+     * @param nesting - boolean, true to count nested ifs, false to count statements
+     * @param expected - int, number of statements or levels the main block should have
+     */
+    private void compile(String name, String text, boolean nesting, int expected)
+    {
+        long start = System.nanoTime();
+
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+        long scanned = System.nanoTime();
+
+        CD18Parser parser = new CD18Parser(tokens);
+        STNode root = parser.parseInput();
+        long parsed = System.nanoTime();
+
+        // Only the tree walk, backpatching isn't finished for every kind of program
+        new SM18CodeGen().generate(root);
+        long generated = System.nanoTime();
+
+        int errors = parser.getContext().getErrors().size();
+
+        STNode block = root.getRight().getRight();
+        int found = nesting ? countNesting(block) : countStatements(block);
+
+        System.out.printf("%-8s %10d %12.0f %12.0f %12.0f %8d%n", name, found,
+            (scanned - start) / 1e6, (parsed - scanned) / 1e6, (generated - parsed) / 1e6, errors);
+
+        if(errors != 0 || found != expected)
+        {
+            System.out.printf("%s: expected %d with no errors%n", name, expected);
+            failed = true;
+        }
+    }
+
+    /** run()
+     *
+     */
+    private void run()
+    {
+        System.out.printf("Thread stack %d KB%n%n", stack);
+        System.out.printf("%-8s %10s %12s %12s %12s %8s%n", "Program", "Found", "Scan ms", "Parse ms", "Code gen ms", "Errors");
+
+        compile("flat", flat(statements), false, statements);
+        compile("nested", nested(depth), true, depth);
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws InterruptedException
+    {
+        StatementStress stress = new StatementStress();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-statements":
+                    stress.statements = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-depth":
+                    stress.depth = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-stack":
+                    stress.stack = Integer.parseInt(args[++i]);
+                    break;
+
+                default:
+                    System.err.println("Usage: java StatementStress [-statements n] [-depth n] [-stack kilobytes]");
+                    System.exit(2);
+            }
+        }
+
+        // A small stack shows parse depth no longer grows with the program
+        Thread thread = new Thread(null, stress::run, "stress", stress.stack * 1024L);
+        thread.setUncaughtExceptionHandler((t, e) ->
+        {
+            System.out.println("Failed: " + e);
+            stress.failed = true;
+        });
+        thread.start();
+        thread.join();
+
+        if(stress.failed)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,351 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.util.Random;
+
+/** SymbolTableBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Times symbol lookups in a table of many globals as the table and the number of references
+ * grow together. At each size a global table of declared identifiers is read through the
+ * table of main, once with getIdEntry, which finds the entry through the name map, and once
+ * with the scan of the entry list by name ID that SymbolTable used before, so the lookups
+ * cost the same as a reference in a program. The references are then compiled for real,
+ * as constants of a program used in the statements of main.
+ *
+ * The number of references is a fixed multiple of the globals, so a lookup that scans the
+ * table takes twice as long per reference each time the size doubles, while an indexed
+ * lookup stays flat. Exits with 1 if the lookups find different entries for a reference or
+ * the program has errors, and with -check also if the time per reference of the indexed
+ * lookup, or of the compile, at the largest size is more than -limit times that at the smallest.
+ *
+ * Usage: java SymbolTableBench [-globals n] [-references n] [-sizes n] [-seed n] [-limit x]
+ *                              [-noscan] [-check]
+ * Defaults to 50000 globals and 200000 references, halved down over 4 sizes, and a limit of 3.
+ * -noscan leaves out the scan, which takes some seconds at the largest size.
+ *
+ */
+public class SymbolTableBench
+{
+    private static final long STACK_SIZE = 1L << 30;
+    private static final int WARMUP = 5;
+
+    private int globals = 50000;
+    private int references = 200000;
+    private int sizes = 4;
+    private long seed = 1;
+    private double limit = 3;
+    private boolean scan = true;
+    private boolean check = false;
+
+    /** findByScan()
+     *
+     * The lookup SymbolTable used before its names were indexed, scanning the entries
+     * of the global table for the first with the name's ID
+     *
+     * @param table - SymbolTable, the global table
+     * @param symbolName - String, the name to find
+     * @return - TableEntry, the first entry with the name or null
+     */
+    private static TableEntry findByScan(SymbolTable table, String symbolName)
+    {
+        int id = table.getNamePool().find(symbolName);
+
+        if(id >= 0 && table.hasIdInScope(symbolName))
+        {
+            for(TableEntry entry : table.getTable())
+            {
+                if(entry.getNameID() == id)
+                    return entry;
+            }
+        }
+        return null;
+    }
+
+    /** names()
+     *
+     * @param count - int, number of globals
+     * @return - String[], their names
+     */
+    private static String[] names(int count)
+    {
+        String[] names = new String[count];
+        for(int i = 0; i < count; i++)
+            names[i] = "g" + i;
+        return names;
+    }
+
+    /** uses()
+     *
+     * @param random - Random, picks the globals referenced
+     * @param names - String[], names of the globals
+     * @param count - int, number of references
+     * @return - String[], the name of each reference, built fresh as the scanner would
+     */
+    private static String[] uses(Random random, String[] names, int count)
+    {
+        String[] uses = new String[count];
+        for(int i = 0; i < count; i++)
+            uses[i] = new StringBuilder(names[random.nextInt(names.length)]).toString();
+        return uses;
+    }
+
+    /** generate()
+     *
+     * @param names - String[], names of the constants
+     * @param uses - String[], the constants referenced, four to a statement
+     * @return - String, a program declaring the constants and referencing them in main
+     */
+    private static String generate(String[] names, String[] uses)
+    {
+        StringBuilder text = new StringBuilder(names.length * 16 + uses.length * 8);
+
+        text.append("CD18 globals\n\nconstants\n");
+        for(int i = 0; i < names.length; i++)
+            text.append('\t').append(names[i]).append(" = ").append(i % 100).append(i < names.length - 1 ? ",\n" : "\n");
+
+        text.append("\nmain\n\tx : integer\nbegin\n");
+        for(int i = 0; i + 3 < uses.length; i += 4)
+            text.append("\tx = ").append(uses[i]).append(" + ").append(uses[i + 1]).append(" - ")
+                .append(uses[i + 2]).append(" + ").append(uses[i + 3]).append(";\n");
+        text.append("end CD18 globals\n");
+
+        return text.toString();
+    }
+
+    /** build()
+     *
+     * @param names - String[], names of the globals
+     * @return - SymbolTable, the table of main over a global table declaring every name
+     */
+    private static SymbolTable build(String[] names)
+    {
+        SymbolTable global = new SymbolTable(null);
+        for(int i = 0; i < names.length; i++)
+        {
+            TableEntry entry = new TableEntry(new Token(Token.TID.TIDEN, i + 1, 1, names[i]));
+            entry.setType("integer");
+            global.addSymbol(entry);
+        }
+        return new SymbolTable(global);
+    }
+
+    /** indexed()
+     *
+     * @param table - SymbolTable, the table of main
+     * @param uses - String[], the names referenced
+     * @param found - TableEntry[], where the entry of each reference is put
+     * @return - long, nanoseconds taken
+     */
+    private static long indexed(SymbolTable table, String[] uses, TableEntry[] found)
+    {
+        long start = System.nanoTime();
+        for(int i = 0; i < uses.length; i++)
+            found[i] = table.getIdEntry(uses[i]);
+        return System.nanoTime() - start;
+    }
+
+    /** scanned()
+     *
+     * @param table - SymbolTable, the table of main
+     * @param uses - String[], the names referenced
+     * @param found - TableEntry[], where the entry of each reference is put
+     * @return - long, nanoseconds taken
+     */
+    private static long scanned(SymbolTable table, String[] uses, TableEntry[] found)
+    {
+        long start = System.nanoTime();
+        for(int i = 0; i < uses.length; i++)
+        {
+            // main declares only x, every reference falls through to the globals
+            found[i] = table.hasIdInScope(uses[i]) ? null : findByScan(table.getPrevious(), uses[i]);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /** compile()
+     *
+     * @param text - String, the program
+     * @return - long, nanoseconds taken to parse it, or -1 if it has errors
+     */
+    private static long compile(String text)
+    {
+        TokenBuffer tokens = new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+
+        long start = System.nanoTime();
+        CD18Parser parser = new CD18Parser(tokens);
+        parser.parseInput();
+        long nanos = System.nanoTime() - start;
+
+        return parser.getContext().hasErrors() ? -1 : nanos;
+    }
+
+    /** run()
+     *
+     * @param console - PrintStream, where results are written
+     * @return - boolean, true if the lookups agree and stay within the limit
+     */
+    private boolean run(PrintStream console)
+    {
+        Random random = new Random(seed);
+        boolean passed = true;
+        double firstIndexed = 0;
+        double lastIndexed = 0;
+        double firstCompile = 0;
+        double lastCompile = 0;
+
+        // Warm up on the smallest size
+        int smallest = Math.max(1, globals >> (sizes - 1));
+        String[] warmNames = names(smallest);
+        String[] warmUses = uses(new Random(seed), warmNames, smallest * (references / globals));
+        TableEntry[] warmFound = new TableEntry[warmUses.length];
+        String warmText = generate(warmNames, warmUses);
+        for(int i = 0; i < WARMUP; i++)
+        {
+            SymbolTable table = build(warmNames);
+            indexed(table, warmUses, warmFound);
+            if(scan)
+                scanned(table, warmUses, warmFound);
+            compile(warmText);
+        }
+
+        console.printf("%-10s %12s %16s %16s %16s%n", "Globals", "References", "Indexed ns/ref", "Scan ns/ref", "Compile ns/ref");
+        for(int size = sizes - 1; size >= 0; size--)
+        {
+            String[] names = names(Math.max(1, globals >> size));
+            String[] uses = uses(random, names, (int)((long)references * names.length / globals));
+            SymbolTable table = build(names);
+            TableEntry[] byIndex = new TableEntry[uses.length];
+            TableEntry[] byScan = new TableEntry[uses.length];
+
+            // The best of a few rounds, the scan is slow enough to time once
+            long indexedNanos = Long.MAX_VALUE;
+            for(int round = 0; round < 5; round++)
+                indexedNanos = Math.min(indexedNanos, indexed(table, uses, byIndex));
+
+            long scanNanos = -1;
+            if(scan)
+            {
+                scanNanos = scanned(table, uses, byScan);
+                for(int i = 0; i < uses.length; i++)
+                {
+                    if(byIndex[i] != byScan[i] || byIndex[i] == null)
+                    {
+                        console.printf("Lookups of %s differ%n", uses[i]);
+                        passed = false;
+                        break;
+                    }
+                }
+            }
+
+            String text = generate(names, uses);
+            long compileNanos = Long.MAX_VALUE;
+            for(int round = 0; round < 3; round++)
+                compileNanos = Math.min(compileNanos, compile(text));
+            if(compileNanos < 0)
+            {
+                console.printf("The program of %d globals has errors%n", names.length);
+                passed = false;
+            }
+
+            double perIndexed = (double)indexedNanos / uses.length;
+            double perCompile = (double)compileNanos / uses.length;
+            if(size == sizes - 1)
+            {
+                firstIndexed = perIndexed;
+                firstCompile = perCompile;
+            }
+            lastIndexed = perIndexed;
+            lastCompile = perCompile;
+
+            console.printf("%-10d %12d %16.1f %16s %16.1f%n", names.length, uses.length, perIndexed,
+                scan ? String.format("%.1f", (double)scanNanos / uses.length) : "-", perCompile);
+        }
+
+        console.printf("%nTime per reference grew %.2fx indexed and %.2fx compiled from the smallest size to the largest%n",
+            lastIndexed / firstIndexed, lastCompile / firstCompile);
+
+        if(lastIndexed / firstIndexed > limit || lastCompile / firstCompile > limit)
+        {
+            console.printf("More than the limit of %.1fx%n", limit);
+            if(check)
+                passed = false;
+        }
+        return passed;
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args)
+    {
+        SymbolTableBench bench = new SymbolTableBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            switch(args[i])
+            {
+                case "-globals":
+                    bench.globals = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-references":
+                    bench.references = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-sizes":
+                    bench.sizes = Integer.parseInt(args[++i]);
+                    break;
+
+                case "-seed":
+                    bench.seed = Long.parseLong(args[++i]);
+                    break;
+
+                case "-limit":
+                    bench.limit = Double.parseDouble(args[++i]);
+                    break;
+
+                case "-noscan":
+                    bench.scan = false;
+                    break;
+
+                case "-check":
+                    bench.check = true;
+                    break;
+
+                default:
+                    System.err.println("Usage: java SymbolTableBench [-globals n] [-references n] [-sizes n] [-seed n] [-limit x] [-noscan] [-check]");
+                    System.exit(2);
+            }
+        }
+
+        // The compiler reports some errors on System.out, keep the results readable
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        boolean[] passed = new boolean[1];
+
+        // The parser recurses per expression
+        Thread worker = new Thread(null, () -> passed[0] = bench.run(console), "SymbolTableBench", STACK_SIZE);
+
+        worker.start();
+        try
+        {
+            worker.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        System.setOut(console);
+
+        if(!passed[0])
+            System.exit(1);
+    }
+}
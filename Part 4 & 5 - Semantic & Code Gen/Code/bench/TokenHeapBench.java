@@ -0,0 +1,138 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+/** TokenHeapBench.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * Measures the heap held per token by the scanned program, comparing the LinkedList<Token>
+ * the compiler used to build against the TokenBuffer it builds now. Each sample program is
+ * repeated to build a large source file and the retained heap is measured after a GC.
+ *
+ * Usage: java TokenHeapBench [-scale n] [sample files or directories]
+ *
+ */
+public class TokenHeapBench
+{
+    private int scale = 10000;
+    private ArrayList<Path> samples = new ArrayList<>();
+
+    // Keeps the measured structure reachable across the GC
+    private Object retained;
+
+    /** usedHeap()
+     *
+     * @return - long, heap in use after a garbage collection
+     */
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /** listHeap()
+     *
+     * @param fileName - String, source file to tokenise
+     * @return - long, heap retained by the token list
+     */
+    private long listHeap(String fileName)
+    {
+        long base = usedHeap();
+        CD18Scanner scanner = new CD18Scanner(fileName);
+        LinkedList<Token> tokens = new LinkedList<>();
+
+        while(!scanner.eof())
+            tokens.add(scanner.getToken());
+
+        // Identifier lexemes live in the pool, keep it but not the source buffer
+        retained = new Object[] {tokens, scanner.getNamePool()};
+        scanner = null;
+        long heap = usedHeap() - base;
+        retained = null;
+        return heap;
+    }
+
+    /** bufferHeap()
+     *
+     * @param fileName - String, source file to tokenise
+     * @return - long, heap retained by the token buffer
+     */
+    private long bufferHeap(String fileName)
+    {
+        long base = usedHeap();
+        CD18Scanner scanner = new CD18Scanner(fileName);
+        TokenBuffer tokens = new TokenBuffer(scanner.getNamePool());
+
+        while(!scanner.eof())
+            tokens.add(scanner.getToken());
+
+        retained = tokens;
+        scanner = null;
+        long heap = usedHeap() - base;
+        retained = null;
+        return heap;
+    }
+
+    /** run()
+     *
+     * @throws IOException - thrown while building the source files
+     */
+    private void run() throws IOException
+    {
+        System.out.printf("%-14s %10s %16s %16s%n", "Sample", "Tokens", "List bytes/tok", "Buffer bytes/tok");
+
+        for(Path sample : samples)
+        {
+            Path scaled = ScannerBench.scaleUp(sample, scale);
+            String fileName = scaled.toString();
+
+            long tokens = 0;
+            CD18Scanner scanner = new CD18Scanner(fileName);
+            while(!scanner.eof())
+            {
+                scanner.getToken();
+                tokens++;
+            }
+            scanner = null;
+
+            double list = listHeap(fileName) / (double)tokens;
+            double buffer = bufferHeap(fileName) / (double)tokens;
+
+            System.out.printf("%-14s %10d %16.1f %16.1f%n", sample.getFileName(), tokens, list, buffer);
+
+            Files.delete(scaled);
+        }
+    }
+
+    /** main()
+     *
+     * @param args - String[], Command line arguments
+     */
+    public static void main(String[] args) throws IOException
+    {
+        TokenHeapBench bench = new TokenHeapBench();
+
+        for(int i = 0; i < args.length; i++)
+        {
+            if(args[i].equals("-scale"))
+                bench.scale = Integer.parseInt(args[++i]);
+            else
+                ScannerBench.addSamples(bench.samples, Paths.get(args[i]));
+        }
+
+        if(bench.samples.isEmpty())
+            ScannerBench.addSamples(bench.samples, Paths.get("../../Part 2 - Programs"));
+
+        bench.run();
+    }
+}
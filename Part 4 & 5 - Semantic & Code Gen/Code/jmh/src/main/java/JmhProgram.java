@@ -0,0 +1,133 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/** JmhProgram.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * The cd18.jmh.Program the JMH benchmarks run the compiler phases through. A program
+ * is set up for one phase the way PhaseBench sets it up, with the work before the
+ * phase done once: the tokens scanned for a parse, the constant expressions built
+ * for folding, the tree parsed for code generation and the module generated for
+ * modOut. A parse reads the same tokens again each time.
+ *
+ */
+public class JmhProgram implements cd18.jmh.Program
+{
+    private char[] text;
+    private TokenBuffer tokens;
+    private SymbolTable literals;
+    private ArrayList<STNode> expressions;
+    private STNode root;
+    private SM18CodeGen module;
+
+    /** Constructor
+     *
+     * @param input - String, a sample file name, or a number of lines such as 1k or 1m for a synthetic program
+     * @param phase - String, the phase the program is set up for
+     * @throws IOException - thrown while reading a sample
+     */
+    public JmhProgram(String input, String phase) throws IOException
+    {
+        // The compiler reports some errors on System.out, keep the results readable
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        if(Character.isDigit(input.charAt(0)))
+            text = PhaseBench.synthetic(PhaseBench.parseSize(input)).toCharArray();
+        else
+            text = new String(Files.readAllBytes(Paths.get(System.getProperty("cd18.samples", SAMPLES), input)), Charset.defaultCharset()).toCharArray();
+
+        switch(phase)
+        {
+            case "tokenize":
+                break;
+
+            case "parse":
+                tokens = scan();
+                break;
+
+            case "fold":
+                literals = new SymbolTable(null);
+                expressions = PhaseBench.constantExpressions(scan(), literals);
+                if(expressions.isEmpty())
+                    throw new IllegalStateException(input + " has no constant expressions");
+                break;
+
+            case "codegen":
+            case "modout":
+                root = PhaseBench.parse(scan());
+                if(root == null)
+                    throw new IllegalStateException(input + " has errors");
+                if(phase.equals("modout"))
+                    module = (SM18CodeGen)codegen();
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown phase " + phase);
+        }
+    }
+
+    /** scan()
+     *
+     * @return - TokenBuffer, the tokens of the program
+     */
+    private TokenBuffer scan()
+    {
+        return new CD18Scanner(CharBuffer.wrap(text)).scanAll(1);
+    }
+
+    @Override
+    public Object tokenize()
+    {
+        return scan();
+    }
+
+    @Override
+    public Object parse()
+    {
+        tokens.restart(0);
+        return new CD18Parser(tokens).parseInput();
+    }
+
+    @Override
+    public Object fold()
+    {
+        SymbolTable table = new SymbolTable(literals);
+        STNode folded = null;
+
+        for(STNode expression : expressions)
+            folded = expression.foldConstants(expression, table);
+
+        return folded;
+    }
+
+    @Override
+    public Object codegen()
+    {
+        SM18CodeGen codeGen = new SM18CodeGen();
+        codeGen.generate(root);
+        codeGen.patchAddress();
+
+        return codeGen;
+    }
+
+    @Override
+    public Object modOut()
+    {
+        module.modOut(new PrintWriter(Writer.nullWriter()));
+
+        return module;
+    }
+}
@@ -0,0 +1,54 @@
+package cd18.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** ModOutBenchmark.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Throughput of the modout phase: SM18CodeGen.modOut() of the generated module.
+ *
+ * None of the samples compile, they have errors or no string constant for patchAddress().
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512m", "-Xmx3g"})
+public class ModOutBenchmark
+{
+    @Param({"1k", "100k", "1m"})
+    public String input;
+
+    private Program program;
+
+    @Setup
+    public void setUp()
+    {
+        program = Program.load(input, "modout");
+    }
+
+    @Benchmark
+    public Object modOut()
+    {
+        return program.modOut();
+    }
+}
@@ -0,0 +1,71 @@
+package cd18.jmh;
+
+/** Program.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * A program the compiler phases are run over, with what a phase needs done to it
+ * beforehand. JMH only runs benchmarks in a named package and the compiler's classes
+ * are in the default package, where they can't be imported from here, so the work is
+ * done by JmhProgram in the default package and reached through this interface.
+ *
+ * Each phase gives back what it made, for JMH to consume.
+ *
+ */
+public interface Program
+{
+    // Sample programs are read from here unless cd18.samples is set, relative to the jmh directory
+    String SAMPLES = "../../../Part 2 - Programs";
+
+    /** load()
+     *
+     * @param input - String, a sample file name, or a number of lines such as 1k or 1m for a synthetic program
+     * @param phase - String, the phase the program is set up for
+     * @return - Program, the program
+     */
+    static Program load(String input, String phase)
+    {
+        try
+        {
+            return (Program)Class.forName("JmhProgram").getConstructor(String.class, String.class).newInstance(input, phase);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Can't set up " + input + " for " + phase, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /** tokenize()
+     *
+     * @return - Object, the TokenBuffer of the source
+     */
+    Object tokenize();
+
+    /** parse()
+     *
+     * @return - Object, the STNode tree parsed from the tokens
+     */
+    Object parse();
+
+    /** fold()
+     *
+     * @return - Object, the last of the constant expressions, folded
+     */
+    Object fold();
+
+    /** codegen()
+     *
+     * @return - Object, the SM18CodeGen with the code generated and patched
+     */
+    Object codegen();
+
+    /** modOut()
+     *
+     * @return - Object, the SM18CodeGen written out
+     */
+    Object modOut();
+}
@@ -0,0 +1,52 @@
+package cd18.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** TokenizeBenchmark.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Throughput of the tokenize phase: CD18Scanner over the source into a TokenBuffer.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xss512m", "-Xmx3g"})
+public class TokenizeBenchmark
+{
+    @Param({"Part2a.txt", "Part2b.txt", "Part2c.txt", "Part2d1.txt", "Part2d2.txt", "Part2d3.txt", "Part2e.txt", "1k", "100k", "1m"})
+    public String input;
+
+    private Program program;
+
+    @Setup
+    public void setUp()
+    {
+        program = Program.load(input, "tokenize");
+    }
+
+    @Benchmark
+    public Object tokenize()
+    {
+        return program.tokenize();
+    }
+}
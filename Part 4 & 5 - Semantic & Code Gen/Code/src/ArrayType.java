@@ -0,0 +1,63 @@
+/** ArrayType.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Descriptor of an array type declared in the types section, an array of structures.
+ *
+ */
+public class ArrayType implements DataType
+{
+    private String name;
+    private RecordType element;
+    private int length;
+
+    /** Constructor
+     *
+     * @param typeName - String, name of the array type
+     * @param elementType - RecordType, the structure of each element, or null if it is not declared
+     * @param count - int, number of elements, or -1 if the size is not a known constant
+     */
+    public ArrayType(String typeName, RecordType elementType, int count)
+    {
+        name = typeName;
+        element = elementType;
+        length = count;
+    }
+
+    /** getElement()
+     *
+     * @return - RecordType, the structure of each element, or null if it is not declared
+     */
+    public RecordType getElement()
+    {
+        return element;
+    }
+
+    /** getLength()
+     *
+     * @return - int, number of elements, or -1 if the size is not a known constant
+     */
+    public int getLength()
+    {
+        return length;
+    }
+
+    /** getSize()
+     *
+     * @return - int, bytes taken by the whole array, or -1 if not known
+     */
+    public int getSize()
+    {
+        return element == null || length < 0 ? -1 : length * element.getSize();
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+}
@@ -1,6 +1,7 @@
 import java.io.*;
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 /** CD.java
  *
@@ -12,14 +13,46 @@ import java.util.LinkedList;
  * Description:
  * CD class is the launcher for the CD18 compiler.
  *
+ * Usage: java CD [--stream | --pipeline | --parallel[=n]] [--parallel-funcs[=n]] [--semantic[=n]] [--compact] [--outline] filename
  *
+ *   --stream       the parser pulls tokens from the scanner as it needs them
+ *   --pipeline     as --stream, with the scanner running on its own thread
+ *   --parallel[=n] large sources are lexed in chunks on n threads, by default one per processor
+ *   --parallel-funcs[=n]  function bodies are parsed on n threads, by default one per processor,
+ *                  ignored when streaming
+ *   --semantic[=n] the semantic checks are made by CD18Semantic once the program is parsed,
+ *                  rather than by the parser, with the functions checked on n threads,
+ *                  by default one per processor
+ *   --compact      the syntax tree is kept as a CompactTree once it is parsed
+ *   --outline      prints the globals and function signatures with the errors found in them,
+ *                  function bodies and main's statements are not parsed and no module is made
+ *
+ * When streaming, lexical errors are known only once the parse has finished.
+ *
+ * compile() runs the compiler in process on a program held in memory, and outline() gives
+ * the outline of one.
  *
  */
 public class CD
 {
     private CD18Scanner myScanner;
-    private LinkedList<Token> tokenList;
+    private TokenBuffer tokenList;
     private STNode STRoot;
+    private CompilationContext context;
+
+    // Streaming window and pipeline ring buffer sizes
+    private static final int STREAM_WINDOW = 16;
+    private static final int PIPE_BATCH = 256;
+    private static final int PIPE_BATCHES = 16;
+
+    private boolean streaming;
+    private boolean pipelined;
+    private int scanThreads = 1;
+    private int funcThreads = 0;
+    private int semanticThreads = 0;
+    private boolean compact;
+    private boolean outlining;
+    private RuntimeException parseFailure;
 
     /** run()
      *
@@ -33,127 +66,409 @@ public class CD
             // Create scanner and generate initial program listing
             myScanner = new CD18Scanner(filename);
 
-            screenOut.println("\n====> Performing lexical analysis.\n");
+            translate(codeOut, screenOut);
 
-			// Lexical analysis of source file
-			scanSource();
+			// Gererate program listing
+            screenOut.println(writeListing(filename));
 
-            // Determine result of lexical analysis
-            if(myScanner.hasErrors())
+            screenOut.println("\nEnd of source reached.");
+            screenOut.println("======================================================================");
+
+            screenOut.println("Listing Filename: "+ filename.substring(0,filename.lastIndexOf('.')) + ".lst");
+            screenOut.println("Module Filename: "+ filename.substring(0,filename.lastIndexOf('.')) + ".mod");
+        }
+        catch(IOException e)
+        {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** compile()
+     *
+     * Compiles a program held in memory. The report that would go to the console,
+     * the SM module and the listing are written to the given writers, and no files
+     * are read or written. Each compile has a CompilationContext of its own, so
+     * separate CD objects can compile programs at the same time.
+     *
+     * @param scanner - CD18Scanner, a scanner over the program, such as CD18Scanner.fromSource()
+     * @param codeOut - PrintWriter, where the SM module is written
+     * @param screenOut - PrintWriter, where the compiler report is written
+     * @param listOut - PrintWriter, where the program listing is written
+     */
+    public void compile(CD18Scanner scanner, PrintWriter codeOut, PrintWriter screenOut, PrintWriter listOut)
+    {
+        myScanner = scanner;
+        tokenList = null;
+        STRoot = null;
+        parseFailure = null;
+
+        translate(codeOut, screenOut);
+
+        screenOut.println(generateListing(listOut));
+
+        screenOut.println("\nEnd of source reached.");
+        screenOut.println("======================================================================");
+        screenOut.flush();
+        codeOut.flush();
+        listOut.flush();
+    }
+
+    /** outline()
+     *
+     * Writes the program identifier, globals, function signatures and main's variables,
+     * then any errors. The function bodies and main's statements are left unread, so
+     * the parse takes time in proportion to the signatures rather than the program, and
+     * errors in the bodies are not reported.
+     *
+     * @param scanner - CD18Scanner, a scanner over the program
+     * @param out - PrintWriter, where the outline is written
+     */
+    public void outline(CD18Scanner scanner, PrintWriter out)
+    {
+        myScanner = scanner;
+        context = new CompilationContext(myScanner.getNamePool());
+        STRoot = null;
+
+        scanSource();
+
+        if(!myScanner.hasErrors())
+        {
+            CD18Parser myParser = new CD18Parser(context, tokenList);
+            myParser.setLazyBodies(true);
+            STRoot = myParser.parseInput();
+
+            writeOutline(out);
+        }
+
+        while(myScanner.hasErrors())
+            out.println(myScanner.nextError().getValue());
+        while(context.hasErrors())
+            out.println(context.nextError().getValue());
+        out.flush();
+    }
+
+    /** writeOutline()
+     *
+     * Writes the declarations of the parsed program, walking around the unread bodies
+     *
+     * @param out - PrintWriter, where the outline is written
+     */
+    private void writeOutline(PrintWriter out)
+    {
+        out.println("CD18 " + (STRoot.getSymbol() == null ? "?" : STRoot.getSymbol().getName()));
+
+        for(STNode decl : declarations(STRoot.getLeft()))
+            out.println("\t" + describe(decl) + position(decl));
+
+        STNode funcs = STRoot.getMiddle();
+        while(funcs != null)
+        {
+            STNode func = funcs.getNodeID() == STNode.NID.NFUNCS ? funcs.getLeft() : funcs;
+            funcs = funcs.getNodeID() == STNode.NID.NFUNCS ? funcs.getRight() : null;
+            if(func == null || func.getSymbol() == null)
+                continue;
+
+            StringBuilder params = new StringBuilder();
+            for(STNode param : declarations(func.getLeft()))
+                params.append(params.length() == 0 ? "" : ", ").append(describe(param));
+
+            out.println("func " + func.getSymbol().getName() + "(" + params + ") : " + func.getSymbol().getType() + position(func));
+        }
+
+        if(STRoot.getRight() != null)
+        {
+            out.println("main");
+            for(STNode decl : declarations(STRoot.getRight().getLeft()))
+                out.println("\t" + describe(decl) + position(decl));
+        }
+    }
+
+    /** declarations()
+     *
+     * Finds the declarations in a globals section, parameter list or variable list,
+     * without going into them
+     *
+     * @param node - STNode, root of the section, or null
+     * @return - ArrayList<STNode>, the declarations in source order
+     */
+    private static ArrayList<STNode> declarations(STNode node)
+    {
+        ArrayList<STNode> found = new ArrayList<>();
+        ArrayList<STNode> pending = new ArrayList<>();
+
+        if(node != null)
+            pending.add(node);
+
+        while(!pending.isEmpty())
+        {
+            node = pending.remove(pending.size() - 1);
+            switch(node.getNodeID())
             {
-                // Print error list heading
-                screenOut.println("\n\nError List:");
-                screenOut.println("===========");
-                screenOut.println();
+                case NINIT:
+                case NRTYPE:
+                case NATYPE:
+                case NARRD:
+                case NSDECL:
+                    found.add(node);
+                    break;
+
+                default:
+                    STNode[] children = {node.getRight(), node.getMiddle(), node.getLeft()};
+                    for(STNode child : children)
+                        if(child != null)
+                            pending.add(child);
             }
-            else
+        }
+
+        return found;
+    }
+
+    /** describe()
+     *
+     * @param decl - STNode, a declaration found by declarations()
+     * @return - String, its kind, name and type
+     */
+    private static String describe(STNode decl)
+    {
+        TableEntry symbol = decl.getSymbol();
+        String text;
+
+        switch(decl.getNodeID())
+        {
+            case NINIT:
+                text = "constant " + symbol.getName();
+                break;
+
+            case NRTYPE:
+                text = "type " + symbol.getName();
+                break;
+
+            case NATYPE:
+                text = "type " + symbol.getName() + " : array of " + symbol.getType();
+                break;
+
+            case NARRD:
+                text = "array " + symbol.getName() + " : " + symbol.getType();
+                break;
+
+            default:
+                text = symbol.getName() + " : " + symbol.getType();
+        }
+
+        return text;
+    }
+
+    /** position()
+     *
+     * @param decl - STNode, a declaration
+     * @return - String, where its name is in the source
+     */
+    private static String position(STNode decl)
+    {
+        return " (" + decl.getSymbol().getLine() + ", " + decl.getSymbol().getCol() + ")";
+    }
+
+    /** translate()
+     *
+     * Runs the scanner, parser and code generator over the program
+     *
+     * @param codeOut - PrintWriter, where the SM module is written
+     * @param screenOut - PrintWriter, where the compiler report is written
+     */
+    private void translate(PrintWriter codeOut, PrintWriter screenOut)
+    {
+        screenOut.println("\n====> Performing lexical analysis.\n");
+
+        context = new CompilationContext(myScanner.getNamePool());
+        context.setDeferSemantics(semanticThreads > 0);
+
+		// Lexical analysis of source file, when streaming the parse happens alongside
+		if(streaming)
+			parseStreaming();
+		else
+			scanSource();
+
+        // Determine result of lexical analysis
+        if(myScanner.hasErrors())
+        {
+            // Print error list heading
+            screenOut.println("\n\nError List:");
+            screenOut.println("===========");
+            screenOut.println();
+        }
+        else
+        {
+            // Move on to parsing and semantic check
+            screenOut.println("\nLexical anaylsis success.\n");
+            screenOut.println("\n====> Performing syntax and semantic analysis.\n");
+
+            // Create parser
+            if(!streaming)
             {
-                // Move on to parsing and semantic check
-                screenOut.println("\nLexical anaylsis success.\n");
-                screenOut.println("\n====> Performing syntax and semantic analysis.\n");
+                ForkJoinPool funcPool = funcThreads > 0 ? new ForkJoinPool(funcThreads) : null;
+                CD18Parser myParser = new CD18Parser(context, tokenList, funcPool);
+
+                try
+                {
+                    STRoot = myParser.parseInput();
+                }
+                finally
+                {
+                    if(funcPool != null)
+                        funcPool.shutdown();
+                }
+            }
+            // A streamed parse that failed fails here, as it would have without streaming
+            else if(parseFailure != null)
+                throw parseFailure;
 
-                // Create parser
-                CD18Parser myParser = new CD18Parser(tokenList);
+            // The semantic pass reads the parsed tree, so it runs before the tree is compacted
+            if(semanticThreads > 0 && STRoot != null)
+                analyseSemantics();
 
-                STRoot = myParser.parseInput();
+            // Swap the parsed tree for its compact copy so the STNodes can be collected
+            if(compact && STRoot != null)
+                STRoot = CompactTree.from(STRoot).getRoot();
 
-                screenOut.println();
-				
-                if(STRoot != null)
+            screenOut.println();
+			
+            if(STRoot != null)
+            {
+				// Determine result of syntax and semantic analysis
+                if(context.hasErrors())
                 {
-					// Determine result of syntax and semantic analysis
-                    if(STRoot.hasErrors())
-                    {
-                        // Print error list heading
-                        screenOut.println("Error List:");
-                        screenOut.println("===========");
-                        screenOut.println();
-                    }
-                    else
-                    {
-                        // Move on to code generation
-                        screenOut.println("Syntax and semantic anaylsis success.\n");
-                        screenOut.println("\nNo errors found.\n");
-                        screenOut.println("\n====> Gererating SM module.");
+                    // Print error list heading
+                    screenOut.println("Error List:");
+                    screenOut.println("===========");
+                    screenOut.println();
+                }
+                else
+                {
+                    // Move on to code generation
+                    screenOut.println("Syntax and semantic anaylsis success.\n");
+                    screenOut.println("\nNo errors found.\n");
+                    screenOut.println("\n====> Gererating SM module.");
 
 // ====================================================================================
 // TO CHECK MORE SEMANTICS YOU CAN COMMENT OUT THIS SECTION
 // ====================================================================================
-                        SM18CodeGen codeGen = new SM18CodeGen();
+                    SM18CodeGen codeGen = new SM18CodeGen();
 
-                        // Generate code sections for module
-                        codeGen.generate(STRoot);
+                    // Generate code sections for module
+                    codeGen.generate(STRoot);
 
-                        // Backpatch memory addresses
-                        codeGen.patchAddress();
+                    // Backpatch memory addresses
+                    codeGen.patchAddress();
 
-                        // Output module file
-                        codeGen.modOut(codeOut);
+                    // Output module file
+                    codeGen.modOut(codeOut);
 
-                        // Output code to console
-                        screenOut.println("\nSM18 Code:");
-                        screenOut.println("==========\n");
-                        codeGen.modOut(screenOut);
+                    // Output code to console
+                    screenOut.println("\nSM18 Code:");
+                    screenOut.println("==========\n");
+                    codeGen.modOut(screenOut);
 // ====================================================================================
 // ====================================================================================
-                    }
                 }
             }
+        }
+    }
 
-			// Gererate program listing
-            screenOut.println(generateListing(filename));
-
-            screenOut.println("\nEnd of source reached.");
-            screenOut.println("======================================================================");
+    /** scanSource()
+     *
+     * Creates a token stream from the source file
+     */
+    private void scanSource()
+    {
+        // Scan the source file into the token buffer
+        tokenList = myScanner.scanAll(scanThreads);
+    }
 
-            screenOut.println("Listing Filename: "+ filename.substring(0,filename.lastIndexOf('.')) + ".lst");
-            screenOut.println("Module Filename: "+ filename.substring(0,filename.lastIndexOf('.')) + ".mod");
+    /** analyseSemantics()
+     *
+     * Checks the parsed program with CD18Semantic, adding its errors to the parser's in source order
+     */
+    private void analyseSemantics()
+    {
+        ForkJoinPool unitPool = new ForkJoinPool(semanticThreads);
+        try
+        {
+            CD18Semantic semantic = new CD18Semantic(context, unitPool);
+            semantic.analyse(STRoot);
+            context.addErrors(semantic.getErrors());
         }
-        catch(IOException e)
+        finally
         {
-            System.out.println(e.getMessage());
+            unitPool.shutdown();
         }
     }
 
-    /** scanSource()
-     *
-     * Creates a token stream from the source file
+    /** parseStreaming()
      *
-     * @throws IOException, thrown from the CD18Scanner object
+     * Parses the program while it is being scanned.
+     * The rest of the source is scanned after the parse so every lexical error is known,
+     * a program with lexical errors is then treated as unparsed and its parse errors are dropped.
+     * A parse that throws is held until run() reaches the point the parser would have been called.
      */
-    private void scanSource() throws IOException
+    private void parseStreaming()
     {
-            Token token;
-            int charCount = 0;
-            tokenList = new LinkedList<>();
+        TokenSource source = pipelined ? new TokenPipe(myScanner, PIPE_BATCH, PIPE_BATCHES) : myScanner;
 
-            // Scan the source file and display tokens
-            while(!myScanner.eof())
-            {
-                token = myScanner.getToken();
-                tokenList.add(token);
-                charCount += token.toParser().length();
+        tokenList = new TokenBuffer(source, myScanner.getNamePool(), STREAM_WINDOW);
 
-                if(charCount > 60)
-                {
-                    charCount = 0;
-                }
-            }
+        try
+        {
+            STRoot = new CD18Parser(context, tokenList).parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            parseFailure = e;
+        }
+
+        tokenList.drain();
+
+        if(myScanner.hasErrors())
+        {
+            STRoot = null;
+            parseFailure = null;
+            context.dropErrors(0);
+        }
+    }
+
+    /** writeListing()
+     *
+     * Writes the program listing to the listing file
+     *
+     * @param fileName - String, name of the source file
+     * @return - StringBuilder, the errors and error count for the console
+     */
+    private StringBuilder writeListing(String fileName)
+    {
+        try(PrintWriter out = new PrintWriter(fileName.substring(0,fileName.lastIndexOf('.')) + ".lst"))
+        {
+            return generateListing(out);
+        }
+        catch(IOException e)
+        {
+            System.out.println(e.getMessage());
+        }
+        return new StringBuilder();
     }
 
     /** generateListing()
      *
      * Creates a program listing with errors interleaved.
-     * Displays either scanner or parser errors.     *
+     * Displays either scanner or parser errors. The source lines are read back
+     * from the scanner's buffer rather than the file.
      *
-     * @param fileName - String, name of the source file
+     * @param out - PrintWriter, where the listing is written
+     * @return - StringBuilder, the errors and error count for the console
      */
-    private StringBuilder generateListing(String fileName)
+    private StringBuilder generateListing(PrintWriter out)
     {
         StringBuilder errList = new StringBuilder();
 
-        try(BufferedReader in = new BufferedReader(new FileReader(fileName));
-            PrintWriter out = new PrintWriter(fileName.substring(0,fileName.lastIndexOf('.')) + ".lst"))
+        try(BufferedReader in = new BufferedReader(myScanner.getSourceReader()))
         {
             int i = 1;
             String line;
@@ -166,8 +481,8 @@ public class CD
                 error = myScanner.nextError();
 
             // Gets the first error from parsing
-            if(STRoot.hasErrors())
-                error = STRoot.nextError();
+            if(context.hasErrors())
+                error = context.nextError();
 
 			// Read from the source file
             while((line = in.readLine()) != null)
@@ -199,9 +514,9 @@ public class CD
                             break;
                     }
 					// Check for more syntax/semantic errors
-                    else if(STRoot.hasErrors())
+                    else if(context.hasErrors())
                     {
-                        error = STRoot.nextError();
+                        error = context.nextError();
                         if(((Token)error.getKey()).getLineNum() > i)
                             break;
                     }
@@ -212,8 +527,17 @@ public class CD
                 i++;
             }
 
-			// Print any remaining lexical errors
             out.println("========================================================================");
+
+			// Print the error read after the last line, such as one at the end of file
+            if(error != null)
+            {
+                msg = error.getValue() + "\n";
+                out.print(msg);
+                errList.append(msg);
+            }
+
+			// Print any remaining lexical errors
             while(myScanner.hasErrors())
             {
                 error = myScanner.nextError();
@@ -223,9 +547,9 @@ public class CD
             }
 			
 			// Print any remaining parser errors
-            while(STRoot.hasErrors())
+            while(context.hasErrors())
             {
-                error = STRoot.nextError();
+                error = context.nextError();
                 msg = error.getValue() + "\n";
                 out.print(msg);
                 errList.append(msg);
@@ -255,6 +579,55 @@ public class CD
     public static void main(String[] args)
     {
         CD myCompiler = new CD();
-        myCompiler.run(args[0]);
+        String filename = null;
+
+        for(String arg : args)
+        {
+            switch(arg)
+            {
+                case "--stream":
+                    myCompiler.streaming = true;
+                    break;
+
+                case "--pipeline":
+                    myCompiler.streaming = true;
+                    myCompiler.pipelined = true;
+                    break;
+
+                case "--parallel":
+                    myCompiler.scanThreads = Runtime.getRuntime().availableProcessors();
+                    break;
+
+                case "--parallel-funcs":
+                    myCompiler.funcThreads = Runtime.getRuntime().availableProcessors();
+                    break;
+
+                case "--semantic":
+                    myCompiler.semanticThreads = Runtime.getRuntime().availableProcessors();
+                    break;
+
+                case "--compact":
+                    myCompiler.compact = true;
+                    break;
+
+                case "--outline":
+                    myCompiler.outlining = true;
+                    break;
+
+                default:
+                    if(arg.startsWith("--parallel="))
+                        myCompiler.scanThreads = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+                    else if(arg.startsWith("--parallel-funcs="))
+                        myCompiler.funcThreads = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+                    else if(arg.startsWith("--semantic="))
+                        myCompiler.semanticThreads = Integer.parseInt(arg.substring(arg.indexOf('=') + 1));
+                    else
+                        filename = arg;
+            }
+        }
+        if(myCompiler.outlining)
+            myCompiler.outline(new CD18Scanner(filename), new PrintWriter(System.out));
+        else
+            myCompiler.run(filename);
     }
 }
@@ -1,5 +1,5 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
 
 /** CD18Parser.java
  *
@@ -14,28 +14,128 @@ import java.util.LinkedList;
  */
 public class CD18Parser
 {
-    private LinkedList<Token> tokenList;
+    private CompilationContext context;
+    private TokenBuffer tokenList;
+    private ForkJoinPool pool;
+    private boolean lazy;
+    private SymbolTable globalTable;
 
-    public CD18Parser(LinkedList<Token> tList)
+    /** Constructor
+     *
+     * Parses in a context of its own, over the name pool of the tokens
+     *
+     * @param tList - TokenBuffer, the tokens of the program
+     */
+    public CD18Parser(TokenBuffer tList)
     {
+        this(new CompilationContext(tList.getNamePool()), tList, null);
+    }
+
+    /** Constructor
+     *
+     * @param cContext - CompilationContext, the compilation errors and scope tables are kept in
+     * @param tList - TokenBuffer, the tokens of the program
+     */
+    public CD18Parser(CompilationContext cContext, TokenBuffer tList)
+    {
+        this(cContext, tList, null);
+    }
+
+    /** Constructor
+     *
+     * @param cContext - CompilationContext, the compilation errors and scope tables are kept in
+     * @param tList - TokenBuffer, the tokens of the program
+     * @param funcPool - ForkJoinPool, threads function bodies are read on, or null to read them in order
+     */
+    public CD18Parser(CompilationContext cContext, TokenBuffer tList, ForkJoinPool funcPool)
+    {
+        context = cContext;
         tokenList = tList;
+        pool = funcPool;
+    }
+
+    /** getContext()
+     *
+     * @return - CompilationContext, the compilation errors and scope tables are kept in
+     */
+    public CompilationContext getContext()
+    {
+        return context;
+    }
+
+    /** getGlobalTable()
+     *
+     * @return - SymbolTable, the global table of the last parse, or null before parsing
+     */
+    public SymbolTable getGlobalTable()
+    {
+        return globalTable;
     }
 
+    /** setLazyBodies()
+     *
+     * Leaves function bodies and main's statements to be read when the tree is walked
+     * into them, so the globals and function signatures can be had without the cost of
+     * the bodies. Errors in a body are added to the context when the body is read.
+     *
+     * @param on - boolean, true to read bodies lazily, the pool is then not used
+     */
+    public void setLazyBodies(boolean on)
+    {
+        lazy = on;
+    }
+
+    /** parseInput()
+     *
+     * Parses the program. When function bodies are read in parallel or lazily and the
+     * functions can't be read apart from their bodies, the errors and scope tables of
+     * the attempt are dropped and the program is read again in order.
+     *
+     * @return - STNode, root of the syntax tree
+     */
     public STNode parseInput()
     {
-        Token nextToken = tokenList.pop();
+        // Nothing skipped by an earlier parse of the same tokens is passed over again
+        int start = tokenList.mark();
+        tokenList.restart(start);
+
+        if((pool == null && !lazy) || tokenList.isStreaming())
+            return parse(null, false);
+
+        int errors = context.getErrors().size();
+
+        STNode STRoot = parse(pool, lazy);
+        if(((NProg)STRoot).isComplete())
+            return STRoot;
+
+        context.dropErrors(errors);
+        context.clearScopeTables();
+        tokenList.restart(start);
+
+        return parse(null, false);
+    }
+
+    /** parse()
+     *
+     * @param funcPool - ForkJoinPool, threads function bodies are read on, or null
+     * @param lazyBodies - boolean, true to leave bodies to be read when they are asked for
+     * @return - STNode, root of the syntax tree
+     */
+    private STNode parse(ForkJoinPool funcPool, boolean lazyBodies)
+    {
+        Token nextToken = tokenList.advance();
         STNode STRoot = null;
-        SymbolTable globalTable = new SymbolTable(null);
+        globalTable = new SymbolTable(null, context);
 
         switch(nextToken.getTokenID())
         {
             case TCD18:
-                STRoot = new NProg(tokenList, globalTable);
+                STRoot = new NProg(tokenList, globalTable, funcPool, lazyBodies);
                 break;
 
             default:
-                STNode.errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Program must start with CD18"));
-                STRoot = new NProg(tokenList, globalTable);
+                context.getErrors().add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Program must start with CD18"));
+                STRoot = new NProg(tokenList, globalTable, funcPool, lazyBodies);
                 STRoot.setNodeID(STNode.NID.NUNDEF);
         }
 
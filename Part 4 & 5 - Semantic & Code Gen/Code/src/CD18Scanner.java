@@ -1,6 +1,20 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /** CD18Scanner.java
  *
@@ -12,34 +26,443 @@ import java.util.LinkedList;
  * Description:
  * CD18Scanner class is a lexical analyser for the CD18 language
  *
+ * The source is read once into a character buffer which is then scanned with an
+ * integer cursor and direct lookahead. It can come from a file, which is mapped and
+ * decoded, a Reader, an InputStream, a CharBuffer or a String.
+ *
+ * Characters are classified through a 128 entry ASCII table, anything outside
+ * ASCII falls back to the Character class. Operator tokens are looked up by
+ * character, with a second table giving the token when '=' follows.
+ *
+ * A large source can be scanned in parallel. It is split into chunks at the end of lines
+ * holding no '"' or '/', where the scanner is always back at column 1 of a new line, so
+ * each chunk can be lexed on its own from line 1 and its tokens moved down afterwards.
+ *
  */
-public class CD18Scanner
+public class CD18Scanner implements TokenSource
 {
+    // Character classes
+    private static final byte C_INVALID = 0;
+    private static final byte C_LETTER = 1;
+    private static final byte C_DIGIT = 2;
+    private static final byte C_QUOTE = 3;
+    private static final byte C_NEWLINE = 4;
+    private static final byte C_TAB = 5;
+    private static final byte C_SPACE = 6;
+    private static final byte C_BLANK = 7;
+    private static final byte C_SLASH = 8;
+    private static final byte C_OPERATOR = 9;
+    private static final byte C_DELIM = 10;
+    private static final byte C_BANG = 11;
+    private static final byte C_EOF = 12;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+
+    // Token for an operator character on its own and when followed by '='
+    private static final Token.TID[] SINGLE_TOKEN = new Token.TID[128];
+    private static final Token.TID[] EQUALS_TOKEN = new Token.TID[128];
+
+    // Smallest chunk worth scanning in parallel and chunks given to each thread
+    private static final int MIN_CHUNK = 1 << 18;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    static
+    {
+        for(char c = 'a'; c <= 'z'; c++)
+        {
+            CHAR_CLASS[c] = C_LETTER;
+            CHAR_CLASS[Character.toUpperCase(c)] = C_LETTER;
+        }
+        for(char c = '0'; c <= '9'; c++)
+            CHAR_CLASS[c] = C_DIGIT;
+
+        CHAR_CLASS['\"'] = C_QUOTE;
+        CHAR_CLASS['\n'] = C_NEWLINE;
+        CHAR_CLASS['\t'] = C_TAB;
+        CHAR_CLASS[' '] = C_SPACE;
+
+        // Whitespace that does not move the column
+        for(char c : new char[] {'\r', '\u000B', '\f', '\u001C', '\u001D', '\u001E', '\u001F'})
+            CHAR_CLASS[c] = C_BLANK;
+
+        CHAR_CLASS['/'] = C_SLASH;
+        CHAR_CLASS['!'] = C_BANG;
+
+        addOperator('+', Token.TID.TPLUS, Token.TID.TPLEQ);
+        addOperator('-', Token.TID.TMINS, Token.TID.TMNEQ);
+        addOperator('*', Token.TID.TSTAR, Token.TID.TSTEQ);
+        addOperator('<', Token.TID.TLESS, Token.TID.TLEQL);
+        addOperator('>', Token.TID.TGRTR, Token.TID.TGEQL);
+        addOperator('=', Token.TID.TEQUL, Token.TID.TEQEQ);
+
+        addDelimiter('%', Token.TID.TPERC);
+        addDelimiter('^', Token.TID.TCART);
+        addDelimiter('.', Token.TID.TDOT);
+        addDelimiter(',', Token.TID.TCOMA);
+        addDelimiter('[', Token.TID.TLBRK);
+        addDelimiter(']', Token.TID.TRBRK);
+        addDelimiter('(', Token.TID.TLPAR);
+        addDelimiter(')', Token.TID.TRPAR);
+        addDelimiter(':', Token.TID.TCOLN);
+        addDelimiter(';', Token.TID.TSEMI);
+
+        SINGLE_TOKEN['/'] = Token.TID.TDIVD;
+        EQUALS_TOKEN['/'] = Token.TID.TDVEQ;
+        EQUALS_TOKEN['!'] = Token.TID.TNEQL;
+    }
+
     private int lineNum;
     private int colNum;
-    private BufferedReader srcFile;
+    private char[] source;
+    private int srcLength;
+    private int pos;
     private boolean eof;
     private String error;
     private LinkedList<SimpleEntry<Token, String>> errorList;
+    private NamePool names;
 
     /** Constructor
      *
      * @param fileName - String, The name of the source file
      */
     public CD18Scanner(String fileName)
+    {
+        this();
+        try
+        {
+            readSource(fileName);
+        }
+        catch (IOException e)
+        {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Constructor
+     *
+     * Reads the whole source from a Reader
+     *
+     * @param in - Reader, the source of the program
+     */
+    public CD18Scanner(Reader in)
+    {
+        this();
+        try
+        {
+            readSource(in);
+        }
+        catch (IOException e)
+        {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Constructor
+     *
+     * Reads the whole source from an InputStream, decoded as a FileReader would
+     *
+     * @param in - InputStream, the source of the program
+     */
+    public CD18Scanner(InputStream in)
+    {
+        this();
+        try
+        {
+            setSource(Charset.defaultCharset().decode(ByteBuffer.wrap(in.readAllBytes())));
+        }
+        catch (IOException e)
+        {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /** Constructor
+     *
+     * Scans the remaining characters of a buffer. A buffer backed by an array from
+     * its start is scanned in place and must not be changed while it is in use.
+     *
+     * @param chars - CharBuffer, the source of the program
+     */
+    public CD18Scanner(CharBuffer chars)
+    {
+        this();
+        setSource(chars);
+    }
+
+    /** Constructor
+     *
+     * Creates a scanner with an empty source
+     */
+    private CD18Scanner()
     {
         lineNum = 1;
         colNum = 1;
+        pos = 0;
         eof = false;
         errorList = new LinkedList<>();
-        try
+        names = new NamePool();
+        source = new char[0];
+        srcLength = 0;
+    }
+
+    /** Constructor
+     *
+     * Creates a scanner over one chunk of another scanner's source, starting at line 1
+     *
+     * @param src - char[], the source buffer
+     * @param start - int, index of the first character of the chunk
+     * @param end - int, index past the last character of the chunk
+     */
+    private CD18Scanner(char[] src, int start, int end)
+    {
+        this();
+        pos = start;
+        source = src;
+        srcLength = end;
+    }
+
+    /** resume()
+     *
+     * Creates a scanner that carries on over part of a source from a state saved from
+     * another scanner, so an edited region can be scanned again without the text before it
+     *
+     * @param src - char[], the source buffer
+     * @param start - int, index of the next character to scan
+     * @param end - int, index past the last character of the source
+     * @param line - int, line number at the start
+     * @param col - int, column number at the start
+     * @param pool - NamePool, the pool identifiers are interned in
+     * @return - CD18Scanner, a scanner at the saved state
+     */
+    public static CD18Scanner resume(char[] src, int start, int end, int line, int col, NamePool pool)
+    {
+        CD18Scanner scanner = new CD18Scanner(src, start, end);
+        scanner.lineNum = line;
+        scanner.colNum = col;
+        scanner.names = pool;
+        return scanner;
+    }
+
+    /** fromSource()
+     *
+     * Creates a scanner over program text held in a String
+     *
+     * @param text - String, the source of the program
+     * @return - CD18Scanner, a scanner over the text
+     */
+    public static CD18Scanner fromSource(String text)
+    {
+        return new CD18Scanner(CharBuffer.wrap(text));
+    }
+
+    /** readSource()
+     *
+     * Maps the source file into memory and decodes it into the character buffer
+     *
+     * @param fileName - String, The name of the source file
+     * @throws IOException - FileChannel can throw an IOException
+     */
+    private void readSource(String fileName) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ))
         {
-            srcFile = new BufferedReader(new FileReader(fileName));
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            // Decode with the same charset a FileReader would use
+            setSource(Charset.defaultCharset().decode(bytes));
         }
-        catch (IOException e)
+    }
+
+    /** readSource()
+     *
+     * Reads a Reader to its end into the character buffer
+     *
+     * @param in - Reader, the source of the program
+     * @throws IOException - thrown from the Reader
+     */
+    private void readSource(Reader in) throws IOException
+    {
+        char[] buf = new char[8192];
+        int length = 0;
+        int count;
+
+        while((count = in.read(buf, length, buf.length - length)) != -1)
         {
-            System.out.println(e.getMessage());
+            length += count;
+            if(length == buf.length)
+                buf = Arrays.copyOf(buf, length * 2);
+        }
+        source = buf;
+        srcLength = length;
+    }
+
+    /** setSource()
+     *
+     * Uses the array behind a buffer as the source where possible, otherwise copies the characters
+     *
+     * @param chars - CharBuffer, the characters of the source
+     */
+    private void setSource(CharBuffer chars)
+    {
+        if(chars.hasArray() && chars.arrayOffset() + chars.position() == 0)
+        {
+            source = chars.array();
+            srcLength = chars.limit();
         }
+        else
+        {
+            source = new char[chars.remaining()];
+            chars.get(source);
+            srcLength = source.length;
+        }
+    }
+
+    /** getSourceReader()
+     *
+     * Reads the source again from the scanner's buffer, so the listing does not reopen the file
+     *
+     * @return - Reader, a reader over the whole source
+     */
+    public Reader getSourceReader()
+    {
+        return new CharArrayReader(source, 0, srcLength);
+    }
+
+    /** peek()
+     *
+     * Looks ahead of the cursor without consuming any characters
+     *
+     * @param k - int, the number of characters past the cursor
+     * @return - int, the character at the offset or -1 if past the end of the source
+     */
+    private int peek(int k)
+    {
+        int i = pos + k;
+        return i < srcLength ? source[i] : -1;
+    }
+
+    /** addOperator()
+     *
+     * Adds an operator that may be followed by '=' to the character tables
+     *
+     * @param c - char, the operator character
+     * @param single - Token.TID, the token for the operator on its own
+     * @param equals - Token.TID, the token for the operator followed by '='
+     */
+    private static void addOperator(char c, Token.TID single, Token.TID equals)
+    {
+        CHAR_CLASS[c] = C_OPERATOR;
+        SINGLE_TOKEN[c] = single;
+        EQUALS_TOKEN[c] = equals;
+    }
+
+    /** addDelimiter()
+     *
+     * Adds a single character token to the character tables
+     *
+     * @param c - char, the delimiter character
+     * @param single - Token.TID, the token for the character
+     */
+    private static void addDelimiter(char c, Token.TID single)
+    {
+        CHAR_CLASS[c] = C_DELIM;
+        SINGLE_TOKEN[c] = single;
+    }
+
+    /** classOf()
+     *
+     * Gets the character class, using the ASCII table where possible
+     *
+     * @param c - int, the character to classify or -1 for end of source
+     * @return - byte, the character class
+     */
+    private static byte classOf(int c)
+    {
+        if(c < 0)
+            return C_EOF;
+        if(c < 128)
+            return CHAR_CLASS[c];
+
+        // Non-ASCII fallback
+        if(Character.isLetter(c))
+            return C_LETTER;
+        if(Character.isDigit(c))
+            return C_DIGIT;
+        if(Character.isWhitespace(c))
+            return Character.isSpaceChar(c) ? C_SPACE : C_BLANK;
+        return C_INVALID;
+    }
+
+    /** isIdentPart()
+     *
+     * @param c - int, the character to check
+     * @return - boolean, true if the character is a letter or digit
+     */
+    private static boolean isIdentPart(int c)
+    {
+        byte cls = classOf(c);
+        return cls == C_LETTER || cls == C_DIGIT;
+    }
+
+    /** isDigit()
+     *
+     * @param c - int, the character to check
+     * @return - boolean, true if the character is a digit
+     */
+    private static boolean isDigit(int c)
+    {
+        return classOf(c) == C_DIGIT;
+    }
+
+    /** isInvalid()
+     *
+     * Checks if a character cannot begin or continue a valid token
+     *
+     * @param c - int, the character to check
+     * @return - boolean, true if the character is part of an invalid sequence
+     */
+    private static boolean isInvalid(int c)
+    {
+        byte cls = classOf(c);
+        return cls == C_INVALID || cls == C_BANG;
+    }
+
+    /** getNamePool()
+     *
+     * Gets the pool the scanner interns identifiers in
+     *
+     * @return - NamePool, the identifier name pool
+     */
+    public NamePool getNamePool()
+    {
+        return names;
+    }
+
+    /** getPosition()
+     *
+     * @return - int, index of the next character to scan
+     */
+    public int getPosition()
+    {
+        return pos;
+    }
+
+    /** getLineNum()
+     *
+     * @return - int, line number of the next character to scan
+     */
+    public int getLineNum()
+    {
+        return lineNum;
+    }
+
+    /** getColNum()
+     *
+     * @return - int, column number of the next character to scan
+     */
+    public int getColNum()
+    {
+        return colNum;
     }
 
     /** hasErrors()
@@ -59,7 +482,7 @@ public class CD18Scanner
      *
      * @return - AbstractMap.SimpleEntry<Token, String>, a Token-String pair describing the error
      */
-    public SimpleEntry nextError()
+    public SimpleEntry<Token, String> nextError()
     {
         return errorList.pop();
     }
@@ -86,378 +509,457 @@ public class CD18Scanner
         return eof;
     }
 
-    /** getToken()
+    /** nextToken()
      *
-     * Checks the next character of the source file and returns a Token based on the input
+     * Returns the next token for a parser pulling tokens on demand
      *
-     * @return - Token, returns a token with required parameters based on a prescribed character sequence
-     * @throws IOException - BufferedReader can throw an IOException
+     * @return - Token, the next token or null once TEOF has been returned
      */
-    public Token getToken() throws IOException
+    @Override
+    public Token nextToken()
     {
-        StringBuilder lexeme = new StringBuilder();
+        return eof ? null : getToken();
+    }
 
-        int startCol;
+    /** scanAll()
+     *
+     * Scans the rest of the source into a token buffer, lexing large sources in parallel
+     *
+     * @param threads - int, the number of threads to scan with
+     * @return - TokenBuffer, every token up to and including TEOF
+     */
+    public TokenBuffer scanAll(int threads)
+    {
+        int chunks = Math.min(threads * CHUNKS_PER_THREAD, (srcLength - pos) / MIN_CHUNK);
 
-        int nextChar;
+        if(threads > 1 && chunks > 1)
+            return scanChunks(chunks, threads);
+        return scanSequential();
+    }
 
-        srcFile.mark(2);
+    /** scanChunks()
+     *
+     * Splits the source into line aligned chunks, lexes them on a ForkJoinPool and stitches
+     * the tokens and errors back together. The result is the same as scanning sequentially.
+     *
+     * @param chunks - int, the number of chunks to aim for
+     * @param threads - int, the number of threads to scan with
+     * @return - TokenBuffer, every token up to and including TEOF
+     */
+    public TokenBuffer scanChunks(int chunks, int threads)
+    {
+        // Chunks are lexed from line 1, column 1 so the scan must start at the top of the source
+        if(pos != 0 || eof)
+            return scanSequential();
+
+        int[] bounds = splitChunks(chunks);
+        int count = bounds.length - 1;
+
+        if(count < 2)
+            return scanSequential();
 
-        nextChar = srcFile.read();
+        CD18Scanner[] parts = new CD18Scanner[count];
+        List<Callable<TokenBuffer>> tasks = new ArrayList<>(count);
 
-        while (nextChar != -1)
+        for(int i = 0; i < count; i++)
         {
-            // First character scanned is a letter and initially marked as an identifier
-            if(Character.isLetter(nextChar))
-            {
-                startCol = colNum;
+            CD18Scanner part = new CD18Scanner(source, bounds[i], bounds[i + 1]);
+            parts[i] = part;
+            tasks.add(part::scanSequential);
+        }
 
-                while(Character.isLetterOrDigit(nextChar))
-                {
-                    lexeme.append((char)nextChar);
-                    srcFile.mark(1);
-                    nextChar = srcFile.read();
-                    colNum++;
-                }
-                srcFile.reset();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(threads, count)));
+        List<Future<TokenBuffer>> results;
+        try
+        {
+            results = pool.invokeAll(tasks);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
 
-                // Identifier is valid
-                return new Token(Token.TID.TIDEN, lineNum, startCol, lexeme.toString());
-            }
-            // First character scanned is a number
-            else if(Character.isDigit(nextChar))
+        TokenBuffer tokens = new TokenBuffer(names);
+        int lineOffset = 0;
+
+        for(int i = 0; i < count; i++)
+        {
+            TokenBuffer chunk = chunkTokens(results.get(i));
+
+            // Only the last chunk's TEOF is kept
+            tokens.append(chunk, i == count - 1 ? chunk.size() : chunk.size() - 1, lineOffset);
+
+            for(SimpleEntry<Token, String> entry : parts[i].errorList)
             {
-                //srcFile.mark(1);
-                startCol = colNum;
-
-                while(Character.isDigit(nextChar))
-                {
-                    lexeme.append((char)nextChar);
-                    srcFile.mark(1);
-                    nextChar = srcFile.read();
-                    colNum++;
-                }
-                srcFile.reset();
+                Token undefined = entry.getKey();
+                lexicalError(new Token(Token.TID.TUNDF, undefined.getLineNum() + lineOffset, undefined.getColNum(), undefined.getLexeme()));
+            }
 
-                srcFile.mark(2);
+            // The next chunk starts on the line this chunk ended on
+            lineOffset += parts[i].lineNum - 1;
+        }
 
-                // Decide if integer or float
-                if(nextChar == '.')
-                {
-                    srcFile.skip(1);
-                    nextChar = srcFile.read();
+        lineNum = lineOffset + 1;
+        colNum = parts[count - 1].colNum;
+        pos = srcLength;
+        eof = true;
 
-                    if(Character.isDigit(nextChar))
-                    {
-                        srcFile.mark(1);
-                        lexeme.append('.');
-                        //lexeme.append((char)nextChar);
+        return tokens;
+    }
 
-                        while(Character.isDigit(nextChar))
-                        {
-                            lexeme.append((char)nextChar);
-                            srcFile.mark(1);
-                            nextChar = srcFile.read();
-                            colNum++;
-                        }
-                        srcFile.reset();
+    /** chunkTokens()
+     *
+     * @param result - Future<TokenBuffer>, the result of scanning a chunk
+     * @return - TokenBuffer, the tokens of the chunk
+     */
+    private static TokenBuffer chunkTokens(Future<TokenBuffer> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch(ExecutionException e)
+        {
+            if(e.getCause() instanceof RuntimeException)
+                throw (RuntimeException)e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
 
-                        // Number is a float
-                        return new Token(Token.TID.TFLIT, lineNum, startCol, lexeme.toString());
-                    }
-                }
-                srcFile.reset();
+    /** scanSequential()
+     *
+     * @return - TokenBuffer, every token from the cursor up to and including TEOF
+     */
+    private TokenBuffer scanSequential()
+    {
+        TokenBuffer tokens = new TokenBuffer(names);
 
-                //colNum++;
+        while(!eof)
+            tokens.add(getToken());
 
-                // Number is integer
-                return new Token(Token.TID.TILIT, lineNum, startCol, lexeme.toString());
-            }
-            // Start of string literal
-            else if(nextChar == '\"')
+        return tokens;
+    }
+
+    /** splitChunks()
+     *
+     * Finds chunk boundaries near evenly spaced points of the source
+     *
+     * @param chunks - int, the number of chunks to aim for
+     * @return - int[], the start of each chunk followed by the end of the source
+     */
+    private int[] splitChunks(int chunks)
+    {
+        int[] bounds = new int[chunks + 1];
+        int count = 0;
+        long step = srcLength / chunks;
+
+        for(int i = 1; i < chunks; i++)
+        {
+            int next = cleanLineEnd((int)Math.max(bounds[count], i * step));
+
+            if(next < 0 || next >= srcLength)
+                break;
+            if(next > bounds[count])
+                bounds[++count] = next;
+        }
+        bounds[++count] = srcLength;
+
+        return Arrays.copyOf(bounds, count + 1);
+    }
+
+    /** cleanLineEnd()
+     *
+     * Finds the end of the first line at or after an index that holds no '"' or '/'.
+     * Such a line cannot be inside a string literal or comment, so its newline always
+     * moves the scanner to column 1 of the next line.
+     *
+     * @param from - int, index to search from
+     * @return - int, index just past the newline ending the line or -1 if there is none
+     */
+    private int cleanLineEnd(int from)
+    {
+        int lineStart = from;
+        while(lineStart > 0 && source[lineStart - 1] != '\n')
+            lineStart--;
+
+        boolean clean = true;
+        for(int i = lineStart; i < srcLength; i++)
+        {
+            char c = source[i];
+
+            if(c == '\n')
             {
-                startCol = colNum++;
+                if(clean)
+                    return i + 1;
+                clean = true;
+            }
+            else if(c == '\"' || c == '/')
+                clean = false;
+        }
+        return -1;
+    }
+
+    /** getToken()
+     *
+     * Checks the next character of the source file and returns a Token based on the input
+     *
+     * @return - Token, returns a token with required parameters based on a prescribed character sequence
+     */
+    public Token getToken()
+    {
+        int start;
+        int startCol;
+        int nextChar;
 
-                srcFile.mark(1);
-                nextChar = srcFile.read();
+        while ((nextChar = peek(0)) != -1)
+        {
+            switch(classOf(nextChar))
+            {
+                // First character scanned is a letter and initially marked as an identifier
+                case C_LETTER:
+                    start = pos;
+                    startCol = colNum;
 
-                while((nextChar) != '\"')
-                {
-                    colNum++;
-                    // String literal missing closing quotes
-                    if(nextChar == '\r' ||nextChar == '\n' || nextChar == -1)
+                    while(isIdentPart(peek(0)))
                     {
-                        colNum = startCol--;
-                        Token undefined = new Token(Token.TID.TUNDF, lineNum, startCol, '\"' + lexeme.toString());
-                        error = "Lexical Error (" + lineNum + ", " + colNum + "): unclosed string literal : \"" + lexeme.toString();
-                        errorList.add(new SimpleEntry<>(undefined, error));
-                        return undefined;
+                        pos++;
+                        colNum++;
                     }
-                    lexeme.append((char)nextChar);
-                    nextChar = srcFile.read();
-                }
-                // String literal is complete
-                return new Token(Token.TID.TSTRG, lineNum, startCol, lexeme.toString());
-            }
-            // All other characters
-            else
-            {
-                switch(nextChar)
-                {
-                    case '\n':
-                        lineNum++;
-                        colNum = 1;
-                        break;
 
-                    case '/':
-                        startCol = colNum++;
+                    // Keyword or identifier is valid
+                    return Token.word(source, start, pos - start, lineNum, startCol, names);
 
-                        srcFile.mark(3);
-                        nextChar = srcFile.read();
-                        switch(nextChar)
-                        {
-                            // Token is '/='
-                            case '=':
-                                srcFile.mark(1);
-                                return new Token(Token.TID.TDVEQ, lineNum, startCol, null);
-
-                            // Decide if a comment follows
-                            case '-':
-                                nextChar = srcFile.read();
-
-                                if(nextChar == '-')
-                                {
-                                    srcFile.mark(2);
-
-                                    // Ignore until the end of line or end of file
-                                    while((nextChar = srcFile.read()) != '\r' && nextChar != '\n' && nextChar != -1)
-                                    {
-                                        colNum++;
-                                    }
-                                    lineNum++;
-                                }
-                                // Token is '/'
-                                else
-                                {
-                                    colNum++;
-                                    srcFile.reset();
-                                    return new Token(Token.TID.TDIVD, lineNum, startCol, null);
-                                }
-                                break;
-
-                            // Token is '/'
-                            default:
-                                srcFile.reset();
-                                return new Token(Token.TID.TDIVD, lineNum, startCol, null);
-                        }
+                // First character scanned is a number
+                case C_DIGIT:
+                    start = pos;
+                    startCol = colNum;
+
+                    while(isDigit(peek(0)))
+                    {
+                        pos++;
                         colNum++;
-                        break;
+                    }
 
-                    case '+':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                    // Decide if integer or float
+                    if(peek(0) == '.' && isDigit(peek(1)))
+                    {
+                        pos++;
 
-                        // Token is '+='
-                        if(srcFile.read() == '=')
+                        while(isDigit(peek(0)))
                         {
+                            pos++;
                             colNum++;
-                            return new Token(Token.TID.TPLEQ, lineNum, startCol, null);
-                        }
-                        // Token is '+'
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TPLUS, lineNum, startCol, null);
                         }
 
-                    case '-':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                        // Number is a float
+                        return Token.literal(Token.TID.TFLIT, source, start, pos - start, lineNum, startCol);
+                    }
 
-                        // Token is '-='
-                        if(srcFile.read() == '=')
-                        {
-                            colNum++;
-                            return new Token(Token.TID.TMNEQ, lineNum, startCol, null);
-                        }
-                        // Token is '-'
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TMINS, lineNum, startCol, null);
-                        }
+                    // Number is integer
+                    return Token.literal(Token.TID.TILIT, source, start, pos - start, lineNum, startCol);
 
-                    case '*':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                // Start of string literal
+                case C_QUOTE:
+                    return stringLiteral();
 
-                        // Token is '*='
-                        if(srcFile.read() == '=')
-                        {
-                            colNum++;
-                            return new Token(Token.TID.TSTEQ, lineNum, startCol, null);
-                        }
-                        // Token is '*'
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TSTAR, lineNum, startCol, null);
-                        }
+                case C_NEWLINE:
+                    pos++;
+                    lineNum++;
+                    colNum = 1;
+                    break;
 
-                    case '<':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                case C_TAB:
+                    pos++;
+                    colNum += 4;
+                    break;
 
-                        // Token is '<='
-                        if(srcFile.read() == '=')
-                        {
-                            colNum++;
-                            return new Token(Token.TID.TLEQL, lineNum, startCol, null);
-                        }
-                        // Token is '<'
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TLESS, lineNum, startCol, null);
-                        }
+                case C_SPACE:
+                    pos++;
+                    colNum++;
+                    break;
 
-                    case '>':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                case C_BLANK:
+                    pos++;
+                    break;
 
-                        // Token is '>='
-                        if(srcFile.read() == '=')
+                case C_SLASH:
+                    // Ignore until the end of line or end of file
+                    if(peek(1) == '-' && peek(2) == '-')
+                    {
+                        pos += 3;
+                        colNum++;
+
+                        while((nextChar = peek(0)) != '\r' && nextChar != '\n' && nextChar != -1)
                         {
+                            pos++;
                             colNum++;
-                            return new Token(Token.TID.TGEQL, lineNum, startCol, null);
-                        }
-                        // Token is '>'
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TGRTR, lineNum, startCol, null);
                         }
+                        if(nextChar != -1)
+                            pos++;
+                        lineNum++;
+                        colNum++;
+                        break;
+                    }
 
-                    case '=':
-                        startCol = colNum++;
-                        srcFile.mark(1);
+                    // Token is '/' followed by a single '-'
+                    if(peek(1) == '-')
+                    {
+                        pos++;
+                        startCol = colNum;
+                        colNum += 2;
+                        return new Token(Token.TID.TDIVD, lineNum, startCol, null);
+                    }
+                    return operator(nextChar);
 
-                        // Token is '=='
-                        if(srcFile.read() == '=')
-                        {
-                            colNum++;
-                            return new Token(Token.TID.TEQEQ, lineNum, startCol, null);
-                        }
-                        // Token is '='
-                        else
-                        {
-                            srcFile.reset();
-                            return new Token(Token.TID.TEQUL, lineNum, startCol, null);
-                        }
+                case C_OPERATOR:
+                    return operator(nextChar);
 
-                    // Token is one of the following '% ^ . , [ ] ( ) : ;'
-                    case '%':
-                        return new Token(Token.TID.TPERC, lineNum, colNum++, null);
+                // Token is one of the following '% ^ . , [ ] ( ) : ;'
+                case C_DELIM:
+                    pos++;
+                    return new Token(SINGLE_TOKEN[nextChar], lineNum, colNum++, null);
 
-                    case '^':
-                        return new Token(Token.TID.TCART, lineNum, colNum++, null);
+                case C_BANG:
+                    // Token is '!=', the column does not move
+                    if(peek(1) == '=')
+                    {
+                        pos += 2;
+                        return new Token(Token.TID.TNEQL, lineNum, colNum, null);
+                    }
+                    return invalidSequence();
 
-                    case '.':
-                        return new Token(Token.TID.TDOT, lineNum, colNum++, null);
+                // All other characters
+                default:
+                    return invalidSequence();
+            }
+        }
+        // End of source file has been reached
+        eof = true;
+        return new Token(Token.TID.TEOF, lineNum, colNum, null);
+    }
 
-                    case ',':
-                        return new Token(Token.TID.TCOMA, lineNum, colNum++, null);
+    /** operator()
+     *
+     * Scans an operator character which may be followed by '='
+     *
+     * @param c - int, the operator character
+     * @return - Token, the operator token
+     */
+    private Token operator(int c)
+    {
+        int startCol = colNum++;
+        pos++;
 
-                    case '[':
-                        return new Token(Token.TID.TLBRK, lineNum, colNum++, null);
+        if(peek(0) == '=')
+        {
+            pos++;
 
-                    case ']':
-                        return new Token(Token.TID.TRBRK, lineNum, colNum++, null);
+            // The column of '/=' only moves past the '/'
+            if(c != '/')
+                colNum++;
+            return new Token(EQUALS_TOKEN[c], lineNum, startCol, null);
+        }
+        return new Token(SINGLE_TOKEN[c], lineNum, startCol, null);
+    }
 
-                    case '(':
-                        return new Token(Token.TID.TLPAR, lineNum, colNum++, null);
+    /** stringLiteral()
+     *
+     * Scans a string literal, an unclosed literal is recorded as a lexical error
+     *
+     * @return - Token, a string literal token or an undefined token if the literal is unclosed
+     */
+    private Token stringLiteral()
+    {
+        int startCol = colNum++;
+        int start = ++pos;
+        int nextChar;
 
-                    case ')':
-                        return new Token(Token.TID.TRPAR, lineNum, colNum++, null);
+        while((nextChar = peek(0)) != '\"')
+        {
+            colNum++;
+            // String literal missing closing quotes
+            if(nextChar == '\r' || nextChar == '\n' || nextChar == -1)
+            {
+                String lexeme = new String(source, start, pos - start);
 
-                    case ':':
-                        return new Token(Token.TID.TCOLN, lineNum, colNum++, null);
+                // The line terminator is consumed with the literal
+                if(nextChar != -1)
+                    pos++;
 
-                    case ';':
-                        return new Token(Token.TID.TSEMI, lineNum, colNum++, null);
+                colNum = startCol--;
+                Token undefined = new Token(Token.TID.TUNDF, lineNum, startCol, '\"' + lexeme);
+                lexicalError(undefined);
+                return undefined;
+            }
+            pos++;
+        }
+        // String literal is complete
+        pos++;
+        return Token.literal(Token.TID.TSTRG, source, start, pos - start - 1, lineNum, startCol);
+    }
 
-                    case '!':
-                        startCol = colNum;
+    /** invalidSequence()
+     *
+     * Consumes a run of characters that cannot form a token and records a lexical error.
+     * A '!' immediately followed by '=' ends the run so it can be scanned as '!='.
+     *
+     * @return - Token, an undefined token holding the invalid characters
+     */
+    private Token invalidSequence()
+    {
+        int start = pos;
+        int startCol = colNum;
+        int nextChar;
 
-                        // Token is '!='
-                        if(srcFile.read() == '=')
-                        {
-                            return new Token(Token.TID.TNEQL, lineNum, startCol, null);
-                        }
-                        srcFile.reset();
+        while(isInvalid(nextChar = peek(0)))
+        {
+            if(nextChar == '!')
+            {
+                if(peek(1) == '=')
+                    break;
 
-                    // All other characters
-                    default:
-                        if(!Character.isWhitespace(nextChar))
-                        {
-                            startCol = colNum;
-                            String validChar = "[]()=+-*/%^;:,.<>\"";
-
-                            while(!validChar.contains(Character.toString((char)nextChar)) && !Character.isLetterOrDigit(nextChar) && !Character.isWhitespace(nextChar))
-                            {
-                                switch(nextChar)
-                                {
-                                    case '!':
-                                        if(srcFile.read() != '=')
-                                        {
-                                            srcFile.reset();
-
-                                            lexeme.append((char)srcFile.read());
-
-                                            srcFile.mark(1);
-                                            nextChar = srcFile.read();
-                                            colNum++;
-                                        }
-                                        else
-                                        {
-                                            srcFile.reset();
-                                            Token undefined = new Token(Token.TID.TUNDF, lineNum, startCol, lexeme.toString());
-                                            error = "Lexical Error (" + lineNum + ", " + startCol + "): invalid character sequence : " + lexeme.toString();
-                                            errorList.add(new SimpleEntry<>(undefined, error));
-                                            return undefined;
-                                        }
-
-                                    default:
-                                        if(nextChar == '!')
-                                            break;
-                                        if(!validChar.contains(Character.toString((char)nextChar)) && !Character.isLetterOrDigit(nextChar) && !Character.isWhitespace(nextChar))
-                                        {
-                                            lexeme.append((char)nextChar);
-                                            srcFile.mark(2);
-                                            nextChar = srcFile.read();
-                                        }
-                                }
-                                colNum++;
-                            }
-                            srcFile.reset();
-                            Token undefined = new Token(Token.TID.TUNDF, lineNum, startCol, lexeme.toString());
-                            error = "Lexical Error (" + lineNum + ", " + startCol + "): invalid character sequence : " + lexeme.toString();
-                            errorList.add(new SimpleEntry<>(undefined, error));
-                            return undefined;
-                        }
-                        if(nextChar == '\t')
-                            colNum += 4;
-                        if(Character.isSpaceChar(nextChar))
-                        {
-                            colNum++;
-                        }
-                }
-                srcFile.mark(2);
-                nextChar = srcFile.read();
+                pos++;
+                colNum++;
+
+                // An invalid character after '!' is taken along with it
+                nextChar = peek(0);
+                if(nextChar != '!' && isInvalid(nextChar))
+                    pos++;
             }
+            else
+                pos++;
+
+            colNum++;
         }
-        // End of source file has been reached
-        eof = true;
-        return new Token(Token.TID.TEOF, lineNum, colNum, null);
+
+        String lexeme = new String(source, start, pos - start);
+        Token undefined = new Token(Token.TID.TUNDF, lineNum, startCol, lexeme);
+        lexicalError(undefined);
+        return undefined;
+    }
+
+    /** lexicalError()
+     *
+     * Records a lexical error for an undefined token. The message is built from the token alone
+     * so errors from a chunk scanned in parallel can be rebuilt once their line is known.
+     *
+     * @param undefined - Token, the undefined token holding the invalid characters
+     */
+    private void lexicalError(Token undefined)
+    {
+        String lexeme = undefined.getLexeme();
+
+        // An unclosed literal is reported at the column after its opening quote
+        if(lexeme.charAt(0) == '\"')
+            error = "Lexical Error (" + undefined.getLineNum() + ", " + (undefined.getColNum() + 1) + "): unclosed string literal : " + lexeme;
+        else
+            error = "Lexical Error (" + undefined.getLineNum() + ", " + undefined.getColNum() + "): invalid character sequence : " + lexeme;
+
+        errorList.add(new SimpleEntry<>(undefined, error));
     }
 }
@@ -1,30 +1,1073 @@
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
+/** CD18Semantic.java
+ *
+ * Author: agent agent@local
+ *
+ * ==========================================================================================
+ * Written in place of the empty CD18Semantic class by Greg Choice c9311718@uon.edu.au, which
+ * listed the rules below
+ * ==========================================================================================
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Semantic analyser class for the CD18 compiler. Checks a finished syntax tree apart
+ * from the parser, against the rules of the language:
+ *
+ *   • <id> names (arrays and variables) must be declared before they are used;
+ *   • array size – must be known at compile time;
+ *   • strong typing exists for real variables, real arrays, boolean expressions, and
+ *     arithmetic operations (such as numeric ^ INTEGER);
+ *   • valid assignment operations;
+ *   • actual parameters in a procedure or function call must match the type of their
+ *     respective formal parameter in the procedure definition;
+ *   • the number of actual parameters in a procedure call must be equal to the number
+ *     of formal parameters in the procedure definition;
+ *   • a function must have at least one return statement.
+ *
+ *   Additionally:
+ *   • <id> names must be unique at their particular block level (scoping)
+ *   • a function must be defined before it is called, so it can't call itself or one after it
+ *
+ * The globals are resolved first, in order: the constants, the structure and array types,
+ * the global arrays and the signature of every function. Each function and main is then
+ * checked in a scope of its own over the global table, which is only read from then on,
+ * so they are checked as independent tasks on the pool. Each task keeps its own errors,
+ * and the errors of all of them are merged in order of their position in the source.
+ *
+ * The parser makes the same checks as it reads the program unless the compilation's
+ * context defers them, as CD does when run with --semantic. It still reports calls of
+ * functions not yet defined, as it needs the function to read the call, and the errors
+ * found while folding constants. The errors of this pass are kept apart from the
+ * compilation's, for the caller to add to them.
+ *
+ */
 public class CD18Semantic
 {
-    private String error;
+    private CompilationContext context;
+    private ForkJoinPool pool;
     private LinkedList<SimpleEntry<Token, String>> errorList;
 
+    // Resolved from the globals before the functions and main are checked, only read after
+    private SymbolTable globalTable;
+    private HashMap<String, NFund> functions;
+    private HashMap<String, Integer> functionOrder;
+    private HashMap<String, Constant> constantValues;
+    private Set<TableEntry> constants;
+
+    // Errors in order of line then column
+    private static final Comparator<SimpleEntry<Token, String>> SOURCE_ORDER =
+        Comparator.comparingInt((SimpleEntry<Token, String> error) -> error.getKey().getLineNum())
+            .thenComparingInt(error -> error.getKey().getColNum());
+
+    /** Constructor
+     *
+     * Checks the functions and main on the common pool, interning names in a pool of its own
+     */
     public CD18Semantic()
     {
+        this(new CompilationContext(), ForkJoinPool.commonPool());
+    }
 
+    /** Constructor
+     *
+     * @param cContext - CompilationContext, the compilation, the pass's tables intern names in its pool
+     * @param unitPool - ForkJoinPool, threads the functions and main are checked on, or null to check them in order
+     */
+    public CD18Semantic(CompilationContext cContext, ForkJoinPool unitPool)
+    {
+        context = cContext;
+        pool = unitPool;
+        errorList = new LinkedList<>();
     }
 
+    /** analyse()
+     *
+     * Checks the program, the errors found replace those of an earlier analysis.
+     * Function bodies and main's statements left to be read by the parser are read
+     * before the checks start.
+     *
+     * @param root - STNode, root of the syntax tree
+     */
     public void analyse(STNode root)
     {
-        /*
-        • <id> names (arrays and variables) must be declared before they are used;
-        • array size – must be known at compile time;
-        • strong typing exists for real variables, real arrays, boolean expressions, and arithmetic operations (such as numeric ^ INTEGER);
-        • valid assignment operations;
-        • actual parameters in a procedure or function call must match the type of their respective formal parameter in the procedure definition;
-        • the number of actual parameters in a procedure call must be equal to the number of formal parameters in the procedure definition;
-        • a function must have at least one return statement.
+        errorList = new LinkedList<>();
+        globalTable = new SymbolTable(null, context);
+        functions = new HashMap<>();
+        functionOrder = new HashMap<>();
+        constantValues = new HashMap<>();
+        constants = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        if(root == null || root.getNodeID() != STNode.NID.NPROG)
+            return;
+
+        Unit globals = new Unit(globalTable, null, 0);
+        ArrayList<Unit> units = new ArrayList<>();
+
+        if(root.getSymbol() != null)
+            globalTable.addSymbol(root.getSymbol());
+
+        STNode glob = root.getLeft();
+        if(glob != null)
+        {
+            for(STNode init : items(glob.getLeft(), STNode.NID.NILIST))
+                globals.constant(init);
+            for(STNode type : items(glob.getMiddle(), STNode.NID.NTYPEL))
+                globals.type(type);
+            for(STNode array : items(glob.getRight(), STNode.NID.NALIST))
+            {
+                if(array.getNodeID() == STNode.NID.NARRD)
+                    globals.declare(array);
+            }
+        }
+
+        // Every signature is known before any body is checked, bodies left in outline are loaded here so no task reads one
+        for(STNode fund : items(root.getMiddle(), STNode.NID.NFUNCS))
+        {
+            if(fund.getNodeID() != STNode.NID.NFUND || fund.getSymbol() == null)
+                continue;
+
+            // A function can call those defined before it
+            Unit unit = new Unit(globalTable.enterScope(), fund, functions.size());
+
+            if(globals.declare(fund.getSymbol()))
+            {
+                functionOrder.put(fund.getSymbol().getName(), functions.size());
+                functions.put(fund.getSymbol().getName(), (NFund)fund);
+            }
+
+            fund.load();
+            units.add(unit);
+        }
+
+        STNode main = root.getRight();
+        if(main != null && main.getNodeID() == STNode.NID.NMAIN)
+        {
+            main.load();
+            units.add(new Unit(globalTable.enterScope(), main, functions.size()));
+        }
+
+        check(units);
+
+        ArrayList<SimpleEntry<Token, String>> found = new ArrayList<>(globals.errors);
+        for(Unit unit : units)
+            found.addAll(unit.errors);
+        found.sort(SOURCE_ORDER);
+        errorList.addAll(found);
+    }
+
+    /** check()
+     *
+     * Checks the functions and main, on the pool if there is one
+     *
+     * @param units - ArrayList<Unit>, the functions and main in source order
+     */
+    private void check(ArrayList<Unit> units)
+    {
+        if(pool == null)
+        {
+            for(Unit unit : units)
+                unit.check();
+            return;
+        }
+
+        ArrayList<Callable<Object>> tasks = new ArrayList<>();
+        for(Unit unit : units)
+        {
+            tasks.add(() ->
+            {
+                try
+                {
+                    unit.check();
+                }
+                catch(RuntimeException e)
+                {
+                    unit.failure = e;
+                }
+                return null;
+            });
+        }
+
+        // Names without an ID are interned from every thread
+        NamePool namePool = context.getNamePool();
+        boolean shared = namePool.isShared();
+        namePool.setShared(true);
+        try
+        {
+            pool.invokeAll(tasks);
+        }
+        finally
+        {
+            namePool.setShared(shared);
+        }
+
+        for(Unit unit : units)
+        {
+            if(unit.failure != null)
+                throw unit.failure;
+        }
+    }
+
+    /** items()
+     *
+     * Flattens a list, each list node holding an item on its left and the rest of
+     * the list, or the last item, on its right
+     *
+     * @param list - STNode, the list node, a single item or null
+     * @param listID - STNode.NID, node ID of the list
+     * @return - ArrayList<STNode>, the items in order
+     */
+    private static ArrayList<STNode> items(STNode list, STNode.NID listID)
+    {
+        ArrayList<STNode> items = new ArrayList<>();
+
+        while(list != null && list.getNodeID() == listID)
+        {
+            if(list.getLeft() != null)
+                items.add(list.getLeft());
+            list = list.getRight();
+        }
+        if(list != null)
+            items.add(list);
+
+        return items;
+    }
+
+    /** position()
+     *
+     * @param node - STNode, a node
+     * @return - TableEntry, the first entry found down the left of the node, or null if it has none
+     */
+    private static TableEntry position(STNode node)
+    {
+        while(node != null)
+        {
+            if(node.getSymbol() != null && node.getSymbol().getToken() != null)
+                return node.getSymbol();
+
+            if(node.getLeft() != null)
+                node = node.getLeft();
+            else if(node.getMiddle() != null)
+                node = node.getMiddle();
+            else
+                node = node.getRight();
+        }
+        return null;
+    }
+
+    /** entryType()
+     *
+     * @param entry - TableEntry, an identifier
+     * @return - DataType, its type, or null if it has no type that is known
+     */
+    private DataType entryType(TableEntry entry)
+    {
+        return entry.getType() == null ? null : globalTable.getDataType(entry.getType());
+    }
+
+    /** isNumeric()
+     *
+     * @param type - DataType, a type
+     * @return - boolean, true for integer and real
+     */
+    private static boolean isNumeric(DataType type)
+    {
+        return type == PrimitiveType.INTEGER || type == PrimitiveType.REAL;
+    }
+
+    /** assignable()
+     *
+     * @param target - DataType, type of a variable or parameter
+     * @param value - DataType, type of the value given to it
+     * @return - boolean, true if the value can be given, an integer is promoted to real
+     */
+    private static boolean assignable(DataType target, DataType value)
+    {
+        return target == value || (target == PrimitiveType.REAL && value == PrimitiveType.INTEGER);
+    }
+
+    /** isConstant()
+     *
+     * @param node - STNode, an expression
+     * @return - boolean, true if it is made only of literals and constants, its value known at compile time
+     */
+    private boolean isConstant(STNode node)
+    {
+        if(node == null)
+            return false;
+
+        switch(node.getNodeID())
+        {
+            case NILIT:
+            case NFLIT:
+                return true;
+
+            case NSIMV:
+                return constantValues.containsKey(node.getSymbol().getName());
+
+            case NADD:
+            case NSUB:
+            case NMUL:
+            case NDIV:
+            case NMOD:
+            case NPOW:
+                return isConstant(node.getLeft()) && isConstant(node.getRight());
+
+            default:
+                return false;
+        }
+    }
+
+    /** evaluate()
+     *
+     * @param node - STNode, an expression for which isConstant() is true
+     * @return - Constant, its value, or null if it can't be calculated
+     */
+    private Constant evaluate(STNode node)
+    {
+        switch(node.getNodeID())
+        {
+            case NILIT:
+            case NFLIT:
+                if(node.getSymbol().getConstant() != null)
+                    return node.getSymbol().getConstant();
+                try
+                {
+                    return node.getNodeID() == STNode.NID.NILIT ? Constant.integer(node.getSymbol().getIntValue())
+                        : Constant.real(node.getSymbol().getFloatValue());
+                }
+                catch(NumberFormatException e)
+                {
+                    return null;
+                }
+
+            case NSIMV:
+                return constantValues.get(node.getSymbol().getName());
+
+            default:
+        }
+
+        Constant left = evaluate(node.getLeft());
+        Constant right = evaluate(node.getRight());
+        if(left == null || right == null)
+            return null;
+
+        // The same int arithmetic as the parser's folding, so the two agree on every value
+        if(left.getType() == PrimitiveType.INTEGER && right.getType() == PrimitiveType.INTEGER)
+        {
+            int a = left.intValue();
+            int b = right.intValue();
+            switch(node.getNodeID())
+            {
+                case NADD:
+                    return Constant.integer(a + b);
+
+                case NSUB:
+                    return Constant.integer(a - b);
+
+                case NMUL:
+                    return Constant.integer(a * b);
+
+                case NDIV:
+                    return b == 0 ? null : Constant.integer(a / b);
+
+                case NMOD:
+                    return b == 0 ? null : Constant.integer(a % b);
+
+                default:
+                    int power = a;
+                    for(int i = b; i > 1; i--)
+                        power = power * a;
+                    return Constant.integer(power);
+            }
+        }
+
+        double a = left.doubleValue();
+        double b = right.doubleValue();
+        switch(node.getNodeID())
+        {
+            case NADD:
+                return Constant.real(a + b);
+
+            case NSUB:
+                return Constant.real(a - b);
+
+            case NMUL:
+                return Constant.real(a * b);
+
+            case NDIV:
+                return b == 0 ? null : Constant.real(a / b);
+
+            // The parser reports a real in a modulus or exponent
+            default:
+                return null;
+        }
+    }
+
+    /** hasErrors()
+     *
+     * @return - boolean, true if the last analysis found errors
+     */
+    public boolean hasErrors()
+    {
+        return !errorList.isEmpty();
+    }
+
+    /** nextError()
+     *
+     * Returns the next error in the list of semantic errors
+     *
+     * @return - AbstractMap.SimpleEntry<Token, String>, a Token-String pair describing the error
+     */
+    public SimpleEntry<Token, String> nextError()
+    {
+        return errorList.pop();
+    }
+
+    /** getErrors()
+     *
+     * @return - LinkedList<SimpleEntry<Token, String>>, the errors of the last analysis in source order
+     */
+    public LinkedList<SimpleEntry<Token, String>> getErrors()
+    {
+        return errorList;
+    }
+
+    /** Unit
+     *
+     * The globals, a function or main, checked in its own scope with its own errors
+     */
+    private class Unit
+    {
+        private final Symbols scope;
+        private final STNode owner;
+        private final ArrayList<SimpleEntry<Token, String>> errors = new ArrayList<>();
+
+        // Number of functions defined before the unit, those it can call
+        private final int callable;
+
+        // Constant array parameters, which can't be assigned to
+        private final Set<TableEntry> readOnly = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int returns;
+        private RuntimeException failure;
+
+        /** Constructor
+         *
+         * @param unitScope - Symbols, the scope of the unit
+         * @param unitOwner - STNode, the NFUND or NMAIN node, or null for the globals
+         * @param unitCallable - int, number of functions defined before the unit
+         */
+        private Unit(Symbols unitScope, STNode unitOwner, int unitCallable)
+        {
+            scope = unitScope;
+            owner = unitOwner;
+            callable = unitCallable;
+        }
+
+        /** error()
+         *
+         * @param at - TableEntry, where the error is, or null for the start of the unit
+         * @param message - String, the error without its position
+         */
+        private void error(TableEntry at, String message)
+        {
+            if(at == null || at.getToken() == null)
+                at = owner != null ? owner.getSymbol() : null;
+            if(at == null || at.getToken() == null)
+                return;
+
+            errors.add(new SimpleEntry<>(at.getToken(), "Semantic Error: (" + at.getLine() + ", " + at.getCol() + "): " + message));
+        }
+
+        /** error()
+         *
+         * @param at - Token, where the error is, or null for the start of the unit
+         * @param message - String, the error without its position
+         */
+        private void error(Token at, String message)
+        {
+            if(at == null)
+                error((TableEntry)null, message);
+            else
+                errors.add(new SimpleEntry<>(at, "Semantic Error: (" + at.getLineNum() + ", " + at.getColNum() + "): " + message));
+        }
 
-    Additionally:
-        • <id> names must be unique at their particular block level (scoping)
+        /** declare()
+         *
+         * @param entry - TableEntry, an identifier being declared in the unit's scope
+         * @return - boolean, true if it was declared, false if the scope already has the name
+         */
+        private boolean declare(TableEntry entry)
+        {
+            if(entry == null || entry.getName() == null)
+                return false;
+
+            if(scope.hasIdInScope(entry.getName()))
+            {
+                error(entry, "Identifier already declared in scope.");
+                return false;
+            }
+
+            scope.addSymbol(entry);
+            return true;
+        }
+
+        /** declare()
+         *
+         * Declares a variable, or an array whose type must be an array type
+         *
+         * @param decl - STNode, an NSDECL or NARRD node
+         * @return - TableEntry, the identifier, or null if none was declared
+         */
+        private TableEntry declare(STNode decl)
+        {
+            TableEntry entry = decl.getSymbol();
+            if(entry == null || entry.getName() == null)
+                return null;
+
+            if(decl.getNodeID() == STNode.NID.NARRD && scope.hasIdInScope(entry.getName()))
+            {
+                error(entry, "Array identifier already declared.");
+                return null;
+            }
+            if(!declare(entry))
+                return null;
+
+            if(decl.getNodeID() == STNode.NID.NARRD && entry.getType() != null && !(entryType(entry) instanceof ArrayType))
+            {
+                if(globalTable.hasTypeDeclared(entry.getType()))
+                    error(entry, "Type identifier not of array type.");
+                else
+                    error(entry, "Undefined array type.");
+            }
+            return entry;
+        }
+
+        /** constant()
+         *
+         * @param init - STNode, an NINIT node of the constants section
+         */
+        private void constant(STNode init)
+        {
+            if(init.getNodeID() != STNode.NID.NINIT || init.getSymbol() == null)
+                return;
+
+            STNode expr = init.getLeft();
+
+            if(expr != null && expr.getNodeID() != STNode.NID.NUNDEF)
+            {
+                DataType type = typeOf(expr);
+                if(!isConstant(expr) || (type != null && !isNumeric(type)))
+                    error(position(expr), "Constant assignment must be numeric literal or constant expression.");
+            }
+
+            // The constant isn't in scope in its own initialiser
+            if(declare(init.getSymbol()))
+            {
+                constants.add(init.getSymbol());
+                if(isConstant(expr))
+                {
+                    Constant value = evaluate(expr);
+                    if(value != null)
+                        constantValues.put(init.getSymbol().getName(), value);
+                }
+            }
+        }
+
+        /** type()
+         *
+         * @param type - STNode, an NRTYPE or NATYPE node of the types section
+         */
+        private void type(STNode type)
+        {
+            TableEntry entry = type.getSymbol();
+            if(entry == null || entry.getName() == null)
+                return;
+
+            if(globalTable.hasTypeInScope(entry.getName()))
+            {
+                error(entry, "Type identifier already declared.");
+                return;
+            }
+
+            switch(type.getNodeID())
+            {
+                case NRTYPE:
+                    RecordType record = new RecordType(entry.getName());
+                    for(STNode field : items(type.getLeft(), STNode.NID.NFLIST))
+                    {
+                        TableEntry member = field.getSymbol();
+                        if(field.getNodeID() != STNode.NID.NSDECL || member == null)
+                            continue;
+
+                        if(record.getMember(member.getName()) != null)
+                            error(member, "Identifier already declared in scope.");
+                        else
+                            record.addMember(new TableEntry(member));
+                    }
+                    globalTable.addRecord(record);
+                    globalTable.addType(entry, 'c');
+                    break;
+
+                case NATYPE:
+                    STNode size = type.getLeft();
+                    int length = -1;
+
+                    if(size == null || size.getNodeID() == STNode.NID.NUNDEF)
+                        error(entry, "Array size undefined.");
+                    else
+                    {
+                        // An undeclared identifier in the size is reported as it is typed
+                        DataType sizeType = typeOf(size);
+
+                        if(!isConstant(size))
+                        {
+                            if(sizeType != null)
+                                error(position(size), "Array size must be numeric literal or constant expression.");
+                        }
+                        else if(sizeType != PrimitiveType.INTEGER)
+                            error(entry, "Array size must be integer or integer expression.");
+                        else
+                        {
+                            Constant value = evaluate(size);
+                            if(value != null && value.intValue() <= 0)
+                                error(position(size), "Array size must be greater than zero.");
+                            else if(value != null)
+                                length = value.intValue();
+                        }
+                    }
+
+                    // A type left unnamed has been reported by the parser
+                    RecordType element = entry.getType() == null ? null : globalTable.getRecord(entry.getType());
+                    if(entry.getType() != null && element == null)
+                        error(entry, globalTable.hasTypeDeclared(entry.getType()) ? "Type must be complex structure type." : "Undeclared type identifier.");
+
+                    globalTable.addArrayType(new ArrayType(entry.getName(), element, length));
+                    globalTable.addType(entry, 'a');
+                    break;
+
+                default:
+            }
+        }
+
+        /** check()
+         *
+         * Checks a function or main: its parameters and declarations, then its statements
+         */
+        private void check()
+        {
+            if(owner.getNodeID() == STNode.NID.NMAIN)
+            {
+                for(STNode decl : items(owner.getLeft(), STNode.NID.NSDLST))
+                {
+                    if(decl.getNodeID() == STNode.NID.NSDECL)
+                        declare(decl);
+                }
+                statements(owner.getRight());
+                return;
+            }
+
+            for(STNode param : items(owner.getLeft(), STNode.NID.NPLIST))
+            {
+                if(param.getLeft() == null)
+                    continue;
+
+                TableEntry entry = declare(param.getLeft());
+                if(entry != null && param.getNodeID() == STNode.NID.NARRC)
+                    readOnly.add(entry);
+            }
+
+            for(STNode decl : items(owner.getMiddle(), STNode.NID.NDLIST))
+            {
+                if(decl.getNodeID() == STNode.NID.NSDECL || decl.getNodeID() == STNode.NID.NARRD)
+                    declare(decl);
+            }
+
+            statements(owner.getRight());
+
+            String type = owner.getSymbol().getType();
+            if(type != null && !type.equals("void") && returns == 0)
+                error(owner.getSymbol(), "Function must have at least one return statement.");
+        }
+
+        /** statements()
+         *
+         * @param stats - STNode, a statement or an NSTATS chain
+         */
+        private void statements(STNode stats)
+        {
+            for(STNode stat : items(stats, STNode.NID.NSTATS))
+            {
+                switch(stat.getNodeID())
+                {
+                    case NASGN:
+                    case NPLEQ:
+                    case NMNEQ:
+                    case NSTEQ:
+                    case NDVEQ:
+                    case NASGNS:
+                        assignments(stat);
+                        break;
+
+                    case NFOR:
+                        assignments(stat.getLeft());
+                        condition(stat.getMiddle());
+                        statements(stat.getRight());
+                        break;
+
+                    case NREPT:
+                        assignments(stat.getLeft());
+                        statements(stat.getMiddle());
+                        condition(stat.getRight());
+                        break;
+
+                    case NIFTH:
+                        condition(stat.getLeft());
+                        statements(stat.getRight());
+                        break;
+
+                    case NIFTE:
+                        condition(stat.getLeft());
+                        statements(stat.getMiddle());
+                        statements(stat.getRight());
+                        break;
+
+                    case NINPUT:
+                        for(STNode var : items(stat.getLeft(), STNode.NID.NVLIST))
+                        {
+                            DataType type = variable(var, true);
+                            if(type != null && !(type instanceof PrimitiveType))
+                                error(position(var), "Type mismatch.");
+                        }
+                        break;
+
+                    case NPRINT:
+                    case NPRLN:
+                        for(STNode item : items(stat.getLeft(), STNode.NID.NPRLST))
+                        {
+                            DataType type = typeOf(item);
+                            if(type != null && !(type instanceof PrimitiveType))
+                                error(position(item), "Type mismatch.");
+                        }
+                        break;
+
+                    case NCALL:
+                        call(stat, true);
+                        break;
+
+                    case NRETN:
+                        ret(stat);
+                        break;
+
+                    default:
+                }
+            }
+        }
+
+        /** assignments()
+         *
+         * @param asgns - STNode, an assignment, an NASGNS list of them, or null
+         */
+        private void assignments(STNode asgns)
+        {
+            for(STNode asgn : items(asgns, STNode.NID.NASGNS))
+            {
+                DataType target = variable(asgn.getLeft(), true);
+                DataType value = typeOf(asgn.getRight());
+
+                if(target == null || value == null)
+                    continue;
+
+                boolean valid;
+                if(asgn.getNodeID() == STNode.NID.NASGN)
+                    valid = assignable(target, value);
+                else
+                    valid = isNumeric(target) && isNumeric(value) && assignable(target, value);
+
+                if(!valid)
+                    error(position(asgn.getLeft()), "Type mismatch.");
+            }
+        }
+
+        /** condition()
+         *
+         * @param bool - STNode, the condition of an if, for or repeat, or null
+         */
+        private void condition(STNode bool)
+        {
+            DataType type = typeOf(bool);
+            if(type != null && type != PrimitiveType.BOOLEAN)
+                error(position(bool), "Condition must be boolean expression.");
+        }
+
+        /** ret()
+         *
+         * @param retn - STNode, an NRETN node
+         */
+        private void ret(STNode retn)
+        {
+            returns++;
+
+            DataType value = typeOf(retn.getLeft());
+            if(owner.getNodeID() != STNode.NID.NFUND || owner.getSymbol().getType() == null)
+                return;
+
+            if(owner.getSymbol().getType().equals("void"))
+            {
+                if(retn.getLeft() != null)
+                    error(position(retn.getLeft()), "Void function cannot return a value.");
+            }
+            else if(retn.getLeft() == null)
+                error(owner.getSymbol(), "Return value missing.");
+            else if(value != null && !assignable(entryType(owner.getSymbol()), value))
+                error(position(retn.getLeft()), "Type mismatch.");
+        }
+
+        /** variable()
+         *
+         * @param var - STNode, an NSIMV or NARRV node
+         * @param write - boolean, true if the variable is assigned or input to
+         * @return - DataType, type of the variable, or null if it is not known
+         */
+        private DataType variable(STNode var, boolean write)
+        {
+            if(var == null || var.getSymbol() == null)
+                return null;
+
+            TableEntry entry = scope.getIdEntry(var.getSymbol().getName());
+
+            switch(var.getNodeID())
+            {
+                case NSIMV:
+                    if(entry == null)
+                    {
+                        error(var.getSymbol(), "Undeclared identifier.");
+                        return null;
+                    }
+                    if(functions.get(entry.getName()) != null && functions.get(entry.getName()).getSymbol() == entry)
+                    {
+                        error(var.getSymbol(), "Function identifier used as variable.");
+                        return null;
+                    }
+                    if(write && (constants.contains(entry) || readOnly.contains(entry)))
+                        error(var.getSymbol(), "Constant cannot be assigned.");
+                    return entryType(entry);
+
+                case NARRV:
+                    DataType index = typeOf(var.getLeft());
+                    if(index != null && index != PrimitiveType.INTEGER)
+                        error(position(var.getLeft()), "Array index must be integer.");
+
+                    if(entry == null)
+                    {
+                        error(var.getSymbol(), "Undeclared array identifier.");
+                        return null;
+                    }
+                    if(!(entryType(entry) instanceof ArrayType))
+                    {
+                        error(var.getSymbol(), "Type mismatch.");
+                        return null;
+                    }
+                    if(write && readOnly.contains(entry))
+                        error(var.getSymbol(), "Constant cannot be assigned.");
+
+                    RecordType element = ((ArrayType)entryType(entry)).getElement();
+                    TableEntry member = var.getRight() != null ? var.getRight().getSymbol() : null;
+                    if(element == null || member == null || member.getName() == null)
+                        return null;
+
+                    TableEntry field = element.getMember(member.getName());
+                    if(field == null)
+                    {
+                        error(member, "Member does not exist in type structure.");
+                        return null;
+                    }
+                    return entryType(field);
+
+                default:
+                    return null;
+            }
+        }
+
+        /** call()
+         *
+         * @param call - STNode, an NCALL or NFCALL node
+         * @param statement - boolean, true for a call statement, whose function may be void
+         * @return - DataType, the type the function returns, or null if it is not known
+         */
+        private DataType call(STNode call, boolean statement)
+        {
+            TableEntry entry = call.getSymbol();
+            NFund fund = entry == null ? null : functions.get(entry.getName());
 
+            ArrayList<STNode> args = items(call.getLeft(), STNode.NID.NEXPL);
+            ArrayList<DataType> types = new ArrayList<>();
+            for(STNode arg : args)
+                types.add(typeOf(arg));
+
+            // Functions are declared before they are used, so none calls itself or one after it
+            if(fund == null || functionOrder.get(entry.getName()) >= callable)
+            {
+                error(entry, "Function not defined.");
+                return null;
+            }
+
+            // Errors in the arguments are listed where the parser lists them, after the "("
+            Token argsStart = call instanceof NCall ? ((NCall)call).getArgsStart()
+                : call instanceof NFcall ? ((NFcall)call).getArgsStart() : null;
+
+            ArrayList<STNode> params = items(fund.getLeft(), STNode.NID.NPLIST);
+            if(args.size() != params.size())
+                error(argsStart, "Number of arguments does not match number of parameters.");
+            else
+            {
+                for(int i = 0; i < params.size(); i++)
+                {
+                    STNode param = params.get(i);
+                    if(param.getLeft() == null || param.getLeft().getSymbol() == null)
+                        continue;
+
+                    DataType formal = entryType(param.getLeft().getSymbol());
+                    DataType actual = types.get(i);
+                    if(formal == null || actual == null)
+                        continue;
+
+                    // An array is passed by its name alone
+                    boolean valid = param.getNodeID() == STNode.NID.NSIMP ? assignable(formal, actual)
+                        : formal == actual && args.get(i).getNodeID() == STNode.NID.NSIMV;
+                    if(!valid)
+                        error(argsStart, "Call argument does not match parameter type.");
+                }
+            }
+
+            String type = fund.getSymbol().getType();
+            if(!statement && "void".equals(type))
+            {
+                error(entry, "Void function used in expression.");
+                return null;
+            }
+            return entryType(fund.getSymbol());
+        }
+
+        /** typeOf()
+         *
+         * @param node - STNode, an expression, or null
+         * @return - DataType, its type, or null if it is not known or it has errors, which are reported
          */
+        private DataType typeOf(STNode node)
+        {
+            if(node == null)
+                return null;
+
+            DataType left, right;
+
+            switch(node.getNodeID())
+            {
+                case NILIT:
+                    return PrimitiveType.INTEGER;
+
+                case NFLIT:
+                    return PrimitiveType.REAL;
+
+                case NTRUE:
+                case NFALS:
+                    return PrimitiveType.BOOLEAN;
+
+                case NSIMV:
+                case NARRV:
+                    return variable(node, false);
+
+                case NFCALL:
+                    return call(node, false);
+
+                case NBOOL:
+                    return typeOf(node.getLeft());
+
+                case NADD:
+                case NSUB:
+                case NMUL:
+                case NDIV:
+                case NMOD:
+                    left = typeOf(node.getLeft());
+                    right = typeOf(node.getRight());
+                    if(left == null || right == null)
+                        return null;
+                    if(!isNumeric(left) || !isNumeric(right))
+                    {
+                        error(position(isNumeric(left) ? node.getRight() : node.getLeft()),
+                            left == PrimitiveType.BOOLEAN || right == PrimitiveType.BOOLEAN ? "Illegal boolean in numeric expression." : "Type mismatch.");
+                        return null;
+                    }
+                    return left == PrimitiveType.INTEGER && right == PrimitiveType.INTEGER ? PrimitiveType.INTEGER : PrimitiveType.REAL;
+
+                case NPOW:
+                    left = typeOf(node.getLeft());
+                    right = typeOf(node.getRight());
+                    if(left == null || right == null)
+                        return null;
+                    if(!isNumeric(left))
+                    {
+                        error(position(node.getLeft()), left == PrimitiveType.BOOLEAN ? "Illegal boolean in numeric expression." : "Type mismatch.");
+                        return null;
+                    }
+                    if(right != PrimitiveType.INTEGER)
+                    {
+                        error(position(node.getRight()), "Exponent must be integer.");
+                        return null;
+                    }
+                    return left;
+
+                case NEQL:
+                case NNEQ:
+                    left = typeOf(node.getLeft());
+                    right = typeOf(node.getRight());
+                    if(left == null || right == null)
+                        return PrimitiveType.BOOLEAN;
+                    if(!(isNumeric(left) && isNumeric(right)) && !(left == PrimitiveType.BOOLEAN && right == PrimitiveType.BOOLEAN))
+                        error(position(node.getLeft()), "Type mismatch.");
+                    return PrimitiveType.BOOLEAN;
+
+                case NGRT:
+                case NGEQ:
+                case NLSS:
+                case NLEQ:
+                    left = typeOf(node.getLeft());
+                    right = typeOf(node.getRight());
+                    if(left != null && right != null && (!isNumeric(left) || !isNumeric(right)))
+                        error(position(node.getLeft()), "Type mismatch.");
+                    return PrimitiveType.BOOLEAN;
+
+                case NNOT:
+                    left = typeOf(node.getLeft());
+                    if(left != null && left != PrimitiveType.BOOLEAN)
+                        error(position(node.getLeft()), "Type mismatch.");
+                    return PrimitiveType.BOOLEAN;
+
+                case NAND:
+                case NOR:
+                case NXOR:
+                    left = typeOf(node.getLeft());
+                    right = typeOf(node.getRight());
+                    if(left != null && left != PrimitiveType.BOOLEAN)
+                        error(position(node.getLeft()), "Type mismatch.");
+                    else if(right != null && right != PrimitiveType.BOOLEAN)
+                        error(position(node.getRight()), "Type mismatch.");
+                    return PrimitiveType.BOOLEAN;
+
+                default:
+                    return null;
+            }
+        }
     }
 }
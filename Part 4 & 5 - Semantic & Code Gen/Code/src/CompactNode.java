@@ -0,0 +1,112 @@
+/** CompactNode.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * View of one node of a CompactTree through the STNode accessors.
+ * Views are made as the tree is walked and hold only the tree and the
+ * node's index. The tree can't be changed through a view.
+ *
+ */
+public class CompactNode extends STNode
+{
+    private CompactTree tree;
+    private int index;
+
+    /** Constructor
+     *
+     * @param tree - CompactTree, the tree holding the node
+     * @param index - int, index of the node in the tree
+     */
+    public CompactNode(CompactTree tree, int index)
+    {
+        super(NID.NUNDEF);
+        this.tree = tree;
+        this.index = index;
+    }
+
+    public int getIndex()
+    {
+        return index;
+    }
+
+    @Override
+    public NID getNodeID()
+    {
+        return tree.getKind(index);
+    }
+
+    @Override
+    public STNode getLeft()
+    {
+        return tree.node(tree.getLeft(index));
+    }
+
+    @Override
+    public STNode getMiddle()
+    {
+        return tree.node(tree.getMiddle(index));
+    }
+
+    @Override
+    public STNode getRight()
+    {
+        return tree.node(tree.getRight(index));
+    }
+
+    @Override
+    public TableEntry getSymbol()
+    {
+        return tree.getSymbol(index);
+    }
+
+    @Override
+    public void setNodeID(NID id)
+    {
+        throw new UnsupportedOperationException("A compact tree can't be changed");
+    }
+
+    @Override
+    public void setLeft(STNode left)
+    {
+        throw new UnsupportedOperationException("A compact tree can't be changed");
+    }
+
+    @Override
+    public void setMiddle(STNode middle)
+    {
+        throw new UnsupportedOperationException("A compact tree can't be changed");
+    }
+
+    @Override
+    public void setRight(STNode right)
+    {
+        throw new UnsupportedOperationException("A compact tree can't be changed");
+    }
+
+    @Override
+    public void setSymbol(TableEntry entry)
+    {
+        throw new UnsupportedOperationException("A compact tree can't be changed");
+    }
+
+    @Override
+    public boolean equals(Object object)
+    {
+        if(object instanceof CompactNode)
+        {
+            CompactNode other = (CompactNode)object;
+            return tree == other.tree && index == other.index;
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return System.identityHashCode(tree) * 31 + index;
+    }
+}
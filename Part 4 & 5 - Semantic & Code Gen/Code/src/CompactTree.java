@@ -0,0 +1,395 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/** CompactTree.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Syntax tree held in parallel arrays instead of STNode objects.
+ * A node is an index into the arrays for its kind, its children and its symbol.
+ * The children of a node are stored next to each other, so a node keeps the index
+ * of its first child and which of left, middle and right it has. A symbol keeps
+ * its token kind, source position, name, type, data type, value, register and
+ * offset. The strings and data types are shared through pools, so the tree holds
+ * no Tokens or TableEntries. The constant a symbol was folded to is not kept, as
+ * only the checks made before the tree is compacted read it.
+ *
+ * The tree is read-only. CompactNode gives a node the STNode accessors so the code
+ * generator can walk the tree unchanged, but a node's symbol is a new TableEntry
+ * made each time it is asked for, and changes made to it are not kept.
+ *
+ */
+public class CompactTree
+{
+    private static final STNode.NID[] KINDS = STNode.NID.values();
+    private static final Token.TID[] TOKENS = Token.TID.values();
+
+    // Which children a node has
+    private static final int LEFT = 1;
+    private static final int MIDDLE = 2;
+    private static final int RIGHT = 4;
+
+    // Nodes, a symbol of -1 is no symbol
+    private int nodes;
+    private byte[] kind;
+    private byte[] children;
+    private int[] first;
+    private int[] symbol;
+
+    // Symbols, the strings are indexes into the pool or -1 for null
+    private int symbols;
+    private byte[] token;
+    private int[] line;
+    private int[] col;
+    private int[] name;
+    private int[] nameID;
+    private int[] type;
+    private int[] dataType;
+    private int[] value;
+    private int[] register;
+    private int[] offset;
+
+    private String[] pool;
+    private HashMap<String, Integer> poolIndex;
+    private DataType[] dataTypes;
+    private HashMap<DataType, Integer> dataTypeIndex;
+
+    /** Constructor
+     *
+     */
+    private CompactTree()
+    {
+        kind = new byte[64];
+        children = new byte[64];
+        first = new int[64];
+        symbol = new int[64];
+
+        token = new byte[64];
+        line = new int[64];
+        col = new int[64];
+        name = new int[64];
+        nameID = new int[64];
+        type = new int[64];
+        dataType = new int[64];
+        value = new int[64];
+        register = new int[64];
+        offset = new int[64];
+
+        pool = new String[64];
+        poolIndex = new HashMap<>();
+        dataTypes = new DataType[8];
+        dataTypeIndex = new HashMap<>();
+    }
+
+    /** from()
+     *
+     * Copies a syntax tree into a compact tree. The STNode tree isn't changed and
+     * can be dropped afterwards. Deep trees are copied without recursion.
+     *
+     * @param root - STNode, root of the tree
+     * @return - CompactTree, the copy
+     */
+    public static CompactTree from(STNode root)
+    {
+        CompactTree tree = new CompactTree();
+        ArrayList<STNode> pending = new ArrayList<>();
+        int[] indexes = new int[64];
+
+        pending.add(root);
+        indexes[0] = tree.addNode(root);
+
+        // Each node is added when its parent is visited, so the links can be set straight away
+        while(!pending.isEmpty())
+        {
+            int top = pending.size() - 1;
+            STNode node = pending.remove(top);
+            int index = indexes[top];
+
+            STNode[] childNodes = {node.getLeft(), node.getMiddle(), node.getRight()};
+            int[] flags = {LEFT, MIDDLE, RIGHT};
+
+            tree.first[index] = tree.nodes;
+            for(int i = 0; i < childNodes.length; i++)
+            {
+                if(childNodes[i] == null)
+                    continue;
+
+                int child = tree.addNode(childNodes[i]);
+                tree.children[index] |= flags[i];
+
+                if(pending.size() == indexes.length)
+                    indexes = Arrays.copyOf(indexes, indexes.length * 2);
+                indexes[pending.size()] = child;
+                pending.add(childNodes[i]);
+            }
+        }
+
+        tree.poolIndex = null;
+        tree.dataTypeIndex = null;
+        tree.trim();
+
+        return tree;
+    }
+
+    /** addNode()
+     *
+     * @param node - STNode, the node to add, its children are linked later
+     * @return - int, index of the node
+     */
+    private int addNode(STNode node)
+    {
+        if(nodes == kind.length)
+        {
+            int size = nodes * 2;
+            kind = Arrays.copyOf(kind, size);
+            children = Arrays.copyOf(children, size);
+            first = Arrays.copyOf(first, size);
+            symbol = Arrays.copyOf(symbol, size);
+        }
+
+        kind[nodes] = (byte)node.getNodeID().ordinal();
+        symbol[nodes] = node.getSymbol() == null ? -1 : addSymbol(node.getSymbol());
+
+        return nodes++;
+    }
+
+    /** addSymbol()
+     *
+     * @param entry - TableEntry, the symbol of a node
+     * @return - int, index of the symbol
+     */
+    private int addSymbol(TableEntry entry)
+    {
+        if(symbols == token.length)
+        {
+            int size = symbols * 2;
+            token = Arrays.copyOf(token, size);
+            line = Arrays.copyOf(line, size);
+            col = Arrays.copyOf(col, size);
+            name = Arrays.copyOf(name, size);
+            nameID = Arrays.copyOf(nameID, size);
+            type = Arrays.copyOf(type, size);
+            dataType = Arrays.copyOf(dataType, size);
+            value = Arrays.copyOf(value, size);
+            register = Arrays.copyOf(register, size);
+            offset = Arrays.copyOf(offset, size);
+        }
+
+        token[symbols] = entry.getToken() == null ? -1 : (byte)entry.getTokenID().ordinal();
+        line[symbols] = entry.getLine();
+        col[symbols] = entry.getCol();
+        name[symbols] = addString(entry.getName());
+        nameID[symbols] = entry.getNameID();
+        type[symbols] = addString(entry.getType());
+        dataType[symbols] = addDataType(entry.getDataType());
+        value[symbols] = addString(entry.getValue());
+        register[symbols] = entry.getRegister();
+        offset[symbols] = entry.getOffset();
+
+        return symbols++;
+    }
+
+    /** addString()
+     *
+     * @param text - String, a name, type or value
+     * @return - int, index of the string in the pool, or -1 for null
+     */
+    private int addString(String text)
+    {
+        if(text == null)
+            return -1;
+
+        Integer index = poolIndex.get(text);
+        if(index == null)
+        {
+            index = poolIndex.size();
+            if(index == pool.length)
+                pool = Arrays.copyOf(pool, index * 2);
+            pool[index] = text;
+            poolIndex.put(text, index);
+        }
+
+        return index;
+    }
+
+    /** addDataType()
+     *
+     * @param data - DataType, the data type of a symbol
+     * @return - int, index of the data type in its pool, or -1 for null
+     */
+    private int addDataType(DataType data)
+    {
+        if(data == null)
+            return -1;
+
+        Integer index = dataTypeIndex.get(data);
+        if(index == null)
+        {
+            index = dataTypeIndex.size();
+            if(index == dataTypes.length)
+                dataTypes = Arrays.copyOf(dataTypes, index * 2);
+            dataTypes[index] = data;
+            dataTypeIndex.put(data, index);
+        }
+
+        return index;
+    }
+
+    /** trim()
+     *
+     * Cuts the arrays down to what is used once the tree is built
+     */
+    private void trim()
+    {
+        kind = Arrays.copyOf(kind, nodes);
+        children = Arrays.copyOf(children, nodes);
+        first = Arrays.copyOf(first, nodes);
+        symbol = Arrays.copyOf(symbol, nodes);
+
+        token = Arrays.copyOf(token, symbols);
+        line = Arrays.copyOf(line, symbols);
+        col = Arrays.copyOf(col, symbols);
+        name = Arrays.copyOf(name, symbols);
+        nameID = Arrays.copyOf(nameID, symbols);
+        type = Arrays.copyOf(type, symbols);
+        dataType = Arrays.copyOf(dataType, symbols);
+        value = Arrays.copyOf(value, symbols);
+        register = Arrays.copyOf(register, symbols);
+        offset = Arrays.copyOf(offset, symbols);
+
+        int strings = 0;
+        while(strings < pool.length && pool[strings] != null)
+            strings++;
+        pool = Arrays.copyOf(pool, strings);
+
+        int data = 0;
+        while(data < dataTypes.length && dataTypes[data] != null)
+            data++;
+        dataTypes = Arrays.copyOf(dataTypes, data);
+    }
+
+    /** getRoot()
+     *
+     * @return - STNode, a view of the root node
+     */
+    public STNode getRoot()
+    {
+        return node(0);
+    }
+
+    /** node()
+     *
+     * @param index - int, index of a node or -1
+     * @return - STNode, a view of the node, or null for -1
+     */
+    public STNode node(int index)
+    {
+        return index < 0 ? null : new CompactNode(this, index);
+    }
+
+    /** size()
+     *
+     * @return - int, number of nodes in the tree
+     */
+    public int size()
+    {
+        return nodes;
+    }
+
+    public STNode.NID getKind(int index)
+    {
+        return KINDS[kind[index]];
+    }
+
+    /** getLeft()
+     *
+     * @param index - int, index of a node
+     * @return - int, index of the left child, -1 if there is none
+     */
+    public int getLeft(int index)
+    {
+        return (children[index] & LEFT) == 0 ? -1 : first[index];
+    }
+
+    /** getMiddle()
+     *
+     * @param index - int, index of a node
+     * @return - int, index of the middle child, -1 if there is none
+     */
+    public int getMiddle(int index)
+    {
+        return (children[index] & MIDDLE) == 0 ? -1 : first[index] + (children[index] & LEFT);
+    }
+
+    /** getRight()
+     *
+     * @param index - int, index of a node
+     * @return - int, index of the right child, -1 if there is none
+     */
+    public int getRight(int index)
+    {
+        return (children[index] & RIGHT) == 0 ? -1 : first[index] + Integer.bitCount(children[index] & (LEFT | MIDDLE));
+    }
+
+    /** getLine()
+     *
+     * @param index - int, index of a node
+     * @return - int, source line of the node's symbol, 0 if it has none
+     */
+    public int getLine(int index)
+    {
+        return symbol[index] < 0 ? 0 : line[symbol[index]];
+    }
+
+    /** getCol()
+     *
+     * @param index - int, index of a node
+     * @return - int, source column of the node's symbol, 0 if it has none
+     */
+    public int getCol(int index)
+    {
+        return symbol[index] < 0 ? 0 : col[symbol[index]];
+    }
+
+    /** getSymbol()
+     *
+     * Makes a TableEntry for the symbol of a node. Each call gives a new entry, changes
+     * to it are not kept in the tree.
+     *
+     * @param index - int, index of a node
+     * @return - TableEntry, the symbol, or null if the node has none
+     */
+    public TableEntry getSymbol(int index)
+    {
+        int i = symbol[index];
+        if(i < 0)
+            return null;
+
+        String symbolName = string(name[i]);
+        Token.TID tid = token[i] < 0 ? Token.TID.TUNDF : TOKENS[token[i]];
+        TableEntry entry = new TableEntry(new Token(tid, line[i], col[i], symbolName, nameID[i]));
+        entry.setType(string(type[i]));
+        if(dataType[i] >= 0)
+            entry.setDataType(dataTypes[dataType[i]]);
+        entry.setValue(string(value[i]));
+        entry.setRegister(register[i]);
+        entry.setOffset(offset[i]);
+
+        return entry;
+    }
+
+    /** string()
+     *
+     * @param index - int, index in the string pool or -1
+     * @return - String, the string or null
+     */
+    private String string(int index)
+    {
+        return index < 0 ? null : pool[index];
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.AbstractMap.SimpleEntry;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+
+/** CompilationContext.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * State belonging to one compilation: the errors found by the parser, the scope
+ * table of each function and of main, and the name pool identifiers are interned in.
+ * Each compilation has a context of its own, so programs can be compiled at the
+ * same time in one process without seeing each other's errors or scopes.
+ *
+ * The parser reaches the context through the symbol tables it passes down.
+ * A function body parsed in parallel is given a task context that shares the scope
+ * tables and name pool but keeps its errors and messages, to be merged in source order.
+ *
+ * When the semantic checks are left to CD18Semantic, the parser skips the checks the
+ * pass makes and the pass's errors are added to the parser's in source order.
+ *
+ */
+public class CompilationContext
+{
+    private NamePool names;
+    private LinkedList<SimpleEntry<Token, String>> errors;
+    private HashMap<String, SymbolTable> scopeTables;
+    private boolean deferSemantics;
+
+    // Messages of a task context, held until it is merged
+    private StringBuilder messages;
+
+    /** Constructor
+     *
+     */
+    public CompilationContext()
+    {
+        this(new NamePool());
+    }
+
+    /** Constructor
+     *
+     * @param pool - NamePool, the pool the scanner interned identifiers in
+     */
+    public CompilationContext(NamePool pool)
+    {
+        names = pool;
+        errors = new LinkedList<>();
+        scopeTables = new HashMap<>();
+        messages = null;
+        deferSemantics = false;
+    }
+
+    /** forTask()
+     *
+     * Makes a context for part of the program read on another thread
+     *
+     * @return - CompilationContext, a context sharing this one's scope tables and name pool
+     */
+    public CompilationContext forTask()
+    {
+        CompilationContext task = new CompilationContext(names);
+        task.scopeTables = scopeTables;
+        task.messages = new StringBuilder();
+        task.deferSemantics = deferSemantics;
+        return task;
+    }
+
+    /** merge()
+     *
+     * Adds the errors and messages of a task context after this context's own
+     *
+     * @param task - CompilationContext, a context made by forTask()
+     */
+    public void merge(CompilationContext task)
+    {
+        errors.addAll(task.errors);
+        if(messages == null)
+            System.out.print(task.messages);
+        else
+            messages.append(task.messages);
+        task.errors.clear();
+        task.messages.setLength(0);
+    }
+
+    public NamePool getNamePool()
+    {
+        return names;
+    }
+
+    /** getErrors()
+     *
+     * @return - LinkedList<SimpleEntry<Token, String>>, the syntax and semantic errors found so far
+     */
+    public LinkedList<SimpleEntry<Token, String>> getErrors()
+    {
+        return errors;
+    }
+
+    /** addErrors()
+     *
+     * Adds errors found after the parse among the parser's, each after those at or before its position
+     *
+     * @param found - List<SimpleEntry<Token, String>>, errors in source order
+     */
+    public void addErrors(List<SimpleEntry<Token, String>> found)
+    {
+        ListIterator<SimpleEntry<Token, String>> at = errors.listIterator();
+
+        for(SimpleEntry<Token, String> error : found)
+        {
+            Token token = error.getKey();
+            while(at.hasNext())
+            {
+                Token next = at.next().getKey();
+                if(next.getLineNum() > token.getLineNum() || (next.getLineNum() == token.getLineNum() && next.getColNum() > token.getColNum()))
+                {
+                    at.previous();
+                    break;
+                }
+            }
+            at.add(error);
+        }
+    }
+
+    /** hasErrors()
+     *
+     * @return - boolean, true if the parser found errors
+     */
+    public boolean hasErrors()
+    {
+        return !errors.isEmpty();
+    }
+
+    /** nextError()
+     *
+     * Returns the next error in the list of syntax and semantic errors
+     *
+     * @return - AbstractMap.SimpleEntry<Token, String>, a Token-String pair describing the error
+     */
+    public SimpleEntry<Token, String> nextError()
+    {
+        return errors.pop();
+    }
+
+    /** dropErrors()
+     *
+     * Forgets the errors added after the first count
+     *
+     * @param count - int, number of errors kept
+     */
+    public void dropErrors(int count)
+    {
+        while(errors.size() > count)
+            errors.removeLast();
+    }
+
+    /** message()
+     *
+     * Prints a message to the console, or holds it back in a task context
+     *
+     * @param text - String, the message
+     */
+    public void message(String text)
+    {
+        if(messages == null)
+            System.out.println(text);
+        else
+            messages.append(text).append(System.lineSeparator());
+    }
+
+    /** setDeferSemantics()
+     *
+     * @param defer - boolean, true if the semantic checks CD18Semantic makes are left to it
+     */
+    public void setDeferSemantics(boolean defer)
+    {
+        deferSemantics = defer;
+    }
+
+    /** defersSemantics()
+     *
+     * @return - boolean, true if the parser leaves the checks CD18Semantic makes to it
+     */
+    public boolean defersSemantics()
+    {
+        return deferSemantics;
+    }
+
+    public void addScopeTable(String scopeName, SymbolTable table)
+    {
+        scopeTables.put(scopeName, table);
+    }
+
+    public SymbolTable getScopeTable(String scopeName)
+    {
+        return scopeTables.get(scopeName);
+    }
+
+    /** clearScopeTables()
+     *
+     * Forgets the scope tables before the program is read again
+     */
+    public void clearScopeTables()
+    {
+        scopeTables.clear();
+    }
+}
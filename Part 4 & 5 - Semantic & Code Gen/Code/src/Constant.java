@@ -0,0 +1,117 @@
+/** Constant.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * A constant value worked out by the compiler, an integer, a real or a boolean, tagged
+ * with its type. Folding passes constants between nodes as values, so a literal it makes
+ * is not parsed back from its name. The name of the literal is the constant's toString().
+ *
+ */
+public final class Constant
+{
+    private final PrimitiveType type;
+    private final long integer;
+    private final double real;
+
+    private Constant(PrimitiveType valueType, long intValue, double realValue)
+    {
+        type = valueType;
+        integer = intValue;
+        real = realValue;
+    }
+
+    /** integer()
+     *
+     * @param value - long, the value
+     * @return - Constant, an integer constant
+     */
+    public static Constant integer(long value)
+    {
+        return new Constant(PrimitiveType.INTEGER, value, value);
+    }
+
+    /** real()
+     *
+     * @param value - double, the value
+     * @return - Constant, a real constant
+     */
+    public static Constant real(double value)
+    {
+        return new Constant(PrimitiveType.REAL, 0, value);
+    }
+
+    /** bool()
+     *
+     * @param value - boolean, the value
+     * @return - Constant, a boolean constant
+     */
+    public static Constant bool(boolean value)
+    {
+        return new Constant(PrimitiveType.BOOLEAN, value ? 1 : 0, value ? 1 : 0);
+    }
+
+    /** getType()
+     *
+     * @return - PrimitiveType, type of the value
+     */
+    public PrimitiveType getType()
+    {
+        return type;
+    }
+
+    /** longValue()
+     *
+     * @return - long, value of an integer constant
+     */
+    public long longValue()
+    {
+        return integer;
+    }
+
+    /** intValue()
+     *
+     * @return - int, value of an integer constant, in the 32 bits folding works in
+     */
+    public int intValue()
+    {
+        return (int)integer;
+    }
+
+    /** doubleValue()
+     *
+     * @return - double, value of an integer or real constant as a double
+     */
+    public double doubleValue()
+    {
+        return real;
+    }
+
+    /** booleanValue()
+     *
+     * @return - boolean, value of a boolean constant
+     */
+    public boolean booleanValue()
+    {
+        return integer != 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        switch(type)
+        {
+            case INTEGER:
+                return Long.toString(integer);
+
+            case REAL:
+                return Double.toString(real);
+
+            default:
+                return Boolean.toString(booleanValue());
+        }
+    }
+}
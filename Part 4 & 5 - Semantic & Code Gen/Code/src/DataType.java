@@ -0,0 +1,21 @@
+/** DataType.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * The type of a CD18 value, a primitive type, an array type or a structure type. Types are
+ * made once, primitives as constants and the others as they are declared, so two entries
+ * have the same type when their types are the same object.
+ *
+ */
+public interface DataType
+{
+    /** getName()
+     *
+     * @return - String, the name the type is written with
+     */
+    String getName();
+}
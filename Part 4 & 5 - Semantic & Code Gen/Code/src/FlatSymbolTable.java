@@ -0,0 +1,331 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/** FlatSymbolTable.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Symbol table keeping every scope in one table, after LeBlanc and Cook. Each name maps to
+ * a stack of its bindings, the innermost on top, each tagged with the number of the scope
+ * that made it and linked to the outermost binding of the name. A lookup reads the top of
+ * the stack and a global lookup the binding it links to, so neither depends on how deeply
+ * the scopes are nested. Leaving a scope pops the bindings it made.
+ *
+ * SymbolTable keeps the tables of functions after the parse for the code generator, and
+ * reads them in parallel through views, which this table does not do, so the parser uses
+ * SymbolTable and this table is an alternative to it behind Symbols.
+ *
+ */
+public class FlatSymbolTable implements Symbols
+{
+    private static final int GLOBAL = 0;
+
+    private HashMap<String, Binding> identifiers;
+    private HashMap<String, Binding> types;
+    private ArrayList<Scope> scopes;
+    private int scopeCount;
+    private CompilationContext context;
+
+    /** Binding
+     *
+     * A declaration of a name in a scope, over the binding of the name it hides
+     */
+    private static class Binding
+    {
+        private final TableEntry entry;
+        private final int scope;
+        private final Binding hidden;
+        private final Binding outermost;
+        private char subType;
+
+        private Binding(TableEntry entry, int scope, Binding hidden, char subType)
+        {
+            this.entry = entry;
+            this.scope = scope;
+            this.hidden = hidden;
+            this.subType = subType;
+            outermost = hidden == null ? this : hidden.outermost;
+        }
+    }
+
+    /** Scope
+     *
+     * An open scope, with its entries in the order they were added and the names it bound
+     */
+    private static class Scope
+    {
+        private final int number;
+        private final ArrayList<TableEntry> entries = new ArrayList<>();
+        private final ArrayList<String> identifiers = new ArrayList<>();
+        private final ArrayList<String> types = new ArrayList<>();
+
+        private Scope(int number)
+        {
+            this.number = number;
+        }
+    }
+
+    /** Constructor
+     *
+     * Makes a table with only the global scope open
+     */
+    public FlatSymbolTable()
+    {
+        this(new CompilationContext());
+    }
+
+    /** Constructor
+     *
+     * @param cContext - CompilationContext, the compilation the table belongs to
+     */
+    public FlatSymbolTable(CompilationContext cContext)
+    {
+        context = cContext;
+        identifiers = new HashMap<>();
+        types = new HashMap<>();
+        scopes = new ArrayList<>();
+        scopes.add(new Scope(GLOBAL));
+        scopeCount = 1;
+
+        bind(types, scopes.get(0).types, "integer", null, 'p');
+        bind(types, scopes.get(0).types, "real", null, 'p');
+        bind(types, scopes.get(0).types, "boolean", null, 'p');
+    }
+
+    /** enterScope()
+     *
+     * @return - Symbols, this table with a new scope open inside the others
+     */
+    @Override
+    public Symbols enterScope()
+    {
+        scopes.add(new Scope(scopeCount++));
+        return this;
+    }
+
+    /** exitScope()
+     *
+     * @return - Symbols, this table with the innermost scope closed
+     */
+    @Override
+    public Symbols exitScope()
+    {
+        if(scopes.size() == 1)
+            throw new IllegalStateException("The global scope cannot be left");
+
+        Scope scope = scopes.remove(scopes.size() - 1);
+        unbind(identifiers, scope.identifiers);
+        unbind(types, scope.types);
+        return this;
+    }
+
+    /** bind()
+     *
+     * Binds a name in the innermost scope. A name bound again in the same scope keeps
+     * the entry it was first bound to, and takes the new subtype.
+     *
+     * @param names - HashMap<String, Binding>, the bindings of identifiers or of types
+     * @param bound - ArrayList<String>, where the scope keeps the names it bound
+     * @param name - String, the name
+     * @param entry - TableEntry, the entry declaring it
+     * @param subType - char, subtype of a type, unused for an identifier
+     */
+    private void bind(HashMap<String, Binding> names, ArrayList<String> bound, String name, TableEntry entry, char subType)
+    {
+        int scope = scopes.get(scopes.size() - 1).number;
+        Binding top = names.get(name);
+
+        if(top != null && top.scope == scope)
+        {
+            top.subType = subType;
+            return;
+        }
+
+        names.put(name, new Binding(entry, scope, top, subType));
+        bound.add(name);
+    }
+
+    /** unbind()
+     *
+     * @param names - HashMap<String, Binding>, the bindings of identifiers or of types
+     * @param bound - ArrayList<String>, the names a scope being closed bound
+     */
+    private static void unbind(HashMap<String, Binding> names, ArrayList<String> bound)
+    {
+        for(String name : bound)
+        {
+            Binding hidden = names.get(name).hidden;
+            if(hidden == null)
+                names.remove(name);
+            else
+                names.put(name, hidden);
+        }
+    }
+
+    /** addSymbol()
+     *
+     * @param entry - TableEntry, the entry
+     */
+    @Override
+    public void addSymbol(TableEntry entry)
+    {
+        Scope scope = scopes.get(scopes.size() - 1);
+
+        if(entry.getTokenID() == Token.TID.TIDEN)
+            bind(identifiers, scope.identifiers, entry.getName(), entry, '\0');
+
+        internName(entry);
+        scope.entries.add(entry);
+    }
+
+    /** addType()
+     *
+     * @param entry - TableEntry, the entry
+     * @param subType - char, 'p' primitive, 'a' array or 'c' structure
+     */
+    @Override
+    public void addType(TableEntry entry, char subType)
+    {
+        Scope scope = scopes.get(scopes.size() - 1);
+
+        if(entry.getTokenID() == Token.TID.TIDEN)
+            bind(types, scope.types, entry.getName(), entry, subType);
+
+        internName(entry);
+        scope.entries.add(entry);
+    }
+
+    /** inScope()
+     *
+     * @param binding - Binding, innermost binding of a name, or null
+     * @return - boolean, true if the innermost scope made the binding
+     */
+    private boolean inScope(Binding binding)
+    {
+        return binding != null && binding.scope == scopes.get(scopes.size() - 1).number;
+    }
+
+    /** global()
+     *
+     * @param binding - Binding, innermost binding of a name, or null
+     * @return - Binding, the global binding of the name, or null if it has none
+     */
+    private static Binding global(Binding binding)
+    {
+        return binding != null && binding.outermost.scope == GLOBAL ? binding.outermost : null;
+    }
+
+    @Override
+    public boolean hasIdInScope(String symbol)
+    {
+        return inScope(identifiers.get(symbol));
+    }
+
+    @Override
+    public boolean hasID(String symbol)
+    {
+        return identifiers.containsKey(symbol);
+    }
+
+    @Override
+    public boolean hasGlobalID(String symbol)
+    {
+        return global(identifiers.get(symbol)) != null;
+    }
+
+    @Override
+    public boolean hasTypeInScope(String symbol)
+    {
+        return inScope(types.get(symbol));
+    }
+
+    @Override
+    public boolean hasTypeDeclared(String symbol)
+    {
+        return types.containsKey(symbol);
+    }
+
+    @Override
+    public boolean hasGlobalType(String symbol)
+    {
+        return global(types.get(symbol)) != null;
+    }
+
+    @Override
+    public char hasSubType(String symbol)
+    {
+        Binding binding = types.get(symbol);
+        return binding == null ? '\0' : binding.subType;
+    }
+
+    @Override
+    public TableEntry getIdEntry(String symbolName)
+    {
+        Binding binding = identifiers.get(symbolName);
+        return binding == null ? null : binding.entry;
+    }
+
+    @Override
+    public TableEntry getTypeEntry(String symbolName)
+    {
+        Binding binding = types.get(symbolName);
+        return binding == null ? null : binding.entry;
+    }
+
+    @Override
+    public TableEntry getGlobalIdEntry(String symbolName)
+    {
+        Binding binding = global(identifiers.get(symbolName));
+        return binding == null ? null : binding.entry;
+    }
+
+    @Override
+    public TableEntry getGlobalTypeEntry(String symbolName)
+    {
+        Binding binding = global(types.get(symbolName));
+        return binding == null ? null : binding.entry;
+    }
+
+    /** internName()
+     *
+     * Gives an entry the name pool ID of its name if it does not already have one
+     *
+     * @param entry - TableEntry, an entry being added to the table
+     */
+    private void internName(TableEntry entry)
+    {
+        if(entry.getNameID() < 0 && entry.getName() != null)
+            entry.setNameID(context.getNamePool().intern(entry.getName()));
+    }
+
+    /** getDepth()
+     *
+     * @return - int, number of scopes open inside the global scope
+     */
+    public int getDepth()
+    {
+        return scopes.size() - 1;
+    }
+
+    /** getTable()
+     *
+     * @return - ArrayList<TableEntry>, entries of the innermost scope in the order they were added
+     */
+    public ArrayList<TableEntry> getTable()
+    {
+        return scopes.get(scopes.size() - 1).entries;
+    }
+
+    /** getContext()
+     *
+     * @return - CompilationContext, the compilation the table belongs to
+     */
+    public CompilationContext getContext()
+    {
+        return context;
+    }
+}
@@ -0,0 +1,670 @@
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/** IncrementalParser.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Front end that keeps the tokens and syntax tree of a program between edits and reads
+ * again only the part of the program an edit falls in. The program is split into units
+ * at its func and main keywords: the globals before the first function, each function,
+ * and main with the end of the program. An edit inside a function or main is scanned
+ * again from the scanner state saved after the unit's keyword up to the next keyword,
+ * which must be found where it was. The unit is parsed again in a scope of its own,
+ * as when function bodies are read in parallel, and its subtree and scope table replace
+ * the old ones. The units after it are moved by the lines the edit added or removed,
+ * their tree and errors are moved when they are next asked for.
+ *
+ * The globals, and a function's name, parameters and type, are seen by every unit after
+ * them, so an edit to them reads the whole program again. So does an edit that changes
+ * which keywords start the units, or leaves a lexical error, and every edit to a program
+ * whose units could not be told apart, such as one with two functions of the same name.
+ *
+ */
+public class IncrementalParser
+{
+    // An error message gives the line of the error first
+    private static final Pattern LINE = Pattern.compile("\\((\\d+), ");
+
+    private char[] text;
+    private int length;
+
+    private NamePool names;
+    private CompilationContext context;
+    private SymbolTable globalTable;
+    private NProg root;
+    private RuntimeException failure;
+    private ArrayList<SimpleEntry<Token, String>> lexicalErrors;
+
+    // Errors before the first unit, and the units in source order with main last, empty when the program can't be split
+    private ArrayList<SimpleEntry<Token, String>> globalErrors;
+    private ArrayList<Unit> units;
+    private HashMap<String, Integer> functions;
+    private Set<TableEntry> globalEntries;
+
+    private int fullParses;
+    private int unitParses;
+
+    /** Unit
+     *
+     * A function or main, from the token after its keyword up to the next keyword
+     */
+    private static class Unit
+    {
+        private Token.TID keyword;
+        private int index;
+        private int keyStart;
+        private int keyLine;
+        private int keyCol;
+
+        // Scanner state after the keyword
+        private int pos;
+        private int line;
+        private int col;
+
+        // The function and the node holding it in the tree, null for main
+        private NFund fund;
+        private STNode holder;
+
+        private ArrayList<SimpleEntry<Token, String>> errors;
+
+        // Lines the tree and errors of the unit are still to be moved by
+        private int treeShift;
+        private int errorShift;
+
+        /** Constructor
+         *
+         * @param token - Token, the func or main keyword
+         * @param position - int, position of the keyword in the tokens
+         * @param scanner - CD18Scanner, the scanner, just after the keyword
+         */
+        private Unit(Token token, int position, CD18Scanner scanner)
+        {
+            keyword = token.getTokenID();
+            index = position;
+            keyLine = token.getLineNum();
+            keyCol = token.getColNum();
+            pos = scanner.getPosition();
+            line = scanner.getLineNum();
+            col = scanner.getColNum();
+
+            // func and main are both four letters
+            keyStart = pos - 4;
+        }
+    }
+
+    /** Constructor
+     *
+     * Reads the whole program
+     *
+     * @param source - String, the text of the program
+     */
+    public IncrementalParser(String source)
+    {
+        text = source.toCharArray();
+        length = text.length;
+        parseAll();
+    }
+
+    /** edit()
+     *
+     * Replaces part of the text and brings the tree and errors up to date
+     *
+     * @param offset - int, index of the first character replaced
+     * @param count - int, number of characters replaced
+     * @param replacement - String, the text put in their place
+     * @return - boolean, true if only the unit holding the edit was read again
+     */
+    public boolean edit(int offset, int count, String replacement)
+    {
+        if(offset < 0 || count < 0 || offset + count > length)
+            throw new IndexOutOfBoundsException("Edit of " + count + " characters at " + offset + " is outside the text");
+
+        int unit = unitOf(offset, offset + count);
+        replace(offset, count, replacement);
+
+        if(unit >= 0 && reparse(unit, replacement.length() - count))
+        {
+            unitParses++;
+            return true;
+        }
+
+        parseAll();
+        return false;
+    }
+
+    /** getTree()
+     *
+     * @return - STNode, root of the syntax tree, or null if the last full parse threw
+     */
+    public STNode getTree()
+    {
+        for(Unit unit : units)
+        {
+            if(unit.treeShift != 0)
+            {
+                moveLines(unit.fund != null ? unit.fund : root.getRight(), unit.fund == null ? null : unit.fund.getSymbol(), unit.treeShift);
+                unit.treeShift = 0;
+            }
+        }
+
+        return root;
+    }
+
+    /** getErrors()
+     *
+     * @return - ArrayList<SimpleEntry<Token, String>>, the syntax and semantic errors in source order
+     */
+    public ArrayList<SimpleEntry<Token, String>> getErrors()
+    {
+        ArrayList<SimpleEntry<Token, String>> errors = new ArrayList<>(globalErrors);
+
+        for(Unit unit : units)
+        {
+            if(unit.errorShift != 0)
+            {
+                moveLines(unit.errors, unit.keyLine - unit.errorShift, unit.errorShift);
+                unit.errorShift = 0;
+            }
+            errors.addAll(unit.errors);
+        }
+
+        return errors;
+    }
+
+    /** getLexicalErrors()
+     *
+     * @return - ArrayList<SimpleEntry<Token, String>>, the lexical errors found by the last full scan
+     */
+    public ArrayList<SimpleEntry<Token, String>> getLexicalErrors()
+    {
+        return lexicalErrors;
+    }
+
+    /** getFailure()
+     *
+     * @return - RuntimeException, the exception the last full parse threw, or null
+     */
+    public RuntimeException getFailure()
+    {
+        return failure;
+    }
+
+    /** getContext()
+     *
+     * @return - CompilationContext, the context holding the scope tables of the program
+     */
+    public CompilationContext getContext()
+    {
+        return context;
+    }
+
+    public String getText()
+    {
+        return new String(text, 0, length);
+    }
+
+    public int getFullParses()
+    {
+        return fullParses;
+    }
+
+    public int getUnitParses()
+    {
+        return unitParses;
+    }
+
+    /** isSplit()
+     *
+     * @return - boolean, true if edits can be read one unit at a time
+     */
+    public boolean isSplit()
+    {
+        return !units.isEmpty();
+    }
+
+    /** parseAll()
+     *
+     * Scans and parses the whole program, saving the scanner state after each func and main keyword
+     */
+    private void parseAll()
+    {
+        fullParses++;
+        names = new NamePool();
+        context = new CompilationContext(names);
+        root = null;
+        failure = null;
+        lexicalErrors = new ArrayList<>();
+        globalErrors = new ArrayList<>();
+        units = new ArrayList<>();
+        functions = new HashMap<>();
+        globalEntries = null;
+
+        CD18Scanner scanner = CD18Scanner.resume(text, 0, length, 1, 1, names);
+        TokenBuffer tokens = new TokenBuffer(names);
+        ArrayList<Unit> found = new ArrayList<>();
+
+        while(!scanner.eof())
+        {
+            Token token = scanner.getToken();
+            if(isKeyword(token))
+                found.add(new Unit(token, tokens.size(), scanner));
+            tokens.add(token);
+        }
+        while(scanner.hasErrors())
+            lexicalErrors.add(scanner.nextError());
+
+        CD18Parser parser = new CD18Parser(context, tokens);
+        try
+        {
+            root = (NProg)parser.parseInput();
+        }
+        catch(RuntimeException e)
+        {
+            failure = e;
+            root = null;
+        }
+        globalTable = parser.getGlobalTable();
+        globalErrors.addAll(context.getErrors());
+
+        if(root != null && lexicalErrors.isEmpty())
+            split(found);
+    }
+
+    /** split()
+     *
+     * Matches the keywords found by the scanner to the functions and main block in the tree.
+     * The program is left whole unless each function was read from its keyword to the next,
+     * under a name of its own, and main from the last keyword.
+     *
+     * @param found - ArrayList<Unit>, a unit for each func and main keyword in source order
+     */
+    private void split(ArrayList<Unit> found)
+    {
+        int count = found.size() - 1;
+        if(count < 0 || found.get(count).keyword != Token.TID.TMAIN || root.getMainStart() != found.get(count).index)
+            return;
+
+        // The sequential parse chains each function on the left of an NFUNCS node, with the last on the right
+        ArrayList<NFund> funds = new ArrayList<>();
+        ArrayList<STNode> holders = new ArrayList<>();
+        STNode holder = root;
+        STNode node = root.getMiddle();
+        while(node instanceof NFuncs && node.getLeft() instanceof NFund)
+        {
+            funds.add((NFund)node.getLeft());
+            holders.add(node);
+            holder = node;
+            node = node.getRight();
+        }
+        if(node instanceof NFund)
+        {
+            funds.add((NFund)node);
+            holders.add(holder);
+        }
+        if(funds.size() != count)
+            return;
+
+        HashMap<String, Integer> named = new HashMap<>();
+        int[] firstError = new int[count + 2];
+        for(int i = 0; i < count; i++)
+        {
+            NFund fund = funds.get(i);
+            String name = fund.getSymbol().getName();
+
+            if(fund.getStart() != found.get(i).index + 1 || fund.getEnd() != found.get(i + 1).index
+                || name == null || named.containsKey(name) || globalTable.getGlobalIdEntry(name) != fund.getSymbol())
+                return;
+
+            named.put(name, i);
+            firstError[i] = fund.getFirstError();
+        }
+        firstError[count] = root.getMainFirstError();
+        firstError[count + 1] = globalErrors.size();
+
+        for(int i = 0; i <= count; i++)
+        {
+            if(firstError[i] > firstError[i + 1])
+                return;
+        }
+
+        for(int i = 0; i <= count; i++)
+        {
+            Unit unit = found.get(i);
+            if(i < count)
+            {
+                unit.fund = funds.get(i);
+                unit.holder = holders.get(i);
+            }
+            unit.errors = new ArrayList<>(globalErrors.subList(firstError[i], firstError[i + 1]));
+        }
+
+        // Entries of the global table are shared by every unit, only a function's own is moved with it
+        globalEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+        globalEntries.addAll(globalTable.getTable());
+
+        globalErrors.subList(firstError[0], globalErrors.size()).clear();
+        functions = named;
+        units = found;
+    }
+
+    /** unitOf()
+     *
+     * Finds the unit an edit falls in, after its keyword and before the next
+     *
+     * @param from - int, index of the first character edited
+     * @param to - int, index past the last character edited
+     * @return - int, number of the unit, or -1 if the edit is not inside one
+     */
+    private int unitOf(int from, int to)
+    {
+        int low = 0;
+        int high = units.size() - 1;
+        int found = -1;
+
+        // An edit touching the character after the keyword could join it to a word
+        while(low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            if(units.get(middle).pos < from)
+            {
+                found = middle;
+                low = middle + 1;
+            }
+            else
+                high = middle - 1;
+        }
+
+        if(found < 0 || to > (found + 1 < units.size() ? units.get(found + 1).keyStart : length))
+            return -1;
+
+        return found;
+    }
+
+    /** replace()
+     *
+     * @param offset - int, index of the first character replaced
+     * @param count - int, number of characters replaced
+     * @param replacement - String, the text put in their place
+     */
+    private void replace(int offset, int count, String replacement)
+    {
+        int size = length - count + replacement.length();
+
+        if(size > text.length)
+            text = Arrays.copyOf(text, Math.max(size, text.length * 2));
+
+        System.arraycopy(text, offset + count, text, offset + replacement.length(), length - offset - count);
+        replacement.getChars(0, replacement.length(), text, offset);
+        length = size;
+    }
+
+    /** reparse()
+     *
+     * Scans and parses one unit again after an edit inside it
+     *
+     * @param number - int, number of the unit
+     * @param delta - int, number of characters the edit added, negative if it removed characters
+     * @return - boolean, true if the unit was read again, false if the whole program has to be
+     */
+    private boolean reparse(int number, int delta)
+    {
+        Unit unit = units.get(number);
+        Unit next = number + 1 < units.size() ? units.get(number + 1) : null;
+        int stop = next == null ? length : next.pos + delta;
+
+        CD18Scanner scanner = CD18Scanner.resume(text, unit.pos, length, unit.line, unit.col, names);
+        TokenBuffer tokens = new TokenBuffer(names);
+        Token token = null;
+
+        if(next == null)
+            tokens.add(new Token(unit.keyword, unit.keyLine, unit.keyCol, null));
+
+        // The unit must run to the next keyword, which the scanner must reach in the state it was left in
+        while(!scanner.eof() && scanner.getPosition() < stop)
+        {
+            token = scanner.getToken();
+            if(isKeyword(token) && (next == null || scanner.getPosition() != stop))
+                return false;
+            tokens.add(token);
+        }
+        while(next == null && !scanner.eof())
+            tokens.add(scanner.getToken());
+
+        if(scanner.hasErrors())
+            return false;
+
+        int lines = 0;
+        if(next != null)
+        {
+            if(token == null || token.getTokenID() != next.keyword || scanner.getPosition() != stop || scanner.getColNum() != next.col)
+                return false;
+
+            lines = scanner.getLineNum() - next.line;
+            tokens.add(new Token(Token.TID.TEOF, scanner.getLineNum(), scanner.getColNum(), null));
+        }
+
+        CompilationContext task = context.forTask();
+        try
+        {
+            if(next == null ? !readMain(tokens, task) : !readFunction(unit, number, tokens, task))
+                return false;
+        }
+        catch(RuntimeException e)
+        {
+            return false;
+        }
+
+        unit.errors = new ArrayList<>(task.getErrors());
+        unit.errorShift = 0;
+        unit.treeShift = 0;
+
+        // Only the messages are left to merge
+        task.getErrors().clear();
+        context.merge(task);
+
+        for(int i = number + 1; i < units.size(); i++)
+        {
+            Unit later = units.get(i);
+            later.keyStart += delta;
+            later.pos += delta;
+            later.keyLine += lines;
+            later.line += lines;
+            later.treeShift += lines;
+            later.errorShift += lines;
+        }
+
+        return true;
+    }
+
+    /** readFunction()
+     *
+     * Parses a function again over a view of the global table holding the functions before it.
+     * The function keeps its entry in the global table, so its name, parameters and type must
+     * not have changed.
+     *
+     * @param unit - Unit, the function's unit
+     * @param number - int, number of the function
+     * @param tokens - TokenBuffer, tokens from the function's identifier to the next keyword
+     * @param task - CompilationContext, context for the function's errors and messages
+     * @return - boolean, true if the function was replaced
+     */
+    private boolean readFunction(Unit unit, int number, TokenBuffer tokens, CompilationContext task)
+    {
+        NFund old = unit.fund;
+        NFund fund = new NFund(tokens, new SymbolTable(globalTable.viewBefore(functions, number, task)), true);
+
+        if(fund.getEnd() != tokens.size() - 2 || !sameHeader(old, fund))
+            return false;
+
+        // The old entry has yet to be moved with the rest of the old tree
+        old.getSymbol().moveLines(unit.treeShift);
+        fund.setSymbol(old.getSymbol());
+        fund.getScopeTable().setPrevious(globalTable);
+        context.addScopeTable(old.getSymbol().getName(), fund.getScopeTable());
+
+        STNode holder = unit.holder;
+        if(holder.getLeft() == old)
+            holder.setLeft(fund);
+        else if(holder.getMiddle() == old)
+            holder.setMiddle(fund);
+        else
+            holder.setRight(fund);
+        unit.fund = fund;
+
+        return true;
+    }
+
+    /** readMain()
+     *
+     * Parses main and the end of the program again over a view of the global table
+     *
+     * @param tokens - TokenBuffer, tokens from the main keyword to the end of the program
+     * @param task - CompilationContext, context for main's errors and messages
+     * @return - boolean, true if main was replaced
+     */
+    private boolean readMain(TokenBuffer tokens, CompilationContext task)
+    {
+        // Main's scope is only added when its end is found
+        context.addScopeTable("main", null);
+        root.rereadMain(tokens, globalTable.viewBefore(functions, units.size() - 1, task));
+
+        SymbolTable scope = context.getScopeTable("main");
+        if(scope != null)
+            scope.setPrevious(globalTable);
+
+        return true;
+    }
+
+    /** sameHeader()
+     *
+     * @param a - NFund, a function
+     * @param b - NFund, another function
+     * @return - boolean, true if the functions have the same name, parameters and type
+     */
+    private static boolean sameHeader(NFund a, NFund b)
+    {
+        if(!sameEntry(a.getSymbol(), b.getSymbol()))
+            return false;
+
+        ArrayList<STNode> pending = new ArrayList<>();
+        pending.add(a.getLeft());
+        pending.add(b.getLeft());
+
+        while(!pending.isEmpty())
+        {
+            STNode y = pending.remove(pending.size() - 1);
+            STNode x = pending.remove(pending.size() - 1);
+
+            if(x == null || y == null)
+            {
+                if(x != y)
+                    return false;
+                continue;
+            }
+            if(x.getNodeID() != y.getNodeID() || (x.getSymbol() == null) != (y.getSymbol() == null)
+                || (x.getSymbol() != null && !sameEntry(x.getSymbol(), y.getSymbol())))
+                return false;
+
+            pending.add(x.getLeft());
+            pending.add(y.getLeft());
+            pending.add(x.getMiddle());
+            pending.add(y.getMiddle());
+            pending.add(x.getRight());
+            pending.add(y.getRight());
+        }
+
+        return true;
+    }
+
+    /** sameEntry()
+     *
+     * @param a - TableEntry, an entry
+     * @param b - TableEntry, another entry
+     * @return - boolean, true if the entries have the same name, type and value
+     */
+    private static boolean sameEntry(TableEntry a, TableEntry b)
+    {
+        return Objects.equals(a.getName(), b.getName()) && Objects.equals(a.getType(), b.getType())
+            && Objects.equals(a.getValue(), b.getValue());
+    }
+
+    /** moveLines()
+     *
+     * Moves the entries of a unit's subtree, leaving the entries of the global table but
+     * the unit's own. An entry found more than once is moved once.
+     *
+     * @param node - STNode, root of the unit's subtree
+     * @param own - TableEntry, the unit's entry in the global table, or null
+     * @param lines - int, number of lines moved
+     */
+    private void moveLines(STNode node, TableEntry own, int lines)
+    {
+        Set<TableEntry> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArrayList<STNode> pending = new ArrayList<>();
+        pending.add(node);
+
+        while(!pending.isEmpty())
+        {
+            STNode next = pending.remove(pending.size() - 1);
+            if(next == null)
+                continue;
+
+            TableEntry entry = next.getSymbol();
+            if(entry != null && (entry == own || !globalEntries.contains(entry)) && moved.add(entry))
+                entry.moveLines(lines);
+
+            pending.add(next.getLeft());
+            pending.add(next.getMiddle());
+            pending.add(next.getRight());
+        }
+    }
+
+    /** moveLines()
+     *
+     * Moves a unit's errors, leaving the lines of errors they give from before the unit
+     *
+     * @param errors - ArrayList<SimpleEntry<Token, String>>, the unit's errors, replaced in place
+     * @param from - int, line of the unit's keyword when the errors were found
+     * @param lines - int, number of lines moved
+     */
+    private static void moveLines(ArrayList<SimpleEntry<Token, String>> errors, int from, int lines)
+    {
+        for(int i = 0; i < errors.size(); i++)
+        {
+            Token token = errors.get(i).getKey();
+            String message = errors.get(i).getValue();
+
+            if(token.getLineNum() >= from)
+                token = new Token(token.getTokenID(), token.getLineNum() + lines, token.getColNum(), token.getLexeme(), token.getNameID());
+
+            Matcher matcher = LINE.matcher(message);
+            if(matcher.find() && Integer.parseInt(matcher.group(1)) >= from)
+                message = message.substring(0, matcher.start(1)) + (Integer.parseInt(matcher.group(1)) + lines) + message.substring(matcher.end(1));
+
+            errors.set(i, new SimpleEntry<>(token, message));
+        }
+    }
+
+    /** isKeyword()
+     *
+     * @param token - Token, a token
+     * @return - boolean, true for the func and main keywords that start units
+     */
+    private static boolean isKeyword(Token token)
+    {
+        return token.getTokenID() == Token.TID.TFUNC || token.getTokenID() == Token.TID.TMAIN;
+    }
+}
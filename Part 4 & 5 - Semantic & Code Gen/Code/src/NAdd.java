@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NAdd.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,8 @@ import java.util.LinkedList;
  */
 public class NAdd extends STNode
 {
-    public NAdd(LinkedList<Token> tokenList, SymbolTable table)
+    public NAdd(STNode left, STNode right)
     {
-        super(NID.NADD);
-
-        setRight(processExpression(tokenList, table));
+        super(NID.NADD, left, right);
     }
 }
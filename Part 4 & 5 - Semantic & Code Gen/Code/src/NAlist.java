@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NAlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NAlist extends STNode
 {
-    public NAlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NAlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NALIST);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NAnd.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,8 @@ import java.util.LinkedList;
  */
 public class NAnd extends STNode
 {
-    public NAnd(LinkedList<Token> tokenList, SymbolTable table)
+    public NAnd(STNode left, STNode right)
     {
-        super(NID.NAND);
-
-        setRight(processBool(tokenList, table));
+        super(NID.NAND, left, right);
     }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NArrc.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,11 +11,18 @@ import java.util.LinkedList;
  */
 public class NArrc extends STNode
 {
-    public NArrc(LinkedList<Token> tokenList, SymbolTable table)
+    public NArrc(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NARRC);
         
         setLeft(new NArrd(tokenList, table));
 
     }
+
+    public NArrc(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NARRC);
+
+        setLeft(new NArrd(name, tokenList, table));
+    }
 }
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NArrd.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,50 +12,41 @@ import java.util.LinkedList;
  */
 public class NArrd extends STNode
 {
-    public NArrd(LinkedList<Token> tokenList, SymbolTable table)
+    public NArrd(TokenBuffer tokenList, SymbolTable table)
     {
-        super(NID.NARRD);
+        this(tokenList.advance(), tokenList, table);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NArrd(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NARRD);
 
-        setSymbol(new TableEntry(nextToken));
+        setSymbol(new TableEntry(name));
 
-        nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         switch(nextToken.getTokenID())
         {
             case TIDEN:
                 getSymbol().setType(nextToken.getLexeme());
+                if(table.getDataType(nextToken.getLexeme()) instanceof ArrayType)
+                    getSymbol().setDataType(table.getDataType(nextToken.getLexeme()));
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier."));
         }
+        // The members are found through the structure type of the array, NArrv reads them from there
         if(!table.hasID(getSymbol().getName()))
-        {
             table.addSymbol(getSymbol());
-            Token arrMemberToken;
-            TableEntry arrMember;
-            for(TableEntry member : table.getStructMembers(table.getArrayType(getSymbol().getType())))
-            {
-                /*arrMemberToken = new Token(member.getTokenID(), member.getLine(), member.getCol(), getSymbol().getName() + "." + member.getName());
-                arrMember = new TableEntry(arrMemberToken);
-                arrMember.setType(member.getType());
-                arrMember.setValue(member.getValue());
-                //arrMember.getToken().setLexeme(arrMember.getName());
-                //arrMember.setToken(arrMemberToken);*/
-                member.setName(getSymbol().getName() + "." + member.getName().substring(member.getName().indexOf(".")+1));
-                table.addSymbol(member);
-            }
-        }
         else
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getSymbol().getLine() + ", " + getSymbol().getCol() + "): Array identifier already declared."));
+            semanticError(table, nextToken, "Semantic Error: (" + getSymbol().getLine() + ", " + getSymbol().getCol() + "): Array identifier already declared.");
 
         if(!table.hasTypeDeclared(nextToken.getLexeme()))
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undefined array type."));
+            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undefined array type.");
         else if(table.hasSubType(nextToken.getLexeme()) != 'a')
         {
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type identifier not of array type."));
+            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type identifier not of array type.");
         }/*
         else
         {
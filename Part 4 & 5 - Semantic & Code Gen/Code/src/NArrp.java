@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NArrp.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,17 @@ import java.util.LinkedList;
  */
 public class NArrp extends STNode
 {
-    public NArrp(LinkedList<Token> tokenList, SymbolTable table)
+    public NArrp(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NARRP);
 
         setLeft(new NArrd(tokenList, table));
     }
+
+    public NArrp(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NARRP);
+
+        setLeft(new NArrd(name, tokenList, table));
+    }
 }
\ No newline at end of file
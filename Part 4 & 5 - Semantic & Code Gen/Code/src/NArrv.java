@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NArrv.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,14 +12,15 @@ import java.util.LinkedList;
  */
 public class NArrv extends STNode
 {
-    public NArrv(LinkedList<Token> tokenList, SymbolTable table)
+    public NArrv(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NARRV);
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
+        STNode member = null;
 
         setSymbol(new TableEntry(nextToken));
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
         switch(nextToken.getTokenID())
         {
@@ -28,49 +28,55 @@ public class NArrv extends STNode
                 setLeft(processExpression(tokenList, table));
                 /*if(getLeft().getNodeID() != NID.NFLIT && getLeft().getNodeID() != NID.NILIT)
                     setLeft(foldConstants(getLeft(), table));*/
-                nextToken = tokenList.pop();
+                nextToken = tokenList.advance();
 
                 if(nextToken.getTokenID() == Token.TID.TRBRK)
                 {
-                    nextToken = tokenList.pop();
+                    nextToken = tokenList.advance();
                     if(nextToken.getTokenID() == Token.TID.TDOT)
                     {
-                        nextToken = tokenList.pop();
+                        nextToken = tokenList.advance();
+                        RecordType record = null;
 
                         // Check the identifier is declared
                         if(table.hasID(getSymbol().getName()))
                         {
-                            String structName = table.getGlobalTypeEntry(table.getIdEntry(getSymbol().getName()).getType()).getType();
+                            // A simple variable has no type entry
+                            TableEntry arrayType = table.getGlobalTypeEntry(table.getIdEntry(getSymbol().getName()).getType());
+                            record = arrayType != null ? table.getRecord(arrayType.getType()) : null;
 
                             // Check that it is declared as an array type
-                            if(table.hasSubType(table.getTypeEntry(table.getIdEntry(getSymbol().getName()).getType()).getName()) == 'a')
+                            if(arrayType != null && table.hasSubType(arrayType.getName()) == 'a')
                             {
                                 // Check that the array member exists in the structure type
-                                if(table.hasID(structName + "." + nextToken.getLexeme()))
+                                if(record != null && record.getMember(nextToken.getLexeme()) != null)
                                 {
-                                    nextToken.setLexeme(getSymbol().getName() + "." + nextToken.getLexeme());
-                                    tokenList.push(nextToken);
+                                    member = new NSimv(nextToken, record);
                                     //table.addSymbol(getRight().getSymbol());
                                 }
                                 else
-                                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Member does not exist in type structure."));
+                                    semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Member does not exist in type structure.");
                             }
                             else
-                                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type mismatch."));
+                                semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type mismatch.");
                         }
                         else
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + getSymbol().getCol() + "): Undeclared array identifier."));
+                            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + getSymbol().getCol() + "): Undeclared array identifier.");
 
-                        setRight(new NSimv(tokenList, table));
+                        // A deferred check reads the member as though it was found, for the semantic pass to check
+                        if(member == null && table.getContext().defersSemantics())
+                            member = new NSimv(nextToken, record);
+
+                        setRight(member != null ? member : new NSimv(tokenList, table));
                     }
                     else
                     {
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \".\" in array member call."));
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \".\" in array member call."));
                     }
                 }
                 else
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"]\" in array identifier."));
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"]\" in array identifier."));
                 }
                 break;
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NAsgn.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NAsgn extends STNode
 {
-    public NAsgn(LinkedList<Token> tokenList, SymbolTable table)
+    public NAsgn(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NASGN);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NAsgns.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NAsgns extends STNode
 {
-    public NAsgns(LinkedList<Token> tokenList, SymbolTable table)
+    public NAsgns(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NASGNS);
 
@@ -20,16 +19,13 @@ public class NAsgns extends STNode
 
         assgn = processAssgn(tokenList, table);
 
-        Token nextToken = tokenList.pop();
-
 		// Check for more assignments
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             case TCOMA:
-                nextToken = tokenList.pop();
-                if(nextToken.getTokenID() != Token.TID.TEND)
+                tokenList.advance();
+                if(tokenList.peekID(0) != Token.TID.TEND)
                 {
-                    tokenList.push(nextToken);
                     setLeft(assgn);
                     setRight(new NAsgns(tokenList, table));
                 }
@@ -46,6 +42,5 @@ public class NAsgns extends STNode
             default:
 
         }
-        tokenList.push(nextToken);
     }
 }
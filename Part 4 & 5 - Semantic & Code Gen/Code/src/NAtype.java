@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NAtype.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,26 +12,28 @@ import java.util.LinkedList;
  */
 public class NAtype extends STNode
 {
-    public NAtype(LinkedList<Token> tokenList, SymbolTable table)
+    public NAtype(TokenBuffer tokenList, SymbolTable table)
     {
-        super(NID.NATYPE);
+        this(tokenList.advance(), tokenList, table);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NAtype(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NATYPE);
 
-        setSymbol(new TableEntry(nextToken));
+        setSymbol(new TableEntry(name));
 
-        nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
 		// Check for left bracket
         switch(nextToken.getTokenID())
         {
             case TLBRK:
-
+                tokenList.advance();
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"[\" before array size."));
-                tokenList.push(nextToken);
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"[\" before array size."));
         }
 		
         setLeft(processExpression(tokenList, table));
@@ -41,87 +42,108 @@ public class NAtype extends STNode
         {
             if(getLeft().getNodeID() == NID.NFCALL)
             {
-                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be numeric literal or constant expression."));
+                semanticError(table, nextToken, "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be numeric literal or constant expression.");
             }/*
             else if(getLeft().getNodeID() == NID.NSIMV)
             {
                 if(!table.hasID(getLeft().getSymbol().getName()))
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Identifier not a declared constant."));
+                    errors(table).add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Identifier not a declared constant."));
                 }
                 else
                     setLeft(propagateConstants(getLeft(), table));
             }*/
             else if(getLeft().getNodeID() == NID.NUNDEF)
             {
-                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getSymbol().getLine() + ", " + getSymbol().getCol() + "): Array size undefined."));
+                semanticError(table, nextToken, "Semantic Error: (" + getSymbol().getLine() + ", " + getSymbol().getCol() + "): Array size undefined.");
 
             }
             else
             {
                 setLeft(foldConstants(getLeft(), table));
-                if(getLeft().getNodeID() != NID.NILIT)
+
+                // A deferred check leaves the size as folded for the semantic pass
+                if(getLeft().getNodeID() != NID.NILIT && !table.getContext().defersSemantics())
                 {
                     setLeft(new NUndef(getSymbol().getToken()));
-                    errorList.add(new SimpleEntry<>(getLeft().getSymbol().getToken(), "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be integer or integer expression."));
+                    errors(table).add(new SimpleEntry<>(getLeft().getSymbol().getToken(), "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be integer or integer expression."));
                 }
             }
         }
 
-        if(getLeft().getSymbol().getName().equals("0"))
+        if(getLeft().getSymbol() != null && getLeft().getSymbol().getName().equals("0"))
         {
-            errorList.add(new SimpleEntry<>(getLeft().getSymbol().getToken(), "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be greater than zero."));
+            semanticError(table, getLeft().getSymbol().getToken(), "Semantic Error: (" + getLeft().getSymbol().getLine() + ", " + getLeft().getSymbol().getCol() + "): Array size must be greater than zero.");
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
 		// Check for right bracket
         switch(nextToken.getTokenID())
         {
             case TRBRK:
-                nextToken= tokenList.pop();
+                nextToken= tokenList.advance();
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"]\" after array size."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"]\" after array size."));
         }
 		
 		// Check for of statement
         switch(nextToken.getTokenID())
         {
             case TOF:
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
+                        tokenList.advance();
                         if(table.hasTypeDeclared(nextToken.getLexeme()))
                             if(table.hasSubType(nextToken.getLexeme()) == 'c')
                             {
                                 getSymbol().setType(nextToken.getLexeme());
-
-                                for(TableEntry member : table.getStructMembers(getSymbol().getType()))
-                                {
-                                    table.addSymbol(member);
-                                }
                             }
                             else
-                                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type must be complex structure type."));
+                                semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Type must be complex structure type.");
                         else
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undeclared type identifier."));
+                            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undeclared type identifier.");
+
+                        // A deferred check keeps the name for the semantic pass to report
+                        if(table.getContext().defersSemantics())
+                            getSymbol().setType(nextToken.getLexeme());
                         break;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array type identifier."));
-                        tokenList.push(nextToken);
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array type identifier."));
                 }
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected of after array size."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected of after array size."));
 
         }
 
+        table.addArrayType(new ArrayType(getSymbol().getName(), table.getRecord(getSymbol().getType()), length()));
         table.addType(getSymbol(), 'a');
     }
+
+    /** length()
+     *
+     * @return - int, the number of elements the size folded to, or -1 if it is not an integer literal
+     */
+    private int length()
+    {
+        if(getLeft() == null || getLeft().getNodeID() != NID.NILIT)
+            return -1;
+
+        try
+        {
+            return getLeft().getSymbol().getIntValue();
+        }
+        catch(NumberFormatException e)
+        {
+            return -1;
+        }
+    }
 }
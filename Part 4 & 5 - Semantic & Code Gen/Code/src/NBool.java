@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NBool.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,8 +11,10 @@ import java.util.LinkedList;
  */
 public class NBool extends STNode
 {
-    public NBool(LinkedList<Token> tokenList, SymbolTable table)
+    public NBool(STNode logop)
     {
         super(NID.NBOOL);
+
+        setLeft(logop);
     }
 }
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NCall.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,17 +12,20 @@ import java.util.LinkedList;
  */
 public class NCall extends STNode
 {
-    public NCall(LinkedList<Token> tokenList, SymbolTable table)
+    // The token after "(", where errors in the arguments are listed
+    private Token argsStart;
+
+    public NCall(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NCALL);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         setSymbol(new TableEntry(nextToken));
 
         table.addSymbol(getSymbol());
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
         int numArguments;
         int numParameters = Integer.parseInt(table.getGlobalIdEntry(getSymbol().getName()).getValue());
@@ -31,39 +33,40 @@ public class NCall extends STNode
         switch(nextToken.getTokenID())
         {
             case TLPAR:
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
+                argsStart = nextToken;
                 switch(nextToken.getTokenID())
                 {
                     case TRPAR:
+                        tokenList.advance();
                         numArguments = 0;
                         break;
 
                     default:
-                        tokenList.push(nextToken);
                         setLeft(processElist(tokenList, table));
                         numArguments = getNumArguments(getLeft(), 0);
                 }
                 if(numArguments != numParameters)
-                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Number of arguments does not match number of parameters."));
+                    semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Number of arguments does not match number of parameters.");
                 else
                 {
-                    SymbolTable callTable = SymbolTable.getScopeTable(getSymbol().getName());
+                    SymbolTable callTable = table.getContext().getScopeTable(getSymbol().getName());
                     STNode param = getLeft();
                     for(int i = 0; i < numParameters; i++)
                     {
                         if(param.getNodeID() == NID.NEXPL)
                         {
-                            if(!callTable.matchParam(i, param.getLeft().getSymbol().getType()))
+                            if(!matchesParam(callTable, i, param.getLeft()))
                             {
-                                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Call argument does not match parameter type."));
+                                semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Call argument does not match parameter type.");
                             }
                             param = param.getRight();
                         }
                         else
                         {
-                            if(!callTable.matchParam(i, param.getSymbol().getType()))
+                            if(!matchesParam(callTable, i, param))
                             {
-                                errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Call argument does not match parameter type."));
+                                semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Call argument does not match parameter type.");
                             }
                         }
 
@@ -75,14 +78,22 @@ public class NCall extends STNode
 
         }
 
-        nextToken = tokenList.pop();
-        tokenList.push(nextToken);
+        nextToken = tokenList.peek(0);
         if(nextToken.getTokenID() != Token.TID.TSEMI)
         {
-            errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after function call."));
+            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after function call."));
         }
 
         getSymbol().setType("void");
 
     }
+
+    /** getArgsStart()
+     *
+     * @return - Token, the token after "(", or null if the call has none
+     */
+    public Token getArgsStart()
+    {
+        return argsStart;
+    }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NDiv.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NDiv extends STNode
 {
-    public NDiv(LinkedList<Token> tokenList, SymbolTable table)
+    public NDiv(STNode left, STNode right)
     {
-        super(NID.NDIV);
-        setRight(processTerm(tokenList, table));
+        super(NID.NDIV, left, right);
     }
 }
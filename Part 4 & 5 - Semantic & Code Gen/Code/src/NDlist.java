@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NDlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NDlist extends STNode
 {
-    public NDlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NDlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NDLIST);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NDveq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NDveq extends STNode
 {
-    public NDveq(LinkedList<Token> tokenList, SymbolTable table)
+    public NDveq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NDVEQ);
 
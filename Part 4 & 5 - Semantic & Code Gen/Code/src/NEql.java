@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NEql.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NEql extends STNode
 {
-    public NEql(LinkedList<Token> tokenList, SymbolTable table)
+    public NEql(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NEQL);
 
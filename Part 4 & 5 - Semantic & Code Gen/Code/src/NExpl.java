@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NExpl.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NExpl extends STNode
 {
-    public NExpl(LinkedList<Token> tokenList, SymbolTable table)
+    public NExpl(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NEXPL);
         setRight(processElist(tokenList, table));
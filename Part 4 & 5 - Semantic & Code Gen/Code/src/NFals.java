@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NFals.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NFals extends STNode
 {
-    public NFals(LinkedList<Token> tokenList, SymbolTable table)
+    public NFals(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NFALS);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NFlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NFlist extends STNode
 {
-    public NFlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NFlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NFLIST);
 
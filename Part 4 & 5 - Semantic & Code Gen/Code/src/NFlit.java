@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NFlit.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,14 +11,14 @@ import java.util.LinkedList;
  */
 public class NFlit extends STNode
 {
-    public NFlit(LinkedList<Token> tokenList, SymbolTable table)
+    public NFlit(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NFLIT);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         setSymbol(new TableEntry(nextToken));
-        getSymbol().setType("real");
+        getSymbol().setDataType(PrimitiveType.REAL);
 
         table.addSymbol(getSymbol());
     }
@@ -28,7 +27,7 @@ public class NFlit extends STNode
     {
         super(NID.NFLIT);
         setSymbol(new TableEntry(token));
-        getSymbol().setType("real");
+        getSymbol().setDataType(PrimitiveType.REAL);
 
         table.addSymbol(getSymbol());
     }
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NFor.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,17 +12,17 @@ import java.util.LinkedList;
  */
 public class NFor extends STNode
 {
-    public NFor(LinkedList<Token> tokenList, SymbolTable table)
+    public NFor(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NFOR);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
 		// Check for left parentheses
         switch(nextToken.getTokenID())
         {
             case TLPAR:
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 				
 				// Check for assignment list
                 switch(nextToken.getTokenID())
@@ -32,56 +31,61 @@ public class NFor extends STNode
                         STNode assgn;
                         STNode assgns;
 
-                        tokenList.push(nextToken);
                         assgn = processAssgn(tokenList, table);
 
                         /*if(!assgn.getRight().getSymbol().getType().equals("integer"))
                         {
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Illegal character after assignment list"));
+                            errors(table).add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Illegal character after assignment list"));
                         }*/
 
-                        nextToken = tokenList.pop();
+                        nextToken = tokenList.peek(0);
 
 						// Check for more assignments
                         switch(nextToken.getTokenID())
                         {
                             case TCOMA:
+                                tokenList.advance();
                                 assgns = new NAsgns(tokenList, table);
                                 assgns.setLeft(assgn);
                                 setLeft(assgns);
                                 break;
 
                             case TSEMI:
-                                tokenList.push(nextToken);
                                 setLeft(assgn);
                                 break;
 
                             default:
-                                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Illegal character after assignment list"));
+                                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Illegal character after assignment list"));
+                                tokenList.skipTo(ASSIGNS_SYNC);
+
+                                // The assignment read is kept for the semantic pass to check
+                                setLeft(assgn);
 
                         }
                         break;
 
                     case TSEMI:
-                        tokenList.push(nextToken);
                         break;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected assignment list or \";\""));
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected assignment list or \";\""));
+                        tokenList.skipTo(ASSIGNS_SYNC);
                 }
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"(\" after for statement"));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"(\" after for statement"));
 
+                // The token read in place of the parenthesis may start the body
+                tokenList.rewind(tokenList.mark() - 1);
+                tokenList.skipTo(ASSIGNS_SYNC);
         }
 
-        nextToken = tokenList.pop();
-
 		// Check for semi colon before expression
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             case TSEMI:
+                tokenList.advance();
                 setMiddle(processBool(tokenList, table));
                 break;
 
@@ -89,38 +93,46 @@ public class NFor extends STNode
 
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
 		// Check for right parentheses
         switch(nextToken.getTokenID())
         {
             case TRPAR:
-                setRight(processStats(tokenList, table));
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \")\" after expression"));
-                int line = nextToken.getLineNum();
-                while(nextToken.getLineNum() == line)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
-                setRight(processStats(tokenList, table));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \")\" after expression"));
+                // The token read in place of the parenthesis may start the body
+                tokenList.rewind(tokenList.mark() - 1);
+                if(tokenList.skipTo(FOR_SYNC).getTokenID() == Token.TID.TRPAR)
+                    tokenList.advance();
         }
+    }
 
-        nextToken = tokenList.pop();
+    /** endFor()
+     *
+     * Completes the for statement once the statements of its body have been read
+     *
+     * @param body - STNode, the statements of the loop
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param table - SymbolTable, scope of the statement
+     */
+    public void endFor(STNode body, TokenBuffer tokenList, SymbolTable table)
+    {
+        setRight(body);
+
+        Token nextToken = tokenList.peek(0);
 		
 		// Check for end statement
         switch(nextToken.getTokenID())
         {
             case TEND:
-                tokenList.push(nextToken);
                 break;
 
+            // The token the body ended at is left for the block around the loop
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): For statement without end"));
-
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): For statement without end"));
 
         }
     }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NFuncs.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,11 +11,19 @@ import java.util.LinkedList;
  */
 public class NFuncs extends STNode
 {
-    public NFuncs(LinkedList<Token> tokenList, SymbolTable table)
+    public NFuncs(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NFUNCS);
 
         setRight(processFuncs(tokenList, table));
 
     }
+
+    public NFuncs(STNode func, STNode funcs)
+    {
+        super(NID.NFUNCS);
+
+        setLeft(func);
+        setRight(funcs);
+    }
 }
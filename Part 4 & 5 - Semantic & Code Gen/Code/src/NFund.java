@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NFund.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,27 +12,61 @@ import java.util.LinkedList;
  */
 public class NFund extends STNode
 {
-    public NFund(LinkedList<Token> tokenList, SymbolTable globalTable)
+    private SymbolTable scopeTable;
+
+    // A body left to be read when it is first asked for
+    private TokenBuffer bodyTokens;
+    private int bodyStart;
+    private SymbolTable bodyGlobal;
+
+    // Where the function was read from, the errors are counted in the scope's context
+    private int start;
+    private int end;
+    private int firstError;
+
+    public NFund(TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        this(tokenList, new SymbolTable(globalTable), true);
+
+        globalTable.addSymbol(getSymbol());
+        globalTable.getContext().addScopeTable(getSymbol().getName(), scopeTable);
+    }
+
+    /** Constructor
+     *
+     * Reads the function's name, parameters and return type, and its body if asked.
+     * A body left for later is read by parseBody(). The function isn't added to the
+     * global table, that is left to the caller.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param scope - SymbolTable, the function's own scope
+     * @param withBody - boolean, true to read the body as well
+     */
+    public NFund(TokenBuffer tokenList, SymbolTable scope, boolean withBody)
     {
         super(NID.NFUND);
 
-        SymbolTable scopeTable = new SymbolTable(globalTable);
+        scopeTable = scope;
+        start = tokenList.mark();
+        end = -1;
+        firstError = errors(scopeTable).size();
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         setSymbol(new TableEntry(nextToken));
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 
 		// Check for left parentheses
         switch(nextToken.getTokenID())
         {
             case TLPAR:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"(\" after identifier."));
+                errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"(\" after identifier."));
 
         }
 
@@ -42,33 +75,39 @@ public class NFund extends STNode
         {
             case TCNST:
             case TIDEN:
-                tokenList.push(nextToken);
                 setLeft(processPlist(tokenList, scopeTable));
                 getSymbol().setValue("" + getNumParameters(getLeft(), 0));
                 break;
 
             case TRPAR:
+                tokenList.advance();
                 getSymbol().setValue("0");
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected const, primitive or array type identifier."));
-                tokenList.push(nextToken);
-                while(nextToken.getTokenID() != Token.TID.TCNST && nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
+                errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected const, primitive or array type identifier."));
+                nextToken = tokenList.skipTo(PARAM_SYNC);
+
+                // An empty list of parameters is closed, otherwise the list carries on from the skip
+                if(nextToken.getTokenID() == Token.TID.TRPAR)
                 {
-                    nextToken = tokenList.pop();
+                    tokenList.advance();
+                    getSymbol().setValue("0");
+                }
+                else
+                {
+                    setLeft(processPlist(tokenList, scopeTable));
+                    getSymbol().setValue("" + (getLeft() != null ? getNumParameters(getLeft(), 0) : 0));
                 }
-                tokenList.push(nextToken);
-                setLeft(processPlist(tokenList, scopeTable));
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
 		// Check for colon before type
         switch(nextToken.getTokenID())
         {
             case TCOLN:
-                nextToken = tokenList.pop();
+                nextToken = tokenList.advance();
 				
 				// Check the function type
                 switch(nextToken.getTokenID())
@@ -96,71 +135,177 @@ public class NFund extends STNode
             default:
         }
 
-        nextToken = tokenList.pop();
+        if(withBody)
+            parseBody(tokenList);
+    }
+
+    /** parseBody()
+     *
+     * Reads the declarations, statements and end of the function
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, at the start of the body
+     */
+    public void parseBody(TokenBuffer tokenList)
+    {
+        Token nextToken = tokenList.peek(0);
 
 		// Check for declaration list or begin statement
         switch(nextToken.getTokenID())
         {
             case TIDEN:
-                tokenList.push(nextToken);
                 setMiddle(processDlist(tokenList, scopeTable));
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 				
 				// Check for begin statement
                 switch(nextToken.getTokenID())
                 {
                     case TBEGN:
+                        tokenList.advance();
                         setRight(processStats(tokenList, scopeTable));
                         break;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function begin statement."));
-                        tokenList.push(nextToken);
+                        errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function begin statement."));
                 }
                 break;
 
             case TBEGN:
+                tokenList.advance();
                 setRight(processStats(tokenList, scopeTable));
                 break;
 
             case TRPAR:
+                tokenList.advance();
                 break;
 
             default:
-                while(nextToken.getTokenID() != Token.TID.TBEGN && nextToken.getTokenID() != Token.TID.TSEMI)
-                {
-                    nextToken = tokenList.pop();
-                }
+                nextToken = tokenList.skipTo(BODY_SYNC);
                 switch(nextToken.getTokenID())
                 {
                     case TBEGN:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in declaration list."));
+                        tokenList.advance();
+                        errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in declaration list."));
                         break;
 
                     case TSEMI:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function begin statement."));
+                        tokenList.advance();
+                        errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function begin statement."));
                         break;
 
+                    // The next function, main or the end of the program, the body is missing
                     default:
+                        errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function begin statement."));
                 }
                 setMiddle(new NUndef(tokenList, scopeTable));
                 setRight(processStats(tokenList, scopeTable));
         }
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 		
 		// Check for end statement
         switch(nextToken.getTokenID())
         {
             case TEND:
+                tokenList.advance();
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end statement in previous function."));
-                tokenList.push(nextToken);
+                errors(scopeTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end statement in previous function."));
         }
+        end = tokenList.mark();
+    }
 
-        globalTable.addSymbol(getSymbol());
-        SymbolTable.addScopeTable(getSymbol().getName(), scopeTable);
+    /** deferBody()
+     *
+     * Leaves the body to be read the first time the declarations or statements are
+     * asked for. The function's scope must be over a view of the global table that
+     * holds only the functions before it, the scope is moved onto the global table
+     * once the body is read. Errors in the body are found when it is read.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, not streamed
+     * @param start - int, position of the first token of the body
+     * @param globalTable - SymbolTable, the global table
+     */
+    public void deferBody(TokenBuffer tokenList, int start, SymbolTable globalTable)
+    {
+        bodyTokens = tokenList;
+        bodyStart = start;
+        bodyGlobal = globalTable;
+    }
+
+    /** isBodyRead()
+     *
+     * @return - boolean, false while the body is left to be read
+     */
+    public boolean isBodyRead()
+    {
+        return bodyTokens == null;
+    }
+
+    /** readBody()
+     *
+     * Reads a body left by deferBody() with a cursor of its own
+     */
+    private void readBody()
+    {
+        TokenBuffer reader = bodyTokens.reader(bodyStart);
+        bodyTokens = null;
+
+        parseBody(reader);
+        scopeTable.setPrevious(bodyGlobal);
+        bodyGlobal = null;
+    }
+
+    @Override
+    public void load()
+    {
+        if(bodyTokens != null)
+            readBody();
+    }
+
+    @Override
+    public STNode getMiddle()
+    {
+        load();
+        return super.getMiddle();
+    }
+
+    @Override
+    public STNode getRight()
+    {
+        load();
+        return super.getRight();
+    }
+
+    /** getStart()
+     *
+     * @return - int, position of the function's identifier in the tokens
+     */
+    public int getStart()
+    {
+        return start;
+    }
+
+    /** getEnd()
+     *
+     * @return - int, position of the token after the body, or -1 if the body is not read
+     */
+    public int getEnd()
+    {
+        return end;
+    }
+
+    /** getFirstError()
+     *
+     * @return - int, number of errors in the context before the function was read
+     */
+    public int getFirstError()
+    {
+        return firstError;
+    }
+
+    public SymbolTable getScopeTable()
+    {
+        return scopeTable;
     }
 
     private int getNumParameters(STNode pList, int count)
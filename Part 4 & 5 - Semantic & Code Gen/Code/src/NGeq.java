@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NGeq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NGeq extends STNode
 {
-    public NGeq(LinkedList<Token> tokenList, SymbolTable table)
+    public NGeq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NGEQ);
 
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NGlob.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,21 +12,18 @@ import java.util.LinkedList;
  */
 public class NGlob extends STNode
 {
-    public NGlob(LinkedList<Token> tokenList, SymbolTable table)
+    public NGlob(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NGLOB);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Check for constants, types, arrays, func or main keyword, if incorrect throw an error and skip to next global definition section
         if(nextToken.getTokenID() != Token.TID.TCONS && nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
         {
-            errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected constants, types, arrays, function or main block."));
+            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected constants, types, arrays, function or main block."));
 
-            while(nextToken.getTokenID() != Token.TID.TCONS && nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-            {
-                nextToken = tokenList.pop();
-            }
+            nextToken = tokenList.skipTo(GLOBALS_SYNC);
             setLeft(new NUndef(tokenList, table));
         }
 
@@ -35,28 +31,24 @@ public class NGlob extends STNode
         switch(nextToken.getTokenID())
         {
             case TCONS:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 switch(nextToken.getTokenID())
                 {
                     // Process constants initialiser list
                     case TIDEN:
-                        tokenList.push(nextToken);
                         setLeft(processIlist(tokenList, table));
-                        nextToken = tokenList.pop();
+                        nextToken = tokenList.peek(0);
                         break;
 
                     // First token not an identifier, find the first identifier or types, arrays, funcs or main and process as normal
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected constant identifier."));
-                        while(nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-                        {
-                            nextToken = tokenList.pop();
-                        }
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected constant identifier."));
+                        nextToken = tokenList.skipTo(INIT_SYNC);
                         if(nextToken.getTokenID() == Token.TID.TIDEN)
                         {
-                            tokenList.push(nextToken);
                             setLeft(processIlist(tokenList, table));
-                            nextToken = tokenList.pop();
+                            nextToken = tokenList.peek(0);
                         }
                 }
                 break;
@@ -65,11 +57,8 @@ public class NGlob extends STNode
             default:
                 if(nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected types, arrays, function or main block."));
-                    while(nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-                    {
-                        nextToken = tokenList.pop();
-                    }
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected types, arrays, function or main block."));
+                    nextToken = tokenList.skipTo(TYPES_SYNC);
                     setLeft(new NUndef(tokenList, table));
                 }
         }
@@ -78,37 +67,23 @@ public class NGlob extends STNode
         switch(nextToken.getTokenID())
         {
             case TTYPS:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         setMiddle(processTypes(tokenList, table));
-                        nextToken = tokenList.pop();
+                        nextToken = tokenList.peek(0);
                         break;
 
                     // First token not an identifier, find the first identifier or arrays, funcs or main and process as normal
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier."));
-                        while(nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-                        {
-                            nextToken = tokenList.pop();
-                            if(nextToken.getTokenID() == Token.TID.TIDEN)
-                            {
-                                Token tempToken = tokenList.pop();
-                                if(tempToken.getTokenID() == Token.TID.TIS)
-                                {
-                                    tokenList.push(tempToken);
-                                }
-                                else
-                                    nextToken = tempToken;
-                            }
-                        }
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier."));
+                        nextToken = skipToType(tokenList);
                         if(nextToken.getTokenID() == Token.TID.TIDEN)
                         {
-                            tokenList.push(nextToken);
                             setMiddle(processTypes(tokenList, table));
-                            nextToken = tokenList.pop();
+                            nextToken = tokenList.peek(0);
                         }
                 }
                 break;
@@ -117,11 +92,8 @@ public class NGlob extends STNode
             default:
                 if(nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected arrays, function or main block."));
-                    while(nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-                    {
-                        nextToken = tokenList.pop();
-                    }
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected arrays, function or main block."));
+                    nextToken = tokenList.skipTo(ARRAYS_SYNC);
                     setMiddle(new NUndef(tokenList, table));
                 }
         }
@@ -130,12 +102,12 @@ public class NGlob extends STNode
         switch(nextToken.getTokenID())
         {
             case TARRS:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
 
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         setRight(processAlist(tokenList, table));
                         break;
 
@@ -143,17 +115,21 @@ public class NGlob extends STNode
                     default:
                         if(nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
                         {
-                            errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array identifier."));
-                            while(nextToken.getTokenID() != Token.TID.TCOMA && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array identifier."));
+                            nextToken = tokenList.skipTo(ARRAY_SYNC);
+                            if(nextToken.getTokenID() == Token.TID.TCOMA)
                             {
-                                nextToken = tokenList.pop();
+                                tokenList.advance();
+                                nextToken = tokenList.peek(0);
                             }
-                            if(nextToken.getTokenID() == Token.TID.TCOMA)
+                            if(nextToken.getTokenID() == Token.TID.TIDEN)
                             {
                                 setRight(processAlist(tokenList, table));
                             }
 
                         }
+                        else
+                            tokenList.advance();
                 }
                 break;
 
@@ -161,14 +137,10 @@ public class NGlob extends STNode
             default:
                 if(nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block."));
-                    while(nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN)
-                    {
-                        nextToken = tokenList.pop();
-                    }
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block."));
+                    tokenList.skipTo(UNIT_SYNC);
                     setRight(new NUndef(tokenList, table));
                 }
-                tokenList.push(nextToken);
 
         }
     }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NGrt.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NGrt extends STNode
 {
-    public NGrt(LinkedList<Token> tokenList, SymbolTable table)
+    public NGrt(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NGRT);
 
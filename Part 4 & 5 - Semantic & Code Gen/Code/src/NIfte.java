@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NIfte.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,8 @@ import java.util.LinkedList;
  */
 public class NIfte extends STNode
 {
-    public NIfte(LinkedList<Token> tokenList, SymbolTable table)
+    public NIfte(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NIFTE);
-
-        setRight(processStats(tokenList, table));
     }
 }
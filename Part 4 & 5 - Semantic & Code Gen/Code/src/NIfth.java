@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NIfth.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NIfth extends STNode
 {
-    public NIfth(LinkedList<Token> tokenList, SymbolTable table)
+    public NIfth(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NIFTH);
     }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NIlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,17 @@ import java.util.LinkedList;
  */
 public class NIlist extends STNode
 {
-    public NIlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NIlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NILIST);
 
         setRight(processIlist(tokenList, table));
     }
+
+    public NIlist(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NILIST);
+
+        setRight(processIlist(name, tokenList, table));
+    }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NIlit.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,14 +11,14 @@ import java.util.LinkedList;
  */
 public class NIlit extends STNode
 {
-    public NIlit(LinkedList<Token> tokenList, SymbolTable table)
+    public NIlit(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NILIT);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         setSymbol(new TableEntry(nextToken));
-        getSymbol().setType("integer");
+        getSymbol().setDataType(PrimitiveType.INTEGER);
 
         table.addSymbol(getSymbol());
     }
@@ -28,7 +27,7 @@ public class NIlit extends STNode
     {
         super(NID.NILIT);
         setSymbol(new TableEntry(token));
-        getSymbol().setType("integer");
+        getSymbol().setDataType(PrimitiveType.INTEGER);
 
         table.addSymbol(getSymbol());
     }
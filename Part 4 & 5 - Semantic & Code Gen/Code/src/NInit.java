@@ -1,5 +1,3 @@
-import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NInit.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,18 +11,21 @@ import java.util.LinkedList;
  */
 public class NInit extends STNode
 {
-    public NInit(LinkedList<Token> tokenList, SymbolTable table)
+    public NInit(TokenBuffer tokenList, SymbolTable table)
     {
-        super(NID.NINIT);
+        this(tokenList.advance(), table);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NInit(Token nextToken, SymbolTable table)
+    {
+        super(NID.NINIT);
 
         setSymbol(new TableEntry(nextToken));
 
         if(!table.hasIdInScope(getSymbol().getName()))
             table.addSymbol(getSymbol());
         else
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Identifier already declared in scope."));
+            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Identifier already declared in scope.");
 
     }
 
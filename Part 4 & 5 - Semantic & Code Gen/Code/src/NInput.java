@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NInput.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NInput extends STNode
 {
-    public NInput(LinkedList<Token> tokenList, SymbolTable table)
+    public NInput(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NINPUT);
 
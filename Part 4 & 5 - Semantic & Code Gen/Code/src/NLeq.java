@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NLeq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NLeq extends STNode
 {
-    public NLeq(LinkedList<Token> tokenList, SymbolTable table)
+    public NLeq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NLEQ);
 
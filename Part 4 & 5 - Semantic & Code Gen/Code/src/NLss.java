@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NLss.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NLss extends STNode
 {
-    public NLss(LinkedList<Token> tokenList, SymbolTable table)
+    public NLss(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NLSS);
 
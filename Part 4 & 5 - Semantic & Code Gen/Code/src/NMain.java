@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NMain.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,75 +12,140 @@ import java.util.LinkedList;
  */
 public class NMain extends STNode
 {
-    public NMain(LinkedList<Token> tokenList, SymbolTable globalTable)
+    private SymbolTable scopeTable;
+
+    // Statements left to be read when they are first asked for
+    private TokenBuffer statsTokens;
+    private int statsStart;
+
+    public NMain(TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        this(tokenList, globalTable, false);
+    }
+
+    /** Constructor
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param globalTable - SymbolTable, the global table
+     * @param lazy - boolean, true to leave the statements to be read when they are asked for
+     */
+    public NMain(TokenBuffer tokenList, SymbolTable globalTable, boolean lazy)
     {
         super(NID.NMAIN);
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
-        SymbolTable scopeTable = new SymbolTable(globalTable);
+        scopeTable = new SymbolTable(globalTable);
 
 		// Check for identifier
         switch(nextToken.getTokenID())
         {
             case TIDEN:
-                tokenList.push(nextToken);
                 setLeft(processSdlst(tokenList, scopeTable));
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block identifier list."));
-                tokenList.push(nextToken);
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block identifier list."));
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
 		// Check for begin statement
         switch(nextToken.getTokenID())
         {
             case TBEGN:
-                setRight(processStats(tokenList, scopeTable));
+                if(!lazy || !deferStats(tokenList))
+                    setRight(processStats(tokenList, scopeTable));
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block begin statement."));
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block begin statement."));
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.advance();
 
 		// Check for end statement
         switch(nextToken.getTokenID())
         {
             case TEND:
-                SymbolTable.addScopeTable("main", scopeTable);
+                globalTable.getContext().addScopeTable("main", scopeTable);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block end statement."));
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected main block end statement."));
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 
 		// Check for CD18 tag
         switch(nextToken.getTokenID())
         {
             case TCD18:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Closing CD18 tag missing."));
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Closing CD18 tag missing."));
         }
 		
 		// Check for final program identifier
         switch(nextToken.getTokenID())
         {
             case TIDEN:
+                tokenList.advance();
                 setSymbol(new TableEntry(nextToken));
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Closing program identifier missing."));
-                tokenList.push(nextToken);
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Closing program identifier missing."));
+        }
+    }
+
+    /** deferStats()
+     *
+     * Leaves the statements to be read the first time they are asked for. They are taken
+     * to run up to the end keyword before the closing CD18 tag, which is found from the
+     * end of the tokens. Errors in the statements are found when they are read.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, at the first statement
+     * @return - boolean, true if the statements were left, false if they must be read now
+     */
+    private boolean deferStats(TokenBuffer tokenList)
+    {
+        if(tokenList.isStreaming())
+            return false;
+
+        int start = tokenList.mark();
+        int end = tokenList.size() - 1;
+        while(end > start && tokenList.getTokenID(end) != Token.TID.TCD18)
+            end--;
+        end--;
+
+        if(end <= start || tokenList.getTokenID(end) != Token.TID.TEND)
+            return false;
+
+        statsTokens = tokenList;
+        statsStart = start;
+        tokenList.rewind(end);
+
+        return true;
+    }
+
+    @Override
+    public void load()
+    {
+        if(statsTokens != null)
+        {
+            TokenBuffer reader = statsTokens.reader(statsStart);
+            statsTokens = null;
+            setRight(processStats(reader, scopeTable));
         }
     }
+
+    @Override
+    public STNode getRight()
+    {
+        load();
+        return super.getRight();
+    }
 }
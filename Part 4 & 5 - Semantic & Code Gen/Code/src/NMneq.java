@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NMneq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NMneq extends STNode
 {
-    public NMneq(LinkedList<Token> tokenList, SymbolTable table)
+    public NMneq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NMNEQ);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NMod.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NMod extends STNode
 {
-    public NMod(LinkedList<Token> tokenList, SymbolTable table)
+    public NMod(STNode left, STNode right)
     {
-        super(NID.NMOD);
-        setRight(processTerm(tokenList, table));
+        super(NID.NMOD, left, right);
     }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NMul.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NMul extends STNode
 {
-    public NMul(LinkedList<Token> tokenList, SymbolTable table)
+    public NMul(STNode left, STNode right)
     {
-        super(NID.NMUL);
-        setRight(processTerm(tokenList, table));
+        super(NID.NMUL, left, right);
     }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NNeq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NNeq extends STNode
 {
-    public NNeq(LinkedList<Token> tokenList, SymbolTable table)
+    public NNeq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NNEQ);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NNot.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NNot extends STNode
 {
-    public NNot(LinkedList<Token> tokenList, SymbolTable table)
+    public NNot(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NNOT);
     }
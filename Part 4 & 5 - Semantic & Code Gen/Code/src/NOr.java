@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NOr.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NOr extends STNode
 {
-    public NOr(LinkedList<Token> tokenList, SymbolTable table)
+    public NOr(STNode left, STNode right)
     {
-        super(NID.NOR);
-        setRight(processBool(tokenList, table));
+        super(NID.NOR, left, right);
     }
 }
\ No newline at end of file
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPleq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NPleq extends STNode
 {
-    public NPleq(LinkedList<Token> tokenList, SymbolTable table)
+    public NPleq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NPLEQ);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NPlist extends STNode
 {
-    public NPlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NPlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NPLIST);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPow.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NPow extends STNode
 {
-    public NPow(LinkedList<Token> tokenList, SymbolTable table)
+    public NPow(STNode left, STNode right)
     {
-        super(NID.NPOW);
-        setRight(processFactor(tokenList, table));
+        super(NID.NPOW, left, right);
     }
 }
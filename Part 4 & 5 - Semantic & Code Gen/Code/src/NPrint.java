@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPrint.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NPrint extends STNode
 {
-    public NPrint(LinkedList<Token> tokenList, SymbolTable table)
+    public NPrint(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NPRINT);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPrln.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NPrln extends STNode
 {
-    public NPrln(LinkedList<Token> tokenList, SymbolTable table)
+    public NPrln(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NPRLN);
 
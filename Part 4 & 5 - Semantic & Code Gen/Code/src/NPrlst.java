@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NPrlst.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NPrlst extends STNode
 {
-    public NPrlst(LinkedList<Token> tokenList, SymbolTable table)
+    public NPrlst(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NPRLST);
 
@@ -1,5 +1,5 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
 /** NProg.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,17 +13,47 @@ import java.util.LinkedList;
  */
 public class NProg extends STNode
 {
-    public NProg(LinkedList<Token> tokenList, SymbolTable globalTable)
+    private boolean complete = true;
 
+    // Where the main block was read from, the errors are counted in the global table's context
+    private int mainStart = -1;
+    private int mainFirstError;
+
+    public NProg(TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        this(tokenList, globalTable, null);
+    }
+
+    /** Constructor
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param globalTable - SymbolTable, the global table
+     * @param pool - ForkJoinPool, threads function bodies are read on, or null to read them in order
+     */
+    public NProg(TokenBuffer tokenList, SymbolTable globalTable, ForkJoinPool pool)
+    {
+        this(tokenList, globalTable, pool, false);
+    }
+
+    /** Constructor
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param globalTable - SymbolTable, the global table
+     * @param pool - ForkJoinPool, threads function bodies are read on, or null to read them in order
+     * @param lazy - boolean, true to leave function bodies and main's statements to be read
+     *               when they are asked for, the pool is then not used
+     */
+    public NProg(TokenBuffer tokenList, SymbolTable globalTable, ForkJoinPool pool, boolean lazy)
     {
         super(NID.NPROG);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Check for a program identifier
         switch(nextToken.getTokenID())
         {
             case TIDEN:
+                tokenList.advance();
                 setSymbol(new TableEntry(nextToken));
 
                 // Add the identifier to the symbol table
@@ -32,75 +62,94 @@ public class NProg extends STNode
 
             // Program identifier is missing, throw error and continue without one
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected program identifier."));
-                tokenList.push(nextToken);
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected program identifier."));
         }
 
         // Create global node sub-tree
         setLeft(new NGlob(tokenList, globalTable));
 
-        nextToken = tokenList.pop();
+        // Position of the token checked for the main block, it is read again for a main block missing its keyword
+        int position = tokenList.mark();
+        nextToken = tokenList.advance();
 		
 		// Check for function definitions and main section
 		switch(nextToken.getTokenID())
 		{
 			// Create functions sub-tree
 			case TFUNC:
-				nextToken = tokenList.pop();
+				nextToken = tokenList.peek(0);
 				switch(nextToken.getTokenID())
 				{
 					case TIDEN:
-						tokenList.push(nextToken);
-						setMiddle(processFuncs(tokenList, globalTable));
-						nextToken = tokenList.pop();
-						break;
+						if(lazy)
+							setMiddle(processFuncHeaders(tokenList, globalTable));
+						else
+							setMiddle(pool == null ? processFuncs(tokenList, globalTable) : processFuncs(tokenList, globalTable, pool));
 
-					default:
-						errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function identifier."));
-						while(nextToken.getTokenID() != Token.TID.TFUNC && nextToken.getTokenID() != Token.TID.TMAIN)
+						// The functions couldn't be read apart from their bodies, the parser reads the program again
+						if(getMiddle() == null)
 						{
-							nextToken = tokenList.pop();
+							complete = false;
+							return;
 						}
-						tokenList.push(nextToken);
+						position = tokenList.mark();
+						nextToken = tokenList.advance();
+						break;
+
+					default:
+						errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function identifier."));
+						nextToken = tokenList.skipTo(UNIT_SYNC);
 				}
 				break;
 
 			default:
 				if(nextToken.getTokenID() != Token.TID.TMAIN)
 				{
-					errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block."));
+					errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block."));
 				}
 		}
 
+        readMain(tokenList, globalTable, nextToken, position, lazy);
+    }
+
+    /** readMain()
+     *
+     * Reads the main block and the end of the program
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, after the token checked for the main block
+     * @param globalTable - SymbolTable, the global table
+     * @param nextToken - Token, the token checked for the main block
+     * @param position - int, position of the token checked
+     * @param lazy - boolean, true to leave main's statements to be read when they are asked for
+     */
+    private void readMain(TokenBuffer tokenList, SymbolTable globalTable, Token nextToken, int position, boolean lazy)
+    {
+        mainStart = position;
+        mainFirstError = errors(globalTable).size();
+
 		switch(nextToken.getTokenID())
 		{
 			// Create main sub-tree
 			case TMAIN:
-				nextToken = tokenList.pop();
+				nextToken = tokenList.peek(0);
 				switch(nextToken.getTokenID())
 				{
 					// Variable declarations
 					case TIDEN:
-						tokenList.push(nextToken);
-						setRight(new NMain(tokenList, globalTable));
+						setRight(new NMain(tokenList, globalTable, lazy));
 						break;
 
 					// No variable declarations, throw an error and continue
 					case TBEGN:
-						errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Must be at least one variable defined for main."));
-						tokenList.push(nextToken);
-						setRight(new NMain(tokenList, globalTable));
+						errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Must be at least one variable defined for main."));
+						setRight(new NMain(tokenList, globalTable, lazy));
 						break;
 
 					// Variables section starts with something other than a variable declaration
 					default:
-						errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected variable and found invalid symbol."));
-						while(nextToken.getTokenID() != Token.TID.TBEGN && nextToken.getTokenID() != Token.TID.TIDEN)
-						{
-							nextToken = tokenList.pop();
-						}
-						tokenList.push(nextToken);
-						setRight(new NMain(tokenList, globalTable));
+						errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected variable and found invalid symbol."));
+						tokenList.skipTo(DECL_SYNC);
+						setRight(new NMain(tokenList, globalTable, lazy));
 						getRight().setNodeID(NID.NUNDEF);
 				}
 
@@ -108,25 +157,68 @@ public class NProg extends STNode
 
 			// Missing function block or main block after program identifier or globals, throw error and continue
 			default:
-				errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block after globals section."));
+				errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function or main block after globals section."));
 
 				switch(nextToken.getTokenID())
 				{
 					case TIDEN:
 					case TBEGN:
-						tokenList.push(nextToken);
-						setRight(new NMain(tokenList, globalTable));
+						tokenList.rewind(position);
+						setRight(new NMain(tokenList, globalTable, lazy));
 						getRight().setNodeID(NID.NUNDEF);
 						break;
 
 					default:
 				}
 		}
-		nextToken = tokenList.pop();
+		nextToken = tokenList.advance();
 
-        if(!getSymbol().equals(getRight().getSymbol()))
+        // Without a program identifier or a main block there is nothing to match
+        if(getSymbol() != null && getRight() != null && getRight().getSymbol() != null && !getSymbol().equals(getRight().getSymbol()))
         {
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getRight().getSymbol().getLine() + ", " + getRight().getSymbol().getCol() + "): Closing program identifier does not match opening identifier."));
+            errors(globalTable).add(new SimpleEntry<>(nextToken, "Semantic Error: (" + getRight().getSymbol().getLine() + ", " + getRight().getSymbol().getCol() + "): Closing program identifier does not match opening identifier."));
         }
     }
+
+    /** rereadMain()
+     *
+     * Reads the main block and the end of the program again in place of the ones read
+     *
+     * @param tokenList - TokenBuffer, tokens starting at the main keyword
+     * @param globalTable - SymbolTable, the global table, or a view of it
+     */
+    public void rereadMain(TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        int position = tokenList.mark();
+
+        setRight(null);
+        readMain(tokenList, globalTable, tokenList.advance(), position, false);
+    }
+
+    /** getMainStart()
+     *
+     * @return - int, position of the token checked for the main block
+     */
+    public int getMainStart()
+    {
+        return mainStart;
+    }
+
+    /** getMainFirstError()
+     *
+     * @return - int, number of errors in the context before the main block was read
+     */
+    public int getMainFirstError()
+    {
+        return mainFirstError;
+    }
+
+    /** isComplete()
+     *
+     * @return - boolean, false if the program has to be read again with its functions in order
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
 }
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NRept.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,11 +12,11 @@ import java.util.LinkedList;
  */
 public class NRept extends STNode
 {
-    public NRept(LinkedList<Token> tokenList, SymbolTable table)
+    public NRept(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NREPT);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         switch(nextToken.getTokenID())
         {
@@ -25,13 +24,12 @@ public class NRept extends STNode
                 STNode assgn;
                 STNode assgns;
 
-                tokenList.push(nextToken);
                 assgn = processAssgn(tokenList, table);
 
-                nextToken = tokenList.pop();
-                switch(nextToken.getTokenID())
+                switch(tokenList.peekID(0))
                 {
                     case TCOMA:
+                        tokenList.advance();
                         assgns = new NAsgns(tokenList, table);
                         assgns.setLeft(assgn);
                         setLeft(assgns);
@@ -39,17 +37,17 @@ public class NRept extends STNode
 
                     case TRPAR:
                     default:
-                        tokenList.push(nextToken);
                         setLeft(assgn);
                 }
                 break;
 
             case TRPAR:
-                tokenList.push(nextToken);
                 break;
 
+            // A statement or the end of the block is left for the repeat's body
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier."));
+                tokenList.skipTo(FOR_SYNC);
         }
     }
 }
@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NRetn.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,13 +12,11 @@ import java.util.LinkedList;
  */
 public class NRetn extends STNode
 {
-    public NRetn(LinkedList<Token> tokenList, SymbolTable table)
+    public NRetn(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NRETN);
 
-        Token nextToken = tokenList.pop();
-
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             case TIDEN:
             case TILIT:
@@ -27,20 +24,20 @@ public class NRetn extends STNode
             case TTRUE:
             case TFALS:
             case TLPAR:
-                tokenList.push(nextToken);
                 setLeft(processExpression(tokenList, table));
-                nextToken = tokenList.pop();
                 break;
         }
 
+        Token nextToken = tokenList.peek(0);
+
         switch(nextToken.getTokenID())
         {
             case TSEMI:
-                tokenList.push(nextToken);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
+                tokenList.advance();
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
         }
     }
 }
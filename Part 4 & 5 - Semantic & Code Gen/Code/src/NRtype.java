@@ -1,5 +1,4 @@
 import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NRtype.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,34 +12,39 @@ import java.util.LinkedList;
  */
 public class NRtype extends STNode
 {
-    public NRtype(LinkedList<Token> tokenList, SymbolTable globalTable)
+    public NRtype(TokenBuffer tokenList, SymbolTable globalTable)
     {
-        super(NID.NRTYPE);
+        this(tokenList.advance(), tokenList, globalTable);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NRtype(Token name, TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        super(NID.NRTYPE);
 
-        setSymbol(new TableEntry(nextToken));
+        setSymbol(new TableEntry(name));
 
         SymbolTable scopeTable = new SymbolTable(globalTable);
+        RecordType record = new RecordType(getSymbol().getName());
 
-        nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         switch(nextToken.getTokenID())
         {
             case TIDEN:
-                tokenList.push(nextToken);
                 setLeft(processFlist(tokenList, scopeTable));
                 for(TableEntry entry : scopeTable.getTable())
                 {
-                    TableEntry globalEntry = new TableEntry(getSymbol().getName(), entry);
-                    globalTable.addSymbol(globalEntry);
+                    if(entry.getTokenID() == Token.TID.TIDEN)
+                        record.addMember(entry);
                 }
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
+                tokenList.advance();
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
         }
 
+        globalTable.addRecord(record);
         globalTable.addType(getSymbol(), 'c');
     }
 }
\ No newline at end of file
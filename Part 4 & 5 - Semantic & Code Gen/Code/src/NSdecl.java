@@ -1,5 +1,3 @@
-import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NSdecl.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,15 +11,18 @@ import java.util.LinkedList;
  */
 public class NSdecl extends STNode
 {
-    public NSdecl(LinkedList<Token> tokenList, SymbolTable table)
+    public NSdecl(TokenBuffer tokenList, SymbolTable table)
     {
-        super(NID.NSDECL);
+        this(tokenList.advance(), tokenList, table);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NSdecl(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NSDECL);
 
-        setSymbol(new TableEntry(nextToken));
+        setSymbol(new TableEntry(name));
 
-        nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         switch(nextToken.getTokenID())
         {
@@ -41,11 +42,11 @@ public class NSdecl extends STNode
                 break;
 
             default:
-                System.out.println("Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier.");
+                table.getContext().message("Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type identifier.");
         }
         if(!table.hasIdInScope(getSymbol().getName()))
             table.addSymbol(getSymbol());
         else
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Identifier already declared in scope."));
+            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Identifier already declared in scope.");
     }
 }
\ No newline at end of file
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NSdlst.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NSdlst extends STNode
 {
-    public NSdlst(LinkedList<Token> tokenList, SymbolTable table)
+    public NSdlst(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NSDLST);
 
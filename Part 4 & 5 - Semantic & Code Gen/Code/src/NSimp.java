@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NSimp.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,17 @@ import java.util.LinkedList;
  */
 public class NSimp extends STNode
 {
-    public NSimp(LinkedList<Token> tokenList, SymbolTable table)
+    public NSimp(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NSIMP);
 		
         setLeft(new NSdecl(tokenList, table));
     }
+
+    public NSimp(Token name, TokenBuffer tokenList, SymbolTable table)
+    {
+        super(NID.NSIMP);
+
+        setLeft(new NSdecl(name, tokenList, table));
+    }
 }
\ No newline at end of file
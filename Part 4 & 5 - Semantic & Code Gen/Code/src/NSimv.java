@@ -1,5 +1,3 @@
-import java.util.AbstractMap.SimpleEntry;
-import java.util.LinkedList;
 /** NSimv.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -13,11 +11,14 @@ import java.util.LinkedList;
  */
 public class NSimv extends STNode
 {
-    public NSimv(LinkedList<Token> tokenList, SymbolTable table)
+    public NSimv(TokenBuffer tokenList, SymbolTable table)
     {
-        super(NID.NSIMV);
+        this(tokenList.advance(), table);
+    }
 
-        Token nextToken = tokenList.pop();
+    public NSimv(Token nextToken, SymbolTable table)
+    {
+        super(NID.NSIMV);
 
         setSymbol(new TableEntry(nextToken));
 
@@ -26,6 +27,28 @@ public class NSimv extends STNode
             getSymbol().setType(table.getIdEntry(getSymbol().getName()).getType());
         }
         else
-            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undeclared identifier."));
+            semanticError(table, nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Undeclared identifier.");
+    }
+
+    /** Constructor
+     *
+     * A member of an array, which takes its type and offset from the member of the
+     * structure type by the same name. Left without a type if there is no such member.
+     *
+     * @param nextToken - Token, the member name
+     * @param record - RecordType, the structure type of the array's elements, or null if not known
+     */
+    public NSimv(Token nextToken, RecordType record)
+    {
+        super(NID.NSIMV);
+
+        setSymbol(new TableEntry(nextToken));
+
+        TableEntry field = record != null ? record.getMember(getSymbol().getName()) : null;
+        if(field != null)
+        {
+            getSymbol().setType(field.getType());
+            getSymbol().setOffset(field.getOffset());
+        }
     }
 }
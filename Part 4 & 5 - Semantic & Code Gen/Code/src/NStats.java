@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NStats.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,11 +11,11 @@ import java.util.LinkedList;
  */
 public class NStats extends STNode
 {
-    public NStats(LinkedList<Token> tokenList, SymbolTable table)
+    public NStats(STNode stat)
     {
         super(NID.NSTATS);
 
-        setRight(processStats(tokenList, table));
+        setLeft(stat);
 
     }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NSteq.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NSteq extends STNode
 {
-    public NSteq(LinkedList<Token> tokenList, SymbolTable table)
+    public NSteq(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NSTEQ);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NStrg.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,11 +11,11 @@ import java.util.LinkedList;
  */
 public class NStrg extends STNode
 {
-    public NStrg(LinkedList<Token> tokenList, SymbolTable table)
+    public NStrg(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NSTRG);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         setSymbol(new TableEntry(nextToken));
         getSymbol().setType("string");
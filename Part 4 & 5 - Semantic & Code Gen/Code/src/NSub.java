@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NSub.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,10 +11,8 @@ import java.util.LinkedList;
  */
 public class NSub extends STNode
 {
-    public NSub(LinkedList<Token> tokenList, SymbolTable table)
+    public NSub(STNode left, STNode right)
     {
-        super(NID.NSUB);
-
-        setRight(processExpression(tokenList, table));
+        super(NID.NSUB, left, right);
     }
 }
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NTrue.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NTrue extends STNode
 {
-    public NTrue(LinkedList<Token> tokenList, SymbolTable table)
+    public NTrue(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NTRUE);
     }
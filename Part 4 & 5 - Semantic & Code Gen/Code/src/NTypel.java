@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NTypel.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NTypel extends STNode
 {
-    public NTypel(LinkedList<Token> tokenList, SymbolTable table)
+    public NTypel(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NTYPEL);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NUndef.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NUndef extends STNode
 {
-    public NUndef(LinkedList<Token> tokenList, SymbolTable table)
+    public NUndef(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NUNDEF);
 
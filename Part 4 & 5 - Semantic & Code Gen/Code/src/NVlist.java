@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NVlist.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,7 +11,7 @@ import java.util.LinkedList;
  */
 public class NVlist extends STNode
 {
-    public NVlist(LinkedList<Token> tokenList, SymbolTable table)
+    public NVlist(TokenBuffer tokenList, SymbolTable table)
     {
         super(NID.NVLIST);
 
@@ -1,4 +1,3 @@
-import java.util.LinkedList;
 /** NXor.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,9 +11,8 @@ import java.util.LinkedList;
  */
 public class NXor extends STNode
 {
-    public NXor(LinkedList<Token> tokenList, SymbolTable table)
+    public NXor(STNode left, STNode right)
     {
-        super(NID.NXOR);
-        setRight(processBool(tokenList, table));
+        super(NID.NXOR, left, right);
     }
 }
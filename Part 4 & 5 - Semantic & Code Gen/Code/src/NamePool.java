@@ -0,0 +1,275 @@
+import java.util.Arrays;
+
+/** NamePool.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Intern pool for identifier names in the CD18 compiler.
+ * Each distinct name is given a dense int ID, starting at 0, and a single shared String.
+ * Names are found by open addressing on the same hash as String.hashCode(),
+ * so they can be interned straight from the scanner's character buffer.
+ *
+ * A pool shared between the scanner thread and the parser thread must be marked shared,
+ * its methods then lock the pool.
+ *
+ */
+public class NamePool
+{
+    private String[] names;
+    private int[] hashes;
+    private int[] slots;
+    private int count;
+    private boolean shared;
+
+    /** Constructor
+     *
+     */
+    public NamePool()
+    {
+        names = new String[64];
+        hashes = new int[64];
+        slots = new int[128];
+        count = 0;
+        shared = false;
+    }
+
+    /** setShared()
+     *
+     * Marks the pool as used from more than one thread
+     *
+     * @param share - boolean, true if the pool is shared between threads
+     */
+    public void setShared(boolean share)
+    {
+        shared = share;
+    }
+
+    /** isShared()
+     *
+     * @return - boolean, true if the pool is marked as used from more than one thread
+     */
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    /** intern()
+     *
+     * Gets the ID of a name held in a character buffer, adding the name if it is new
+     *
+     * @param buf - char[], the buffer holding the name
+     * @param start - int, index of the first character of the name
+     * @param len - int, length of the name
+     * @return - int, the ID of the name
+     */
+    public int intern(char[] buf, int start, int len)
+    {
+        if(shared)
+        {
+            synchronized(this)
+            {
+                return internChars(buf, start, len);
+            }
+        }
+        return internChars(buf, start, len);
+    }
+
+    /** intern()
+     *
+     * Gets the ID of a name, adding the name if it is new
+     *
+     * @param name - String, the name
+     * @return - int, the ID of the name
+     */
+    public int intern(String name)
+    {
+        if(shared)
+        {
+            synchronized(this)
+            {
+                int id = findString(name);
+                return id >= 0 ? id : add(name, name.hashCode());
+            }
+        }
+        int id = findString(name);
+        return id >= 0 ? id : add(name, name.hashCode());
+    }
+
+    /** find()
+     *
+     * Gets the ID of a name without adding it
+     *
+     * @param name - String, the name
+     * @return - int, the ID of the name or -1 if the name has not been interned
+     */
+    public int find(String name)
+    {
+        if(name == null)
+            return -1;
+
+        if(shared)
+        {
+            synchronized(this)
+            {
+                return findString(name);
+            }
+        }
+        return findString(name);
+    }
+
+    /** getName()
+     *
+     * @param id - int, the ID of a name
+     * @return - String, the pooled String for the name
+     */
+    public String getName(int id)
+    {
+        if(shared)
+        {
+            synchronized(this)
+            {
+                return names[id];
+            }
+        }
+        return names[id];
+    }
+
+    /** size()
+     *
+     * @return - int, the number of distinct names in the pool
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    /** internChars()
+     *
+     * @param buf - char[], the buffer holding the name
+     * @param start - int, index of the first character of the name
+     * @param len - int, length of the name
+     * @return - int, the ID of the name
+     */
+    private int internChars(char[] buf, int start, int len)
+    {
+        int hash = 0;
+        for(int i = start; i < start + len; i++)
+            hash = 31 * hash + buf[i];
+
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+
+        // Slots hold ID + 1, zero marks an empty slot
+        for(int id; (id = slots[slot] - 1) >= 0; slot = (slot + 1) & mask)
+        {
+            if(hashes[id] == hash && matches(names[id], buf, start, len))
+                return id;
+        }
+        return add(new String(buf, start, len), hash);
+    }
+
+    /** findString()
+     *
+     * @param name - String, the name
+     * @return - int, the ID of the name or -1 if the name has not been interned
+     */
+    private int findString(String name)
+    {
+        int hash = name.hashCode();
+        int mask = slots.length - 1;
+
+        for(int slot = mix(hash) & mask, id; (id = slots[slot] - 1) >= 0; slot = (slot + 1) & mask)
+        {
+            if(hashes[id] == hash && names[id].equals(name))
+                return id;
+        }
+        return -1;
+    }
+
+    /** add()
+     *
+     * Adds a new name, growing the pool when it is half full
+     *
+     * @param name - String, the name
+     * @param hash - int, hash of the name
+     * @return - int, the ID of the new name
+     */
+    private int add(String name, int hash)
+    {
+        if(count == names.length)
+        {
+            names = Arrays.copyOf(names, count * 2);
+            hashes = Arrays.copyOf(hashes, count * 2);
+        }
+
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while(slots[slot] != 0)
+            slot = (slot + 1) & mask;
+
+        int id = count++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+
+        if(count * 2 > slots.length)
+            rehash();
+
+        return id;
+    }
+
+    /** rehash()
+     *
+     * Doubles the slot table and reinserts every ID
+     */
+    private void rehash()
+    {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+
+        for(int id = 0; id < count; id++)
+        {
+            int slot = mix(hashes[id]) & mask;
+            while(slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+    }
+
+    /** mix()
+     *
+     * Spreads the high bits of the hash into the low bits used for the slot
+     *
+     * @param hash - int, the String hash of a name
+     * @return - int, the mixed hash
+     */
+    private static int mix(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /** matches()
+     *
+     * @param name - String, a pooled name
+     * @param buf - char[], the buffer holding the other name
+     * @param start - int, index of the first character of the other name
+     * @param len - int, length of the other name
+     * @return - boolean, true if the names are the same
+     */
+    private static boolean matches(String name, char[] buf, int start, int len)
+    {
+        if(name.length() != len)
+            return false;
+
+        for(int i = 0; i < len; i++)
+        {
+            if(name.charAt(i) != buf[start + i])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+/** PrimitiveType.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * The built in types of CD18.
+ *
+ */
+public enum PrimitiveType implements DataType
+{
+    INTEGER("integer"), REAL("real"), BOOLEAN("boolean");
+
+    private final String name;
+
+    PrimitiveType(String typeName)
+    {
+        name = typeName;
+    }
+
+    /** of()
+     *
+     * @param typeName - String, a type name, or null
+     * @return - PrimitiveType, the built in type with the name, or null if it is not one
+     */
+    public static PrimitiveType of(String typeName)
+    {
+        if(typeName == null)
+            return null;
+
+        switch(typeName)
+        {
+            case "integer":
+                return INTEGER;
+
+            case "real":
+                return REAL;
+
+            case "boolean":
+                return BOOLEAN;
+
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+}
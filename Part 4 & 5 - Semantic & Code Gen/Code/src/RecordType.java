@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/** RecordType.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Descriptor of a structure type declared in the types section. Keeps the members in the
+ * order they were declared, each with its offset from the start of the structure, and an
+ * index from member name to member so an access to a member is resolved in one lookup.
+ *
+ */
+public class RecordType implements DataType
+{
+    // Every member takes one SM18 word of 8 bytes
+    public static final int WORD_SIZE = 8;
+
+    private String name;
+    private ArrayList<TableEntry> members;
+    private HashMap<String, TableEntry> index;
+
+    /** Constructor
+     *
+     * @param structName - String, name of the structure type
+     */
+    public RecordType(String structName)
+    {
+        name = structName;
+        members = new ArrayList<>();
+        index = new HashMap<>();
+    }
+
+    /** addMember()
+     *
+     * Adds a member after those already added and gives it its offset. A name already
+     * added keeps its first member.
+     *
+     * @param member - TableEntry, entry of the member, named without the structure
+     */
+    public void addMember(TableEntry member)
+    {
+        if(index.putIfAbsent(member.getName(), member) == null)
+        {
+            member.setOffset(members.size() * WORD_SIZE);
+            members.add(member);
+        }
+    }
+
+    /** getMember()
+     *
+     * @param memberName - String, name of a member
+     * @return - TableEntry, the member or null if the structure has none by that name
+     */
+    public TableEntry getMember(String memberName)
+    {
+        return index.get(memberName);
+    }
+
+    /** getMembers()
+     *
+     * @return - ArrayList<TableEntry>, the members in the order they were declared
+     */
+    public ArrayList<TableEntry> getMembers()
+    {
+        return members;
+    }
+
+    /** getSize()
+     *
+     * @return - int, bytes taken by one structure
+     */
+    public int getSize()
+    {
+        return members.size() * WORD_SIZE;
+    }
+
+    /** getName()
+     *
+     * @return - String, name of the structure type
+     */
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+}
@@ -104,12 +104,17 @@ public class SM18CodeGen
                 count = 0;
                 break;
 
-            // Traverse NSTATS to an implemented structure
+            // Traverse NSTATS to an implemented structure, along the chain so long blocks don't nest calls
             case NSTATS:
-                if(root.getLeft() != null)
-                    generate(root.getLeft());
-                if(root.getRight() != null)
-                    generate(root.getRight());
+                STNode stats = root;
+                while(stats != null && stats.getNodeID() == STNode.NID.NSTATS)
+                {
+                    if(stats.getLeft() != null)
+                        generate(stats.getLeft());
+                    stats = stats.getRight();
+                }
+                if(stats != null)
+                    generate(stats);
                 break;
 
             // Only NPRLN implemented
@@ -170,6 +175,9 @@ public class SM18CodeGen
                         code.set(i+3, address[2]);
                         code.set(i+4, address[3]);
 
+                        // An address byte can have the value of an opcode, carry on after it
+                        i += 4;
+
                         // Calculate offset of the next string constant
                         for(int j = strOffset-BR_0; j < strConstants.size() && strConstants.get(j) != 0; j++)
                         {
@@ -302,13 +310,13 @@ public class SM18CodeGen
 
             // Item is a float constant
             case NFLIT:
-                fltConstants.add(Double.parseDouble(root.getSymbol().getName()));
+                fltConstants.add(root.getSymbol().getFloatValue());
                 constTypes.add('f');
                 break;
 
             // Item is an integer constant
             case NILIT:
-                intConstants.add(Integer.parseInt(root.getSymbol().getName()));
+                intConstants.add(root.getSymbol().getIntValue());
                 constTypes.add('i');
                 break;
 
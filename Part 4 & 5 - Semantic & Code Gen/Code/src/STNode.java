@@ -1,5 +1,10 @@
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 //	COMP3290 CD18 Compiler
 //		Syntax Tree Node Class - Builds a syntax tree node
@@ -42,8 +47,50 @@ public class STNode
 	private STNode leftChild, middleChild, rightChild;
 	private TableEntry symbol;
 
-    protected static String error;
-    protected static LinkedList<SimpleEntry<Token, String>> errorList = new LinkedList<>();
+    // Synchronisation sets for panic mode recovery with TokenBuffer.skipTo(), which also stops at
+    // the end of file. Each is the FOLLOW set of the rule being recovered from with the FIRST
+    // sets of the rules after it, so that the parse can carry on from where a skip stops.
+
+    // FIRST of a function and main, and the end of the program
+    protected static final EnumSet<Token.TID> UNIT_SYNC = EnumSet.of(Token.TID.TFUNC, Token.TID.TMAIN, Token.TID.TCD18);
+
+    // FIRST of each section of the globals
+    protected static final EnumSet<Token.TID> GLOBALS_SYNC = sync(UNIT_SYNC, Token.TID.TCONS, Token.TID.TTYPS, Token.TID.TARRS);
+
+    // FOLLOW of the constants section, and of the types section
+    protected static final EnumSet<Token.TID> TYPES_SYNC = sync(UNIT_SYNC, Token.TID.TTYPS, Token.TID.TARRS);
+    protected static final EnumSet<Token.TID> ARRAYS_SYNC = sync(UNIT_SYNC, Token.TID.TARRS);
+
+    // FIRST of a type definition with the sections after the types, and FIRST and FOLLOW of a constant initialiser
+    protected static final EnumSet<Token.TID> TYPE_SYNC = sync(ARRAYS_SYNC, Token.TID.TIDEN);
+    protected static final EnumSet<Token.TID> INIT_SYNC = sync(TYPES_SYNC, Token.TID.TIDEN, Token.TID.TCOMA);
+
+    // FIRST and FOLLOW of a field of a structure, and of an array declaration
+    protected static final EnumSet<Token.TID> FIELD_SYNC = sync(ARRAYS_SYNC, Token.TID.TIDEN, Token.TID.TCOMA, Token.TID.TEND);
+    protected static final EnumSet<Token.TID> ARRAY_SYNC = sync(UNIT_SYNC, Token.TID.TIDEN, Token.TID.TCOMA);
+
+    // FIRST and FOLLOW of a local declaration, and the start of the body after them
+    protected static final EnumSet<Token.TID> DECL_SYNC = sync(UNIT_SYNC, Token.TID.TIDEN, Token.TID.TCOMA, Token.TID.TBEGN);
+    protected static final EnumSet<Token.TID> BODY_SYNC = sync(UNIT_SYNC, Token.TID.TBEGN, Token.TID.TSEMI);
+
+    // FIRST and FOLLOW of a parameter, and FOLLOW of a parameter list
+    protected static final EnumSet<Token.TID> PARAM_SYNC = EnumSet.of(Token.TID.TCNST, Token.TID.TCOMA, Token.TID.TRPAR);
+    protected static final EnumSet<Token.TID> PLIST_SYNC = EnumSet.of(Token.TID.TIDEN, Token.TID.TCOLN, Token.TID.TRPAR);
+
+    // FOLLOW of a block with the keywords only a statement can start with, and FOLLOW of a statement
+    protected static final EnumSet<Token.TID> BLOCK_SYNC = sync(UNIT_SYNC, Token.TID.TEND, Token.TID.TUNTL, Token.TID.TELSE,
+        Token.TID.TREPT, Token.TID.TFOR, Token.TID.TIFTH, Token.TID.TINPT, Token.TID.TPRIN, Token.TID.TPRLN, Token.TID.TRETN);
+    protected static final EnumSet<Token.TID> STAT_SYNC = sync(BLOCK_SYNC, Token.TID.TSEMI);
+
+    // FOLLOW of the head of a for statement and of its assignments, and FIRST of the assignments of a repeat
+    protected static final EnumSet<Token.TID> FOR_SYNC = sync(BLOCK_SYNC, Token.TID.TRPAR);
+    protected static final EnumSet<Token.TID> ASSIGNS_SYNC = sync(FOR_SYNC, Token.TID.TSEMI);
+    protected static final EnumSet<Token.TID> REPEAT_SYNC = sync(FOR_SYNC, Token.TID.TIDEN);
+
+    // FOLLOW of an item of a list in a statement, of an argument, and of an expression
+    protected static final EnumSet<Token.TID> LIST_SYNC = sync(STAT_SYNC, Token.TID.TCOMA);
+    protected static final EnumSet<Token.TID> ARGS_SYNC = sync(STAT_SYNC, Token.TID.TIDEN, Token.TID.TRPAR);
+    protected static final EnumSet<Token.TID> EXPR_SYNC = sync(STAT_SYNC, Token.TID.TCOMA, Token.TID.TRPAR, Token.TID.TRBRK, Token.TID.TTYPS, Token.TID.TARRS);
 
     //===============================
     // CONSTRUCTORS
@@ -129,142 +176,206 @@ public class STNode
         symbol = entry;
     }
 
-    /** hasErrors()
+    /** load()
      *
-     * Returns true if the source has syntax errors
+     * Reads any part of the node left to be read when it is first asked for, as the
+     * bodies of functions and main are in outline. Does nothing for a node read in full.
+     */
+    public void load()
+    {
+    }
+
+    /** errors()
      *
-     * @return - boolean, true if source contains lexical errors, false if no errors
+     * @param table - SymbolTable, the scope being read
+     * @return - LinkedList, the error list of the compilation the scope belongs to
      */
-    public boolean hasErrors()
+    protected static LinkedList<SimpleEntry<Token, String>> errors(SymbolTable table)
     {
-        return !errorList.isEmpty();
+        return table.getContext().getErrors();
     }
 
-    /** nextError()
+    /** semanticError()
      *
-     * Returns the next error in the list of syntax errors
+     * Reports an error of a check CD18Semantic also makes, unless the compilation leaves those checks to it
      *
-     * @return - AbstractMap.SimpleEntry<Token, String>, a Token-String pair describing the error
+     * @param table - SymbolTable, the scope being read
+     * @param token - Token, where the error is listed
+     * @param message - String, the error
      */
-    public SimpleEntry nextError()
+    protected static void semanticError(SymbolTable table, Token token, String message)
     {
-        return errorList.pop();
+        if(!table.getContext().defersSemantics())
+            errors(table).add(new SimpleEntry<>(token, message));
     }
-	
-    /** processExpression()
-     *
-     * Processes an expression starting with the lowest level of precedence
+
+    /** isFunction()
      *
-     * @param tokenList - LinkedList,
-     * @param table - SymbolTable,
-     * @return STNode,
+     * @param table - SymbolTable, the scope being read
+     * @param name - String, an identifier followed by "("
+     * @return - boolean, true if the identifier names a function that can be called from the scope
      */
-    protected STNode processExpression(LinkedList<Token> tokenList, SymbolTable table)
+    protected static boolean isFunction(SymbolTable table, String name)
     {
-        STNode term, expression;
+        // A function has a scope of its own, a constant or array of the same name has none to check the call against
+        return table.hasGlobalID(name) && table.getContext().getScopeTable(name) != null;
+    }
 
-        // Process the first term in the expression
-        term = processTerm(tokenList, table);
+    /** matchesParam()
+     *
+     * @param callTable - SymbolTable, the scope of the function called
+     * @param number - int, the number of the parameter
+     * @param argument - STNode, the argument given for it
+     * @return - boolean, false if the argument's type is known and is not the parameter's
+     */
+    protected static boolean matchesParam(SymbolTable callTable, int number, STNode argument)
+    {
+        // An expression that was not folded has no symbol, its type is left to the semantic pass
+        return argument.getSymbol() == null || callTable.matchParam(number, argument.getSymbol().getType());
+    }
 
-        Token nextToken = tokenList.pop();
+    /** sync()
+     *
+     * @param base - EnumSet<Token.TID>, a synchronisation set
+     * @param more - Token.TID..., the token IDs to add to it
+     * @return - EnumSet<Token.TID>, a new set holding both
+     */
+    private static EnumSet<Token.TID> sync(EnumSet<Token.TID> base, Token.TID... more)
+    {
+        EnumSet<Token.TID> set = EnumSet.copyOf(base);
 
-        // Select the operation
-        switch(nextToken.getTokenID())
-        {
-            case TPLUS:
-                expression = new NAdd(tokenList, table);
-                expression.setLeft(term);
-                break;
+        for(Token.TID id : more)
+            set.add(id);
+        return set;
+    }
 
-            case TMINS:
-                expression = new NSub(tokenList, table);
-                expression.setLeft(term);
-                break;
+    /** skipToType()
+     *
+     * Recovery in the types section, passes over tokens up to an identifier followed by
+     * is, which starts the next type, or a section after the types
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @return - Token, the token at the cursor
+     */
+    protected static Token skipToType(TokenBuffer tokenList)
+    {
+        Token nextToken = tokenList.skipTo(TYPE_SYNC);
 
-            // Expression is unary
-            default:
-                tokenList.push(nextToken);
-                expression = term;
+        while(nextToken.getTokenID() == Token.TID.TIDEN && tokenList.peekID(1) != Token.TID.TIS)
+        {
+            tokenList.advance();
+            nextToken = tokenList.skipTo(TYPE_SYNC);
         }
-
-        return expression;
+        return nextToken;
     }
 
-    /** processTerm()
+    /** processExpression()
      *
-     * Processes the second level of operator precedence in an expression
+     * Processes an expression by precedence climbing, reading the operands in one loop.
+     * An operator is held until the operators after it bind less tightly, every operator
+     * taking the rest of its level as its right operand.
      *
-     * @param tokenList - LinkedList,
+     * @param tokenList - TokenBuffer,
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processTerm(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processExpression(TokenBuffer tokenList, SymbolTable table)
     {
-        STNode factor, term;
+        STNode operand = processExponent(tokenList, table);
+        int level = operatorLevel(tokenList.peekID(0));
 
-        // Process the first factor of the term
-        factor = processFactor(tokenList, table);
+        // Expression is a single operand
+        if(level == 0)
+            return operand;
 
-        Token nextToken = tokenList.pop();
+        ArrayList<STNode> operands = new ArrayList<>();
+        ArrayList<Token.TID> operators = new ArrayList<>();
+        operands.add(operand);
 
-        // Select the operation
-        switch(nextToken.getTokenID())
+        while(level > 0)
         {
-            case TSTAR:
-                term = new NMul(tokenList, table);
-                term.setLeft(factor);
-                break;
+            Token.TID operator = tokenList.advance().getTokenID();
 
-            case TDIVD:
-                term = new NDiv(tokenList, table);
-                term.setLeft(factor);
-                break;
+            // Operators binding more tightly than this one have both their operands
+            while(!operators.isEmpty() && operatorLevel(operators.get(operators.size() - 1)) > level)
+                reduce(operators, operands);
+
+            operators.add(operator);
+            operands.add(processExponent(tokenList, table));
+            level = operatorLevel(tokenList.peekID(0));
+        }
+
+        while(!operators.isEmpty())
+            reduce(operators, operands);
+
+        return operands.get(0);
+    }
+
+    /** operatorLevel()
+     *
+     * @param id - Token.TID, a token ID
+     * @return - int, the precedence of an arithmetic operator, higher binds more tightly, 0 if not an operator
+     */
+    private static int operatorLevel(Token.TID id)
+    {
+        switch(id)
+        {
+            case TPLUS:
+            case TMINS:
+                return 1;
 
+            case TSTAR:
+            case TDIVD:
             case TPERC:
-                term = new NMod(tokenList, table);
-                term.setLeft(factor);
-                break;
+                return 2;
+
+            case TCART:
+                return 3;
 
-            // Term is unary
             default:
-                tokenList.push(nextToken);
-                term = factor;
+                return 0;
         }
-
-        return term;
     }
 
-    /** processFactor()
+    /** reduce()
      *
-     * Processes the third level of operator precedence in an expression
+     * Replaces the last operator and its two operands with the operator's node
      *
-     * @param tokenList - LinkedList,
-     * @param table - SymbolTable,
-     * @return STNode,
+     * @param operators - ArrayList<Token.TID>, operators waiting for their right operand to finish
+     * @param operands - ArrayList<STNode>, operands and completed sub-expressions
      */
-    protected STNode processFactor(LinkedList<Token> tokenList, SymbolTable table)
+    private static void reduce(ArrayList<Token.TID> operators, ArrayList<STNode> operands)
     {
-        STNode exponent, factor;
+        STNode right = operands.remove(operands.size() - 1);
+        STNode left = operands.remove(operands.size() - 1);
+        STNode node;
 
-        // process the first exponent of the factor
-        exponent = processExponent(tokenList, table);
+        switch(operators.remove(operators.size() - 1))
+        {
+            case TPLUS:
+                node = new NAdd(left, right);
+                break;
 
-        Token nextToken = tokenList.pop();
+            case TMINS:
+                node = new NSub(left, right);
+                break;
 
-        switch(nextToken.getTokenID())
-        {
-            case TCART:
-                factor = new NPow(tokenList, table);
-                factor.setLeft(exponent);
+            case TSTAR:
+                node = new NMul(left, right);
+                break;
+
+            case TDIVD:
+                node = new NDiv(left, right);
+                break;
+
+            case TPERC:
+                node = new NMod(left, right);
                 break;
 
-            // Exponent is unary
             default:
-                tokenList.push(nextToken);
-                factor = exponent;
+                node = new NPow(left, right);
         }
-
-        return factor;
+        operands.add(node);
     }
 
     /** processExponent()
@@ -275,100 +386,96 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processExponent(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processExponent(TokenBuffer tokenList, SymbolTable table)
     {
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Select the type of exponent
         switch(nextToken.getTokenID())
         {
             case TILIT:
-                tokenList.push(nextToken);
                 return new NIlit(tokenList, table);
 
             case TFLIT:
-                tokenList.push(nextToken);
                 return new NFlit(tokenList, table);
 
             case TTRUE:
+                tokenList.advance();
                 return new NTrue(tokenList, table);
 
             case TFALS:
+                tokenList.advance();
                 return new NFals(tokenList, table);
 
             case TLPAR:
+                tokenList.advance();
                 STNode bool = processBool(tokenList, table);
-                nextToken = tokenList.pop();
-                if(nextToken.getTokenID() != Token.TID.TRPAR)
-                    tokenList.push(nextToken);
+                if(tokenList.peekID(0) == Token.TID.TRPAR)
+                    tokenList.advance();
                 return bool;
 
             case TIDEN:
-                tokenList.push(nextToken);
                 return processIden(tokenList, table);
 
             case TNOT:
-                tokenList.push(nextToken);
                 return processBool(tokenList, table);
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected operand or expression."));
-                int line = nextToken.getLineNum();
-                while(nextToken.getTokenID() != Token.TID.TCOMA && nextToken.getTokenID() != Token.TID.TTYPS && nextToken.getTokenID() != Token.TID.TARRS && nextToken.getTokenID() != Token.TID.TFUNC && nextToken.getTokenID() != Token.TID.TMAIN
-                        && nextToken.getTokenID() != Token.TID.TRBRK && nextToken.getLineNum() == line)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected operand or expression."));
+                tokenList.skipTo(EXPR_SYNC);
                 return new NUndef(tokenList, table);
         }
     }
 
     /** processBool()
      *
-     * Processes a boolean expression starting with the lowest level of precedence
+     * Processes a boolean expression, reading its relations in one loop.
+     * The logical operators share a level, each takes the rest of the expression
+     * as its right operand and is wrapped in an NBool.
      *
-     * @param tokenList - LinkedList,
+     * @param tokenList - TokenBuffer,
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processBool(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processBool(TokenBuffer tokenList, SymbolTable table)
     {
-        STNode rel, bool, logop;
+        STNode rel = processRel(tokenList, table);
+        Token.TID operator = tokenList.peekID(0);
 
-        // Process the first relation
-        rel = processRel(tokenList, table);
+        // Boolean expression is a single relation
+        if(operator != Token.TID.TAND && operator != Token.TID.TOR && operator != Token.TID.TXOR)
+            return rel;
 
-        Token nextToken = tokenList.pop();
+        ArrayList<STNode> rels = new ArrayList<>();
+        ArrayList<Token.TID> operators = new ArrayList<>();
+        rels.add(rel);
 
-        // Select the operator
-        switch(nextToken.getTokenID())
+        while(operator == Token.TID.TAND || operator == Token.TID.TOR || operator == Token.TID.TXOR)
         {
-            case TAND:
-                bool = new NBool(tokenList, table);
-                logop = new NAnd(tokenList, table);
-                logop.setLeft(rel);
-                bool.setLeft(logop);
-                break;
+            operators.add(tokenList.advance().getTokenID());
+            rels.add(processRel(tokenList, table));
+            operator = tokenList.peekID(0);
+        }
 
-            case TOR:
-                bool = new NBool(tokenList, table);
-                logop = new NOr(tokenList, table);
-                logop.setLeft(rel);
-                bool.setLeft(logop);
-                break;
+        // Build from the right
+        STNode bool = rels.get(rels.size() - 1);
+        for(int i = operators.size() - 1; i >= 0; i--)
+        {
+            STNode logop;
+            switch(operators.get(i))
+            {
+                case TAND:
+                    logop = new NAnd(rels.get(i), bool);
+                    break;
 
-            case TXOR:
-                bool = new NBool(tokenList, table);
-                logop = new NXor(tokenList, table);
-                logop.setLeft(rel);
-                bool.setLeft(logop);
-                break;
+                case TOR:
+                    logop = new NOr(rels.get(i), bool);
+                    break;
 
-            // Relation is unary
-            default:
-                tokenList.push(nextToken);
-                bool = rel;
+                default:
+                    logop = new NXor(rels.get(i), bool);
+            }
+            bool = new NBool(logop);
         }
 
         return bool;
@@ -382,38 +489,35 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processRel(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processRel(TokenBuffer tokenList, SymbolTable table)
     {
         STNode rel, expression;
 
-        Token nextToken = tokenList.pop();
-
         // Select the relation type
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             // Relation is negated
             case TNOT:
+                tokenList.advance();
                 rel = new NNot(tokenList, table);
                 rel.setLeft(processRel(tokenList, table));
                 return rel;
 
             // Relation is not negated, process the expression
             default:
-                tokenList.push(nextToken);
                 expression = processExpression(tokenList, table);
                 if(expression.getNodeID() != NID.NTRUE && expression.getNodeID() != NID.NFALS)
                     expression = foldConstants(expression, table);
         }
 
-        nextToken = tokenList.pop();
-
         Double op1, op2;
 
         // Attempts made to fold boolean expressions
         // Not sure how successfull it is
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             case TEQEQ:
+                tokenList.advance();
                 rel = new NEql(tokenList, table);
                 rel.setLeft(expression);
 
@@ -430,6 +534,7 @@ public class STNode
                 break;
 
             case TNEQL:
+                tokenList.advance();
                 rel = new NNeq(tokenList, table);
                 rel.setLeft(expression);
 
@@ -446,6 +551,7 @@ public class STNode
                 break;
 
             case TGRTR:
+                tokenList.advance();
                 rel = new NGrt(tokenList, table);
                 rel.setLeft(expression);
 
@@ -462,6 +568,7 @@ public class STNode
                 break;
 
             case TGEQL:
+                tokenList.advance();
                 rel = new NGeq(tokenList, table);
                 rel.setLeft(expression);
 
@@ -478,6 +585,7 @@ public class STNode
                 break;
 
             case TLESS:
+                tokenList.advance();
                 rel = new NLss(tokenList, table);
                 rel.setLeft(expression);
 
@@ -494,6 +602,7 @@ public class STNode
                 break;
 
             case TLEQL:
+                tokenList.advance();
                 rel = new NLeq(tokenList, table);
                 rel.setLeft(expression);
 
@@ -510,7 +619,6 @@ public class STNode
                 break;
 
             default:
-                tokenList.push(nextToken);
                 rel = expression;
         }
 
@@ -526,11 +634,16 @@ public class STNode
     {
         try
         {
-            return Double.parseDouble(foldConstants(node, table).getSymbol().getName());
+            STNode folded = foldConstants(node, table);
+
+            // An operand recovery gave up on has no value
+            if(folded.getSymbol() == null)
+                return null;
+            return folded.getSymbol().getFloatValue();
         }
         catch(NumberFormatException e2)
         {
-            System.out.println(e2.getMessage());
+            table.getContext().message(e2.getMessage());
         }
         return null;
     }
@@ -544,26 +657,22 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processIden(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processIden(TokenBuffer tokenList, SymbolTable table)
     {
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Select the structure of identifier
-        switch(tempToken.getTokenID())
+        switch(tokenList.peekID(1))
         {
             // Function call
             case TLPAR:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
-                if(!table.hasGlobalID(nextToken.getLexeme()))
+                if(!isFunction(table, nextToken.getLexeme()))
                 {
-                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Function not defined."));
-                    int line = nextToken.getLineNum();
-                    while(nextToken.getLineNum() == line)
-                    {
-                        nextToken = tokenList.pop();
-                    }
+                    errors(table).add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Function not defined."));
+
+                    // The call can't be read without knowing the function, the rest of the statement is skipped
+                    tokenList.advance();
+                    tokenList.skipTo(STAT_SYNC);
                     return new NUndef(tokenList, table);
                 }
 
@@ -571,14 +680,10 @@ public class STNode
 
             // Array member
             case TLBRK:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
                 return new NArrv(tokenList, table);
 
             // Simple variable
             default:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
                 return new NSimv(tokenList, table);
         }
     }
@@ -591,14 +696,14 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processAssgn(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processAssgn(TokenBuffer tokenList, SymbolTable table)
     {
         STNode var, assgn;
 
         // Get the identifier type
         var = processIden(tokenList, table);
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
 
         // Select assignment operator
         switch(nextToken.getTokenID())
@@ -606,7 +711,11 @@ public class STNode
             // Attempts to fold constants made here for semantic checking
             case TEQUL:
                 assgn = new NAsgn(tokenList, table);
-                if(assgn.getRight().getNodeID() != NID.NTRUE && assgn.getRight().getNodeID() != NID.NFALS)
+
+                // An expression recovery gave up on has nothing to check
+                if(assgn.getRight().getNodeID() == NID.NUNDEF)
+                    assgn.setLeft(var);
+                else if(assgn.getRight().getNodeID() != NID.NTRUE && assgn.getRight().getNodeID() != NID.NFALS)
                 {
                     assgn.setLeft(var);
 
@@ -615,64 +724,44 @@ public class STNode
                         assgn.setRight(foldConstants(assgn.getRight(), table));
                     }
 
+                    // An undeclared identifier, or an operand recovery gave up on, has been reported already
+                    if(!typed(var.getNodeID() != NID.NARRV ? var : var.getRight()) || !typed(assgn.getRight()))
+                        return assgn;
+
                     if(var.getNodeID() != NID.NARRV)
                     {
-                        if(!assgn.getLeft().getSymbol().getType().equals(assgn.getRight().getSymbol().getType()))
+                        if(!assgn.getLeft().getSymbol().sameType(assgn.getRight().getSymbol()))
                         {
-                            switch(assgn.getLeft().getSymbol().getType())
-                            {
-                                case "real":
-                                    promoteToReal(assgn, table);
-                                    break;
-
-                                default:
-                                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch."));
-                            }
+                            if(assgn.getLeft().getSymbol().getDataType() == PrimitiveType.REAL)
+                                promoteToReal(assgn, table);
+                            else
+                                semanticError(table, nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch.");
                         }
-                        table.updateValue(var.getSymbol().getName(), assgn.getRight().getSymbol().getName());
                     }
                     else
                     {
-                        if(!assgn.getLeft().getRight().getSymbol().getType().equals(assgn.getRight().getSymbol().getType()))
+                        if(!assgn.getLeft().getRight().getSymbol().sameType(assgn.getRight().getSymbol()))
                         {
-                            switch(assgn.getLeft().getRight().getSymbol().getType())
-                            {
-                                case "real":
-                                    promoteToReal(assgn, table);
-                                    break;
-
-                                default:
-                                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch."));
-                            }
+                            if(assgn.getLeft().getRight().getSymbol().getDataType() == PrimitiveType.REAL)
+                                promoteToReal(assgn, table);
+                            else
+                                semanticError(table, nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch.");
                         }
-                        table.updateValue(var.getRight().getSymbol().getName(), assgn.getRight().getSymbol().getName());
                     }
                 }
                 else
                 {
+                    assgn.setLeft(var);
+
                     if(var.getNodeID() != NID.NARRV)
                     {
-                        if(!var.getSymbol().getType().equals("boolean"))
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch."));
-                        else
-                        {
-                            if(assgn.getRight().getNodeID() == NID.NTRUE)
-                                table.updateValue(var.getSymbol().getName(), "true");
-                            else
-                                table.updateValue(var.getSymbol().getName(), "false");
-                        }
+                        if(var.getSymbol().getDataType() != PrimitiveType.BOOLEAN)
+                            semanticError(table, nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch.");
                     }
                     else
                     {
-                        if(!var.getRight().getSymbol().getType().equals("boolean"))
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch."));
-                        else
-                        {
-                            if(assgn.getRight().getNodeID() == NID.NTRUE)
-                                table.updateValue(var.getRight().getSymbol().getName(), "true");
-                            else
-                                table.updateValue(var.getRight().getSymbol().getName(), "false");
-                        }
+                        if(var.getRight().getSymbol().getDataType() != PrimitiveType.BOOLEAN)
+                            semanticError(table, nextToken, "Semantic Error: (" + var.getSymbol().getLine() + ", " + var.getSymbol().getCol() + "): Type mismatch.");
                     }
                 }
                 break;
@@ -707,18 +796,22 @@ public class STNode
 
     /** promoteToReal()
      *
-     * Promotes an integer to real
+     * Promotes an integer to real, an integer folding gave a value to keeps it as a real
      *
      */
     private void promoteToReal(STNode node, SymbolTable table)
     {
         if(node.getRight().getNodeID() == NID.NILIT)
         {
+            Constant value = node.getRight().getSymbol().getConstant();
+
             node.setRight(new NFlit(new Token(Token.TID.TFLIT, node.getRight().getSymbol().getLine(), node.getRight().getSymbol().getCol(), node.getRight().getSymbol().getName()+".0"), table));
+            if(value != null)
+                node.getRight().getSymbol().setConstant(Constant.real(value.doubleValue()));
         }
         else if(node.getRight().getNodeID() != NID.NFLIT)
         {
-            errorList.add(new SimpleEntry<>(node.getRight().getSymbol().getToken(), "Semantic Error: (" + node.getRight().getSymbol().getLine() + ", " + node.getRight().getSymbol().getCol() + "): Type mismatch."));
+            semanticError(table, node.getRight().getSymbol().getToken(), "Semantic Error: (" + node.getRight().getSymbol().getLine() + ", " + node.getRight().getSymbol().getCol() + "): Type mismatch.");
         }
     }
 
@@ -730,10 +823,23 @@ public class STNode
      * @param globalTable - SymbolTable,
      * @return STNode,
      */
-    protected STNode processIlist(LinkedList<Token> tokenList, SymbolTable globalTable)
+    protected STNode processIlist(TokenBuffer tokenList, SymbolTable globalTable)
+    {
+        return processIlist(tokenList.advance(), tokenList, globalTable);
+    }
+
+    /** processIlist()
+     *
+     * Processes a list of global constant initialisations where the first identifier has been read
+     *
+     * @param nextToken - Token, the identifier of the first constant
+     * @param tokenList - TokenBuffer,
+     * @param globalTable - SymbolTable,
+     * @return STNode,
+     */
+    protected STNode processIlist(Token nextToken, TokenBuffer tokenList, SymbolTable globalTable)
     {
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        Token tempToken = tokenList.advance();
 
         STNode init;
         STNode iList;
@@ -746,10 +852,9 @@ public class STNode
                 STNode expr = processExpression(tokenList, globalTable);
 
                 if(expr.getNodeID() == NID.NFCALL)
-                    errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + expr.getSymbol().getLine() + ", " + expr.getSymbol().getCol() + "): Constant assignment must be numeric literal or constant expression."));
+                    semanticError(globalTable, nextToken, "Semantic Error: (" + expr.getSymbol().getLine() + ", " + expr.getSymbol().getCol() + "): Constant assignment must be numeric literal or constant expression.");
 
-                tokenList.push(nextToken);
-                init =  new NInit(tokenList, globalTable);
+                init =  new NInit(nextToken, globalTable);
 
                 if(expr.getNodeID() != NID.NILIT && expr.getNodeID() != NID.NFLIT)
                     expr = foldConstants(expr, globalTable);
@@ -757,54 +862,52 @@ public class STNode
                 init.setLeft(expr);
                 if(expr.getNodeID() == NID.NILIT)
                 {
-                    init.getSymbol().setType("integer");
+                    init.getSymbol().setDataType(PrimitiveType.INTEGER);
                 }
                 else if(expr.getNodeID() == NID.NFLIT)
                 {
-                    init.getSymbol().setType("real");
+                    init.getSymbol().setDataType(PrimitiveType.REAL);
                 }
                 else
                 {
-                    nextToken = tokenList.pop();
                     init = new NUndef(tokenList, globalTable);
-                    while(nextToken.getTokenID() != Token.TID.TCOMA && nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TTYPS)
-                    {
-                        nextToken = tokenList.pop();
-                    }
+                    nextToken = tokenList.skipTo(INIT_SYNC);
 
                     if(nextToken.getTokenID() == Token.TID.TCOMA)
-                        nextToken = tokenList.pop();
+                    {
+                        tokenList.advance();
+                        nextToken = tokenList.peek(0);
+                    }
 
                     // Comma is also missing
                     if(nextToken.getTokenID() == Token.TID.TIDEN)
                     {
-                        tokenList.push(nextToken);
                         iList =  new NIlist(tokenList, globalTable);
                         iList.setLeft(init);
                         return iList;
                     }
-                    if(nextToken.getTokenID() == Token.TID.TTYPS)
-                    {
-                        break;
-                    }
+
+                    // The constants end at a later section
+                    break;
                 }
 
                 init.getSymbol().setValue(expr.getSymbol().getName());
+                init.getSymbol().setConstant(constantOf(expr));
                 globalTable.addSymbol(init.getSymbol());
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 // Return list of initialisers
                 switch(nextToken.getTokenID())
                 {
                     case TCOMA:
+                        tokenList.advance();
                         iList =  new NIlist(tokenList, globalTable);
                         iList.setLeft(init);
                         return iList;
 
                     // Missing comma between initialisers, throw error and process identifier as the next part of the list
                     case TIDEN:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \",\" after initialiser."));
-                        tokenList.push(nextToken);
+                        errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \",\" after initialiser."));
                         iList =  new NIlist(tokenList, globalTable);
                         iList.setLeft(init);
                         return iList;
@@ -816,19 +919,21 @@ public class STNode
             // Equal operator missing, throw error and continue to next identifier
             default:
                 init = new NUndef(tokenList, globalTable);
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"=\" operator."));
-                while(nextToken.getTokenID() != Token.TID.TCOMA && nextToken.getTokenID() != Token.TID.TIDEN)
-                {
-                    nextToken = tokenList.pop();
-                }
+                errors(globalTable).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected \"=\" operator."));
+
+                // Skip from the token read in place of the operator
+                tokenList.rewind(tokenList.mark() - 1);
+                nextToken = tokenList.skipTo(INIT_SYNC);
 
                 if(nextToken.getTokenID() == Token.TID.TCOMA)
-                    nextToken = tokenList.pop();
+                {
+                    tokenList.advance();
+                    nextToken = tokenList.peek(0);
+                }
 
-                // Comma is also missing
+                // Comma is also missing, the identifier starts the rest of the list
                 if(nextToken.getTokenID() == Token.TID.TIDEN)
                 {
-                    tokenList.push(nextToken);
                     iList =  new NIlist(tokenList, globalTable);
                     iList.setLeft(init);
                     return iList;
@@ -836,7 +941,6 @@ public class STNode
         }
 
         // Return single constant initialiser
-        tokenList.push(nextToken);
         return init;
     }
 
@@ -848,10 +952,11 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processSdlst(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processSdlst(TokenBuffer tokenList, SymbolTable table)
     {
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        int start = tokenList.mark();
+        Token nextToken = tokenList.advance();
+        Token tempToken = tokenList.advance();
 
         STNode sDecl = null;
         STNode sDlst;
@@ -859,14 +964,14 @@ public class STNode
         switch(tempToken.getTokenID())
         {
             case TCOLN:
-                tokenList.push(nextToken);
-                sDecl =  new NSdecl(tokenList, table);
+                sDecl =  new NSdecl(nextToken, tokenList, table);
 
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 switch(nextToken.getTokenID())
                 {
                     case TCOMA:
+                        tokenList.advance();
                         sDlst =  new NSdlst(tokenList, table);
                         sDlst.setLeft(sDecl);
                         return sDlst;
@@ -875,11 +980,13 @@ public class STNode
                         break;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in declaration list."));
-                        tokenList.push(nextToken);
-                        while(nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TBEGN)
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in declaration list."));
+                        nextToken = tokenList.skipTo(DECL_SYNC);
+
+                        if(nextToken.getTokenID() == Token.TID.TCOMA)
                         {
-                            tokenList.pop();
+                            tokenList.advance();
+                            nextToken = tokenList.peek(0);
                         }
 
                         if(nextToken.getTokenID() == Token.TID.TIDEN)
@@ -892,10 +999,12 @@ public class STNode
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" in declaration."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" in declaration."));
+
+                // Carry on from the token after the identifier
+                tokenList.rewind(start + 1);
         }
 
-        tokenList.push(nextToken);
         return sDecl;
     }
 
@@ -907,10 +1016,10 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processVlist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processVlist(TokenBuffer tokenList, SymbolTable table)
     {
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
+        Token tempToken = tokenList.peek(1);
 
         STNode vItem = null;
         STNode vList;
@@ -922,38 +1031,30 @@ public class STNode
                 // Variable is a simple type
                 if(tempToken.getTokenID() != Token.TID.TLBRK)
                 {
-                    tokenList.push(tempToken);
-                    tokenList.push(nextToken);
                     vItem = new NSimv(tokenList, table);
 
                 }
                 // Variable is an array member
                 else if(tempToken.getTokenID() == Token.TID.TLBRK)
                 {
-                    tokenList.push(tempToken);
-                    tokenList.push(nextToken);
                     vItem = new NArrv(tokenList, table);
                 }
 
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
                 break;
 
             // An identifier was not the first token encountered, throw an error and continue at the next identifier
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected variable or variable list."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected variable or variable list."));
                 vItem = new NUndef(tokenList, table);
-                tokenList.push(tempToken);
-
-                while(nextToken.getTokenID() != Token.TID.TSEMI && nextToken.getTokenID() != Token.TID.TCOMA)
-                {
-                    nextToken = tokenList.pop();
-                }
+                nextToken = tokenList.skipTo(LIST_SYNC);
         }
 
         // Check if there are more variables to be added
         switch(nextToken.getTokenID())
         {
             case TCOMA:
+                tokenList.advance();
                 vList = new NVlist(tokenList, table);
                 vList.setLeft(vItem);
                 return vList;
@@ -964,7 +1065,6 @@ public class STNode
             default:
         }
 
-        tokenList.push(nextToken);
         return vItem;
     }
 
@@ -976,18 +1076,17 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processPrlst(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processPrlst(TokenBuffer tokenList, SymbolTable table)
     {
         STNode pItem;
         STNode pList;
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Check the type of item in the print list
         switch(nextToken.getTokenID())
         {
             case TSTRG:
-                tokenList.push(nextToken);
                 pItem = new NStrg(tokenList, table);
                 break;
 
@@ -997,33 +1096,26 @@ public class STNode
             case TTRUE:
             case TFALS:
             case TLPAR:
-                tokenList.push(nextToken);
                 pItem = processExpression(tokenList, table);
                 break;
 
             // The first print item was not a variable or expression, throw an error and continue at the next print item
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected string or expression."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected string or expression."));
                 pItem = new NUndef(tokenList, table);
-                while(nextToken.getTokenID() != Token.TID.TSEMI && nextToken.getTokenID() != Token.TID.TCOMA)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
+                tokenList.skipTo(LIST_SYNC);
         }
 
-        nextToken = tokenList.pop();
-
         // Check if there are more print items to be added
-        switch(nextToken.getTokenID())
+        switch(tokenList.peekID(0))
         {
             case TCOMA:
+                tokenList.advance();
                 pList =  new NPrlst(tokenList, table);
                 pList.setLeft(pItem);
                 return pList;
 
             default:
-                tokenList.push(nextToken);
         }
 
         return pItem;
@@ -1037,13 +1129,13 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processTypes(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processTypes(TokenBuffer tokenList, SymbolTable table)
     {
         STNode tNode = null;
         STNode tList;
 
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
+        Token tempToken = tokenList.peek(0);
 
         switch(tempToken.getTokenID())
         {
@@ -1052,49 +1144,54 @@ public class STNode
 
 			// Missing is statement	in type definition
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected is after identifier."));
-                while((nextToken.getTokenID() != Token.TID.TIDEN || tempToken.getTokenID() != Token.TID.TIS) && tempToken.getTokenID() != Token.TID.TARRS && tempToken.getTokenID() != Token.TID.TFUNC && tempToken.getTokenID() != Token.TID.TMAIN)
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected is after identifier."));
+                tempToken = skipToType(tokenList);
+
+                // Carry on with the next type
+                if(tempToken.getTokenID() == Token.TID.TIDEN)
                 {
-                    nextToken = tempToken;
-                    tempToken = tokenList.pop();
+                    nextToken = tokenList.advance();
+                    tempToken = tokenList.peek(0);
                 }
         }
 
-        if(tempToken.getTokenID() != Token.TID.TIS)
-            tokenList.push(tempToken);
-        else
-            tempToken = tokenList.pop();
+        if(tempToken.getTokenID() == Token.TID.TIS)
+        {
+            tokenList.advance();
+            tempToken = tokenList.peek(0);
+
+            // A structure's first field is left to be read with the rest of its fields
+            if(tempToken.getTokenID() != Token.TID.TIDEN)
+                tokenList.advance();
+        }
 		
 		// Check the structure of the type definition
         switch(tempToken.getTokenID())
         {
 			// Type is complex structure
             case TIDEN:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
+                tNode = new NRtype(nextToken, tokenList, table);
 
-                tNode = new NRtype(tokenList, table);
-
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 if(nextToken.getTokenID() == Token.TID.TEND)
                 {
-                    nextToken = tokenList.pop();
+                    tokenList.advance();
+                    nextToken = tokenList.peek(0);
                     switch(nextToken.getTokenID())
                     {
                         case TIDEN:
-                            tokenList.push(nextToken);
                             tList = new NTypel(tokenList, table);
                             tList.setLeft(tNode);
                             return tList;
 
                         case TARRS:
-                            tokenList.push(nextToken);
                             break;
 
 						// Identifier missing or invalid	
                         default:
-                            errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
+                            tokenList.advance();
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
 
 
                     }
@@ -1102,35 +1199,33 @@ public class STNode
                 else if(nextToken.getTokenID() != Token.TID.TARRS)
                 {
 					// No end statement
-                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected end statement in type definition."));
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected end statement in type definition."));
                     switch(nextToken.getTokenID())
                     {
                         case TIDEN:
-                            tokenList.push(nextToken);
                             tList = new NTypel(tokenList, table);
                             tList.setLeft(tNode);
                             return tList;
 
                         default:
-                            tokenList.push(nextToken);
                             tList = new NUndef(tokenList, table);
                             tList.setLeft(tNode);
                             return tList;
                     }
                 }
+                else
+                    tokenList.advance();
                 break;
 
 			// Type is array	
             case TARAY:
-                tokenList.push(nextToken);
-                tNode = new NAtype(tokenList, table);
+                tNode = new NAtype(nextToken, tokenList, table);
 
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         tList =  new NTypel(tokenList, table);
                         tList.setLeft(tNode);
                         return tList;
@@ -1138,16 +1233,16 @@ public class STNode
                     case TMAIN:
                     case TARRS:
                     case TFUNC:
-                        tokenList.push(nextToken);
                         break;
 
                     default:
+                        tokenList.advance();
                         System.out.println("Error: Expected type identifier.");
                 }
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier"));
 
         }
         return tNode;
@@ -1161,50 +1256,52 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processFlist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processFlist(TokenBuffer tokenList, SymbolTable table)
     {
         STNode sDecl = null;
         STNode fList;
 
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        int start = tokenList.mark();
+        Token nextToken = tokenList.advance();
+        Token tempToken = tokenList.advance();
 
         // Check for colon in field definition
         switch(tempToken.getTokenID())
         {
             case TCOLN:
-                tokenList.push(nextToken);
-                sDecl = new NSdecl(tokenList, table);
+                sDecl = new NSdecl(nextToken, tokenList, table);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in field list."));
-                tokenList.push(nextToken);
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in field list."));
+                tokenList.rewind(start);
 
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 
         // Check for mor field definitions
         switch(nextToken.getTokenID())
         {
             case TCOMA:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         fList = new NFlist(tokenList, table);
                         fList.setLeft(sDecl);
                         return fList;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type list identifier."));
-                        while(nextToken.getTokenID() != Token.TID.TCOMA && nextToken.getTokenID() != Token.TID.TEND && nextToken.getTokenID() != Token.TID.TARRS)
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected type list identifier."));
+                        nextToken = tokenList.skipTo(FIELD_SYNC);
+                        if(nextToken.getTokenID() == Token.TID.TCOMA)
                         {
-                            nextToken = tokenList.pop();
+                            tokenList.advance();
+                            nextToken = tokenList.peek(0);
                         }
-                        if(nextToken.getTokenID() == Token.TID.TCOMA)
+                        if(nextToken.getTokenID() == Token.TID.TIDEN)
                         {
                             fList = new NFlist(tokenList, table);
                             fList.setLeft(sDecl);
@@ -1216,32 +1313,19 @@ public class STNode
                 break;
 
             case TEND:
-                tokenList.push(nextToken);
                 break;
 
             default:
-                tokenList.push(nextToken);
-                while(nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TEND)
-                {
-                    tokenList.pop();
-                }
+                nextToken = tokenList.skipTo(FIELD_SYNC);
 
-                if(nextToken.getTokenID() == Token.TID.TIDEN)
+                // A field follows without a comma
+                if(nextToken.getTokenID() == Token.TID.TIDEN && tokenList.peekID(1) == Token.TID.TCOLN)
                 {
-                    nextToken = tokenList.pop();
-                    if(nextToken.getTokenID() == Token.TID.TCOLN)
-                    {
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in field declaration list."));
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in field declaration list."));
 
-                        tokenList.push(nextToken);
-                        fList = new NFlist(tokenList, table);
-                        fList.setLeft(sDecl);
-                        return fList;
-                    }
-                    else
-                    {
-                        tokenList.push(nextToken);
-                    }
+                    fList = new NFlist(tokenList, table);
+                    fList.setLeft(sDecl);
+                    return fList;
                 }
                 break;
         }
@@ -1257,10 +1341,11 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processAlist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processAlist(TokenBuffer tokenList, SymbolTable table)
     {
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        int start = tokenList.mark();
+        Token nextToken = tokenList.advance();
+        Token tempToken = tokenList.advance();
 
         STNode arrd = null;
         STNode aList;
@@ -1269,14 +1354,14 @@ public class STNode
         switch(tempToken.getTokenID())
         {
             case TCOLN:
-                tokenList.push(nextToken);
-                arrd =  new NArrd(tokenList, table);
+                arrd =  new NArrd(nextToken, tokenList, table);
 
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 switch(nextToken.getTokenID())
                 {
                     case TCOMA:
+                        tokenList.advance();
                         aList =  new NAlist(tokenList, table);
                         aList.setLeft(arrd);
                         return aList;
@@ -1286,11 +1371,13 @@ public class STNode
                         break;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in array declaration list."));
-                        tokenList.push(nextToken);
-                        while(nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TFUNC && nextToken.getTokenID() != Token.TID.TMAIN)
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected comma in array declaration list."));
+                        nextToken = tokenList.skipTo(ARRAY_SYNC);
+
+                        if(nextToken.getTokenID() == Token.TID.TCOMA)
                         {
-                            tokenList.pop();
+                            tokenList.advance();
+                            nextToken = tokenList.peek(0);
                         }
 
                         if(nextToken.getTokenID() == Token.TID.TIDEN)
@@ -1300,21 +1387,18 @@ public class STNode
                             return aList;
                         }
                 }
-                break;
+                return arrd;
 
             case TFUNC:
-                tokenList.push(nextToken);
-                break;
-
             case TMAIN:
-                tokenList.push(nextToken);
                 break;
 
             default:
                 System.out.println("Error: Missing \":\" in declaration.");
         }
 
-        tokenList.push(nextToken);
+        // Carry on from the token after the identifier
+        tokenList.rewind(start + 1);
         return arrd;
     }
 
@@ -1326,25 +1410,25 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processFuncs(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processFuncs(TokenBuffer tokenList, SymbolTable table)
     {
         STNode func = null;
         STNode funcs;
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 
         // Check the function starts with an identifier
         switch(nextToken.getTokenID())
         {
             case TIDEN:
-                tokenList.push(nextToken);
                 func =  new NFund(tokenList, table);
 
-                nextToken = tokenList.pop();
+                nextToken = tokenList.peek(0);
 
                 // Process the next function
                 if(nextToken.getTokenID() == Token.TID.TFUNC)
                 {
+                    tokenList.advance();
                     funcs =  new NFuncs(tokenList, table);
                     funcs.setLeft(func);
                     return funcs;
@@ -1352,417 +1436,731 @@ public class STNode
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function identifier."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function identifier."));
         }
 
-        tokenList.push(nextToken);
         return func;
     }
 
-    /** processStats()
+    /** processFuncs()
      *
-     * Processes a statement or block of statements
+     * Processes the functions of a program with their bodies read in parallel. The name,
+     * parameters and return type of each function are read in order and the function is
+     * added to the global table, then the tokens are skimmed for the func or main keyword
+     * ending its body. The bodies are read on the pool, each in its own scope over a view
+     * of the global table holding only the functions before it, as when the functions are
+     * read one at a time. Each function has a task context for its errors, and they are
+     * added to the compilation's context in source order.
      *
-     * @param tokenList - LinkedList,
-     * @param table - SymbolTable,
-     * @return STNode,
+     * @param tokenList - TokenBuffer, tokens of the program, after the first func keyword
+     * @param table - SymbolTable, the global table
+     * @param pool - ForkJoinPool, threads the bodies are read on
+     * @return STNode, the function or NFUNCS chain, or null if a body did not end where the
+     *         next function starts, the program must then be read again in order
      */
-    protected STNode processStats(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processFuncs(TokenBuffer tokenList, SymbolTable table, ForkJoinPool pool)
     {
-        STNode stat;
+        if(tokenList.isStreaming())
+            return processFuncs(tokenList, table);
 
-        Token nextToken = tokenList.pop();
+        ArrayList<Function> functions = readHeaders(tokenList, table, false);
+        if(functions == null)
+            return null;
 
-        switch(nextToken.getTokenID())
+        // Bodies in parallel, names made for literals are interned from every thread
+        ArrayList<Callable<Object>> tasks = new ArrayList<>();
+        for(Function function : functions)
         {
-            // Start of repeat statement
-            case TREPT:
-                nextToken = tokenList.pop();
-                switch(nextToken.getTokenID())
-                {
-                    case TLPAR:
-                        break;
-
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"(\" after repeat statement."));
-                        while(nextToken.getTokenID() != Token.TID.TIDEN)
-                        {
-                            nextToken = tokenList.pop();
-                        }
-                }
+            if(function.fund != null)
+                tasks.add(() -> function.readBody(tokenList));
+        }
 
-                stat = new NRept(tokenList, table);
+        NamePool namePool = table.getNamePool();
+        boolean shared = namePool.isShared();
+        namePool.setShared(true);
+        try
+        {
+            pool.invokeAll(tasks);
+        }
+        finally
+        {
+            namePool.setShared(shared);
+        }
 
-                nextToken = tokenList.pop();
+        // Errors in source order, stopping where reading in order would have stopped
+        for(Function function : functions)
+        {
+            table.getContext().merge(function.context);
 
-				// Check for right parentheses
-                switch(nextToken.getTokenID())
-                {
-                    case TRPAR:
-                        break;
+            if(function.failure != null)
+                throw function.failure;
+            if(function.fund == null)
+                break;
+            if(function.overflow || function.reached != function.end)
+                return null;
 
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" after assignment list."));
-                        tokenList.push(nextToken);
-                }
+            function.fund.getScopeTable().setPrevious(table);
+        }
 
-				// Process repeat statement block
-                stat.setMiddle(processStats(tokenList, table));
+        return chain(functions);
+    }
 
-                nextToken = tokenList.pop();
+    /** processFuncHeaders()
+     *
+     * Processes the functions of a program reading only their names, parameters and
+     * return types. Each body is skimmed for the func or main keyword ending it and left
+     * to be read when the tree asks for its declarations or statements, see
+     * NFund.deferBody(). A body is taken to end where the skim ends it.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, after the first func keyword
+     * @param table - SymbolTable, the global table
+     * @return STNode, the function or NFUNCS chain, or null if two functions have the same
+     *         name, the program must then be read again in order
+     */
+    protected STNode processFuncHeaders(TokenBuffer tokenList, SymbolTable table)
+    {
+        if(tokenList.isStreaming())
+            return processFuncs(tokenList, table);
 
-				// Check for until statement
-                switch(nextToken.getTokenID())
-                {
-                    case TUNTL:
-                        stat.setRight(processBool(tokenList, table));
-                        nextToken = tokenList.pop();
+        ArrayList<Function> functions = readHeaders(tokenList, table, true);
+        if(functions == null)
+            return null;
 
-                        // Check for more statements
-                        switch(nextToken.getTokenID())
-                        {
-                            case TSEMI:
-                                nextToken = tokenList.pop();
-                                break;
+        for(Function function : functions)
+        {
+            if(function.failure != null)
+                throw function.failure;
+            if(function.fund == null)
+                break;
 
-                            // Missing semi-colon after statement
-                            default:
-                                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                        }
-                        break;
+            function.fund.deferBody(tokenList, function.start, table);
+        }
 
-					// No until statement	
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Repeat loop without until."));
-                        tokenList.push(nextToken);
-                        setRight(new NUndef(tokenList, table));
-                        while(nextToken.getTokenID() != Token.TID.TSEMI)
-                        {
-                            nextToken = tokenList.pop();
-                        }
-                        tokenList.push(nextToken);
-                }
+        return chain(functions);
+    }
 
-                return nextStatement(nextToken, stat, tokenList, table);
+    /** readHeaders()
+     *
+     * Reads the name, parameters and return type of each function in order, adding it to
+     * the global table and its scope to the context, and skims the tokens for the func or
+     * main keyword ending its body. The scope of each function is over a view of the global
+     * table holding only the functions before it.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, after the first func keyword
+     * @param table - SymbolTable, the global table
+     * @param direct - boolean, true for errors to go straight to the compilation's context
+     *                 rather than a task context for each function
+     * @return ArrayList<Function>, the functions, or null if two have the same name
+     */
+    private static ArrayList<Function> readHeaders(TokenBuffer tokenList, SymbolTable table, boolean direct)
+    {
+        ArrayList<Function> functions = new ArrayList<>();
+        HashMap<String, Integer> names = new HashMap<>();
+        boolean more = true;
 
-            // Start of function call or assignment statement
-            case TIDEN:
-                Token tempToken = tokenList.pop();
+        // Headers in order, each body's tokens run up to the next func or main keyword
+        while(more)
+        {
+            Function function = new Function(direct ? table.getContext() : table.getContext().forTask());
+            functions.add(function);
 
-                switch(tempToken.getTokenID())
-                {
-                    // Function call
-                    case TLPAR:
-                        tokenList.push(tempToken);
-                        tokenList.push(nextToken);
+            Token nextToken = tokenList.peek(0);
+            if(nextToken.getTokenID() != Token.TID.TIDEN)
+            {
+                function.context.getErrors().add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected function identifier."));
+                break;
+            }
 
-                        if(!table.hasGlobalID(nextToken.getLexeme()))
-                        {
-                            errorList.add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Function not defined."));
-                            int line = nextToken.getLineNum();
-                            while(nextToken.getLineNum() == line)
+            try
+            {
+                function.fund = new NFund(tokenList, new SymbolTable(table.viewBefore(names, functions.size() - 1, function.context)), false);
+            }
+            catch(RuntimeException e)
+            {
+                function.failure = e;
+                break;
+            }
+
+            String name = function.fund.getSymbol().getName();
+
+            // A second function of the same name replaces the first one's scope, only the order they are read in gets that right
+            if(table.getContext().getScopeTable(name) != null)
+                return null;
+
+            if(!table.hasIdInScope(name))
+                names.put(name, functions.size() - 1);
+            table.addSymbol(function.fund.getSymbol());
+            table.getContext().addScopeTable(name, function.fund.getScopeTable());
+
+            function.start = tokenList.mark();
+            function.end = function.start;
+            while(function.end < tokenList.size() && tokenList.getTokenID(function.end) != Token.TID.TFUNC
+                && tokenList.getTokenID(function.end) != Token.TID.TMAIN)
+                function.end++;
+
+            tokenList.rewind(function.end);
+            more = function.end < tokenList.size() && tokenList.getTokenID(function.end) == Token.TID.TFUNC;
+            if(more)
+                tokenList.advance();
+        }
+
+        return functions;
+    }
+
+    /** chain()
+     *
+     * @param functions - ArrayList<Function>, the functions in source order
+     * @return STNode, the function or NFUNCS chain
+     */
+    private static STNode chain(ArrayList<Function> functions)
+    {
+        // Chain from the last function, one without an identifier leaves the chain open
+        STNode funcs = functions.get(functions.size() - 1).fund;
+        for(int i = functions.size() - 2; i >= 0; i--)
+            funcs = new NFuncs(functions.get(i).fund, funcs);
+
+        return funcs;
+    }
+
+    /** Function
+     *
+     * A function whose body is read apart from its header, with the context its errors are kept in
+     *
+     */
+    private static class Function
+    {
+        private CompilationContext context;
+        private NFund fund;
+        private int start;
+        private int end;
+        private int reached;
+        private RuntimeException failure;
+        private boolean overflow;
+
+        private Function(CompilationContext task)
+        {
+            context = task;
+        }
+
+        /** readBody()
+         *
+         * Reads the body with a cursor of its own, keeping its errors and anything it throws
+         *
+         * @param tokenList - TokenBuffer, tokens of the program
+         * @return - Object, null
+         */
+        private Object readBody(TokenBuffer tokenList)
+        {
+            TokenBuffer reader = tokenList.reader(start);
+
+            try
+            {
+                fund.parseBody(reader);
+                reached = reader.mark();
+            }
+            catch(RuntimeException e)
+            {
+                failure = e;
+            }
+            // A worker's stack can be smaller than the main thread's, reading in order will tell
+            catch(StackOverflowError e)
+            {
+                overflow = true;
+            }
+
+            return null;
+        }
+    }
+
+    /** processStats()
+     *
+     * Processes a statement or block of statements. Statements are chained into
+     * NSTATS in a loop, and a repeat, for or if waits on a stack of open blocks while
+     * its body is read, so long blocks and deep nesting do not use up the Java stack.
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param table - SymbolTable, scope of the statements
+     * @return STNode, the statement, or the NSTATS chain of the block
+     */
+    protected STNode processStats(TokenBuffer tokenList, SymbolTable table)
+    {
+        ArrayList<Block> open = new ArrayList<>();
+        Block block = new Block(NID.NSTATS);
+        STNode stat;
+        Token nextToken;
+        boolean more;
+
+        statements:
+        while(true)
+        {
+            nextToken = tokenList.peek(0);
+            more = false;
+
+            switch(nextToken.getTokenID())
+            {
+                // Start of repeat statement
+                case TREPT:
+                    tokenList.advance();
+                    nextToken = tokenList.advance();
+                    switch(nextToken.getTokenID())
+                    {
+                        case TLPAR:
+                            break;
+
+                        default:
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"(\" after repeat statement."));
+
+                            // The token read in place of the parenthesis may start the assignments
+                            tokenList.rewind(tokenList.mark() - 1);
+                            tokenList.skipTo(REPEAT_SYNC);
+                    }
+
+                    stat = new NRept(tokenList, table);
+
+                    nextToken = tokenList.peek(0);
+
+                    // Check for right parentheses
+                    switch(nextToken.getTokenID())
+                    {
+                        case TRPAR:
+                            tokenList.advance();
+                            break;
+
+                        default:
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" after assignment list."));
+                    }
+
+                    // Read the repeat statement block
+                    open.add(block);
+                    block = new Block(NID.NREPT);
+                    block.owner = stat;
+                    continue statements;
+
+                // Start of function call or assignment statement
+                case TIDEN:
+                    switch(tokenList.peekID(1))
+                    {
+                        // Function call
+                        case TLPAR:
+                            if(!isFunction(table, nextToken.getLexeme()))
                             {
-                                nextToken = tokenList.pop();
+                                errors(table).add(new SimpleEntry<>(nextToken, "Semantic Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Function not defined."));
+                                nextToken = skipStatement(tokenList);
+                                stat = new NUndef(tokenList, table);
                             }
-                            stat = new NUndef(tokenList, table);
-                        }
-                        else
-                        {
-                            stat = new NCall(tokenList, table);
+                            else
+                            {
+                                stat = new NCall(tokenList, table);
+
+                                nextToken = tokenList.peek(0);
+
+                                // Check for more statements
+                                switch(nextToken.getTokenID())
+                                {
+                                    case TSEMI:
+                                        tokenList.advance();
+                                        nextToken = tokenList.peek(0);
+                                        break;
+
+                                    // Missing semi-colon after statement
+                                    default:
+                                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
+                                }
+                            }
+                            break;
+
+                        // Assignment statement
+                        case TLBRK:
+                        case TEQUL:
+                        case TPLEQ:
+                        case TMNEQ:
+                        case TSTEQ:
+                        case TDVEQ:
+                            stat = processAssgn(tokenList, table);
 
-                            nextToken = tokenList.pop();
+                            nextToken = tokenList.peek(0);
 
                             // Check for more statements
                             switch(nextToken.getTokenID())
                             {
                                 case TSEMI:
-                                    nextToken = tokenList.pop();
+                                    tokenList.advance();
+                                    nextToken = tokenList.peek(0);
                                     break;
 
                                 // Missing semi-colon after statement
                                 default:
-                                    errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
+                                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
                             }
-                        }
-                        break;
 
-                    // Assignment statement
-                    case TLBRK:
-                    case TEQUL:
-                    case TPLEQ:
-                    case TMNEQ:
-                    case TSTEQ:
-                    case TDVEQ:
-                        tokenList.push(tempToken);
-                        tokenList.push(nextToken);
-
-                        stat = processAssgn(tokenList, table);
+                            break;
 
-                        nextToken = tokenList.pop();
+                        // Identifier followed by an invalid character, the statement is skipped
+                        default:
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Invalid character following identifier."));
 
-                        // Check for more statements
-                        switch(nextToken.getTokenID())
-                        {
-                            case TSEMI:
-                                nextToken = tokenList.pop();
-                                break;
+                            nextToken = skipStatement(tokenList);
+                            stat = new NUndef(tokenList, table);
+                    }
 
-                            // Missing semi-colon after statement
-                            default:
-                                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                        }
+                    more = !endsBlock(nextToken.getTokenID());
+                    break;
+
+                // Start of input statement
+                case TINPT:
+                    tokenList.advance();
+                    stat = new NInput(tokenList, table);
+                    more = endStatement(tokenList, table);
+                    break;
+
+                // Start of print statement
+                case TPRIN:
+                    tokenList.advance();
+                    stat = new NPrint(tokenList, table);
+                    more = endStatement(tokenList, table);
+                    break;
+
+                // Start of printline statement
+                case TPRLN:
+                    tokenList.advance();
+                    stat = new NPrln(tokenList, table);
+                    more = endStatement(tokenList, table);
+                    break;
+
+                // Start of return statement
+                case TRETN:
+                    tokenList.advance();
+                    stat = new NRetn(tokenList, table);
+                    more = endStatement(tokenList, table);
+                    break;
+
+                // Start of for statement, read its block
+                case TFOR:
+                    tokenList.advance();
+                    open.add(block);
+                    block = new Block(NID.NFOR);
+                    block.owner = new NFor(tokenList, table);
+                    continue statements;
+
+                // Start of if statement
+                case TIFTH:
+                    tokenList.advance();
+                    nextToken = tokenList.peek(0);
+                    STNode bool;
+                    switch(nextToken.getTokenID())
+                    {
+                        case TLPAR:
+                            tokenList.advance();
+                            bool = processBool(tokenList, table);
+                            break;
 
-                        break;
+                        // Missing left-par after if statement
+                        default:
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"(\" after if statement."));
+                            bool = processBool(tokenList, table);
 
-                    // Identifier starts with invalid character
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Invalid character following identifier."));
-                        tokenList.push(tempToken);
-                        tokenList.push(nextToken);
+                    }
+                    nextToken = tokenList.peek(0);
 
-                        stat = new NUndef(tokenList, table);
-                        return stat;
-                }
+                    switch(nextToken.getTokenID())
+                    {
+                        case TRPAR:
+                            tokenList.advance();
+                            break;
 
-                return nextStatement(nextToken, stat, tokenList, table);
-                //break;
+                        // Missing right-par after expression
+                        default:
+                            errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" after boolean expression."));
+                    }
 
-            // Start of input statement
-            case TINPT:
-                stat = new NInput(tokenList, table);
-                nextToken = tokenList.pop();
+                    // Read the if block, the node is made once it is known whether there is an else
+                    open.add(block);
+                    block = new Block(NID.NIFTH);
+                    block.bool = bool;
+                    continue statements;
 
-                switch(nextToken.getTokenID())
-                {
-                    case TSEMI:
-                        nextToken = tokenList.pop();
-                        break;
+                // Else without if
+                case TELSE:
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Else without if statement."));
 
-                    // Missing semi-colon after statement
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                }
+                    // The block ends at the else, an if it belongs to reads it from there
+                    stat = new NUndef(tokenList, table);
+                    more = false;
+                    break;
 
-                return nextStatement(nextToken, stat, tokenList, table);
+                case TMAIN:
+                case TFUNC:
+                case TCD18:
+                case TEOF:
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end statement."));
 
-            // Start of print statement
-            case TPRIN:
-                stat = new NPrint(tokenList, table);
-                nextToken = tokenList.pop();
+                // Other invalid statements, a token that ends the block is left for the block to end at
+                default:
+                    errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Invalid start of statement."));
 
-                switch(nextToken.getTokenID())
-                {
-                    case TSEMI:
-                        nextToken = tokenList.pop();
-                        break;
+                    if(!endsBlock(nextToken.getTokenID()))
+                        nextToken = skipStatement(tokenList);
+                    stat = new NUndef(tokenList, table);
 
-                    // Missing semi-colon after statement
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                }
+                    more = !endsBlock(nextToken.getTokenID());
+            }
 
-                return nextStatement(nextToken, stat, tokenList, table);
+            // A statement that ends its block completes the statement owning the block
+            while(!more)
+            {
+                STNode stats = block.end(stat);
 
-            // Start of printline statement
-            case TPRLN:
-                stat = new NPrln(tokenList, table);
+                if(open.isEmpty())
+                    return stats;
 
-                nextToken = tokenList.pop();
+                Block body = block;
+                block = open.remove(open.size() - 1);
+                stat = body.owner;
 
-                switch(nextToken.getTokenID())
+                switch(body.kind)
                 {
-                    case TSEMI:
-                        nextToken = tokenList.pop();
-                        break;
+                    case NREPT:
+                        stat.setMiddle(stats);
 
-                    // Missing semi-colon after statement
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                }
+                        nextToken = tokenList.peek(0);
 
-                return nextStatement(nextToken, stat, tokenList, table);
+                        // Check for until statement
+                        switch(nextToken.getTokenID())
+                        {
+                            case TUNTL:
+                                tokenList.advance();
+                                stat.setRight(processBool(tokenList, table));
+                                endStatement(tokenList, table);
+                                break;
 
-            // Start of return statement
-            case TRETN:
-                stat = new NRetn(tokenList, table);
+                            // No until statement
+                            default:
+                                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Repeat loop without until."));
+                                setRight(new NUndef(tokenList, table));
 
-                nextToken = tokenList.pop();
+                                // The token the block ended at ends the block around the repeat as well
+                        }
 
-                switch(nextToken.getTokenID())
-                {
-                    case TSEMI:
-                        nextToken = tokenList.pop();
+                        more = !endsBlock(tokenList.peekID(0));
                         break;
 
-                    // Missing semi-colon after statement
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
-                }
+                    case NFOR:
+                        ((NFor)stat).endFor(stats, tokenList, table);
 
-                return nextStatement(nextToken, stat, tokenList, table);
+                        nextToken = tokenList.peek(0);
 
-            // Start of for statement
-            case TFOR:
-                stat = new NFor(tokenList, table);
+                        switch(nextToken.getTokenID())
+                        {
+                            case TEND:
+                                tokenList.advance();
+                                break;
 
-                nextToken = tokenList.pop();
+                            // Missing end statement
+                            default:
+                                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end after for statement."));
+                        }
 
-                switch(nextToken.getTokenID())
-                {
-                    case TEND:
-                        nextToken = tokenList.pop();
+                        more = !endsBlock(tokenList.peekID(0));
                         break;
 
-                    // Missing end statement
-                    case TMAIN:
-                    case TFUNC:
-                    case TCD18:
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end after for statement."));
-                        tokenList.push(nextToken);
-                }
+                    case NIFTH:
+                        // Check for else statement
+                        switch(tokenList.peekID(0))
+                        {
+                            case TELSE:
+                                tokenList.advance();
+                                stat = new NIfte(tokenList, table);
+                                stat.setLeft(body.bool);
+                                stat.setMiddle(stats);
+
+                                // Read the else block
+                                open.add(block);
+                                block = new Block(NID.NIFTE);
+                                block.owner = stat;
+                                continue statements;
+
+                            case TEND:
+                                stat = new NIfth(tokenList, table);
+                                stat.setLeft(body.bool);
+                                stat.setRight(stats);
+                                break;
 
-                return nextStatement(nextToken, stat, tokenList, table);
+                            default:
+                                stat = null;
+                        }
 
-            // Start of if statement
-            case TIFTH:
-                nextToken = tokenList.pop();
-                STNode bool;
-                STNode ifStats;
-                STNode ifNode = null;
-                switch(nextToken.getTokenID())
-                {
-                    case TLPAR:
-                        bool = processBool(tokenList, table);
+                        more = endIf(tokenList, table);
                         break;
 
-                    // Missing left-par after if statement
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \"(\" after if statement."));
-                        tokenList.push(nextToken);
-                        bool = processBool(tokenList, table);
-
-                }
-                nextToken = tokenList.pop();
-
-                switch(nextToken.getTokenID())
-                {
-                    case TRPAR:
-                        ifStats = processStats(tokenList, table);
+                    case NIFTE:
+                        stat.setRight(stats);
+                        more = endIf(tokenList, table);
                         break;
 
-                    // Missing right-par after expression
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" after boolean expression."));
-                        tokenList.push(nextToken);
-                        ifStats = processStats(tokenList, table);
                 }
+            }
 
-                nextToken = tokenList.pop();
-
-                // Check for else statement
-                switch(nextToken.getTokenID())
-                {
-                    case TELSE:
-                        ifNode = new NIfte(tokenList, table);
-                        ifNode.setLeft(bool);
-                        ifNode.setMiddle(ifStats);
-                        nextToken = tokenList.pop();
-                        break;
-
-                    case TEND:
-                        ifNode = new NIfth(tokenList, table);
-                        ifNode.setLeft(bool);
-                        ifNode.setRight(ifStats);
-                        break;
-                }
+            block.add(stat);
+        }
+    }
 
-                stat = ifNode;
+    /** typed()
+     *
+     * @param node - STNode, a variable or expression
+     * @return - boolean, true if the node has a symbol with a type
+     */
+    private static boolean typed(STNode node)
+    {
+        return node != null && node.getSymbol() != null && node.getSymbol().getType() != null;
+    }
 
-                // End of if block
-                switch(nextToken.getTokenID())
-                {
-                    case TEND:
-                        nextToken = tokenList.pop();
+    /** endStatement()
+     *
+     * Reads the semi-colon after a statement
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param table - SymbolTable, scope of the statement
+     * @return boolean, true if another statement follows in the same block
+     */
+    private boolean endStatement(TokenBuffer tokenList, SymbolTable table)
+    {
+        Token nextToken = tokenList.peek(0);
 
-                        // Process next statements
-                        return nextStatement(nextToken, stat, tokenList, table);
+        switch(nextToken.getTokenID())
+        {
+            case TSEMI:
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
+                break;
 
-                    // Missing end statement
-                    case TMAIN:
-                    case TFUNC:
-                    case TCD18:
-                    default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end after if statement."));
-                        tokenList.push(nextToken);
+            // Missing semi-colon after statement
+            default:
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \";\" after statement."));
+        }
 
-                }
-                break;
+        return !endsBlock(nextToken.getTokenID());
+    }
 
-            // Else without if
-            case TELSE:
-                tokenList.push(nextToken);
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Else without if statement."));
-                while(nextToken.getTokenID() != Token.TID.TSEMI && nextToken.getTokenID() != Token.TID.TEND && nextToken.getTokenID() != Token.TID.TUNTL && nextToken.getTokenID() != Token.TID.TELSE)
-                {
-                    nextToken = tokenList.pop();
-                }
-                stat = new NUndef(tokenList, table);
+    /** endIf()
+     *
+     * Reads the end of an if statement
+     *
+     * @param tokenList - TokenBuffer, tokens of the program
+     * @param table - SymbolTable, scope of the statement
+     * @return boolean, true if another statement follows in the same block
+     */
+    private boolean endIf(TokenBuffer tokenList, SymbolTable table)
+    {
+        Token nextToken = tokenList.peek(0);
 
-                nextToken = tokenList.pop();
+        switch(nextToken.getTokenID())
+        {
+            case TEND:
+                tokenList.advance();
+                return !endsBlock(tokenList.peekID(0));
 
-                // Process next statements
-                return nextStatement(nextToken, stat, tokenList, table);
+            // Missing end statement, the block ends here
+            default:
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end after if statement."));
+                return false;
+        }
+    }
 
-            case TMAIN:
+    /** endsBlock()
+     *
+     * @param id - Token.TID, the token after a statement
+     * @return boolean, true if the token closes the block instead of starting another statement
+     */
+    private static boolean endsBlock(Token.TID id)
+    {
+        switch(id)
+        {
+            case TEND:
+            case TUNTL:
+            case TELSE:
             case TFUNC:
+            case TMAIN:
             case TCD18:
-                tokenList.push(nextToken);
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing end statement."));
+            case TEOF:
+                return true;
 
-            // Other invalid statements
             default:
-                tokenList.push(nextToken);
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Invalid start of statement."));
-                int line = nextToken.getLineNum();
-                while(nextToken.getLineNum() == line)
-                {
-                    nextToken = tokenList.pop();
-                }
+                return false;
+        }
+    }
 
-                stat = new NUndef(tokenList, table);
+    /** skipStatement()
+     *
+     * Recovery for an invalid statement, passes over it up to and including its semi-colon,
+     * or up to the next token that starts a statement or ends the block
+     *
+     * @param tokenList - TokenBuffer, tokens of the program, at the first token of the statement
+     * @return Token, the token after the statement
+     */
+    private static Token skipStatement(TokenBuffer tokenList)
+    {
+        Token nextToken = tokenList.peek(0);
+
+        if(nextToken.getTokenID() != Token.TID.TSEMI)
+        {
+            tokenList.advance();
+            nextToken = tokenList.skipTo(STAT_SYNC);
+        }
 
-                // Process next statements
-                return nextStatement(nextToken, stat, tokenList, table);
+        if(nextToken.getTokenID() == Token.TID.TSEMI)
+        {
+            tokenList.advance();
+            nextToken = tokenList.peek(0);
         }
-        return stat;
+        return nextToken;
     }
 
-    /** nextStatement()
+    /** Block
      *
-     * Processes a sub-tree of statements following the node of the argument
+     * A block of statements being read, with the statement it belongs to
      *
-     * @param nextToken - Token,
-     * @param stat - STNode,
-     * @param tokenList - LinkedList,
-     * @param table - SymbolTable,
-     * @return STNode,
      */
-    protected STNode nextStatement(Token nextToken, STNode stat, LinkedList<Token> tokenList, SymbolTable table)
+    private static class Block
     {
-        // Check for more statements
-        if(nextToken.getTokenID() != Token.TID.TEND && nextToken.getTokenID() != Token.TID.TUNTL && nextToken.getTokenID() != Token.TID.TELSE  && nextToken.getTokenID() != Token.TID.TFUNC  && nextToken.getTokenID() != Token.TID.TMAIN && nextToken.getTokenID() != Token.TID.TCD18)
+        private NID kind;
+        private STNode owner;
+        private STNode bool;
+        private STNode first;
+        private STNode last;
+
+        private Block(NID kind)
         {
-            STNode stats;
-            tokenList.push(nextToken);
-            stats = new NStats(tokenList, table);
-            stats.setLeft(stat);
-            return stats;
+            this.kind = kind;
         }
-        else
+
+        /** add()
+         *
+         * @param stat - STNode, a statement with more following it
+         */
+        private void add(STNode stat)
         {
-            tokenList.push(nextToken);
-            return stat;
+            STNode stats = new NStats(stat);
+
+            if(last == null)
+                first = stats;
+            else
+                last.setRight(stats);
+            last = stats;
+        }
+
+        /** end()
+         *
+         * @param stat - STNode, the last statement of the block
+         * @return STNode, the statement or the NSTATS chain of the block
+         */
+        private STNode end(STNode stat)
+        {
+            if(last == null)
+                return stat;
+
+            last.setRight(stat);
+            return first;
         }
     }
 
@@ -1774,79 +2172,71 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processDlist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processDlist(TokenBuffer tokenList, SymbolTable table)
     {
         STNode decl;
         STNode dList;
 
-        Token nextToken = tokenList.pop();
-        Token tempToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
+        Token tempToken = tokenList.peek(0);
 
 		// Check for a colon in the definition
         switch(tempToken.getTokenID())
         {
             case TCOLN:
-                tempToken = tokenList.pop();
+                tokenList.advance();
+                tempToken = tokenList.peek(0);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after identifier."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after identifier."));
         }
 		
 		// Check the type
         switch(tempToken.getTokenID())
         {
             case TIDEN:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
-                decl = new NArrd(tokenList, table);
+                decl = new NArrd(nextToken, tokenList, table);
                 break;
 
             case TINTG:
             case TREAL:
             case TBOOL:
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
-                decl = new NSdecl(tokenList, table);
+                decl = new NSdecl(nextToken, tokenList, table);
                 break;
 
 			// Invalid type	
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected primitive type or type identifier."));
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected primitive type or type identifier."));
                 decl = new NUndef(tokenList, table);
-                tokenList.push(tempToken);
-                tokenList.push(nextToken);
-                while(nextToken.getTokenID() != Token.TID.TBEGN && nextToken.getTokenID() != Token.TID.TCOMA)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
+                tokenList.skipTo(DECL_SYNC);
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 
 		// Check for more definitions
         switch(nextToken.getTokenID())
         {
             case TCOMA:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
 				
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         dList = new NDlist(tokenList, table);
                         dList.setLeft(decl);
                         return dList;
 
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in declaration list."));
-                        while(nextToken.getTokenID() != Token.TID.TBEGN && nextToken.getTokenID() != Token.TID.TCOMA)
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in declaration list."));
+                        nextToken = tokenList.skipTo(DECL_SYNC);
+                        if(nextToken.getTokenID() == Token.TID.TCOMA)
                         {
-                            nextToken = tokenList.pop();
+                            tokenList.advance();
+                            nextToken = tokenList.peek(0);
                         }
-                        tokenList.push(nextToken);
-                        if(nextToken.getTokenID() == Token.TID.TCOMA)
+                        if(nextToken.getTokenID() == Token.TID.TIDEN)
                         {
                             dList = new NDlist(tokenList, table);
                             dList.setLeft(decl);
@@ -1858,12 +2248,15 @@ public class STNode
                 break;
 
             case TBEGN:
-                tokenList.push(nextToken);
                 break;
 
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Declarations not separated with \",\"."));
-                tokenList.push(nextToken);
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Declarations not separated with \",\"."));
+
+                // At the end of the file there is no declaration to read on to
+                if(nextToken.getTokenID() == Token.TID.TEOF)
+                    break;
+
                 dList = new NDlist(tokenList, table);
                 dList.setLeft(decl);
                 return dList;
@@ -1880,12 +2273,12 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processPlist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processPlist(TokenBuffer tokenList, SymbolTable table)
     {
         STNode param;
         STNode pList;
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.advance();
         Token tempToken;
 
         // Check the structure type of the first parameter
@@ -1893,159 +2286,137 @@ public class STNode
         {
             // Type is const array
             case TCNST:
-                nextToken = tokenList.pop();
+                nextToken = tokenList.advance();
 
                 // Check for parameter identifier
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tempToken = tokenList.pop();
+                        tempToken = tokenList.advance();
                         switch(tempToken.getTokenID())
                         {
                             case TCOLN:
-                                tokenList.push(nextToken);
-                                param = new NArrc(tokenList, table);
+                                param = new NArrc(nextToken, tokenList, table);
                                 table.addParamType(param.getLeft().getSymbol().getType());
                                 break;
 
                             // Colon missing after identifier, throw an error and continue
                             default:
-                                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after array identifier."));
-                                while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                                {
-                                    nextToken = tokenList.pop();
-                                }
-                                tokenList.push(nextToken);
+                                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after array identifier."));
+                                tokenList.rewind(tokenList.mark() - 1);
+                                tokenList.skipTo(PARAM_SYNC);
                                 param = new NUndef(tokenList, table);
                         }
                         break;
 
                     // Array identifier is missing, throw an error and continue
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array identifier."));
-                        while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                        {
-                            nextToken = tokenList.pop();
-                        }
-                        tokenList.push(nextToken);
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected array identifier."));
+                        tokenList.rewind(tokenList.mark() - 1);
+                        tokenList.skipTo(PARAM_SYNC);
                         param = new NUndef(tokenList, table);
                 }
                 break;
 
             // Type is array or simple type
             case TIDEN:
-                tempToken = tokenList.pop();
+                tempToken = tokenList.advance();
 
                 switch(tempToken.getTokenID())
                 {
                     // Check the type definition
                     case TCOLN:
-                        tempToken = tokenList.pop();
-
-                        tokenList.push(tempToken);
-                        tokenList.push(nextToken);
+                        tempToken = tokenList.peek(0);
 
                         switch(tempToken.getTokenID())
                         {
                             case TIDEN:
-                                param = new NArrp(tokenList, table);
+                                param = new NArrp(nextToken, tokenList, table);
                                 table.addParamType(param.getLeft().getSymbol().getType());
                                 break;
 
                             case TINTG:
                             case TREAL:
                             case TBOOL:
-                                param = new NSimp(tokenList, table);
+                                param = new NSimp(nextToken, tokenList, table);
                                 table.addParamType(param.getLeft().getSymbol().getType());
                                 break;
 
                             // Type is missing from parameter declaration, throw an error and continue
                             default:
-                                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected primitive or array type identifier."));
-                                while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                                {
-                                    nextToken = tokenList.pop();
-                                }
-                                tokenList.push(nextToken);
+                                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected primitive or array type identifier."));
+                                tokenList.skipTo(PARAM_SYNC);
                                 param = new NUndef(tokenList, table);
                         }
                         break;
 
                     // Colon is missing from parameter declaration, throw an error and continue
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after identifier."));
-                        while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                        {
-                            nextToken = tokenList.pop();
-                        }
-                        tokenList.push(nextToken);
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \":\" after identifier."));
+                        tokenList.rewind(tokenList.mark() - 1);
+                        tokenList.skipTo(PARAM_SYNC);
                         param = new NUndef(tokenList, table);
                 }
                 break;
 
             // Encountered an illegal character in parameter list, throw an error and continue
             default:
-                errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected const, primitive or array type identifier."));
-                tokenList.push(nextToken);
-                while(nextToken.getTokenID() != Token.TID.TCNST && nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
-                param = processPlist(tokenList, table);
+                errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected const, primitive or array type identifier."));
+                tokenList.rewind(tokenList.mark() - 1);
+
+                // A const parameter carries on the list, otherwise the skip ends it
+                if(tokenList.skipTo(PARAM_SYNC).getTokenID() == Token.TID.TCNST)
+                    param = processPlist(tokenList, table);
+                else
+                    param = new NUndef(tokenList, table);
         }
 
-        nextToken = tokenList.pop();
+        nextToken = tokenList.peek(0);
 
         // Check for more parameters
         switch(nextToken.getTokenID())
         {
             // More parameters to process
             case TCOMA:
-                nextToken = tokenList.pop();
+                tokenList.advance();
+                nextToken = tokenList.peek(0);
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        tokenList.push(nextToken);
                         pList = new NPlist(tokenList, table);
                         pList.setLeft(param);
                         return pList;
 
                     // Identifier is missing, throw an error and continue
                     default:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in parameter list."));
-                        tokenList.push(nextToken);
-                        while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TCOMA)
-                        {
-                            nextToken = tokenList.pop();
-                        }
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Expected identifier in parameter list."));
+                        if(tokenList.skipTo(PARAM_SYNC).getTokenID() != Token.TID.TEOF)
+                            tokenList.advance();
                 }
                 break;
 
             // End of parameter list
             case TRPAR:
+                tokenList.advance();
                 break;
 
             // Parameters not closed or comma missing
             default:
-                while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TCOLN)
-                {
-                    nextToken = tokenList.pop();
-                }
+                nextToken = tokenList.skipTo(PLIST_SYNC);
+                if(nextToken.getTokenID() == Token.TID.TRPAR)
+                    tokenList.advance();
 
                 // Skip to the next parameter or function type definition, throw an error and continue
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Parameters not separated with \",\"."));
-                        tokenList.push(nextToken);
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Parameters not separated with \",\"."));
                         pList = new NPlist(tokenList, table);
                         pList.setLeft(param);
                         return pList;
 
                     case TCOLN:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in parameter list."));
-                        tokenList.push(nextToken);
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in parameter list."));
                         break;
 
                     default:
@@ -2063,44 +2434,42 @@ public class STNode
      * @param table - SymbolTable,
      * @return STNode,
      */
-    protected STNode processElist(LinkedList<Token> tokenList, SymbolTable table)
+    protected STNode processElist(TokenBuffer tokenList, SymbolTable table)
     {
         STNode bool = processBool(tokenList, table);
         STNode eList;
 
-        Token nextToken = tokenList.pop();
+        Token nextToken = tokenList.peek(0);
 		
 		// Check for more expressions
         switch(nextToken.getTokenID())
         {
             case TCOMA:
+                tokenList.advance();
                 eList = new NExpl(tokenList, table);
                 eList.setLeft(bool);
                 return eList;
 
             case TRPAR:
+                tokenList.advance();
                 break;
 
             default:
-                while(nextToken.getTokenID() != Token.TID.TRPAR && nextToken.getTokenID() != Token.TID.TIDEN && nextToken.getTokenID() != Token.TID.TSEMI && nextToken.getTokenID() != Token.TID.TEND)
-                {
-                    nextToken = tokenList.pop();
-                }
-                tokenList.push(nextToken);
+                nextToken = tokenList.skipTo(ARGS_SYNC);
                 switch(nextToken.getTokenID())
                 {
                     case TIDEN:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Arguments not separated with \",\"."));
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Arguments not separated with \",\"."));
                         eList = new NExpl(tokenList, table);
                         eList.setLeft(bool);
                         return eList;
 
-                    case TEND:
-                    case TSEMI:
-                        errorList.add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in argument list."));
+                    case TRPAR:
+                        tokenList.advance();
                         break;
 
                     default:
+                        errors(table).add(new SimpleEntry<>(nextToken, "Syntax Error: (" + nextToken.getLineNum() + ", " + nextToken.getColNum() + "): Missing \")\" in argument list."));
                 }
         }
 
@@ -2127,15 +2496,17 @@ public class STNode
         STNode leftVal = parseNode(leftChild, table);
         STNode rightVal = parseNode(rightChild, table);
 
-        Number result = calcNode(leftVal, rightVal, root);
+        Constant result = calcNode(leftVal, rightVal, root, table);
 
-        if(result instanceof Double)
+        if(result != null && result.getType() == PrimitiveType.REAL)
         {
             root = new NFlit(new Token(Token.TID.TFLIT, leftVal.getSymbol().getLine(), leftVal.getSymbol().getCol(), result.toString()), table);
+            root.getSymbol().setConstant(result);
         }
-        else if(result instanceof Integer)
+        else if(result != null && result.getType() == PrimitiveType.INTEGER)
         {
             root = new NIlit(new Token(Token.TID.TILIT, leftVal.getSymbol().getLine(), leftVal.getSymbol().getCol(), result.toString()), table);
+            root.getSymbol().setConstant(result);
         }
         else
         {
@@ -2144,7 +2515,10 @@ public class STNode
                 undef = leftVal.getSymbol();
             else
                 undef = rightVal.getSymbol();
-            errorList.add(new SimpleEntry<>(undef.getToken(), "Semantic Error: (" + undef.getLine() + ", " + undef.getCol() + "): Identifier not numeric."));
+
+            // An operand recovery gave up on has been reported already
+            if(undef != null)
+                semanticError(table, undef.getToken(), "Semantic Error: (" + undef.getLine() + ", " + undef.getCol() + "): Identifier not numeric.");
 
         }
         return root;
@@ -2178,9 +2552,9 @@ public class STNode
      * Calculates a binary expression node and checks it semantically
      *
      */
-    private Number calcNode(STNode leftVal, STNode rightVal, STNode root)
+    private Constant calcNode(STNode leftVal, STNode rightVal, STNode root, SymbolTable table)
     {
-        Number op1, op2, result = null;
+        Constant op1, op2, result = null;
 
         op1 = checkNumber(leftVal);
         if(op1 == null)
@@ -2195,39 +2569,39 @@ public class STNode
             case NADD:
 
                 if(leftVal.getNodeID() == NID.NFLIT || rightVal.getNodeID() == NID.NFLIT)
-                    result = op1.doubleValue() + op2.doubleValue();
+                    result = Constant.real(op1.doubleValue() + op2.doubleValue());
                 else
-                    result = op1.intValue() + op2.intValue();
+                    result = Constant.integer(op1.intValue() + op2.intValue());
                 break;
 
             case NSUB:
                 if(leftVal.getNodeID() == NID.NFLIT || rightVal.getNodeID() == NID.NFLIT)
-                    result = op1.doubleValue() - op2.doubleValue();
+                    result = Constant.real(op1.doubleValue() - op2.doubleValue());
                 else
-                    result = op1.intValue() - op2.intValue();
+                    result = Constant.integer(op1.intValue() - op2.intValue());
                 break;
 
             case NDIV:
                 if(op2.doubleValue() != 0.0)
                 {
                     if(leftVal.getNodeID() == NID.NFLIT || rightVal.getNodeID() == NID.NFLIT)
-                        result = op1.doubleValue() / op2.doubleValue();
+                        result = Constant.real(op1.doubleValue() / op2.doubleValue());
                     else
-                        result = op1.intValue() / op2.intValue();
+                        result = Constant.integer(op1.intValue() / op2.intValue());
                 }
                 else
                 {
-                    result = Double.NaN;
-                    TableEntry symbol = root.getRight().getSymbol();
-                    errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Divide by zero error."));
+                    result = Constant.real(Double.NaN);
+                    TableEntry symbol = operandSymbol(root.getRight(), rightVal);
+                    errors(table).add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Divide by zero error."));
                 }
                 break;
 
             case NMUL:
                 if(leftVal.getNodeID() == NID.NFLIT || rightVal.getNodeID() == NID.NFLIT)
-                    result = op1.doubleValue() * op2.doubleValue();
+                    result = Constant.real(op1.doubleValue() * op2.doubleValue());
                 else
-                    result = op1.intValue() * op2.intValue();
+                    result = Constant.integer(op1.intValue() * op2.intValue());
                 break;
 
             case NMOD:
@@ -2237,44 +2611,45 @@ public class STNode
                     {
                         if(rightVal.getNodeID() != NID.NILIT)
                         {
-                            result = Double.NaN;
-                            TableEntry symbol = root.getRight().getSymbol();
-                            errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in modulus operation."));
+                            result = Constant.real(Double.NaN);
+                            TableEntry symbol = operandSymbol(root.getRight(), rightVal);
+                            errors(table).add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in modulus operation."));
                         }
                         else
                         {
-                            result = op1.intValue() % op2.intValue();
+                            result = Constant.integer(op1.intValue() % op2.intValue());
                         }
                     }
                     else
                     {
-                        result = Double.NaN;
-                        TableEntry symbol = root.getLeft().getSymbol();
-                        errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in modulus operation."));
+                        result = Constant.real(Double.NaN);
+                        TableEntry symbol = operandSymbol(root.getLeft(), leftVal);
+                        errors(table).add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in modulus operation."));
                     }
                 }
                 else
                 {
-                    result = Double.NaN;
-                    TableEntry symbol = root.getRight().getSymbol();
-                    errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Divide by zero error."));
+                    result = Constant.real(Double.NaN);
+                    TableEntry symbol = operandSymbol(root.getRight(), rightVal);
+                    errors(table).add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Divide by zero error."));
                 }
                 break;
 
             case NPOW:
                 if(leftVal.getNodeID() == NID.NILIT && rightVal.getNodeID() == NID.NILIT)
                 {
-                    result = op1.intValue();
+                    int power = op1.intValue();
                     for(int i = op2.intValue(); i > 1; i--)
                     {
-                        result = result.intValue() * op1.intValue();
+                        power = power * op1.intValue();
                     }
+                    result = Constant.integer(power);
                 }
                 else
                 {
-                    result = Double.NaN;
-                    TableEntry symbol = getLeft().getRight().getSymbol();
-                    errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in exponent operation."));
+                    result = Constant.real(Double.NaN);
+                    TableEntry symbol = leftVal.getNodeID() == NID.NFLIT ? leftVal.getSymbol() : rightVal.getSymbol();
+                    errors(table).add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal float literal in exponent operation."));
                 }
                 break;
 
@@ -2283,25 +2658,55 @@ public class STNode
         return result;
     }
 
+    /** operandSymbol()
+     *
+     * @param operand - STNode, an operand as it was read
+     * @param value - STNode, the operand folded to a literal
+     * @return - TableEntry, the operand's symbol, or the literal's if the operand is an expression, which has none
+     */
+    private static TableEntry operandSymbol(STNode operand, STNode value)
+    {
+        return operand.getSymbol() != null ? operand.getSymbol() : value.getSymbol();
+    }
+
     /** checkNumber()
      *
-     * Returns a symbol name as a number
+     * Returns the value of a literal, the constant folding gave it or else its name as a number
      *
      */
-    private Number checkNumber(STNode node)
+    private Constant checkNumber(STNode node)
     {
         if((node.getNodeID() == NID.NILIT))
         {
-            return Integer.parseInt(node.getSymbol().getName());
+            Constant value = node.getSymbol().getConstant();
+            return value != null ? value : Constant.integer(node.getSymbol().getIntValue());
         }
         else if((node.getNodeID() == NID.NFLIT))
         {
-            return Double.parseDouble(node.getSymbol().getName());
+            Constant value = node.getSymbol().getConstant();
+            return value != null && value.getType() == PrimitiveType.REAL ? value : Constant.real(node.getSymbol().getFloatValue());
         }
         else
             return null;
     }
 
+    /** constantOf()
+     *
+     * @param node - STNode, the folded value of a constant
+     * @return - Constant, the value, or null if it is not a literal or its name is not a number it can hold
+     */
+    private Constant constantOf(STNode node)
+    {
+        try
+        {
+            return checkNumber(node);
+        }
+        catch(NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
     /** propagateConstants()
      *
      * Substitutes numeric values into variables
@@ -2316,16 +2721,23 @@ public class STNode
                 if(table.hasID(root.getSymbol().getName()))
                 {
                     entry = table.getIdEntry(root.getSymbol().getName());
-                    if(entry.getType().equals("integer"))
+                    if(entry.getDataType() == PrimitiveType.INTEGER)
                         root = new NIlit(new Token(Token.TID.TILIT, root.getSymbol().getLine(), root.getSymbol().getCol(), entry.getValue()), table);
-                    else if(entry.getType().equals("real"))
+                    else if(entry.getDataType() == PrimitiveType.REAL)
                         root = new NFlit(new Token(Token.TID.TFLIT, root.getSymbol().getLine(), root.getSymbol().getCol(), entry.getValue()), table);
+                    else
+                        break;
+
+                    // The literal has the value of the constant, read without parsing its name
+                    root.getSymbol().setConstant(entry.getConstant());
                 }
                 break;
 
+            // The error is placed at the node being read, which has no position before its symbol is set
             case NTRUE:
             case NFALS:
-                errorList.add(new SimpleEntry<>(symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal boolean in numeric expression."));
+                if(symbol != null)
+                    semanticError(table, symbol.getToken(), "Semantic Error: (" + symbol.getLine() + ", " + symbol.getCol() + "): Illegal boolean in numeric expression.");
                 break;
 
             default:
@@ -12,91 +12,170 @@ import java.util.HashMap;
  * Symbol table class for the CD18 compiler.
  *
  */
-public class SymbolTable
+public class SymbolTable implements Symbols
 {
-    private static HashMap<String, SymbolTable> scopeTables = new HashMap<>();
-
-    private HashMap<String, String> identifiers;
-    private HashMap<String, Character> types;
+    // Names map straight to their entries, the list keeps the order they were declared in
+    private HashMap<String, TableEntry> identifiers;
+    private HashMap<String, TableEntry> types;
+    private HashMap<String, Character> subTypes;
     private ArrayList<TableEntry> symbolTable;
+    private HashMap<String, RecordType> records;
+    private HashMap<String, ArrayType> arrayTypes;
     private ArrayList<String> paramTypes;
     private SymbolTable previous;
+    private CompilationContext context;
+
+    // A view of the global table hides the functions from number horizon on
+    private HashMap<String, Integer> functions;
+    private int horizon;
 
     /** Constructor
      *
      * @param prev
      */
     public SymbolTable(SymbolTable prev)
+    {
+        this(prev, prev == null ? new CompilationContext() : prev.context);
+    }
+
+    /** Constructor
+     *
+     * Tables share the context of the compilation, and through it the name pool of
+     * the scanner so entries can be matched by name ID
+     *
+     * @param prev
+     * @param cContext - CompilationContext, the compilation the table belongs to
+     */
+    public SymbolTable(SymbolTable prev, CompilationContext cContext)
     {
         previous = prev;
+        context = cContext;
         identifiers = new HashMap<>();
         types = new HashMap<>();
+        subTypes = new HashMap<>();
         symbolTable = new ArrayList<>();
+        records = new HashMap<>();
+        arrayTypes = new HashMap<>();
         paramTypes = new ArrayList<>();
         if(prev == null)
         {
-            types.put("integer", 'p');
-            types.put("real", 'p');
-            types.put("boolean", 'p');
+            addPrimitive("integer");
+            addPrimitive("real");
+            addPrimitive("boolean");
         }
     }
 
-    public void addParamType(String pType)
+    /** Constructor
+     *
+     * Makes a view sharing the entries of a global table
+     *
+     * @param global - SymbolTable, the global table
+     * @param funcs - HashMap<String, Integer>, names of functions and the number of the function that added each
+     * @param function - int, number of the first function hidden
+     * @param task - CompilationContext, context of the function read through the view
+     */
+    private SymbolTable(SymbolTable global, HashMap<String, Integer> funcs, int function, CompilationContext task)
     {
-        paramTypes.add(pType);
+        previous = null;
+        context = task;
+        identifiers = global.identifiers;
+        types = global.types;
+        subTypes = global.subTypes;
+        symbolTable = global.symbolTable;
+        records = global.records;
+        arrayTypes = global.arrayTypes;
+        paramTypes = global.paramTypes;
+        functions = funcs;
+        horizon = function;
     }
 
-    public boolean matchParam(int pNumber, String pType)
+    /** viewBefore()
+     *
+     * Makes a view of this global table as it was before a function was added, so the bodies
+     * of functions can be read at the same time. The view shares the table's entries, which
+     * must not change while it is in use, and hides names first added by that function or later.
+     *
+     * @param funcs - HashMap<String, Integer>, names of functions and the number of the function that added each
+     * @param function - int, number of the function
+     * @param task - CompilationContext, context of the function, tables made over the view use it
+     * @return - SymbolTable, the view
+     */
+    public SymbolTable viewBefore(HashMap<String, Integer> funcs, int function, CompilationContext task)
     {
-        return paramTypes.get(pNumber).equals(pType);
+        return new SymbolTable(this, funcs, function, task);
     }
 
-    public void updateValue(String symbol, String value)
+    /** enterScope()
+     *
+     * @return - Symbols, a new table inside this one
+     */
+    @Override
+    public Symbols enterScope()
     {
-        identifiers.put(symbol, value);
+        return new SymbolTable(this);
     }
 
-    public static void addScopeTable(String scopeName, SymbolTable table)
+    /** exitScope()
+     *
+     * @return - Symbols, the table around this one
+     */
+    @Override
+    public Symbols exitScope()
     {
-        scopeTables.put(scopeName, table);
+        if(previous == null)
+            throw new IllegalStateException("The global scope cannot be left");
+
+        return previous;
     }
 
-    public static SymbolTable getScopeTable(String scopeName)
+    /** visible()
+     *
+     * @param symbol - String, a name in this table
+     * @return - boolean, false if the name belongs to a function the view hides
+     */
+    private boolean visible(String symbol)
     {
-        return scopeTables.get(scopeName);
+        return functions == null || functions.getOrDefault(symbol, -1) < horizon;
+    }
+
+    public void addParamType(String pType)
+    {
+        paramTypes.add(pType);
+    }
+
+    public boolean matchParam(int pNumber, String pType)
+    {
+        // A parameter recovery passed over has no type to match
+        return pNumber < paramTypes.size() && paramTypes.get(pNumber).equals(pType);
     }
 
     /** addSymbol()
+     *
+     * A name added again keeps the entry it was first added with
      *
      * @param entry
      */
+    @Override
     public void addSymbol(TableEntry entry)
     {
         if(entry.getTokenID() == Token.TID.TIDEN)
         {
-            identifiers.put(entry.getName(), entry.getValue());
+            identifiers.putIfAbsent(entry.getName(), entry);
         }
 
+        internName(entry);
         symbolTable.add(entry);
     }
 
-    /**
-     *
-     * @param id
-     */
-    public void addID(String id)
-    {
-        identifiers.put(id, null);
-    }
-
     /** checkIdInScope()
      *
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasIdInScope(String symbol)
     {
-        return identifiers.containsKey(symbol);
+        return identifiers.containsKey(symbol) && visible(symbol);
     }
 
     /** checkSymbol()
@@ -104,12 +183,13 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasID(String symbol)
     {
         boolean found = false;
         for(SymbolTable table = this; table != null; table = table.previous)
         {
-            if(table.identifiers.containsKey(symbol))
+            if(table.identifiers.containsKey(symbol) && table.visible(symbol))
             {
                 found = true;
                 break;
@@ -123,56 +203,109 @@ public class SymbolTable
      *
      * @param entry
      */
+    @Override
     public void addType(TableEntry entry, char subType)
     {
         if(entry.getTokenID() == Token.TID.TIDEN)
         {
-            types.put(entry.getName(), subType);
+            types.putIfAbsent(entry.getName(), entry);
+            subTypes.put(entry.getName(), subType);
         }
 
+        internName(entry);
         symbolTable.add(entry);
     }
 
     /**
      *
      * @param arrayName
-     * @return
+     * @return - String, the element type of the array type, or null if no such type is declared
      */
     public String getArrayType(String arrayName)
     {
-        return getGlobalTypeEntry(arrayName).getType();
+        TableEntry entry = getGlobalTypeEntry(arrayName);
+
+        return entry != null ? entry.getType() : null;
     }
 
-    /**
+    /** addRecord()
      *
-     * @param structName
-     * @return
+     * Adds the descriptor of a structure type to the global table. A structure declared
+     * again keeps its first descriptor, as its type entry does.
+     *
+     * @param record - RecordType, the descriptor
+     */
+    public void addRecord(RecordType record)
+    {
+        SymbolTable table = this;
+
+        while(table.previous != null)
+        {
+            table = table.previous;
+        }
+
+        table.records.putIfAbsent(record.getName(), record);
+    }
+
+    /** getRecord()
+     *
+     * @param structName - String, name of a structure type
+     * @return - RecordType, its descriptor or null if no structure has the name
      */
-    public ArrayList<TableEntry> getStructMembers(String structName)
+    public RecordType getRecord(String structName)
     {
-        ArrayList<TableEntry> members = new ArrayList<>();
+        SymbolTable table = this;
+
+        while(table.previous != null)
+        {
+            table = table.previous;
+        }
 
+        return table.records.get(structName);
+    }
+
+    /** addArrayType()
+     *
+     * Adds the descriptor of an array type to the global table. An array type declared
+     * again keeps its first descriptor, as its type entry does.
+     *
+     * @param array - ArrayType, the descriptor
+     */
+    public void addArrayType(ArrayType array)
+    {
         SymbolTable table = this;
 
         while(table.previous != null)
         {
-            table = table.getPrevious();
+            table = table.previous;
         }
 
-        for(String entry : table.identifiers.keySet())
+        table.arrayTypes.putIfAbsent(array.getName(), array);
+    }
+
+    /** getDataType()
+     *
+     * @param typeName - String, a type name
+     * @return - DataType, the built in, structure or array type with the name, or null if there is none
+     */
+    public DataType getDataType(String typeName)
+    {
+        DataType type = PrimitiveType.of(typeName);
+
+        if(type == null)
         {
-            /*if(entry.startsWith(structName+"."))
-                members.add(entry.substring(entry.indexOf(".")+1));*/
+            SymbolTable table = this;
 
-            if(entry.startsWith(structName+"."))
+            while(table.previous != null)
             {
-
-                TableEntry te = new TableEntry(getGlobalIdEntry(entry));
-                //te.setName(entry.substring(entry.indexOf(".")+1));
-                members.add(te);
+                table = table.previous;
             }
+
+            type = table.records.get(typeName);
+            if(type == null)
+                type = table.arrayTypes.get(typeName);
         }
-        return members;
+        return type;
     }
 
     /** checkGlobalID()
@@ -180,6 +313,7 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasGlobalID(String symbol)
     {
         boolean found = false;
@@ -189,7 +323,7 @@ public class SymbolTable
         {
             table = table.previous;
         }
-        if(table.identifiers.containsKey(symbol))
+        if(table.identifiers.containsKey(symbol) && table.visible(symbol))
         {
             found = true;
         }
@@ -202,6 +336,7 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasGlobalType(String symbol)
     {
         boolean found = false;
@@ -224,21 +359,15 @@ public class SymbolTable
      * @param symbolName
      * @return
      */
+    @Override
     public TableEntry getIdEntry(String symbolName)
     {
         TableEntry symbol = null;
         for(SymbolTable table = this; table != null; table = table.previous)
         {
-            if(table.identifiers.containsKey(symbolName))
+            if(table.identifiers.containsKey(symbolName) && table.visible(symbolName))
             {
-                for(TableEntry entry : table.getTable())
-                {
-                    if(entry.getName().equals(symbolName))
-                    {
-                        symbol = entry;
-                        break;
-                    }
-                }
+                symbol = table.identifiers.get(symbolName);
                 break;
             }
         }
@@ -251,6 +380,7 @@ public class SymbolTable
      * @param symbolName
      * @return
      */
+    @Override
     public TableEntry getTypeEntry(String symbolName)
     {
         TableEntry symbol = null;
@@ -258,14 +388,7 @@ public class SymbolTable
         {
             if(table.types.containsKey(symbolName))
             {
-                for(TableEntry entry : table.getTable())
-                {
-                    if(entry.getName().equals(symbolName))
-                    {
-                        symbol = entry;
-                        break;
-                    }
-                }
+                symbol = table.types.get(symbolName);
                 break;
             }
         }
@@ -278,6 +401,7 @@ public class SymbolTable
      * @param symbolName
      * @return
      */
+    @Override
     public TableEntry getGlobalTypeEntry(String symbolName)
     {
         TableEntry symbol = null;
@@ -290,14 +414,7 @@ public class SymbolTable
 
         if(table.types.containsKey(symbolName))
         {
-            for(TableEntry entry : table.symbolTable)
-            {
-                if(entry.getName().equals(symbolName))
-                {
-                    symbol = entry;
-                    break;
-                }
-            }
+            symbol = table.types.get(symbolName);
         }
 
         return symbol;
@@ -308,6 +425,7 @@ public class SymbolTable
      * @param symbolName
      * @return
      */
+    @Override
     public TableEntry getGlobalIdEntry(String symbolName)
     {
         TableEntry symbol = null;
@@ -318,16 +436,9 @@ public class SymbolTable
             table = table.previous;
         }
 
-        if(table.identifiers.containsKey(symbolName))
+        if(table.identifiers.containsKey(symbolName) && table.visible(symbolName))
         {
-            for(TableEntry entry : table.getTable())
-            {
-                if(entry.getName().equals(symbolName))
-                {
-                    symbol = entry;
-                    break;
-                }
-            }
+            symbol = table.identifiers.get(symbolName);
         }
 
         return symbol;
@@ -338,6 +449,7 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasTypeInScope(String symbol)
     {
         return types.containsKey(symbol);
@@ -348,6 +460,7 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public boolean hasTypeDeclared(String symbol)
     {
         boolean found = false;
@@ -368,14 +481,15 @@ public class SymbolTable
      * @param symbol
      * @return
      */
+    @Override
     public char hasSubType(String symbol)
     {
         char type = '\0';
         for(SymbolTable table = this; table != null; table = table.previous)
         {
-            if(table.types.containsKey(symbol))
+            if(table.subTypes.containsKey(symbol))
             {
-                type = table.types.get(symbol);
+                type = table.subTypes.get(symbol);
                 break;
             }
         }
@@ -383,6 +497,48 @@ public class SymbolTable
         return type;
     }
 
+    /** addPrimitive()
+     *
+     * Declares a built in type, which has no entry of its own
+     *
+     * @param name - String, name of the type
+     */
+    private void addPrimitive(String name)
+    {
+        types.put(name, null);
+        subTypes.put(name, 'p');
+    }
+
+    /** internName()
+     *
+     * Gives an entry the name pool ID of its name if it does not already have one
+     *
+     * @param entry - TableEntry, an entry being added to the table
+     */
+    private void internName(TableEntry entry)
+    {
+        if(entry.getNameID() < 0 && entry.getName() != null)
+            entry.setNameID(context.getNamePool().intern(entry.getName()));
+    }
+
+    /** getNamePool()
+     *
+     * @return - NamePool, the pool the table's names are interned in
+     */
+    public NamePool getNamePool()
+    {
+        return context.getNamePool();
+    }
+
+    /** getContext()
+     *
+     * @return - CompilationContext, the compilation the table belongs to
+     */
+    public CompilationContext getContext()
+    {
+        return context;
+    }
+
     /** getTable()
      *
      * @return
@@ -400,4 +556,16 @@ public class SymbolTable
     {
         return previous;
     }
+
+    /** setPrevious()
+     *
+     * Moves the table under another, taking that table's context
+     *
+     * @param prev - SymbolTable, the enclosing table
+     */
+    public void setPrevious(SymbolTable prev)
+    {
+        previous = prev;
+        context = prev.context;
+    }
 }
@@ -0,0 +1,123 @@
+/** Symbols.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 17/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * The declarations and lookups of a symbol table with nested scopes. SymbolTable keeps a
+ * table per scope chained to the one around it, FlatSymbolTable keeps every scope in one
+ * table. Scopes are entered and left in order, always through the table returned.
+ *
+ */
+public interface Symbols
+{
+    /** enterScope()
+     *
+     * @return - Symbols, the table to declare and look up names in inside the new scope
+     */
+    Symbols enterScope();
+
+    /** exitScope()
+     *
+     * Leaves the innermost scope, its names are no longer found
+     *
+     * @return - Symbols, the table of the scope around it
+     */
+    Symbols exitScope();
+
+    /** addSymbol()
+     *
+     * Adds an entry to the innermost scope, an identifier is declared by it
+     *
+     * @param entry - TableEntry, the entry
+     */
+    void addSymbol(TableEntry entry);
+
+    /** addType()
+     *
+     * Adds an entry to the innermost scope, a type identifier is declared by it
+     *
+     * @param entry - TableEntry, the entry
+     * @param subType - char, 'p' primitive, 'a' array or 'c' structure
+     */
+    void addType(TableEntry entry, char subType);
+
+    /** hasIdInScope()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is an identifier of the innermost scope
+     */
+    boolean hasIdInScope(String symbol);
+
+    /** hasID()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is an identifier of any scope
+     */
+    boolean hasID(String symbol);
+
+    /** hasGlobalID()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is a global identifier
+     */
+    boolean hasGlobalID(String symbol);
+
+    /** hasTypeInScope()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is a type of the innermost scope
+     */
+    boolean hasTypeInScope(String symbol);
+
+    /** hasTypeDeclared()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is a type of any scope
+     */
+    boolean hasTypeDeclared(String symbol);
+
+    /** hasGlobalType()
+     *
+     * @param symbol - String, a name
+     * @return - boolean, true if the name is a global type
+     */
+    boolean hasGlobalType(String symbol);
+
+    /** hasSubType()
+     *
+     * @param symbol - String, a type name
+     * @return - char, subtype of the innermost type with the name, or '\0' if there is none
+     */
+    char hasSubType(String symbol);
+
+    /** getIdEntry()
+     *
+     * @param symbolName - String, a name
+     * @return - TableEntry, entry of the innermost identifier with the name, or null
+     */
+    TableEntry getIdEntry(String symbolName);
+
+    /** getTypeEntry()
+     *
+     * @param symbolName - String, a name
+     * @return - TableEntry, entry of the innermost type with the name, or null
+     */
+    TableEntry getTypeEntry(String symbolName);
+
+    /** getGlobalIdEntry()
+     *
+     * @param symbolName - String, a name
+     * @return - TableEntry, entry of the global identifier with the name, or null
+     */
+    TableEntry getGlobalIdEntry(String symbolName);
+
+    /** getGlobalTypeEntry()
+     *
+     * @param symbolName - String, a name
+     * @return - TableEntry, entry of the global type with the name, or null
+     */
+    TableEntry getGlobalTypeEntry(String symbolName);
+}
@@ -12,9 +12,13 @@
 public class TableEntry
 {
     private String symbolName;
+    private int nameID;
     private String symbolType;
+    private DataType dataType;
     private String symbolValue;
+    private Constant constant;
     private Token token;
+    private boolean tokenName;
     private int line;
     private int col;
     private int register;
@@ -24,6 +28,8 @@ public class TableEntry
     {
         token = tkn;
         symbolName = token.getLexeme();
+        tokenName = true;
+        nameID = token.getNameID();
         line = token.getLineNum();
         col = token.getColNum();
     }
@@ -31,8 +37,11 @@ public class TableEntry
     public TableEntry(String parentName, TableEntry entry)
     {
         symbolName = parentName + "." + entry.symbolName;
+        nameID = -1;
         symbolType = entry.symbolType;
+        dataType = entry.dataType;
         symbolValue = entry.symbolValue;
+        constant = entry.constant;
         token = entry.token;
         line = entry.line;
         col = entry.col;
@@ -41,9 +50,13 @@ public class TableEntry
     public TableEntry(TableEntry entry)
     {
         symbolName = entry.symbolName;
+        nameID = entry.nameID;
         symbolType = entry.symbolType;
+        dataType = entry.dataType;
         symbolValue = entry.symbolValue;
+        constant = entry.constant;
         token = entry.token;
+        tokenName = entry.tokenName;
         line = entry.line;
         col = entry.col;
     }
@@ -81,6 +94,7 @@ public class TableEntry
     public void setToken(Token tkn)
     {
         token = tkn;
+        tokenName = false;
     }
 
     public Token getToken()
@@ -101,11 +115,116 @@ public class TableEntry
     public void setName(String name)
     {
         symbolName = name;
+        tokenName = false;
+        nameID = -1;
+        constant = null;
+    }
+
+    /** getIntValue()
+     *
+     * Gets the name of an integer literal as its value, using the constant folding gave
+     * the literal or the value the scanner worked out while the name is still the literal's lexeme
+     *
+     * @return - int, the value of the name
+     * @throws NumberFormatException - if the name is not an int
+     */
+    public int getIntValue()
+    {
+        if(constant != null && constant.getType() == PrimitiveType.INTEGER)
+            return constant.intValue();
+        if(tokenName && token.hasNumber() && token.getTokenID() == Token.TID.TILIT)
+        {
+            long value = token.getIntValue();
+            if(value == (int)value)
+                return (int)value;
+        }
+        return Integer.parseInt(symbolName);
+    }
+
+    /** getFloatValue()
+     *
+     * Gets the name of a numeric literal as its value, using the constant folding gave
+     * the literal or the value the scanner worked out while the name is still the literal's lexeme
+     *
+     * @return - double, the value of the name
+     * @throws NumberFormatException - if the name is not a number
+     */
+    public double getFloatValue()
+    {
+        if(constant != null && constant.getType() != PrimitiveType.BOOLEAN)
+            return constant.doubleValue();
+        if(tokenName && token.hasNumber())
+            return token.getFloatValue();
+        return Double.parseDouble(symbolName);
+    }
+
+    /** getNameID()
+     *
+     * @return - int, the name pool ID of the symbol name or -1 if not interned
+     */
+    public int getNameID()
+    {
+        return nameID;
+    }
+
+    public void setNameID(int id)
+    {
+        nameID = id;
     }
 
     public void setType(String type)
     {
         symbolType = type;
+        dataType = PrimitiveType.of(type);
+    }
+
+    /** setDataType()
+     *
+     * @param type - DataType, the type, whose name becomes the type name of the entry
+     */
+    public void setDataType(DataType type)
+    {
+        symbolType = type.getName();
+        dataType = type;
+    }
+
+    /** getDataType()
+     *
+     * @return - DataType, the type of the entry, or null if its type name is not a type that is known
+     */
+    public DataType getDataType()
+    {
+        return dataType;
+    }
+
+    /** sameType()
+     *
+     * @param other - TableEntry, another entry
+     * @return - boolean, true if both entries have the same type
+     */
+    public boolean sameType(TableEntry other)
+    {
+        if(dataType != null && other.dataType != null)
+            return dataType == other.dataType;
+        return symbolType.equals(other.symbolType);
+    }
+
+    /** setConstant()
+     *
+     * @param value - Constant, the value of a literal or a constant, or null if it is not known
+     */
+    public void setConstant(Constant value)
+    {
+        constant = value;
+    }
+
+    /** getConstant()
+     *
+     * @return - Constant, the value of a literal or a constant, or null if it is not known
+     */
+    public Constant getConstant()
+    {
+        return constant;
     }
 
     public int getLine()
@@ -113,6 +232,17 @@ public class TableEntry
         return line;
     }
 
+    /** moveLines()
+     *
+     * Moves the entry down the source, after lines are added or removed above it
+     *
+     * @param lines - int, number of lines moved, negative to move up
+     */
+    public void moveLines(int lines)
+    {
+        line += lines;
+    }
+
     public int getCol()
     {
         return col;
@@ -129,9 +259,19 @@ public class TableEntry
         if(object instanceof TableEntry)
         {
             TableEntry other = (TableEntry)object;
+
+            // Interned names are equal only if their IDs are
+            if(nameID >= 0 && other.nameID >= 0)
+                return nameID == other.nameID;
             return symbolName.equals(other.getName());
         }
         return false;
     }
 
+    @Override
+    public int hashCode()
+    {
+        return symbolName == null ? 0 : symbolName.hashCode();
+    }
+
 }
@@ -1,3 +1,6 @@
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
 /** Token.java
  *
  * Author: Greg Choice c9311718@uon.edu.au
@@ -12,6 +15,10 @@
  * Description:
  * Token class stores information that describes a token for a CD18 lexer/scanner
  *
+ * Literal tokens made by the scanner keep their lexeme as a view into the source buffer
+ * and only build a String when one is asked for. Integer and float literals also carry
+ * their value, worked out while the literal is scanned.
+ *
  */
 public class Token
 {
@@ -38,10 +45,53 @@ public class Token
         TIDEN, TILIT, TFLIT, TSTRG, TUNDF
     }
 
+    // Keywords in lower case with their tokens
+    private static final String[] KEYWORDS =
+    {
+        "cd18", "constants", "types", "is", "arrays", "main", "begin", "end", "array", "of", "func", "void",
+        "const", "integer", "real", "boolean", "for", "repeat", "until", "if", "else", "input", "print", "printline",
+        "return", "and", "or", "xor", "not", "true", "false"
+    };
+    private static final TID[] KEYWORD_TIDS =
+    {
+        TID.TCD18, TID.TCONS, TID.TTYPS, TID.TIS, TID.TARRS, TID.TMAIN, TID.TBEGN, TID.TEND, TID.TARAY, TID.TOF, TID.TFUNC, TID.TVOID,
+        TID.TCNST, TID.TINTG, TID.TREAL, TID.TBOOL, TID.TFOR, TID.TREPT, TID.TUNTL, TID.TIFTH, TID.TELSE, TID.TINPT, TID.TPRIN, TID.TPRLN,
+        TID.TRETN, TID.TAND, TID.TOR, TID.TXOR, TID.TNOT, TID.TTRUE, TID.TFALS
+    };
+    private static final int MAX_KEYWORD = 9;
+    private static final char[][] KEYWORD_CHARS = new char[KEYWORDS.length][];
+
+    // Indexes of the keywords for each length and first letter
+    private static final int[][][] KEYWORD_INDEX = new int[MAX_KEYWORD + 1][26][];
+
+    // Powers of ten a double holds exactly, and the largest mantissa that is exact
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT = 1L << 53;
+
+    static
+    {
+        for(int i = 0; i < KEYWORDS.length; i++)
+        {
+            KEYWORD_CHARS[i] = KEYWORDS[i].toCharArray();
+
+            int[][] byFirst = KEYWORD_INDEX[KEYWORDS[i].length()];
+            int first = KEYWORDS[i].charAt(0) - 'a';
+            int[] bucket = byFirst[first] == null ? new int[0] : byFirst[first];
+
+            byFirst[first] = Arrays.copyOf(bucket, bucket.length + 1);
+            byFirst[first][bucket.length] = i;
+        }
+
+        POWERS_OF_TEN[0] = 1.0;
+        for(int i = 1; i < POWERS_OF_TEN.length; i++)
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+    }
+
     private TID tokenID;
     private int lineNum;
     private int colNum;
     private String lexeme;
+    private int nameID;
 
     /** Constructor
      *
@@ -68,6 +118,30 @@ public class Token
         lineNum = line;
         colNum = col;
         lexeme = lex;
+        nameID = -1;
+    }
+
+    /** Constructor
+     *
+     * Creates a token that has already been classified, such as one read back from a TokenBuffer
+     *
+     * @param tid - ID, selected from enum ID
+     * @param line - int, line number of the token
+     * @param col - int, column number of the token
+     * @param lex - String, lexeme associated with the token
+     * @param id - int, name pool ID of an identifier or -1
+     */
+    public Token(TID tid, int line, int col, String lex, int id)
+    {
+        tokenID = tid;
+        lineNum = line;
+        colNum = col;
+        lexeme = lex;
+        nameID = id;
+    }
+
+    private Token()
+    {
     }
 
     public Token(Token token)
@@ -75,7 +149,156 @@ public class Token
         tokenID = token.tokenID;
         lineNum = token.lineNum;
         colNum = token.colNum;
-        lexeme = token.lexeme;
+        lexeme = token.getLexeme();
+        nameID = token.nameID;
+    }
+
+    /** literal()
+     *
+     * Creates the token for a literal in a character buffer without copying its lexeme.
+     * Integer and float literals have their value worked out here, a literal too long
+     * to convert exactly is left to be parsed from its lexeme if the value is asked for.
+     *
+     * @param tid - ID, TILIT, TFLIT or TSTRG
+     * @param buf - char[], the buffer holding the literal
+     * @param start - int, index of the first character of the literal
+     * @param len - int, length of the literal
+     * @param line - int, line number of the token
+     * @param col - int, column number of the token
+     * @return - Token, the literal token
+     */
+    public static Token literal(TID tid, char[] buf, int start, int len, int line, int col)
+    {
+        Literal token = new Literal(tid, line, col, buf, start, len);
+
+        if(tid != TID.TILIT && tid != TID.TFLIT)
+            return token;
+
+        long mantissa = 0;
+        int fraction = -1;
+
+        for(int i = start; i < start + len; i++)
+        {
+            char c = buf[i];
+
+            if(c == '.')
+                fraction = 0;
+            // Digits outside ASCII or too many to hold exactly are left to the parse methods
+            else if(c < '0' || c > '9' || mantissa > (Long.MAX_VALUE - 9) / 10)
+                return token;
+            else
+            {
+                mantissa = mantissa * 10 + (c - '0');
+                if(fraction >= 0)
+                    fraction++;
+            }
+        }
+
+        if(tid == TID.TILIT)
+            token.number = mantissa;
+        // Both operands are exact so the one division is correctly rounded, as parseDouble is
+        else if(mantissa <= MAX_EXACT && fraction >= 0 && fraction < POWERS_OF_TEN.length)
+            token.number = Double.doubleToRawLongBits(mantissa / POWERS_OF_TEN[fraction]);
+        else
+            token.number = Double.doubleToRawLongBits(Double.parseDouble(new String(buf, start, len)));
+
+        token.hasNumber = true;
+        return token;
+    }
+
+    /** literal()
+     *
+     * Creates the token for a numeric literal in a character buffer whose value is already known
+     *
+     * @param tid - ID, TILIT or TFLIT
+     * @param buf - char[], the buffer holding the literal
+     * @param start - int, index of the first character of the literal
+     * @param len - int, length of the literal
+     * @param line - int, line number of the token
+     * @param col - int, column number of the token
+     * @param value - long, the value of an integer literal or the raw bits of a float literal
+     * @return - Token, the literal token
+     */
+    public static Token literal(TID tid, char[] buf, int start, int len, int line, int col, long value)
+    {
+        Literal token = new Literal(tid, line, col, buf, start, len);
+        token.number = value;
+        token.hasNumber = true;
+        return token;
+    }
+
+    /** word()
+     *
+     * Creates the token for a run of letters and digits in a character buffer.
+     * Keywords are matched in place, identifiers are interned in the name pool
+     * and share its String as their lexeme.
+     *
+     * @param buf - char[], the buffer holding the word
+     * @param start - int, index of the first character of the word
+     * @param len - int, length of the word
+     * @param line - int, line number of the token
+     * @param col - int, column number of the token
+     * @param names - NamePool, the pool identifiers are interned in
+     * @return - Token, a keyword token or an identifier token
+     */
+    public static Token word(char[] buf, int start, int len, int line, int col, NamePool names)
+    {
+        Token token = new Token();
+        token.tokenID = keyword(buf, start, len);
+        token.lineNum = line;
+        token.colNum = col;
+        token.nameID = -1;
+
+        // Only identifiers keep their lexeme
+        if(token.tokenID == TID.TIDEN)
+        {
+            token.nameID = names.intern(buf, start, len);
+            token.lexeme = names.getName(token.nameID);
+        }
+        return token;
+    }
+
+    /** keyword()
+     *
+     * Matches a word against the keywords without regard to case.
+     * Candidates are found by the word length and first letter.
+     *
+     * @param buf - char[], the buffer holding the word
+     * @param start - int, index of the first character of the word
+     * @param len - int, length of the word
+     * @return - ID, the keyword token or TIDEN if not matched
+     */
+    public static TID keyword(char[] buf, int start, int len)
+    {
+        if(len < 2 || len > MAX_KEYWORD)
+            return TID.TIDEN;
+
+        int first = lower(buf[start]) - 'a';
+        if(first < 0 || first >= 26 || KEYWORD_INDEX[len][first] == null)
+            return TID.TIDEN;
+
+        for(int index : KEYWORD_INDEX[len][first])
+        {
+            char[] kw = KEYWORD_CHARS[index];
+            int i = 1;
+
+            while(i < len && lower(buf[start + i]) == kw[i])
+                i++;
+
+            if(i == len)
+                return KEYWORD_TIDS[index];
+        }
+        return TID.TIDEN;
+    }
+
+    /** lower()
+     *
+     * @param c - char, a character
+     * @return - char, the character with ASCII upper case letters made lower case
+     */
+    private static char lower(char c)
+    {
+        return c >= 'A' && c <= 'Z' ? (char)(c + ('a' - 'A')) : c;
     }
 
     /** checkKeywords()
@@ -88,41 +311,7 @@ public class Token
      */
     private TID checkKeywords(String lex)
     {
-        switch(lex.toLowerCase())
-        {
-            case "cd18"         : return TID.TCD18;
-            case "constants"    : return TID.TCONS;
-            case "types"        : return TID.TTYPS;
-            case "is"           : return TID.TIS;
-            case "arrays"       : return TID.TARRS;
-            case "main"         : return TID.TMAIN;
-            case "begin"        : return TID.TBEGN;
-            case "end"          : return TID.TEND;
-            case "array"        : return TID.TARAY;
-            case "of"           : return TID.TOF;
-            case "func"         : return TID.TFUNC;
-            case "void"         : return TID.TVOID;
-            case "const"        : return TID.TCNST;
-            case "integer"      : return TID.TINTG;
-            case "real"         : return TID.TREAL;
-            case "boolean"      : return TID.TBOOL;
-            case "for"          : return TID.TFOR;
-            case "repeat"       : return TID.TREPT;
-            case "until"        : return TID.TUNTL;
-            case "if"           : return TID.TIFTH;
-            case "else"         : return TID.TELSE;
-            case "input"        : return TID.TINPT;
-            case "print"        : return TID.TPRIN;
-            case "printline"    : return TID.TPRLN;
-            case "return"       : return TID.TRETN;
-            case "and"          : return TID.TAND;
-            case "or"           : return TID.TOR;
-            case "xor"          : return TID.TXOR;
-            case "not"          : return TID.TNOT;
-            case "true"         : return TID.TTRUE;
-            case "false"        : return TID.TFALS;
-            default             : return TID.TIDEN;
-        }
+        return keyword(lex.toCharArray(), 0, lex.length());
     }
 
     /** toString()
@@ -134,7 +323,7 @@ public class Token
     @Override
     public String toString()
     {
-        String lex = lexeme;
+        String lex = getLexeme();
 
         // Pad the lexeme to multiples of six
         if(lex != null)
@@ -165,7 +354,7 @@ public class Token
      */
     public String toParser()
     {
-        String lex = lexeme;
+        String lex = getLexeme();
 
         // Pad the lexeme to multiples of six
         if(lex != null)
@@ -232,8 +421,176 @@ public class Token
         return lexeme;
     }
 
+    /** getLexemeView()
+     *
+     * Gets the lexeme without building a String for it
+     *
+     * @return - CharSequence, the lexeme associated with the token or null if it has none
+     */
+    public CharSequence getLexemeView()
+    {
+        return lexeme;
+    }
+
+    /** getLexemeLength()
+     *
+     * @return - int, length of the lexeme or -1 if the token has none
+     */
+    public int getLexemeLength()
+    {
+        return lexeme == null ? -1 : lexeme.length();
+    }
+
+    /** copyLexeme()
+     *
+     * Copies the characters of the lexeme into a buffer
+     *
+     * @param dst - char[], the buffer to copy into
+     * @param dstStart - int, index in the buffer of the first character
+     */
+    public void copyLexeme(char[] dst, int dstStart)
+    {
+        if(lexeme != null)
+            lexeme.getChars(0, lexeme.length(), dst, dstStart);
+    }
+
+    /** hasNumber()
+     *
+     * @return - boolean, true if the token is a literal whose value was worked out when scanned
+     */
+    public boolean hasNumber()
+    {
+        return false;
+    }
+
+    /** getIntValue()
+     *
+     * Gets the value of an integer literal
+     *
+     * @return - long, the value of the literal
+     * @throws NumberFormatException - if the lexeme is not an integer
+     */
+    public long getIntValue()
+    {
+        return Long.parseLong(getLexeme());
+    }
+
+    /** getFloatValue()
+     *
+     * Gets the value of a numeric literal as a double
+     *
+     * @return - double, the value of the literal
+     * @throws NumberFormatException - if the lexeme is not a number
+     */
+    public double getFloatValue()
+    {
+        return Double.parseDouble(getLexeme());
+    }
+
+    /** getNameID()
+     *
+     * Gets the name pool ID of an identifier
+     *
+     * @return - int, the ID of the identifier or -1 if the token has no interned name
+     */
+    public int getNameID()
+    {
+        return nameID;
+    }
+
     public void setLexeme(String lex)
     {
         lexeme = lex;
+        nameID = -1;
+    }
+
+    /** Literal
+     *
+     * A literal token whose lexeme is a view into a character buffer. Only literals pay
+     * for the view and value fields, other tokens stay as small as before.
+     */
+    private static class Literal extends Token
+    {
+        // Cleared once the lexeme is built, read without a lock by the threads of a parallel pass
+        private volatile char[] buffer;
+        private int start;
+        private int length;
+
+        // Value of an integer literal, or the bits of a float literal's value
+        private long number;
+        private boolean hasNumber;
+
+        private Literal(TID tid, int line, int col, char[] buf, int lexStart, int len)
+        {
+            super(tid, line, col, null, -1);
+            buffer = buf;
+            start = lexStart;
+            length = len;
+        }
+
+        @Override
+        public String getLexeme()
+        {
+            // Built once, then held by the token. The lexeme is set before the buffer is
+            // cleared, so a thread that sees no buffer also sees the lexeme
+            char[] buf = buffer;
+            if(buf != null)
+            {
+                super.setLexeme(new String(buf, start, length));
+                buffer = null;
+            }
+            return super.getLexeme();
+        }
+
+        @Override
+        public CharSequence getLexemeView()
+        {
+            char[] buf = buffer;
+            return buf != null ? CharBuffer.wrap(buf, start, length) : super.getLexemeView();
+        }
+
+        @Override
+        public int getLexemeLength()
+        {
+            return buffer != null ? length : super.getLexemeLength();
+        }
+
+        @Override
+        public void copyLexeme(char[] dst, int dstStart)
+        {
+            char[] buf = buffer;
+            if(buf != null)
+                System.arraycopy(buf, start, dst, dstStart, length);
+            else
+                super.copyLexeme(dst, dstStart);
+        }
+
+        @Override
+        public boolean hasNumber()
+        {
+            return hasNumber;
+        }
+
+        @Override
+        public long getIntValue()
+        {
+            return hasNumber && getTokenID() == TID.TILIT ? number : super.getIntValue();
+        }
+
+        @Override
+        public double getFloatValue()
+        {
+            if(hasNumber)
+                return getTokenID() == TID.TFLIT ? Double.longBitsToDouble(number) : (double)number;
+            return super.getFloatValue();
+        }
+
+        @Override
+        public void setLexeme(String lex)
+        {
+            hasNumber = false;
+            super.setLexeme(lex);
+            buffer = null;
+        }
     }
 }
@@ -0,0 +1,606 @@
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.NoSuchElementException;
+
+/** TokenBuffer.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 17/10/2026
+ *
+ * Description:
+ * Compact token store for the CD18 compiler.
+ * Tokens are held in parallel int arrays (token ID ordinal, line, column, lexeme offset
+ * and length, name ID) rather than as Token objects. Lexemes of literals are copied
+ * into one shared char array, identifiers are kept as their name pool ID. The values of
+ * numeric literals are kept in a side array indexed from the name ID slot.
+ *
+ * The parser reads the buffer through a cursor. peek() and peekID() look ahead of the
+ * cursor without moving it, advance() returns the token at the cursor and moves past it,
+ * and mark() and rewind() save and restore the cursor to back out of a lookahead.
+ * The last Token built is kept, so peeking and then advancing returns the same object.
+ * Looking past the end of file token gives the end of file token again, so a rule that
+ * reads on past the end of a malformed program finds the end instead of failing.
+ *
+ * skipTo() is the parser's panic mode recovery. It moves the cursor on to the next token
+ * of a synchronisation set, and remembers the furthest point a skip has reached, so a
+ * token is passed over by recovery at most once however often the parser backs up.
+ *
+ * reader() gives another cursor over the same tokens, so that parts of a program
+ * can be read on separate threads once it has been scanned.
+ *
+ * A buffer created over a TokenSource streams instead. Tokens are pulled from the source
+ * as the parser reaches them and only the most recent window of tokens is kept.
+ *
+ */
+public class TokenBuffer
+{
+    private static final Token.TID[] TIDS = Token.TID.values();
+
+    private int[] kinds;
+    private int[] lines;
+    private int[] cols;
+    private int[] lexStarts;
+    private int[] lexLengths;
+    private int[] nameIDs;
+    private int size;
+
+    private char[] text;
+    private int textSize;
+
+    // Literal values, a numeric literal's name ID slot holds -2 - its index here
+    private long[] numbers;
+    private int numberCount;
+
+    private NamePool names;
+
+    // Source and ring of recent tokens when streaming
+    private TokenSource source;
+    private Token[] window;
+    private int windowMask;
+
+    // Cursor and the Token last built from the buffer
+    private int cursor;
+    private int builtIndex;
+    private Token built;
+
+    // Furthest position recovery has skipped to, and the number of tokens it has passed over
+    private int recovered;
+    private long skipped;
+
+    /** Constructor
+     *
+     * @param pool - NamePool, the pool the scanner interned identifiers in
+     */
+    public TokenBuffer(NamePool pool)
+    {
+        names = pool;
+        kinds = new int[1024];
+        lines = new int[1024];
+        cols = new int[1024];
+        lexStarts = new int[1024];
+        lexLengths = new int[1024];
+        nameIDs = new int[1024];
+        text = new char[4096];
+        numbers = new long[256];
+        size = 0;
+        textSize = 0;
+        numberCount = 0;
+        cursor = 0;
+        builtIndex = -1;
+        source = null;
+        window = null;
+    }
+
+    /** Constructor
+     *
+     * Creates a buffer that streams tokens from a source, keeping only a window of recent tokens
+     *
+     * @param src - TokenSource, the source tokens are pulled from
+     * @param pool - NamePool, the pool the scanner interned identifiers in
+     * @param windowSize - int, minimum number of recent tokens kept
+     */
+    public TokenBuffer(TokenSource src, NamePool pool, int windowSize)
+    {
+        names = pool;
+        source = src;
+
+        // Round the window up to a power of two so it can be indexed by mask
+        int capacity = Integer.highestOneBit(Math.max(windowSize, 2) - 1) << 1;
+        window = new Token[capacity];
+        windowMask = capacity - 1;
+
+        size = 0;
+        cursor = 0;
+        builtIndex = -1;
+    }
+
+    /** Constructor
+     *
+     * Creates a cursor over the tokens of another buffer
+     *
+     * @param other - TokenBuffer, the buffer holding the tokens
+     * @param position - int, where the cursor starts
+     */
+    private TokenBuffer(TokenBuffer other, int position)
+    {
+        names = other.names;
+        kinds = other.kinds;
+        lines = other.lines;
+        cols = other.cols;
+        lexStarts = other.lexStarts;
+        lexLengths = other.lexLengths;
+        nameIDs = other.nameIDs;
+        text = other.text;
+        numbers = other.numbers;
+        size = other.size;
+        textSize = other.textSize;
+        numberCount = other.numberCount;
+        cursor = position;
+        builtIndex = -1;
+        source = null;
+        window = null;
+    }
+
+    /** reader()
+     *
+     * Gives a cursor of its own over the tokens of this buffer. Tokens must not be
+     * added to the buffer while a reader is in use.
+     *
+     * @param position - int, where the reader's cursor starts
+     * @return - TokenBuffer, the reader
+     * @throws IllegalStateException - if the buffer is streaming
+     */
+    public TokenBuffer reader(int position)
+    {
+        if(window != null)
+            throw new IllegalStateException("A streaming buffer can't be read from two places");
+
+        return new TokenBuffer(this, position);
+    }
+
+    /** isStreaming()
+     *
+     * @return - boolean, true if the buffer keeps only a window of recent tokens
+     */
+    public boolean isStreaming()
+    {
+        return window != null;
+    }
+
+    /** add()
+     *
+     * Appends a token to the end of the buffer
+     *
+     * @param token - Token, the token to store
+     */
+    public void add(Token token)
+    {
+        if(window != null)
+        {
+            window[size++ & windowMask] = token;
+            return;
+        }
+
+        if(size == kinds.length)
+            grow(size + 1);
+
+        int length = token.getLexemeLength();
+
+        kinds[size] = token.getTokenID().ordinal();
+        lines[size] = token.getLineNum();
+        cols[size] = token.getColNum();
+        nameIDs[size] = token.getNameID();
+
+        // Identifiers are rebuilt from the name pool, other lexemes are copied into the text
+        if(length < 0 || token.getNameID() >= 0)
+        {
+            lexStarts[size] = 0;
+            lexLengths[size] = length < 0 ? -1 : 0;
+        }
+        else
+        {
+            if(textSize + length > text.length)
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + length));
+
+            token.copyLexeme(text, textSize);
+            lexStarts[size] = textSize;
+            lexLengths[size] = length;
+            textSize += length;
+
+            if(token.hasNumber())
+            {
+                if(numberCount == numbers.length)
+                    numbers = Arrays.copyOf(numbers, numberCount * 2);
+
+                if(token.getTokenID() == Token.TID.TFLIT)
+                    numbers[numberCount] = Double.doubleToRawLongBits(token.getFloatValue());
+                else
+                    numbers[numberCount] = token.getIntValue();
+                nameIDs[size] = -2 - numberCount++;
+            }
+        }
+        size++;
+    }
+
+    /** append()
+     *
+     * Appends tokens from another buffer, moving them down a number of lines.
+     * Identifiers are interned into this buffer's pool in the order they first appear,
+     * so names get the same IDs as if the tokens had been added one at a time.
+     *
+     * @param other - TokenBuffer, the buffer holding the tokens
+     * @param count - int, the number of tokens to take from the front of the other buffer
+     * @param lineOffset - int, the number of lines to add to each line number
+     */
+    public void append(TokenBuffer other, int count, int lineOffset)
+    {
+        if(window != null || other.window != null)
+            throw new IllegalStateException("Streaming buffers cannot be appended");
+
+        if(size + count > kinds.length)
+            grow(size + count);
+
+        // The other buffer's literal text and values are copied as one block
+        if(textSize + other.textSize > text.length)
+            text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + other.textSize));
+        System.arraycopy(other.text, 0, text, textSize, other.textSize);
+
+        if(numberCount + other.numberCount > numbers.length)
+            numbers = Arrays.copyOf(numbers, Math.max(numbers.length * 2, numberCount + other.numberCount));
+        System.arraycopy(other.numbers, 0, numbers, numberCount, other.numberCount);
+
+        System.arraycopy(other.kinds, 0, kinds, size, count);
+        System.arraycopy(other.cols, 0, cols, size, count);
+        System.arraycopy(other.lexLengths, 0, lexLengths, size, count);
+
+        int[] idMap = new int[other.names.size()];
+        Arrays.fill(idMap, -1);
+
+        for(int i = 0; i < count; i++)
+        {
+            int id = other.nameIDs[i];
+
+            if(id >= 0)
+            {
+                if(idMap[id] < 0)
+                    idMap[id] = names.intern(other.names.getName(id));
+                id = idMap[id];
+            }
+            else if(id < -1)
+                id -= numberCount;
+
+            lines[size + i] = other.lines[i] + lineOffset;
+            lexStarts[size + i] = other.lexStarts[i] + textSize;
+            nameIDs[size + i] = id;
+        }
+
+        textSize += other.textSize;
+        numberCount += other.numberCount;
+        size += count;
+    }
+
+    /** peek()
+     *
+     * Returns a token ahead of the cursor without moving the cursor
+     *
+     * @param ahead - int, how far past the cursor the token is, 0 for the token at the cursor
+     * @return - Token, the token, or the end of file token if the token is past it
+     * @throws NoSuchElementException - if the tokens end before the token without an end of file token
+     */
+    public Token peek(int ahead)
+    {
+        int index = cursor + ahead;
+
+        if(!fill(index))
+            index = endOfFile();
+
+        if(index != builtIndex)
+        {
+            built = getToken(index);
+            builtIndex = index;
+        }
+        return built;
+    }
+
+    /** peekID()
+     *
+     * Returns the ID of a token ahead of the cursor without building the Token
+     *
+     * @param ahead - int, how far past the cursor the token is, 0 for the token at the cursor
+     * @return - Token.TID, the token ID, TEOF if the token is past the end of file token
+     * @throws NoSuchElementException - if the tokens end before the token without an end of file token
+     */
+    public Token.TID peekID(int ahead)
+    {
+        int index = cursor + ahead;
+
+        if(!fill(index))
+            index = endOfFile();
+
+        return getTokenID(index);
+    }
+
+    /** advance()
+     *
+     * Returns the token at the cursor and moves the cursor past it
+     *
+     * @return - Token, the next token, the end of file token once the cursor is past it
+     * @throws NoSuchElementException - if the tokens end at the cursor without an end of file token
+     */
+    public Token advance()
+    {
+        Token token = peek(0);
+        cursor++;
+        return token;
+    }
+
+    /** mark()
+     *
+     * @return - int, the cursor position, to be passed to rewind()
+     */
+    public int mark()
+    {
+        return cursor;
+    }
+
+    /** rewind()
+     *
+     * Moves the cursor back to a position returned by mark().
+     * When streaming, the position must still be inside the window.
+     *
+     * @param position - int, the position to return to
+     */
+    public void rewind(int position)
+    {
+        cursor = position;
+    }
+
+    /** restart()
+     *
+     * Moves the cursor back to a position to read the program again from there,
+     * forgetting what recovery has skipped so far
+     *
+     * @param position - int, the position to return to
+     */
+    public void restart(int position)
+    {
+        cursor = position;
+        recovered = position;
+        skipped = 0;
+    }
+
+    /** skipTo()
+     *
+     * Panic mode recovery. Passes over tokens until one whose ID is in the synchronisation
+     * set, or the end of file token, is at the cursor. A skip that starts behind the
+     * furthest point an earlier skip reached carries on from that point, those tokens
+     * have been passed over already, so recovery costs at most one step per token.
+     *
+     * @param sync - EnumSet<Token.TID>, the IDs of the tokens recovery may stop at
+     * @return - Token, the token at the cursor
+     */
+    public Token skipTo(EnumSet<Token.TID> sync)
+    {
+        if(cursor < recovered)
+            cursor = recovered;
+
+        Token.TID id = peekID(0);
+        while(id != Token.TID.TEOF && !sync.contains(id))
+        {
+            cursor++;
+            skipped++;
+            id = peekID(0);
+        }
+        recovered = cursor;
+
+        return peek(0);
+    }
+
+    /** getSkipped()
+     *
+     * @return - long, the number of tokens recovery has passed over
+     */
+    public long getSkipped()
+    {
+        return skipped;
+    }
+
+    /** getToken()
+     *
+     * Builds the Token stored at an index
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - Token, the token at the index
+     */
+    public Token getToken(int index)
+    {
+        if(window != null)
+            return windowToken(index);
+
+        int id = nameIDs[index];
+
+        if(id >= 0)
+            return new Token(TIDS[kinds[index]], lines[index], cols[index], names.getName(id), id);
+        if(lexLengths[index] < 0)
+            return new Token(TIDS[kinds[index]], lines[index], cols[index], null, -1);
+
+        // Literals are views into the text, numeric ones with their value
+        if(id < -1)
+            return Token.literal(TIDS[kinds[index]], text, lexStarts[index], lexLengths[index], lines[index], cols[index], numbers[-2 - id]);
+        return Token.literal(TIDS[kinds[index]], text, lexStarts[index], lexLengths[index], lines[index], cols[index]);
+    }
+
+    /** getTokenID()
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - Token.TID, the token ID
+     */
+    public Token.TID getTokenID(int index)
+    {
+        if(window != null)
+            return windowToken(index).getTokenID();
+
+        return TIDS[kinds[index]];
+    }
+
+    /** getLineNum()
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - int, line number of the token
+     */
+    public int getLineNum(int index)
+    {
+        if(window != null)
+            return windowToken(index).getLineNum();
+
+        return lines[index];
+    }
+
+    /** getColNum()
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - int, column number of the token
+     */
+    public int getColNum(int index)
+    {
+        if(window != null)
+            return windowToken(index).getColNum();
+
+        return cols[index];
+    }
+
+    /** getNameID()
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - int, name pool ID of an identifier or -1
+     */
+    public int getNameID(int index)
+    {
+        if(window != null)
+            return windowToken(index).getNameID();
+
+        return Math.max(nameIDs[index], -1);
+    }
+
+    /** getLexeme()
+     *
+     * @param index - int, index of the token in the buffer
+     * @return - String, lexeme of the token or null if it has none
+     */
+    public String getLexeme(int index)
+    {
+        if(window != null)
+            return windowToken(index).getLexeme();
+
+        if(nameIDs[index] >= 0)
+            return names.getName(nameIDs[index]);
+        if(lexLengths[index] < 0)
+            return null;
+        return new String(text, lexStarts[index], lexLengths[index]);
+    }
+
+    /** drain()
+     *
+     * Reads the rest of a streaming source so the scanner has seen the whole program
+     */
+    public void drain()
+    {
+        while(fill(size))
+        {
+        }
+    }
+
+    /** size()
+     *
+     * @return - int, the number of tokens in the buffer, or read from the source so far when streaming
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /** position()
+     *
+     * @return - int, index of the next token to be read from the buffer
+     */
+    public int position()
+    {
+        return cursor;
+    }
+
+    /** getNamePool()
+     *
+     * @return - NamePool, the pool identifier names are held in
+     */
+    public NamePool getNamePool()
+    {
+        return names;
+    }
+
+    /** fill()
+     *
+     * Pulls tokens from a streaming source until the index has been read
+     *
+     * @param index - int, index of a token
+     * @return - boolean, true if the token at the index has been read
+     */
+    private boolean fill(int index)
+    {
+        while(index >= size && source != null)
+        {
+            Token token = source.nextToken();
+
+            if(token == null)
+                source = null;
+            else
+                add(token);
+        }
+        return index < size;
+    }
+
+    /** endOfFile()
+     *
+     * @return - int, index of the end of file token the tokens end with
+     * @throws NoSuchElementException - if the tokens don't end with an end of file token
+     */
+    private int endOfFile()
+    {
+        if(size == 0 || getTokenID(size - 1) != Token.TID.TEOF)
+            throw new NoSuchElementException();
+
+        return size - 1;
+    }
+
+    /** windowToken()
+     *
+     * @param index - int, index of a token
+     * @return - Token, the token at the index from the streaming window
+     * @throws IndexOutOfBoundsException - if the token is past the end or has left the window
+     */
+    private Token windowToken(int index)
+    {
+        if(!fill(index) || index < size - window.length)
+            throw new IndexOutOfBoundsException("Token " + index + " is not in the window");
+
+        return window[index & windowMask];
+    }
+
+    /** grow()
+     *
+     * Doubles the capacity of the token arrays, or more if needed
+     *
+     * @param minCapacity - int, the number of tokens the arrays must hold
+     */
+    private void grow(int minCapacity)
+    {
+        int capacity = Math.max(kinds.length * 2, minCapacity);
+        kinds = Arrays.copyOf(kinds, capacity);
+        lines = Arrays.copyOf(lines, capacity);
+        cols = Arrays.copyOf(cols, capacity);
+        lexStarts = Arrays.copyOf(lexStarts, capacity);
+        lexLengths = Arrays.copyOf(lexLengths, capacity);
+        nameIDs = Arrays.copyOf(nameIDs, capacity);
+    }
+}
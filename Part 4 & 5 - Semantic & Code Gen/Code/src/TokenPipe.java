@@ -0,0 +1,132 @@
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/** TokenPipe.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * Runs a CD18Scanner on its own thread so lexing overlaps with parsing.
+ * Tokens are handed over in batches through a bounded ring buffer, the scanner
+ * blocks when the parser falls more than a few batches behind.
+ *
+ */
+public class TokenPipe implements TokenSource
+{
+    private static final Token[] END = new Token[0];
+
+    private ArrayBlockingQueue<Token[]> ring;
+    private Thread producer;
+    private volatile RuntimeException failure;
+
+    private Token[] batch;
+    private int next;
+    private boolean done;
+
+    /** Constructor
+     *
+     * Starts the scanner thread
+     *
+     * @param scanner - CD18Scanner, the scanner to run
+     * @param batchSize - int, number of tokens handed over at a time
+     * @param batches - int, number of batches the ring buffer holds
+     */
+    public TokenPipe(CD18Scanner scanner, int batchSize, int batches)
+    {
+        ring = new ArrayBlockingQueue<>(batches);
+        batch = END;
+        next = 0;
+        done = false;
+
+        // The parser interns struct member names while the scanner interns identifiers
+        scanner.getNamePool().setShared(true);
+
+        producer = new Thread(() -> produce(scanner, batchSize), "CD18Scanner");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    /** produce()
+     *
+     * Scans the source into batches until TEOF has been handed over
+     *
+     * @param scanner - CD18Scanner, the scanner to run
+     * @param batchSize - int, number of tokens handed over at a time
+     */
+    private void produce(CD18Scanner scanner, int batchSize)
+    {
+        try
+        {
+            Token[] tokens = new Token[batchSize];
+            int count = 0;
+
+            while(!scanner.eof())
+            {
+                tokens[count++] = scanner.getToken();
+
+                if(count == batchSize || scanner.eof())
+                {
+                    ring.put(count == batchSize ? tokens : Arrays.copyOf(tokens, count));
+                    tokens = new Token[batchSize];
+                    count = 0;
+                }
+            }
+        }
+        catch(InterruptedException e)
+        {
+            return;
+        }
+        catch(RuntimeException e)
+        {
+            failure = e;
+        }
+
+        try
+        {
+            ring.put(END);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** nextToken()
+     *
+     * Takes the next token from the ring buffer, waiting for the scanner if it is empty
+     *
+     * @return - Token, the next token or null once TEOF has been returned
+     */
+    @Override
+    public Token nextToken()
+    {
+        if(next == batch.length)
+        {
+            if(done)
+                return null;
+
+            try
+            {
+                batch = ring.take();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            next = 0;
+
+            if(batch == END)
+            {
+                done = true;
+                if(failure != null)
+                    throw failure;
+                return null;
+            }
+        }
+        return batch[next++];
+    }
+}
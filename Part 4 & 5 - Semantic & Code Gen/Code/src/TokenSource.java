@@ -0,0 +1,21 @@
+/** TokenSource.java
+ *
+ * Author: agent agent@local
+ *
+ * Created: 16/10/2026
+ * Updated: 16/10/2026
+ *
+ * Description:
+ * A stream of tokens the parser can pull from on demand, such as the scanner itself.
+ *
+ */
+public interface TokenSource
+{
+    /** nextToken()
+     *
+     * Returns the next token of the stream. The last token returned is TEOF.
+     *
+     * @return - Token, the next token or null once TEOF has been returned
+     */
+    Token nextToken();
+}